@@ -1,14 +1,21 @@
 package com.oneops.api;
 
-import org.apache.commons.codec.binary.Base64;
+import java.nio.charset.StandardCharsets;
 
-import com.jayway.restassured.RestAssured;
-import com.jayway.restassured.config.SSLConfig;
-import com.jayway.restassured.specification.RequestSpecification;
+import com.google.common.io.BaseEncoding;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.JdkHttpTransport;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.journal.DeploymentJournal;
+import com.oneops.api.resource.DesignSnapshotCache;
+import com.oneops.api.traffic.RecordingTransport;
 
 public abstract class APIClient {
 	
+	private static final HttpTransport DEFAULT_TRANSPORT = new JdkHttpTransport();
+	
 	OOInstance instance;
 
 	public APIClient(OOInstance instance) throws OneOpsClientAPIException {
@@ -24,22 +31,44 @@ public abstract class APIClient {
 		}
 	}
 	
-	protected RequestSpecification createRequest() {
-		RequestSpecification rs = RestAssured.given();
-		String basicAuth = "Basic " + new String(Base64.encodeBase64(instance.getAuthtoken().getBytes()));
+	protected ApiRequest createRequest() {
+		HttpTransport transport = instance.getTransport() != null ? instance.getTransport() : DEFAULT_TRANSPORT;
+		if(instance.getTrafficRecorder() != null) {
+			transport = new RecordingTransport(transport, instance.getTrafficRecorder());
+		}
+		transport = FlightRecorderSupport.instrument(transport);
+		
+		String baseUri = instance.getEndpoint();
+		if(instance.getOrgname() != null) {
+			baseUri += instance.getOrgname();
+		}
+		ApiRequest rs = new ApiRequest(transport, baseUri);
+		String basicAuth = "Basic " + BaseEncoding.base64().encode(instance.getAuthtoken().getBytes(StandardCharsets.UTF_8));
 		rs.header("Authorization", basicAuth);
 		rs.header("User-Agent", "OneOpsAPIClient");
 		rs.header("Accept", "application/json");
 		rs.header("Content-Type", "application/json");
-		String baseUri = instance.getEndpoint();
-		if(instance.getOrgname() != null) {
-			baseUri += instance.getOrgname();
+		if(instance.isGzipEnabled()) {
+			rs.header("Accept-Encoding", "gzip");
 		}
-		rs.baseUri(baseUri);
-		rs.config(RestAssured.config().sslConfig(
-				new SSLConfig().relaxedHTTPSValidation()));
+		rs.deduplicateStrings(instance.isStringDeduplication());
+		rs.lazyAttributes(instance.isLazyAttributes());
 		return rs;
 	}
 	
+	/**
+	 * @return journal of deployment state changes, null if none is set on the instance
+	 */
+	protected DeploymentJournal getDeploymentJournal() {
+		return instance.getDeploymentJournal();
+	}
+	
+	/**
+	 * @return cache of design snapshots, null if none is set on the instance
+	 */
+	protected DesignSnapshotCache getDesignSnapshotCache() {
+		return instance.getDesignSnapshotCache();
+	}
+	
 	
 }
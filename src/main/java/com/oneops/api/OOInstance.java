@@ -1,6 +1,11 @@
 package com.oneops.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.journal.DeploymentJournal;
+import com.oneops.api.resource.DesignSnapshotCache;
+import com.oneops.api.traffic.TrafficRecorder;
 
 @JsonIgnoreProperties(ignoreUnknown=true)
 public class OOInstance {
@@ -15,6 +20,16 @@ public class OOInstance {
 	private String component;
 	private String comment;
 	private boolean gzipEnabled = true;
+	private boolean stringDeduplication;
+	private boolean lazyAttributes;
+	@JsonIgnore
+	private TrafficRecorder trafficRecorder;
+	@JsonIgnore
+	private HttpTransport transport;
+	@JsonIgnore
+	private DeploymentJournal deploymentJournal;
+	@JsonIgnore
+	private DesignSnapshotCache designSnapshotCache;
 	
 	public String getName() {
 		return name;
@@ -76,4 +91,83 @@ public class OOInstance {
 	public void setGzipEnabled(boolean gzipEnabled) {
 		this.gzipEnabled = gzipEnabled;
 	}
+	public boolean isStringDeduplication() {
+		return stringDeduplication;
+	}
+	/**
+	 * Shares a single instance of repeated values such as nsPath, ciClassName or attribute values 
+	 * across the CiResource, RfcCi and CiAttributes objects decoded from one response. 
+	 * Trades some decode time for a smaller heap on large listings.
+	 * 
+	 * @param stringDeduplication
+	 */
+	public void setStringDeduplication(boolean stringDeduplication) {
+		this.stringDeduplication = stringDeduplication;
+	}
+	public boolean isLazyAttributes() {
+		return lazyAttributes;
+	}
+	/**
+	 * Keeps ciAttributes and ciAttrProps of decoded CiResource and RfcCi objects as raw JSON
+	 * until one of their accessors is called. Speeds up scans that only read top level fields.
+	 * 
+	 * @param lazyAttributes
+	 */
+	public void setLazyAttributes(boolean lazyAttributes) {
+		this.lazyAttributes = lazyAttributes;
+	}
+	@JsonIgnore
+	public TrafficRecorder getTrafficRecorder() {
+		return trafficRecorder;
+	}
+	/**
+	 * Records every request/response pair made through this instance, see {@link com.oneops.api.traffic.ReplayServer}
+	 * 
+	 * @param trafficRecorder
+	 */
+	@JsonIgnore
+	public void setTrafficRecorder(TrafficRecorder trafficRecorder) {
+		this.trafficRecorder = trafficRecorder;
+	}
+	@JsonIgnore
+	public HttpTransport getTransport() {
+		return transport;
+	}
+	/**
+	 * HTTP transport used by all resource clients of this instance, 
+	 * defaults to {@link com.oneops.api.http.JdkHttpTransport}
+	 * 
+	 * @param transport
+	 */
+	@JsonIgnore
+	public void setTransport(HttpTransport transport) {
+		this.transport = transport;
+	}
+	@JsonIgnore
+	public DeploymentJournal getDeploymentJournal() {
+		return deploymentJournal;
+	}
+	/**
+	 * Journals the deployment and RFC state changes seen by the clients of this instance
+	 * 
+	 * @param deploymentJournal
+	 */
+	@JsonIgnore
+	public void setDeploymentJournal(DeploymentJournal deploymentJournal) {
+		this.deploymentJournal = deploymentJournal;
+	}
+	@JsonIgnore
+	public DesignSnapshotCache getDesignSnapshotCache() {
+		return designSnapshotCache;
+	}
+	/**
+	 * Serves design listings from snapshots revalidated against the latest release, 
+	 * see {@link DesignSnapshotCache}
+	 * 
+	 * @param designSnapshotCache
+	 */
+	@JsonIgnore
+	public void setDesignSnapshotCache(DesignSnapshotCache designSnapshotCache) {
+		this.designSnapshotCache = designSnapshotCache;
+	}
 }
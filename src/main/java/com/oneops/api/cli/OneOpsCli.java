@@ -0,0 +1,185 @@
+package com.oneops.api.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.Transition;
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.traffic.ReplayServer;
+import com.oneops.api.traffic.TrafficLog;
+import com.oneops.api.traffic.TrafficRecord;
+
+/**
+ * Command line entry point for short lived invocations, e.g. one deployment status check per cron run.
+ *
+ * Only the resource client needed by the command is created. Connection settings are taken from
+ * {@code --endpoint}, {@code --org} and {@code --token} or the ONEOPS_ENDPOINT, ONEOPS_ORG and
+ * ONEOPS_AUTHTOKEN environment variables.
+ *
+ * <pre>
+ * java -cp oneops-client.jar:... com.oneops.api.cli.OneOpsCli deployment-status myAssembly qa [deploymentId]
+ * </pre>
+ *
+ * Exit codes are 0 on success, 1 when the call failed and 2 on invalid usage. The {@code training}
+ * command runs the same code path against an in-process replay server and is what the
+ * {@code appcds} build profile uses to dump a class data sharing archive. With 
+ * {@code -Doneops.cli.timing=true} the JVM uptime and loaded class count at the first 
+ * completed request are printed to stderr, which is the startup benchmark for this entry point.
+ */
+public final class OneOpsCli {
+
+	static final int OK = 0;
+	static final int FAILED = 1;
+	static final int USAGE = 2;
+
+	private static final String USAGE_TEXT = "usage: OneOpsCli [--endpoint url] [--org name] [--token token] deployment-status <assembly> <environment> [deploymentId]";
+
+	private final Map<String, String> options = new HashMap<String, String>();
+	private final PrintStream out;
+	private final PrintStream err;
+	private boolean timed;
+
+	OneOpsCli(Map<String, String> env, PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+		options.put("endpoint", env.get("ONEOPS_ENDPOINT"));
+		options.put("org", env.get("ONEOPS_ORG"));
+		options.put("token", env.get("ONEOPS_AUTHTOKEN"));
+	}
+
+	public static void main(String[] args) {
+		System.exit(new OneOpsCli(System.getenv(), System.out, System.err).run(args));
+	}
+
+	int run(String[] args) {
+		int i = 0;
+		while(i + 1 < args.length && args[i].startsWith("--")) {
+			options.put(args[i].substring(2), args[i + 1]);
+			i += 2;
+		}
+		if(i >= args.length) {
+			err.println(USAGE_TEXT);
+			return USAGE;
+		}
+		String command = args[i];
+		List<String> arguments = Arrays.asList(args).subList(i + 1, args.length);
+		try {
+			switch (command) {
+			case "deployment-status":
+				return deploymentStatus(arguments);
+			case "training":
+				return training();
+			default:
+				err.println(USAGE_TEXT);
+				return USAGE;
+			}
+		} catch (OneOpsClientAPIException e) {
+			err.println(e.getMessage());
+			return FAILED;
+		} catch (IllegalStateException e) {
+			// response body that does not decode to the expected model
+			err.println(e.getMessage());
+			return FAILED;
+		}
+	}
+
+	private OOInstance instance() throws OneOpsClientAPIException {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint(options.get("endpoint"));
+		instance.setOrgname(options.get("org"));
+		instance.setAuthtoken(options.get("token"));
+		if(instance.getEndpoint() != null && !instance.getEndpoint().endsWith("/")) {
+			instance.setEndpoint(instance.getEndpoint() + "/");
+		}
+		if(instance.getOrgname() == null) {
+			throw new OneOpsClientAPIException("Missing organization, use --org or ONEOPS_ORG");
+		}
+		return instance;
+	}
+
+	/**
+	 * Prints deployment id and state, latest deployment unless an id is given
+	 *
+	 * @param arguments
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	private int deploymentStatus(List<String> arguments) throws OneOpsClientAPIException {
+		if(arguments.size() < 2) {
+			err.println(USAGE_TEXT);
+			return USAGE;
+		}
+		Transition transition = new Transition(instance(), arguments.get(0));
+		Deployment deployment;
+		if(arguments.size() > 2) {
+			Long deploymentId;
+			try {
+				deploymentId = Long.valueOf(arguments.get(2));
+			} catch (NumberFormatException e) {
+				err.println("Invalid deployment id " + arguments.get(2));
+				return USAGE;
+			}
+			deployment = transition.getDeploymentStatus(arguments.get(1), deploymentId);
+		} else {
+			deployment = transition.getLatestDeployment(arguments.get(1));
+		}
+		reportTiming();
+		if(deployment == null) {
+			err.println("No deployment found in environment " + arguments.get(1));
+			return FAILED;
+		}
+		out.println(deployment.getDeploymentId() + " " + deployment.getDeploymentState());
+		return OK;
+	}
+	
+	private void reportTiming() {
+		if(timed || !Boolean.getBoolean("oneops.cli.timing")) {
+			return;
+		}
+		timed = true;
+		err.println(String.format("first request completed at %d ms uptime, %d classes loaded", 
+				ManagementFactory.getRuntimeMXBean().getUptime(), ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()));
+	}
+
+	/**
+	 * Exercises the deployment-status path against canned responses, used as the AppCDS training run
+	 *
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	private int training() throws OneOpsClientAPIException {
+		String deployment = "{\"deploymentId\":1,\"releaseId\":2,\"nsPath\":\"/training/a1/qa/bom\",\"deploymentState\":\"complete\"}";
+		ReplayServer server = new ReplayServer(new TrafficLog(Arrays.asList(
+				record("/training/assemblies/a1/transition/environments/qa/deployments/latest", deployment),
+				record("/training/assemblies/a1/transition/environments/qa/deployments/1/status", deployment))));
+		try {
+			server.start(0, 1);
+			options.put("endpoint", server.getEndpoint());
+			options.put("org", "training");
+			options.put("token", "training");
+			int result = deploymentStatus(Arrays.asList("a1", "qa"));
+			return result == OK ? deploymentStatus(Arrays.asList("a1", "qa", "1")) : result;
+		} catch (IOException e) {
+			throw new OneOpsClientAPIException("Failed to start training server", e);
+		} finally {
+			server.stop();
+		}
+	}
+
+	private static TrafficRecord record(String path, String body) {
+		TrafficRecord record = new TrafficRecord();
+		record.setMethod("GET");
+		record.setPath(path);
+		record.setStatus(200);
+		record.setContentType("application/json");
+		record.setResponseBody(body);
+		return record;
+	}
+}
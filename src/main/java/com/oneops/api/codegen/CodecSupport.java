@@ -0,0 +1,125 @@
+package com.oneops.api.codegen;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.PropertyMetadata;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+
+/**
+ * Runtime helpers called by the codecs {@link JsonCodecProcessor} generates
+ */
+public final class CodecSupport {
+
+	private CodecSupport() {
+	}
+
+	/**
+	 * Moves past START_OBJECT
+	 * 
+	 * @return the first FIELD_NAME or END_OBJECT token
+	 */
+	public static JsonToken startObject(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+		JsonToken t = p.getCurrentToken();
+		if(t == JsonToken.START_OBJECT) {
+			return p.nextToken();
+		}
+		if(t == JsonToken.FIELD_NAME || t == JsonToken.END_OBJECT) {
+			return t;
+		}
+		throw ctxt.mappingException(type, t);
+	}
+
+	/**
+	 * Finds the deserializer of a property, or instantiates the one given by its {@code @JsonDeserialize(using = ...)}
+	 * 
+	 * @param ctxt
+	 * @param type
+	 * @param name
+	 * @param using null for the default deserializer of the type
+	 * @return
+	 * @throws JsonMappingException
+	 */
+	@SuppressWarnings("unchecked")
+	public static JsonDeserializer<Object> find(DeserializationContext ctxt, JavaType type, String name, Class<?> using) throws JsonMappingException {
+		BeanProperty property = new BeanProperty.Std(PropertyName.construct(name), type, null, null, null, PropertyMetadata.STD_OPTIONAL);
+		if(using == null) {
+			return ctxt.findContextualValueDeserializer(type, property);
+		}
+		JsonDeserializer<?> deserializer;
+		try {
+			deserializer = (JsonDeserializer<?>) using.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw ctxt.instantiationException(using, e);
+		}
+		if(deserializer instanceof ContextualDeserializer) {
+			deserializer = ((ContextualDeserializer) deserializer).createContextual(ctxt, property);
+		}
+		return (JsonDeserializer<Object>) deserializer;
+	}
+
+	public static Object read(JsonParser p, DeserializationContext ctxt, JsonDeserializer<Object> deserializer) throws IOException {
+		if(p.getCurrentToken() == JsonToken.VALUE_NULL) {
+			return deserializer.getNullValue(ctxt);
+		}
+		return deserializer.deserialize(p, ctxt);
+	}
+
+	public static Long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+		JsonToken t = p.getCurrentToken();
+		if(t == JsonToken.VALUE_NUMBER_INT) {
+			return p.getLongValue();
+		}
+		if(t == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		return ctxt.readValue(p, Long.class);
+	}
+
+	public static Integer readInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+		JsonToken t = p.getCurrentToken();
+		if(t == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+			return p.getIntValue();
+		}
+		if(t == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		return ctxt.readValue(p, Integer.class);
+	}
+
+	public static Boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+		JsonToken t = p.getCurrentToken();
+		if(t == JsonToken.VALUE_TRUE) {
+			return Boolean.TRUE;
+		}
+		if(t == JsonToken.VALUE_FALSE) {
+			return Boolean.FALSE;
+		}
+		if(t == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		return ctxt.readValue(p, Boolean.class);
+	}
+
+	public static void writeValue(JsonGenerator gen, SerializerProvider provider, String name, Object value) throws IOException {
+		gen.writeFieldName(name);
+		provider.defaultSerializeValue(value, gen);
+	}
+
+	public static void writeAny(JsonGenerator gen, SerializerProvider provider, Map<String, Object> values) throws IOException {
+		for (Entry<String, Object> entry : values.entrySet()) {
+			writeValue(gen, provider, entry.getKey(), entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.oneops.api.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model class for which {@link JsonCodecProcessor} generates a Jackson deserializer and 
+ * serializer calling the accessors directly. The generated classes are registered by the 
+ * {@code GeneratedCodecModule} of the model package.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GeneratedCodec {
+}
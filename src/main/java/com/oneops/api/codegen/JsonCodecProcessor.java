@@ -0,0 +1,494 @@
+package com.oneops.api.codegen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a Jackson deserializer and serializer for each class annotated with {@link GeneratedCodec},
+ * plus a {@code GeneratedCodecModule} per package registering them.
+ *
+ * Properties are taken from the {@code @JsonProperty} annotated fields and accessors the way Jackson
+ * sees them: a field and its accessors declared under different names are two properties sharing the
+ * same getter and setter, {@code @JsonPropertyOrder} comes first and the remaining properties follow in
+ * declaration order. {@code @JsonAnySetter}/{@code @JsonAnyGetter}, {@code @JsonDeserialize(using = ...)},
+ * {@code @JsonInclude(NON_NULL)} and {@code @JsonIgnoreProperties(ignoreUnknown = true)} are honoured,
+ * other Jackson annotations are not, so only plain models should be annotated.
+ *
+ * String, Long, Integer and Boolean properties are read and written inline, strings go through the
+ * {@link com.oneops.api.util.StringPool} of the decode if there is one. Other types are delegated to
+ * the deserializer Jackson resolves for the property type.
+ */
+@SupportedAnnotationTypes("com.oneops.api.codegen.GeneratedCodec")
+public class JsonCodecProcessor extends AbstractProcessor {
+
+	private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+	private static final String JSON_PROPERTY_ORDER = "com.fasterxml.jackson.annotation.JsonPropertyOrder";
+	private static final String JSON_INCLUDE = "com.fasterxml.jackson.annotation.JsonInclude";
+	private static final String JSON_IGNORE_PROPERTIES = "com.fasterxml.jackson.annotation.JsonIgnoreProperties";
+	private static final String JSON_ANY_GETTER = "com.fasterxml.jackson.annotation.JsonAnyGetter";
+	private static final String JSON_ANY_SETTER = "com.fasterxml.jackson.annotation.JsonAnySetter";
+	private static final String JSON_DESERIALIZE = "com.fasterxml.jackson.databind.annotation.JsonDeserialize";
+
+	private final Map<String, List<String>> codecsByPackage = new TreeMap<String, List<String>>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(GeneratedCodec.class))) {
+			try {
+				Model model = new Model(type);
+				write(model.qualifiedName + "Codec", model.source(), type);
+				String pkg = model.packageName;
+				if(!codecsByPackage.containsKey(pkg)) {
+					codecsByPackage.put(pkg, new ArrayList<String>());
+				}
+				codecsByPackage.get(pkg).add(model.simpleName);
+			} catch (IllegalArgumentException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+			}
+		}
+		if(!codecsByPackage.isEmpty() && !roundEnv.processingOver()) {
+			for (Map.Entry<String, List<String>> entry : codecsByPackage.entrySet()) {
+				write(entry.getKey() + ".GeneratedCodecModule", moduleSource(entry.getKey(), entry.getValue()), null);
+			}
+			codecsByPackage.clear();
+		}
+		return true;
+	}
+
+	private void write(String name, String source, Element origin) {
+		try {
+			Writer writer = origin == null ? processingEnv.getFiler().createSourceFile(name).openWriter()
+					: processingEnv.getFiler().createSourceFile(name, origin).openWriter();
+			try {
+				writer.write(source);
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + name + ": " + e.getMessage(), origin);
+		}
+	}
+
+	private static String moduleSource(String pkg, List<String> models) {
+		Source s = new Source();
+		s.line("package " + pkg + ";");
+		s.line("");
+		s.line("/**");
+		s.line(" * Registers the codecs generated by " + JsonCodecProcessor.class.getName() + ", do not edit");
+		s.line(" */");
+		s.line("public final class GeneratedCodecModule extends com.fasterxml.jackson.databind.module.SimpleModule {");
+		s.line("");
+		s.line("\tprivate static final long serialVersionUID = 1L;");
+		s.line("");
+		s.line("\tpublic GeneratedCodecModule() {");
+		s.line("\t\tsuper(\"GeneratedCodecModule\");");
+		for (String model : models) {
+			s.line("\t\taddDeserializer(" + model + ".class, new " + model + "Codec.Deserializer());");
+			s.line("\t\taddSerializer(" + model + ".class, new " + model + "Codec.Serializer());");
+		}
+		s.line("\t}");
+		s.line("}");
+		return s.toString();
+	}
+
+	private static final class Property {
+		final String name;
+		String field;
+		TypeMirror type;
+		String getter;
+		String setter;
+		String using;
+
+		Property(String name) {
+			this.name = name;
+		}
+
+		String kind() {
+			String t = type.toString();
+			if("java.lang.String".equals(t)) {
+				return "String";
+			}
+			if("java.lang.Long".equals(t)) {
+				return "Long";
+			}
+			if("java.lang.Integer".equals(t)) {
+				return "Integer";
+			}
+			if("java.lang.Boolean".equals(t)) {
+				return "Boolean";
+			}
+			return null;
+		}
+
+		boolean inline() {
+			return using == null && kind() != null;
+		}
+	}
+
+	private final class Model {
+		final String packageName;
+		final String simpleName;
+		final String qualifiedName;
+		final Map<String, Property> properties = new LinkedHashMap<String, Property>();
+		final List<Property> ordered = new ArrayList<Property>();
+		final Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+		String anySetter;
+		String anyGetter;
+		boolean nonNull;
+		boolean ignoreUnknown;
+
+		Model(TypeElement type) {
+			if(type.getKind() != ElementKind.CLASS || !type.getTypeParameters().isEmpty()) {
+				throw new IllegalArgumentException("@GeneratedCodec needs a non generic class");
+			}
+			packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+			simpleName = type.getSimpleName().toString();
+			qualifiedName = type.getQualifiedName().toString();
+			nonNull = "NON_NULL".equals(valueOf(type, JSON_INCLUDE, "value"));
+			ignoreUnknown = Boolean.TRUE.equals(valueOf(type, JSON_IGNORE_PROPERTIES, "ignoreUnknown"));
+
+			for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+				String name = propertyName(field, field.getSimpleName().toString());
+				if(name != null) {
+					Property p = property(name);
+					p.field = field.getSimpleName().toString();
+					p.type = field.asType();
+					if(p.using == null) {
+						p.using = deserializerOf(field);
+					}
+				}
+			}
+			for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+				String m = method.getSimpleName().toString();
+				methods.put(m + "/" + method.getParameters().size(), method);
+				if(annotation(method, JSON_ANY_SETTER) != null) {
+					anySetter = m;
+					continue;
+				}
+				if(annotation(method, JSON_ANY_GETTER) != null) {
+					anyGetter = m;
+					continue;
+				}
+				String name = propertyName(method, beanName(m));
+				if(name == null) {
+					continue;
+				}
+				Property p = property(name);
+				if(method.getParameters().size() == 1 && m.startsWith("set")) {
+					p.setter = m;
+					p.type = method.getParameters().get(0).asType();
+					String using = deserializerOf(method);
+					if(using != null) {
+						p.using = using;
+					}
+				} else if(method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID) {
+					p.getter = m;
+					if(p.type == null) {
+						p.type = method.getReturnType();
+					}
+				}
+			}
+			for (Property p : properties.values()) {
+				if(p.field != null) {
+					String suffix = Character.toUpperCase(p.field.charAt(0)) + p.field.substring(1);
+					if(p.getter == null && methods.containsKey("get" + suffix + "/0")) {
+						p.getter = "get" + suffix;
+					}
+					if(p.setter == null && methods.containsKey("set" + suffix + "/1")) {
+						p.setter = "set" + suffix;
+					}
+				}
+			}
+			List<String> order = new ArrayList<String>();
+			AnnotationValue value = annotationValue(type, JSON_PROPERTY_ORDER, "value");
+			if(value != null) {
+				for (Object v : (List<?>) value.getValue()) {
+					order.add(String.valueOf(((AnnotationValue) v).getValue()));
+				}
+			}
+			for (String name : order) {
+				if(properties.containsKey(name) && !ordered.contains(properties.get(name))) {
+					ordered.add(properties.get(name));
+				}
+			}
+			for (Property p : properties.values()) {
+				if(!ordered.contains(p)) {
+					ordered.add(p);
+				}
+			}
+		}
+
+		private Property property(String name) {
+			Property p = properties.get(name);
+			if(p == null) {
+				p = new Property(name);
+				properties.put(name, p);
+			}
+			return p;
+		}
+
+		String source() {
+			Source s = new Source();
+			List<Property> resolved = new ArrayList<Property>();
+			for (Property p : ordered) {
+				if(p.setter != null && !p.inline()) {
+					resolved.add(p);
+				}
+			}
+			s.line("package " + packageName + ";");
+			s.line("");
+			s.line("import java.io.IOException;");
+			s.line("");
+			s.line("import com.fasterxml.jackson.core.JsonGenerator;");
+			s.line("import com.fasterxml.jackson.core.JsonParser;");
+			s.line("import com.fasterxml.jackson.core.JsonToken;");
+			s.line("import com.fasterxml.jackson.databind.DeserializationContext;");
+			s.line("import com.fasterxml.jackson.databind.JsonDeserializer;");
+			s.line("import com.fasterxml.jackson.databind.JsonMappingException;");
+			s.line("import com.fasterxml.jackson.databind.SerializerProvider;");
+			s.line("import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;");
+			s.line("import com.fasterxml.jackson.databind.deser.std.StdDeserializer;");
+			s.line("import com.fasterxml.jackson.databind.ser.std.StdSerializer;");
+			s.line("import com.oneops.api.codegen.CodecSupport;");
+			s.line("import com.oneops.api.util.StringPoolModule;");
+			s.line("");
+			s.line("/**");
+			s.line(" * Generated by " + JsonCodecProcessor.class.getName() + " from " + simpleName + ", do not edit");
+			s.line(" */");
+			s.line("final class " + simpleName + "Codec {");
+			s.line("");
+			s.line("\tprivate " + simpleName + "Codec() {");
+			s.line("\t}");
+			s.line("");
+			s.line("\tstatic final class Deserializer extends StdDeserializer<" + simpleName + "> implements ResolvableDeserializer {");
+			s.line("");
+			s.line("\t\tprivate static final long serialVersionUID = 1L;");
+			for (int i = 0; i < resolved.size(); i++) {
+				s.line("\t\tprivate JsonDeserializer<Object> d" + i + ";");
+			}
+			if(anySetter != null) {
+				s.line("\t\tprivate JsonDeserializer<Object> any;");
+			}
+			s.line("");
+			s.line("\t\tDeserializer() {");
+			s.line("\t\t\tsuper(" + simpleName + ".class);");
+			s.line("\t\t}");
+			s.line("");
+			s.line("\t\t@Override");
+			s.line("\t\tpublic void resolve(DeserializationContext ctxt) throws JsonMappingException {");
+			for (int i = 0; i < resolved.size(); i++) {
+				Property p = resolved.get(i);
+				s.line("\t\t\td" + i + " = CodecSupport.find(ctxt, " + javaType(p.type) + ", \"" + p.name + "\", "
+						+ (p.using == null ? "null" : p.using + ".class") + ");");
+			}
+			if(anySetter != null) {
+				s.line("\t\t\tany = CodecSupport.find(ctxt, ctxt.constructType(Object.class), null, null);");
+			}
+			s.line("\t\t}");
+			s.line("");
+			s.line("\t\t@Override");
+			s.line("\t\tpublic " + simpleName + " deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {");
+			s.line("\t\t\treturn deserialize(p, ctxt, new " + simpleName + "());");
+			s.line("\t\t}");
+			s.line("");
+			s.line("\t\t@Override");
+			for (Property p : resolved) {
+				if(p.type.toString().indexOf('<') >= 0) {
+					s.line("\t\t@SuppressWarnings(\"unchecked\")");
+					break;
+				}
+			}
+			s.line("\t\tpublic " + simpleName + " deserialize(JsonParser p, DeserializationContext ctxt, " + simpleName + " bean) throws IOException {");
+			s.line("\t\t\tfor (JsonToken t = CodecSupport.startObject(p, ctxt, " + simpleName + ".class); t == JsonToken.FIELD_NAME; t = p.nextToken()) {");
+			s.line("\t\t\t\tString name = p.getCurrentName();");
+			s.line("\t\t\t\tp.nextToken();");
+			s.line("\t\t\t\tswitch (name) {");
+			for (Property p : ordered) {
+				if(p.setter == null) {
+					continue;
+				}
+				s.line("\t\t\t\tcase \"" + p.name + "\":");
+				if(p.inline()) {
+					String read = "String".equals(p.kind()) ? "StringPoolModule.readString(p, ctxt)" : "CodecSupport.read" + p.kind() + "(p, ctxt)";
+					s.line("\t\t\t\t\tbean." + p.setter + "(" + read + ");");
+				} else {
+					s.line("\t\t\t\t\tbean." + p.setter + "((" + p.type + ") CodecSupport.read(p, ctxt, d" + resolved.indexOf(p) + "));");
+				}
+				s.line("\t\t\t\t\tbreak;");
+			}
+			s.line("\t\t\t\tdefault:");
+			if(anySetter != null) {
+				s.line("\t\t\t\t\tbean." + anySetter + "(name, CodecSupport.read(p, ctxt, any));");
+			} else if(ignoreUnknown) {
+				s.line("\t\t\t\t\tp.skipChildren();");
+			} else {
+				s.line("\t\t\t\t\thandleUnknownProperty(p, ctxt, bean, name);");
+			}
+			s.line("\t\t\t\t}");
+			s.line("\t\t\t}");
+			s.line("\t\t\treturn bean;");
+			s.line("\t\t}");
+			s.line("\t}");
+			s.line("");
+			s.line("\tstatic final class Serializer extends StdSerializer<" + simpleName + "> {");
+			s.line("");
+			s.line("\t\tprivate static final long serialVersionUID = 1L;");
+			s.line("");
+			s.line("\t\tSerializer() {");
+			s.line("\t\t\tsuper(" + simpleName + ".class);");
+			s.line("\t\t}");
+			s.line("");
+			s.line("\t\t@Override");
+			s.line("\t\tpublic void serialize(" + simpleName + " bean, JsonGenerator gen, SerializerProvider provider) throws IOException {");
+			s.line("\t\t\tgen.writeStartObject();");
+			int i = 0;
+			for (Property p : ordered) {
+				if(p.getter == null) {
+					continue;
+				}
+				String v = "v" + i++;
+				String kind = p.kind();
+				s.line("\t\t\t" + (kind == null ? "Object" : kind) + " " + v + " = bean." + p.getter + "();");
+				String write;
+				if("String".equals(kind)) {
+					write = "gen.writeStringField(\"" + p.name + "\", " + v + ");";
+				} else if("Long".equals(kind) || "Integer".equals(kind)) {
+					write = "gen.writeNumberField(\"" + p.name + "\", " + v + ");";
+				} else if("Boolean".equals(kind)) {
+					write = "gen.writeBooleanField(\"" + p.name + "\", " + v + ");";
+				} else {
+					write = "CodecSupport.writeValue(gen, provider, \"" + p.name + "\", " + v + ");";
+				}
+				s.line("\t\t\tif(" + v + " != null) {");
+				s.line("\t\t\t\t" + write);
+				if(!nonNull) {
+					s.line("\t\t\t} else {");
+					s.line("\t\t\t\tgen.writeNullField(\"" + p.name + "\");");
+				}
+				s.line("\t\t\t}");
+			}
+			if(anyGetter != null) {
+				s.line("\t\t\tCodecSupport.writeAny(gen, provider, bean." + anyGetter + "());");
+			}
+			s.line("\t\t\tgen.writeEndObject();");
+			s.line("\t\t}");
+			s.line("\t}");
+			s.line("}");
+			return s.toString();
+		}
+	}
+
+	private static String javaType(TypeMirror type) {
+		if(type.getKind() == TypeKind.DECLARED && type.toString().indexOf('<') < 0) {
+			return "ctxt.constructType(" + type + ".class)";
+		}
+		return "ctxt.getTypeFactory().constructType(new com.fasterxml.jackson.core.type.TypeReference<" + type + ">(){})";
+	}
+
+	private static String beanName(String method) {
+		String base;
+		if(method.startsWith("get") || method.startsWith("set")) {
+			base = method.substring(3);
+		} else if(method.startsWith("is")) {
+			base = method.substring(2);
+		} else {
+			return method;
+		}
+		return base.isEmpty() ? method : Character.toLowerCase(base.charAt(0)) + base.substring(1);
+	}
+
+	/**
+	 * @return the JSON name of an element annotated with @JsonProperty, null if it is not annotated
+	 */
+	private static String propertyName(Element element, String defaultName) {
+		AnnotationMirror mirror = annotation(element, JSON_PROPERTY);
+		if(mirror == null) {
+			return null;
+		}
+		Object name = valueOf(element, JSON_PROPERTY, "value");
+		return name == null || String.valueOf(name).isEmpty() ? defaultName : String.valueOf(name);
+	}
+
+	private static String deserializerOf(Element element) {
+		Object using = valueOf(element, JSON_DESERIALIZE, "using");
+		return using == null ? null : String.valueOf(using);
+	}
+
+	private static AnnotationMirror annotation(Element element, String annotationType) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if(mirror.getAnnotationType().toString().equals(annotationType)) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+
+	private static AnnotationValue annotationValue(Element element, String annotationType, String attribute) {
+		AnnotationMirror mirror = annotation(element, annotationType);
+		if(mirror == null) {
+			return null;
+		}
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+			if(entry.getKey().getSimpleName().contentEquals(attribute)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the explicitly given attribute value, enum constants by name and classes by qualified name
+	 */
+	private static Object valueOf(Element element, String annotationType, String attribute) {
+		AnnotationValue value = annotationValue(element, annotationType, attribute);
+		if(value == null) {
+			return null;
+		}
+		Object v = value.getValue();
+		if(v instanceof VariableElement) {
+			return ((VariableElement) v).getSimpleName().toString();
+		}
+		return v instanceof TypeMirror ? v.toString() : v;
+	}
+
+	private static final class Source {
+		private final StringBuilder sb = new StringBuilder(4096);
+
+		void line(String line) {
+			sb.append(line).append('\n');
+		}
+
+		@Override
+		public String toString() {
+			return sb.toString();
+		}
+	}
+}
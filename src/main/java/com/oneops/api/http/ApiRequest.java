@@ -0,0 +1,271 @@
+package com.oneops.api.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.util.CiIdSet;
+
+/**
+ * Request builder handed out by {@link com.oneops.api.APIClient#createRequest()}.
+ * 
+ * Headers, parameters and body are kept after a call so a request can be reused
+ * for several calls, the same way resource clients always did. A body is only 
+ * sent with POST and PUT. Parameters added through {@link #parameter(String, Object)}
+ * are form encoded into the body when the content type is 
+ * {@code application/x-www-form-urlencoded} and no body is set, otherwise they 
+ * are appended to the query string. A {@link RequestBody} is streamed when the
+ * transport supports it and buffered otherwise, a body written from a stream can
+ * only be sent once.
+ */
+public class ApiRequest {
+	
+	private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+	
+	private final HttpTransport transport;
+	private final String baseUri;
+	private final Map<String, String> headers = new LinkedHashMap<String, String>();
+	private final List<String[]> queryParams = new ArrayList<String[]>();
+	private final List<String[]> params = new ArrayList<String[]>();
+	private byte[] body;
+	private RequestBody streamingBody;
+	private boolean deduplicateStrings;
+	private boolean lazyAttributes;
+	
+	public ApiRequest(HttpTransport transport, String baseUri) {
+		this.transport = transport;
+		this.baseUri = baseUri;
+	}
+	
+	public ApiRequest header(String name, Object value) {
+		headers.put(name, String.valueOf(value));
+		return this;
+	}
+	
+	/**
+	 * Adds a query parameter, collections are expanded into one parameter per element
+	 * 
+	 * @param name
+	 * @param value
+	 * @return
+	 */
+	public ApiRequest queryParam(String name, Object value) {
+		add(queryParams, name, value);
+		return this;
+	}
+	
+	/**
+	 * Adds one query parameter per id
+	 * 
+	 * @param name
+	 * @param ids
+	 * @return
+	 */
+	public ApiRequest queryParam(String name, CiIdSet ids) {
+		for (int i = 0; i < ids.size(); i++) {
+			queryParams.add(new String[] {name, Long.toString(ids.get(i))});
+		}
+		return this;
+	}
+	
+	public ApiRequest parameter(String name, Object value) {
+		add(params, name, value);
+		return this;
+	}
+	
+	private static void add(List<String[]> list, String name, Object value) {
+		if(value instanceof Collection) {
+			for (Object v : (Collection<?>) value) {
+				list.add(new String[] {name, String.valueOf(v)});
+			}
+		} else {
+			list.add(new String[] {name, String.valueOf(value)});
+		}
+	}
+	
+	public ApiRequest body(String body) {
+		this.body = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+		this.streamingBody = null;
+		return this;
+	}
+	
+	public ApiRequest body(byte[] body) {
+		this.body = body;
+		this.streamingBody = null;
+		return this;
+	}
+	
+	/**
+	 * Sets a body written while the request is sent, see {@link RequestBodies}
+	 * 
+	 * @param body
+	 * @return
+	 */
+	public ApiRequest body(RequestBody body) {
+		this.body = null;
+		this.streamingBody = body;
+		return this;
+	}
+	
+	/**
+	 * Canonicalizes repeated strings when bulk models are decoded from responses, see {@link com.oneops.api.util.StringPool}
+	 * 
+	 * @param deduplicateStrings
+	 * @return
+	 */
+	public ApiRequest deduplicateStrings(boolean deduplicateStrings) {
+		this.deduplicateStrings = deduplicateStrings;
+		return this;
+	}
+	
+	/**
+	 * Defers decoding of ciAttributes and ciAttrProps until first accessed, see {@link com.oneops.api.resource.model.LazyDecoded}
+	 * 
+	 * @param lazyAttributes
+	 * @return
+	 */
+	public ApiRequest lazyAttributes(boolean lazyAttributes) {
+		this.lazyAttributes = lazyAttributes;
+		return this;
+	}
+	
+	public ApiResponse get(String path) throws OneOpsClientAPIException {
+		return send("GET", path);
+	}
+	
+	public ApiResponse post(String path) throws OneOpsClientAPIException {
+		return send("POST", path);
+	}
+	
+	public ApiResponse put(String path) throws OneOpsClientAPIException {
+		return send("PUT", path);
+	}
+	
+	public ApiResponse delete(String path) throws OneOpsClientAPIException {
+		return send("DELETE", path);
+	}
+	
+	/**
+	 * Sends a GET handing the body of a 200 response to the sink as it is read, when the transport
+	 * is a {@link StreamingTransport}, otherwise once it is buffered. Other responses keep their body.
+	 * 
+	 * @param path
+	 * @param sink
+	 * @return the response, its body is empty when it was handed to the sink
+	 * @throws OneOpsClientAPIException
+	 */
+	public ApiResponse get(String path, ResponseSink sink) throws OneOpsClientAPIException {
+		try {
+			TransportRequest request = prepare("GET", path);
+			if(transport instanceof StreamingTransport) {
+				return ((StreamingTransport) transport).execute(request, sink);
+			}
+			ApiResponse response = transport.execute(request);
+			if(response.getStatusCode() == 200) {
+				sink.consume(response.getBody().asInputStream());
+			}
+			return response;
+		} catch (IOException e) {
+			throw new OneOpsClientAPIException(String.format("Failed to GET %s due to %s", withoutQuery(path), e), e);
+		}
+	}
+	
+	private ApiResponse send(String method, String path) throws OneOpsClientAPIException {
+		try {
+			ApiResponse response = transport.execute(prepare(method, path));
+			response.getBody().setDeduplicateStrings(deduplicateStrings);
+			response.getBody().setLazyAttributes(lazyAttributes);
+			return response;
+		} catch (IOException e) {
+			throw new OneOpsClientAPIException(String.format("Failed to %s %s due to %s", method, withoutQuery(path), e), e);
+		}
+	}
+	
+	private TransportRequest prepare(String method, String path) throws IOException {
+		boolean withBody = "POST".equals(method) || "PUT".equals(method);
+		byte[] payload = withBody ? body : null;
+		RequestBody streamed = withBody ? streamingBody : null;
+		if(streamed != null && !(transport instanceof StreamingTransport)) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			streamed.writeTo(buffer);
+			payload = buffer.toByteArray();
+			streamed = null;
+		}
+		
+		StringBuilder query = new StringBuilder();
+		String relativePath = withoutQuery(path);
+		if(relativePath.length() < path.length()) {
+			query.append(path.substring(relativePath.length() + 1));
+		}
+		appendEncoded(query, queryParams);
+		
+		Map<String, String> requestHeaders = new LinkedHashMap<String, String>(headers);
+		if(!params.isEmpty()) {
+			String contentType = requestHeaders.get("Content-Type");
+			if(withBody && payload == null && streamed == null && contentType != null && contentType.startsWith(FORM_CONTENT_TYPE)) {
+				StringBuilder form = new StringBuilder();
+				appendEncoded(form, params);
+				payload = form.toString().getBytes(StandardCharsets.UTF_8);
+			} else {
+				appendEncoded(query, params);
+			}
+		}
+		
+		String uri = join(baseUri, encodePath(relativePath));
+		if(query.length() > 0) {
+			uri += "?" + query;
+		}
+		return new TransportRequest(method, uri, path, requestHeaders, payload, streamed);
+	}
+	
+	private static String withoutQuery(String path) {
+		int q = path.indexOf('?');
+		return q >= 0 ? path.substring(0, q) : path;
+	}
+	
+	private static String join(String base, String path) {
+		if(base == null || base.length() == 0) {
+			return path;
+		}
+		boolean slashed = base.endsWith("/");
+		if(path.startsWith("/")) {
+			return slashed ? base + path.substring(1) : base + path;
+		}
+		return slashed || path.length() == 0 ? base + path : base + "/" + path;
+	}
+	
+	private static String encodePath(String path) {
+		try {
+			return new URI(null, null, path, null).getRawPath();
+		} catch (URISyntaxException e) {
+			return path;
+		}
+	}
+	
+	private static void appendEncoded(StringBuilder sb, List<String[]> pairs) {
+		for (String[] pair : pairs) {
+			if(sb.length() > 0) {
+				sb.append('&');
+			}
+			sb.append(encode(pair[0])).append('=').append(encode(pair[1]));
+		}
+	}
+	
+	private static String encode(String s) {
+		try {
+			return URLEncoder.encode(s, "UTF-8").replace("+", "%20");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.oneops.api.http;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Buffered response of an API call
+ */
+public class ApiResponse {
+	
+	private final int statusCode;
+	private final String statusLine;
+	private final Map<String, String> headers;
+	private final ResponseBody body;
+	
+	public ApiResponse(int statusCode, String statusLine, Map<String, String> headers, byte[] body) {
+		this.statusCode = statusCode;
+		this.statusLine = statusLine;
+		Map<String, String> h = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+		if(headers != null) {
+			h.putAll(headers);
+		}
+		this.headers = Collections.unmodifiableMap(h);
+		this.body = new ResponseBody(body, h.get("Content-Type"));
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * @return e.g. HTTP/1.1 404 Not Found
+	 */
+	public String getStatusLine() {
+		return statusLine;
+	}
+	
+	/**
+	 * @return response headers, names are case insensitive
+	 */
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+	
+	public String getHeader(String name) {
+		return headers.get(name);
+	}
+	
+	public String getContentType() {
+		return headers.get("Content-Type");
+	}
+
+	public ResponseBody getBody() {
+		return body;
+	}
+	
+	public String asString() {
+		return body.asString();
+	}
+	
+	public byte[] asByteArray() {
+		return body.asByteArray();
+	}
+}
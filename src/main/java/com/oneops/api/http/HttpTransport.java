@@ -0,0 +1,20 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+
+/**
+ * Sends a single prepared request and buffers its response.
+ * 
+ * Resource clients never talk to an HTTP library directly, they build an {@link ApiRequest}
+ * which is executed by the transport configured on {@link com.oneops.api.OOInstance#setTransport(HttpTransport)}.
+ * {@link JdkHttpTransport} is used when none is configured. Implementations must be thread safe.
+ */
+public interface HttpTransport {
+
+	/**
+	 * @param request
+	 * @return the response, never null
+	 * @throws IOException if the call could not be completed
+	 */
+	ApiResponse execute(TransportRequest request) throws IOException;
+}
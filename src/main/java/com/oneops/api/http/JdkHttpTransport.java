@@ -0,0 +1,171 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Default transport built on {@link HttpURLConnection} only, so the client needs no
+ * HTTP library on the class path. Connections are kept alive and pooled by the JDK.
+ * 
+ * HTTPS certificates and host names are not validated, matching what the client has
+ * always done against OneOps endpoints. gzip and deflate encoded responses are
+ * decoded transparently. Redirects are only followed for GET, as RestAssured does,
+ * a POST, PUT or DELETE answered with a redirect returns that response. Bodies of
+ * 200 responses are read straight off the connection into a {@link ResponseSink}
+ * when one is given, streaming request bodies are sent with chunked transfer.
+ */
+public class JdkHttpTransport implements StreamingTransport {
+	
+	private static final int CHUNK_SIZE = 64 * 1024;
+	
+	private final int connectTimeout;
+	private final int readTimeout;
+	
+	public JdkHttpTransport() {
+		this(0, 0);
+	}
+	
+	/**
+	 * @param connectTimeout in milliseconds, 0 waits indefinitely
+	 * @param readTimeout in milliseconds, 0 waits indefinitely
+	 */
+	public JdkHttpTransport(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+	@Override
+	public ApiResponse execute(TransportRequest request) throws IOException {
+		return execute(request, null);
+	}
+	
+	@Override
+	public ApiResponse execute(TransportRequest request, ResponseSink sink) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(request.getUri()).openConnection();
+		if(connection instanceof HttpsURLConnection) {
+			Relaxed.apply((HttpsURLConnection) connection);
+		}
+		connection.setConnectTimeout(connectTimeout);
+		connection.setReadTimeout(readTimeout);
+		connection.setRequestMethod(request.getMethod());
+		connection.setInstanceFollowRedirects("GET".equals(request.getMethod()));
+		for (Entry<String, String> header : request.getHeaders().entrySet()) {
+			connection.setRequestProperty(header.getKey(), header.getValue());
+		}
+		
+		boolean output = "POST".equals(request.getMethod()) || "PUT".equals(request.getMethod());
+		if(output && request.getStreamingBody() != null) {
+			connection.setDoOutput(true);
+			connection.setChunkedStreamingMode(CHUNK_SIZE);
+			try (OutputStream out = connection.getOutputStream()) {
+				request.getStreamingBody().writeTo(out);
+			}
+		} else if(output) {
+			byte[] body = request.getBody() == null ? new byte[0] : request.getBody();
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(body.length);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body);
+			}
+		}
+		
+		int status = connection.getResponseCode();
+		byte[] content = new byte[0];
+		try (InputStream in = responseStream(connection, status)) {
+			if(in != null && sink != null && status == HttpURLConnection.HTTP_OK) {
+				sink.consume(in);
+			} else if(in != null) {
+				content = ByteStreams.toByteArray(in);
+			}
+		}
+		
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		for (Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+			if(header.getKey() != null && !header.getValue().isEmpty()) {
+				headers.put(header.getKey(), header.getValue().get(header.getValue().size() - 1));
+			}
+		}
+		String statusLine = connection.getHeaderField(0);
+		if(statusLine == null || !statusLine.startsWith("HTTP/")) {
+			statusLine = "HTTP/1.1 " + status + " " + connection.getResponseMessage();
+		}
+		return new ApiResponse(status, statusLine, headers, content);
+	}
+	
+	private static InputStream responseStream(HttpURLConnection connection, int status) throws IOException {
+		InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		if(in == null) {
+			return null;
+		}
+		String encoding = connection.getContentEncoding();
+		if("gzip".equalsIgnoreCase(encoding)) {
+			return new GZIPInputStream(in);
+		} else if("deflate".equalsIgnoreCase(encoding)) {
+			return new InflaterInputStream(in);
+		}
+		return in;
+	}
+	
+	/**
+	 * Trust everything, only initialized once an https endpoint is used
+	 */
+	private static final class Relaxed {
+		
+		private static final SSLSocketFactory SOCKET_FACTORY = socketFactory();
+		
+		private static final HostnameVerifier ANY_HOST = new HostnameVerifier() {
+			@Override
+			public boolean verify(String hostname, SSLSession session) {
+				return true;
+			}
+		};
+		
+		static void apply(HttpsURLConnection connection) {
+			connection.setSSLSocketFactory(SOCKET_FACTORY);
+			connection.setHostnameVerifier(ANY_HOST);
+		}
+		
+		private static SSLSocketFactory socketFactory() {
+			TrustManager trustAll = new X509TrustManager() {
+				@Override
+				public void checkClientTrusted(X509Certificate[] chain, String authType) {
+				}
+				@Override
+				public void checkServerTrusted(X509Certificate[] chain, String authType) {
+				}
+				@Override
+				public X509Certificate[] getAcceptedIssuers() {
+					return new X509Certificate[0];
+				}
+			};
+			try {
+				SSLContext context = SSLContext.getInstance("TLS");
+				context.init(null, new TrustManager[] {trustAll}, null);
+				return context.getSocketFactory();
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException("Failed to initialize relaxed TLS", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Common {@link RequestBody}s
+ */
+public final class RequestBodies {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private RequestBodies() {
+	}
+
+	/**
+	 * Transfers a file from its channel, it is opened again every time the body is written
+	 *
+	 * @param path
+	 * @return
+	 */
+	public static RequestBody of(final Path path) {
+		return new RequestBody() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+					WritableByteChannel target = Channels.newChannel(out);
+					long size = channel.size();
+					long position = 0;
+					while(position < size) {
+						position += channel.transferTo(position, size - position, target);
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Copies a stream, which is read to the end but not closed, so the body can only be written once
+	 *
+	 * @param in
+	 * @return
+	 */
+	public static RequestBody of(final InputStream in) {
+		return new RequestBody() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				ByteStreams.copy(in, out);
+			}
+		};
+	}
+
+	/**
+	 * Compresses a body while it is written, the request needs a Content-Encoding: gzip header
+	 *
+	 * @param body
+	 * @return
+	 */
+	public static RequestBody gzip(final RequestBody body) {
+		return new RequestBody() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+				body.writeTo(gzip);
+				// finish without closing the request stream
+				gzip.finish();
+				gzip.flush();
+			}
+		};
+	}
+
+	/**
+	 * @return a random multipart boundary
+	 */
+	public static String boundary() {
+		return "oneops-" + UUID.randomUUID().toString().replace("-", "");
+	}
+
+	/**
+	 * multipart/form-data body with a single text field, the request needs a
+	 * Content-Type: multipart/form-data; boundary=... header
+	 *
+	 * @param boundary
+	 * @param name
+	 * @param content
+	 * @return
+	 */
+	public static RequestBody formField(final String boundary, final String name, final RequestBody content) {
+		return new RequestBody() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				String head = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name
+						+ "\"\r\nContent-Type: text/plain; charset=UTF-8\r\n\r\n";
+				out.write(head.getBytes(StandardCharsets.UTF_8));
+				content.writeTo(out);
+				out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+			}
+		};
+	}
+}
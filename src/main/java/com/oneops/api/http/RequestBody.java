@@ -0,0 +1,17 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Request body written while the request is sent instead of being buffered, see
+ * {@link ApiRequest#body(RequestBody)} and {@link RequestBodies}.
+ */
+public interface RequestBody {
+
+	/**
+	 * @param out stream of the request, not to be closed
+	 * @throws IOException
+	 */
+	void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,187 @@
+package com.oneops.api.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jayway.restassured.path.json.JsonPath;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.util.DeferredDecodingDeserializer;
+import com.oneops.api.util.JsonUtil;
+import com.oneops.api.util.StringPool;
+
+/**
+ * Body of an {@link ApiResponse}.
+ * 
+ * {@link #as(Class)} and {@link #path(String)} decode with Jackson; {@link #jsonPath()} is
+ * only kept for the public methods that return a {@link JsonPath} and is the only
+ * place that loads the Groovy based json-path implementation. json-path is an optional
+ * dependency, applications calling those methods add it to their class path.
+ */
+public class ResponseBody {
+	
+	private static final ObjectMapper MAPPER = JsonUtil.mapper();
+	
+	private static final byte[] EMPTY = new byte[0];
+	
+	private final byte[] content;
+	private final Charset charset;
+	private boolean deduplicateStrings;
+	private boolean lazyAttributes;
+	private Object tree;
+	
+	ResponseBody(byte[] content, String contentType) {
+		this.content = content == null ? EMPTY : content;
+		this.charset = charset(contentType);
+	}
+	
+	private static Charset charset(String contentType) {
+		if(contentType != null) {
+			int i = contentType.toLowerCase().indexOf("charset=");
+			if(i >= 0) {
+				String name = contentType.substring(i + "charset=".length()).trim();
+				int end = name.indexOf(';');
+				if(end >= 0) {
+					name = name.substring(0, end).trim();
+				}
+				try {
+					return Charset.forName(name.replace("\"", ""));
+				} catch (RuntimeException e) {
+					// fall through to the default
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Canonicalizes repeated strings of bulk models while decoding, see {@link StringPool}
+	 * 
+	 * @param deduplicateStrings
+	 */
+	void setDeduplicateStrings(boolean deduplicateStrings) {
+		this.deduplicateStrings = deduplicateStrings;
+	}
+
+	/**
+	 * Keeps ciAttributes and ciAttrProps undecoded until first accessed, see {@link com.oneops.api.resource.model.LazyDecoded}
+	 * 
+	 * @param lazyAttributes
+	 */
+	void setLazyAttributes(boolean lazyAttributes) {
+		this.lazyAttributes = lazyAttributes;
+	}
+
+	/**
+	 * Decodes the body into the given type
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public <T> T as(Class<T> type) {
+		return decode(MAPPER.readerFor(type), type.getName());
+	}
+	
+	/**
+	 * Decodes the body into the given generic type, e.g. a list of resources
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public <T> T as(TypeReference<T> type) {
+		return decode(MAPPER.readerFor(type), String.valueOf(type.getType()));
+	}
+	
+	private <T> T decode(ObjectReader reader, String typeName) {
+		if(deduplicateStrings) {
+			reader = reader.withAttribute(StringPool.class, new StringPool());
+		}
+		if(lazyAttributes) {
+			reader = reader.withAttribute(DeferredDecodingDeserializer.ENABLED, Boolean.TRUE);
+		}
+		Object token = FlightRecorderSupport.beginDecode();
+		try {
+			return reader.readValue(content);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to deserialize response to " + typeName, e);
+		} finally {
+			FlightRecorderSupport.endDecode(token, typeName, content.length);
+		}
+	}
+	
+	/**
+	 * Reads a value out of a JSON object body by a dot separated path, e.g. {@code ciAttrProps.owner}.
+	 * Objects are returned as maps, arrays as lists.
+	 * 
+	 * @param path
+	 * @return the value or null if the body or any segment of the path is missing
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T path(String path) {
+		Object node = tree();
+		for (String key : path.split("\\.")) {
+			if(node instanceof Map) {
+				node = ((Map<String, Object>) node).get(key);
+			} else if(node instanceof List && isIndex(key) && Integer.parseInt(key) < ((List<Object>) node).size()) {
+				node = ((List<Object>) node).get(Integer.parseInt(key));
+			} else {
+				return null;
+			}
+		}
+		return (T) node;
+	}
+	
+	/**
+	 * @param path
+	 * @return the value at the given path as a string or null if missing
+	 */
+	public String getString(String path) {
+		Object value = path(path);
+		return value == null ? null : String.valueOf(value);
+	}
+	
+	private Object tree() {
+		if(tree == null && content.length > 0) {
+			tree = as(Object.class);
+		}
+		return tree;
+	}
+	
+	private static boolean isIndex(String key) {
+		if(key.length() == 0) {
+			return false;
+		}
+		for (int i = 0; i < key.length(); i++) {
+			if(!Character.isDigit(key.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the body as a {@link JsonPath}, needs json-path on the class path
+	 */
+	public JsonPath jsonPath() {
+		return new JsonPath(asString());
+	}
+	
+	public String asString() {
+		return new String(content, charset);
+	}
+	
+	public byte[] asByteArray() {
+		return content;
+	}
+	
+	public InputStream asInputStream() {
+		return new ByteArrayInputStream(content);
+	}
+}
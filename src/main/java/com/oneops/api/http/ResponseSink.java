@@ -0,0 +1,17 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Receives the body of a 200 response as it arrives instead of it being buffered, see
+ * {@link ApiRequest#get(String, ResponseSink)} and {@link ResponseSinks}.
+ */
+public interface ResponseSink {
+
+	/**
+	 * @param body decoded response body, closed by the caller once this returns
+	 * @throws IOException
+	 */
+	void consume(InputStream body) throws IOException;
+}
@@ -0,0 +1,105 @@
+package com.oneops.api.http;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Common {@link ResponseSink}s
+ */
+public final class ResponseSinks {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final long TRANSFER_SIZE = 8L * 1024 * 1024;
+
+	private ResponseSinks() {
+	}
+
+	/**
+	 * Copies the body to a stream, which is neither flushed nor closed. Bodies are transferred
+	 * channel to channel when the stream is a {@link FileOutputStream}.
+	 *
+	 * @param out
+	 * @return
+	 */
+	public static ResponseSink toStream(final OutputStream out) {
+		return new ResponseSink() {
+			@Override
+			public void consume(InputStream body) throws IOException {
+				if(out instanceof FileOutputStream) {
+					FileChannel channel = ((FileOutputStream) out).getChannel();
+					transfer(body, channel, channel.position());
+				} else {
+					ByteStreams.copy(body, out);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Writes the body to a file, replacing it only once the whole body was received. The body is
+	 * transferred straight into the file channel unless it is gzip compressed on the way.
+	 *
+	 * @param path
+	 * @param gzip
+	 * @return
+	 */
+	public static ResponseSink toFile(final Path path, final boolean gzip) {
+		return new ResponseSink() {
+			@Override
+			public void consume(InputStream body) throws IOException {
+				Path target = path.toAbsolutePath();
+				Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".part");
+				boolean done = false;
+				try {
+					try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+						if(gzip) {
+							GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+							ByteStreams.copy(body, out);
+							out.finish();
+							out.flush();
+						} else {
+							transfer(body, channel, 0);
+						}
+					}
+					move(temp, target);
+					done = true;
+				} finally {
+					if(!done) {
+						Files.deleteIfExists(temp);
+					}
+				}
+			}
+		};
+	}
+
+	private static void transfer(InputStream body, FileChannel channel, long position) throws IOException {
+		ReadableByteChannel source = Channels.newChannel(body);
+		long transferred;
+		while((transferred = channel.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+			position += transferred;
+		}
+		channel.position(position);
+	}
+
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.jayway.restassured.RestAssured;
+import com.jayway.restassured.config.RestAssuredConfig;
+import com.jayway.restassured.config.SSLConfig;
+import com.jayway.restassured.response.Header;
+import com.jayway.restassured.response.Response;
+import com.jayway.restassured.specification.RequestSpecification;
+
+/**
+ * Transport backed by RestAssured, for applications that already ship it and want the 
+ * client to share its configuration. rest-assured is an optional dependency of this 
+ * artifact and has to be added explicitly to use this class.
+ * 
+ * <pre>
+ * instance.setTransport(new RestAssuredTransport());
+ * </pre>
+ */
+public class RestAssuredTransport implements HttpTransport {
+	
+	private final RestAssuredConfig config;
+	
+	public RestAssuredTransport() {
+		this(RestAssured.config().sslConfig(new SSLConfig().relaxedHTTPSValidation()));
+	}
+	
+	public RestAssuredTransport(RestAssuredConfig config) {
+		this.config = config;
+	}
+
+	@Override
+	public ApiResponse execute(TransportRequest request) throws IOException {
+		RequestSpecification spec = RestAssured.given().config(config).urlEncodingEnabled(false);
+		for (Entry<String, String> header : request.getHeaders().entrySet()) {
+			spec.header(header.getKey(), header.getValue());
+		}
+		if(request.getBody() != null) {
+			spec.body(request.getBody());
+		}
+		
+		Response response;
+		switch (request.getMethod()) {
+		case "GET":
+			response = spec.get(request.getUri());
+			break;
+		case "POST":
+			response = spec.post(request.getUri());
+			break;
+		case "PUT":
+			response = spec.put(request.getUri());
+			break;
+		case "DELETE":
+			response = spec.delete(request.getUri());
+			break;
+		default:
+			throw new IOException("Unsupported method " + request.getMethod());
+		}
+		
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		for (Header header : response.getHeaders()) {
+			headers.put(header.getName(), header.getValue());
+		}
+		return new ApiResponse(response.getStatusCode(), response.getStatusLine(), headers, response.asByteArray());
+	}
+}
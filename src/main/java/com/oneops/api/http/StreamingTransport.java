@@ -0,0 +1,19 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+
+/**
+ * Transport able to hand response bodies to a {@link ResponseSink} while they are read and to send
+ * {@link TransportRequest#getStreamingBody()} while it is written. Through a transport not
+ * implementing it, both are buffered instead.
+ */
+public interface StreamingTransport extends HttpTransport {
+
+	/**
+	 * @param request
+	 * @param sink receives the body of 200 responses only, other bodies are kept in the response
+	 * @return the response, its body is empty when it was handed to the sink
+	 * @throws IOException if the call could not be completed or the sink failed
+	 */
+	ApiResponse execute(TransportRequest request, ResponseSink sink) throws IOException;
+}
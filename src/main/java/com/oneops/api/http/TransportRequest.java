@@ -0,0 +1,77 @@
+package com.oneops.api.http;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fully resolved request handed to an {@link HttpTransport}
+ */
+public final class TransportRequest {
+	
+	private final String method;
+	private final String uri;
+	private final String path;
+	private final Map<String, String> headers;
+	private final byte[] body;
+	private final RequestBody streamingBody;
+	
+	public TransportRequest(String method, String uri, String path, Map<String, String> headers, byte[] body) {
+		this(method, uri, path, headers, body, null);
+	}
+	
+	/**
+	 * @param method
+	 * @param uri
+	 * @param path
+	 * @param headers
+	 * @param body
+	 * @param streamingBody written while sending, only handed to a {@link StreamingTransport}
+	 */
+	public TransportRequest(String method, String uri, String path, Map<String, String> headers, byte[] body, RequestBody streamingBody) {
+		this.method = method;
+		this.uri = uri;
+		this.path = path;
+		this.headers = Collections.unmodifiableMap(headers);
+		this.body = body;
+		this.streamingBody = streamingBody;
+	}
+
+	/**
+	 * @return GET, POST, PUT or DELETE
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return absolute, encoded uri including the query string
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * @return path as given by the resource client, relative to the organization base uri
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * @return request body or null when nothing is sent
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+	
+	/**
+	 * @return body to be written with chunked transfer instead of {@link #getBody()}, null if the body is buffered
+	 */
+	public RequestBody getStreamingBody() {
+		return streamingBody;
+	}
+}
@@ -0,0 +1,40 @@
+package com.oneops.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for every HTTP call made by the resource clients.
+ * The event duration covers the round trip including reading the response body.
+ */
+@Name("com.oneops.api.ApiCall")
+@Label("OneOps API Call")
+@Category({"OneOps", "API Client"})
+@Description("HTTP call made by a OneOps API resource client")
+public class ApiCallEvent extends jdk.jfr.Event {
+
+	@Label("Operation")
+	@Description("Resource client method that issued the call, e.g. Transition.getDeploymentStatus")
+	String operation;
+
+	@Label("Method")
+	String method;
+
+	@Label("URI Template")
+	@Description("Request path with assembly, environment, platform and id segments collapsed")
+	String uriTemplate;
+
+	@Label("Status")
+	int status;
+
+	@Label("Request Bytes")
+	@DataAmount
+	long requestBytes;
+
+	@Label("Response Bytes")
+	@DataAmount
+	long responseBytes;
+}
@@ -0,0 +1,194 @@
+package com.oneops.api.jfr;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.oneops.api.http.HttpTransport;
+
+/**
+ * Entry point used by the client to emit JDK Flight Recorder events.
+ * 
+ * Events are only emitted when the running JVM ships {@code jdk.jfr}; on older
+ * runtimes every method here is a no-op and the event classes are never loaded.
+ * Until Flight Recorder has been started in this JVM (command line or jcmd) no 
+ * event class is loaded either, which keeps short lived processes cheap.
+ * Tokens returned by the {@code begin*} methods are opaque and may be null.
+ */
+public final class FlightRecorderSupport {
+	
+	private static final boolean AVAILABLE = detect();
+	
+	private static final String RESOURCE_PACKAGE = "com.oneops.api.resource.";
+	
+	private static final Set<String> COLLECTIONS = ImmutableSet.of("assemblies", "environments", "platforms", "components", 
+			"variables", "attachments", "relays", "clouds", "services", "deployments", "releases", "instances", 
+			"procedures", "actions", "monitors", "organizations", "organization", "teams", "members");
+	
+	private static final Set<String> KEYWORDS = ImmutableSet.of("latest", "bom", "new", "new.json", "state", "log_data");
+
+	private FlightRecorderSupport() {
+	}
+	
+	private static boolean detect() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+			return true;
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * @return true when Flight Recorder events can be emitted by this JVM
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+	
+	/**
+	 * @param transport
+	 * @return transport emitting an ApiCall event per request, or the given one if unavailable
+	 */
+	public static HttpTransport instrument(HttpTransport transport) {
+		return isActive() ? InstrumentedTransport.of(transport) : transport;
+	}
+	
+	private static boolean isActive() {
+		return AVAILABLE && Events.isInitialized();
+	}
+	
+	public static Object beginDecode() {
+		if(!isActive()) {
+			return null;
+		}
+		return Events.beginDecode();
+	}
+	
+	public static void endDecode(Object token, String targetType, long inputSize) {
+		if(token != null) {
+			Events.endDecode(token, targetType, inputSize);
+		}
+	}
+	
+	public static Object beginPollWait() {
+		if(!isActive()) {
+			return null;
+		}
+		return Events.beginPollWait();
+	}
+	
+	public static void endPollWait(Object token, String operation, String resource, int polls, String finalState) {
+		if(token != null) {
+			Events.endPollWait(token, operation, resource, polls, finalState);
+		}
+	}
+	
+	/**
+	 * Finds the resource client method on the current call stack, e.g. Transition.deploy
+	 * 
+	 * @return
+	 */
+	static String callingOperation() {
+		for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+			String className = element.getClassName();
+			if(className.startsWith(RESOURCE_PACKAGE) && className.indexOf('.', RESOURCE_PACKAGE.length()) < 0) {
+				return className.substring(RESOURCE_PACKAGE.length()) + "." + element.getMethodName();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Collapses names and ids following a collection segment so that calls against 
+	 * different assemblies/environments aggregate under the same template
+	 * e.g. /assemblies/a1/transition/environments/qa/deployments/42/status 
+	 * becomes /assemblies/{name}/transition/environments/{name}/deployments/{id}/status
+	 * 
+	 * @param path
+	 * @return
+	 */
+	static String uriTemplate(String path) {
+		if(path == null) {
+			return null;
+		}
+		int query = path.indexOf('?');
+		if(query >= 0) {
+			path = path.substring(0, query);
+		}
+		StringBuilder sb = new StringBuilder(path.length());
+		boolean identifierNext = false;
+		for (String segment : path.split("/")) {
+			if(segment.length() == 0) {
+				continue;
+			}
+			sb.append('/');
+			if(identifierNext && !KEYWORDS.contains(segment)) {
+				sb.append(isNumeric(segment) ? "{id}" : "{name}");
+				identifierNext = false;
+			} else {
+				sb.append(segment);
+				identifierNext = COLLECTIONS.contains(segment);
+			}
+		}
+		return sb.length() == 0 ? "/" : sb.toString();
+	}
+	
+	private static boolean isNumeric(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if(!Character.isDigit(s.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Only loaded when jdk.jfr is present
+	 */
+	private static final class Events {
+		
+		static boolean isInitialized() {
+			return jdk.jfr.FlightRecorder.isInitialized();
+		}
+		
+		static Object beginDecode() {
+			JsonDecodeEvent event = new JsonDecodeEvent();
+			if(!event.isEnabled()) {
+				return null;
+			}
+			event.begin();
+			return event;
+		}
+		
+		static void endDecode(Object token, String targetType, long inputSize) {
+			JsonDecodeEvent event = (JsonDecodeEvent) token;
+			event.end();
+			if(event.shouldCommit()) {
+				event.targetType = targetType;
+				event.inputSize = inputSize;
+				event.commit();
+			}
+		}
+		
+		static Object beginPollWait() {
+			PollWaitEvent event = new PollWaitEvent();
+			if(!event.isEnabled()) {
+				return null;
+			}
+			event.begin();
+			return event;
+		}
+		
+		static void endPollWait(Object token, String operation, String resource, int polls, String finalState) {
+			PollWaitEvent event = (PollWaitEvent) token;
+			event.end();
+			if(event.shouldCommit()) {
+				event.operation = operation;
+				event.resource = resource;
+				event.polls = polls;
+				event.finalState = finalState;
+				event.commit();
+			}
+		}
+	}
+}
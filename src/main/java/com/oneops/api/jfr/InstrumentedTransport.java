@@ -0,0 +1,82 @@
+package com.oneops.api.jfr;
+
+import java.io.IOException;
+
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.ResponseSink;
+import com.oneops.api.http.StreamingTransport;
+import com.oneops.api.http.TransportRequest;
+
+/**
+ * Transport decorator that wraps each call in an {@link ApiCallEvent}.
+ * Nothing beyond the enabled check is done when no recording is active.
+ */
+class InstrumentedTransport implements HttpTransport {
+	
+	/**
+	 * Decorator of a streaming transport, streamed bodies are not counted
+	 */
+	static final class Streaming extends InstrumentedTransport implements StreamingTransport {
+		
+		Streaming(StreamingTransport delegate) {
+			super(delegate);
+		}
+		
+		@Override
+		public ApiResponse execute(TransportRequest request, ResponseSink sink) throws IOException {
+			return execute(request, sink, true);
+		}
+	}
+	
+	private final HttpTransport delegate;
+	
+	InstrumentedTransport(HttpTransport delegate) {
+		this.delegate = delegate;
+	}
+	
+	static InstrumentedTransport of(HttpTransport delegate) {
+		if(delegate instanceof StreamingTransport) {
+			return new Streaming((StreamingTransport) delegate);
+		}
+		return new InstrumentedTransport(delegate);
+	}
+
+	@Override
+	public ApiResponse execute(TransportRequest request) throws IOException {
+		return execute(request, null, false);
+	}
+	
+	ApiResponse execute(TransportRequest request, ResponseSink sink, boolean streaming) throws IOException {
+		ApiCallEvent event = new ApiCallEvent();
+		if(!event.isEnabled()) {
+			return call(request, sink, streaming);
+		}
+		
+		event.begin();
+		ApiResponse response = null;
+		try {
+			response = call(request, sink, streaming);
+			return response;
+		} finally {
+			event.end();
+			if(event.shouldCommit()) {
+				event.operation = FlightRecorderSupport.callingOperation();
+				event.method = request.getMethod();
+				event.uriTemplate = FlightRecorderSupport.uriTemplate(request.getPath());
+				event.requestBytes = request.getBody() == null ? 0 : request.getBody().length;
+				if(response != null) {
+					event.status = response.getStatusCode();
+					event.responseBytes = response.asByteArray().length;
+				} else {
+					event.status = -1;
+				}
+				event.commit();
+			}
+		}
+	}
+	
+	private ApiResponse call(TransportRequest request, ResponseSink sink, boolean streaming) throws IOException {
+		return streaming ? ((StreamingTransport) delegate).execute(request, sink) : delegate.execute(request);
+	}
+}
@@ -0,0 +1,25 @@
+package com.oneops.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the JSON decode phase of a response, so that
+ * parsing cost can be told apart from network wait in {@link ApiCallEvent}.
+ */
+@Name("com.oneops.api.JsonDecode")
+@Label("OneOps JSON Decode")
+@Category({"OneOps", "API Client"})
+@Description("Decoding of a OneOps API response into model objects")
+public class JsonDecodeEvent extends jdk.jfr.Event {
+
+	@Label("Target Type")
+	String targetType;
+
+	@Label("Input Size")
+	@DataAmount
+	long inputSize;
+}
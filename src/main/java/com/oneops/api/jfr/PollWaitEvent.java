@@ -0,0 +1,29 @@
+package com.oneops.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering a client side polling loop, such as waiting
+ * for the deployment plan to be generated after an environment commit.
+ */
+@Name("com.oneops.api.PollWait")
+@Label("OneOps Poll Wait")
+@Category({"OneOps", "API Client"})
+@Description("Time spent polling a OneOps resource until it leaves a transient state")
+public class PollWaitEvent extends jdk.jfr.Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Resource")
+	String resource;
+
+	@Label("Polls")
+	int polls;
+
+	@Label("Final State")
+	String finalState;
+}
@@ -0,0 +1,433 @@
+package com.oneops.api.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.google.common.collect.ImmutableSet;
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.RfcCi;
+
+/**
+ * Append only journal of deployment and RFC state changes seen by the client, one JSON record per
+ * line, e.g.
+ *
+ * <pre>
+ * {"ts":1507000000000,"type":"deployment","env":"qa","deploymentId":12,"from":"active","to":"complete"}
+ * {"ts":1507000000000,"type":"rfc","env":"qa","deploymentId":12,"rfcId":34,"execOrder":2,"ciClassName":"bom.Compute","ciName":"compute-1","from":"inprogress","to":"complete"}
+ * </pre>
+ *
+ * Every deployment status and RFC list fetched through a client of an instance the journal is set
+ * on is passed to it, see {@link com.oneops.api.OOInstance#setDeploymentJournal(DeploymentJournal)},
+ * and a record is written only when a state differs from the one seen before. The states of up to
+ * 64 deployments are remembered, see {@link #setMaxDeployments(int)}, the least recently seen
+ * deployment in a terminal state is forgotten first. Records are encoded on the calling thread into
+ * an in-memory batch which a background thread appends to the file with a single channel write,
+ * every flush interval or as soon as the batch grows past the batch size. When the file grows past
+ * the maximum size it is rotated to file.1, file.2 and so on. If the file cannot keep up, records
+ * beyond the pending limit are dropped and counted rather than blocking watchers, a dropped change
+ * is journaled by the next status or RFC list still showing it. Batches that fail to be written are
+ * counted as dropped too, the file is reopened for the next batch and a failed rotation is retried
+ * while the file keeps growing.
+ *
+ * Thread safe.
+ */
+public class DeploymentJournal implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DeploymentJournal.class);
+
+	private static final int BATCH_SIZE = 64 * 1024;
+
+	private static final int MAX_PENDING = 8 * 1024 * 1024;
+
+	private static final ImmutableSet<String> TERMINAL_STATES = ImmutableSet.of("complete", "canceled", "failed");
+
+	private final Path path;
+	private final long maxBytes;
+	private final int maxFiles;
+	private final long flushInterval;
+	private final Thread writer;
+
+	/** guarded by this */
+	private StringBuilder pending = new StringBuilder(BATCH_SIZE);
+	// in access order, least recently seen first
+	private final Map<Long, Seen> deployments = new LinkedHashMap<Long, Seen>(16, 0.75f, true);
+	private int maxDeployments = 64;
+	private long count;
+	private long dropped;
+	private long requested;
+	private long written;
+	private boolean closed;
+
+	/** only used by the writer thread */
+	private FileChannel channel;
+	private long size;
+
+	/**
+	 * Opens a journal appending to the given file, rotated past 64 MB keeping 5 old files,
+	 * written every second
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static DeploymentJournal open(Path path) throws IOException {
+		return open(path, 64L * 1024 * 1024, 5, 1, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param path
+	 * @param maxBytes size after which the file is rotated
+	 * @param maxFiles number of rotated files kept
+	 * @param flushInterval longest time a record waits in memory
+	 * @param unit
+	 * @return
+	 * @throws IOException
+	 */
+	public static DeploymentJournal open(Path path, long maxBytes, int maxFiles, long flushInterval, TimeUnit unit) throws IOException {
+		if(maxBytes <= 0 || maxFiles < 0 || flushInterval <= 0) {
+			throw new IllegalArgumentException("Invalid journal settings " + maxBytes + "/" + maxFiles + "/" + flushInterval);
+		}
+		return new DeploymentJournal(path, maxBytes, maxFiles, unit.toMillis(flushInterval));
+	}
+
+	private DeploymentJournal(Path path, long maxBytes, int maxFiles, long flushInterval) throws IOException {
+		this.path = path;
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+		this.flushInterval = flushInterval;
+		openChannel();
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "oneops-deployment-journal");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Records the deployment state if it changed
+	 *
+	 * @param environmentName
+	 * @param deployment
+	 */
+	public void observe(String environmentName, Deployment deployment) {
+		if(deployment == null || deployment.getDeploymentId() == null || deployment.getDeploymentState() == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Long deploymentId = deployment.getDeploymentId();
+		String state = deployment.getDeploymentState();
+		synchronized (this) {
+			Seen seen = seen(deploymentId);
+			String previous = seen.state;
+			if(state.equals(previous)) {
+				return;
+			}
+			// a dropped change is not remembered, the next status showing it records it
+			StringBuilder sb = start(now, "deployment", environmentName, deploymentId);
+			if(sb == null) {
+				return;
+			}
+			seen.state = state;
+			end(sb, previous, state);
+		}
+	}
+
+	/**
+	 * Records the RFCs whose deployment record state changed
+	 *
+	 * @param environmentName
+	 * @param deploymentId
+	 * @param rfcs
+	 */
+	public void observe(String environmentName, Long deploymentId, List<RfcCi> rfcs) {
+		if(deploymentId == null || rfcs == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			Seen seen = seen(deploymentId);
+			if(seen.rfcStates == null) {
+				seen.rfcStates = new HashMap<Long, String>(rfcs.size() * 4 / 3 + 1);
+			}
+			Map<Long, String> states = seen.rfcStates;
+			for (RfcCi rfc : rfcs) {
+				if(rfc == null || rfc.getRfcId() == null || rfc.getDeployment() == null || rfc.getDeployment().getDeploymentState() == null) {
+					continue;
+				}
+				String state = rfc.getDeployment().getDeploymentState();
+				String previous = states.get(rfc.getRfcId());
+				if(state.equals(previous)) {
+					continue;
+				}
+				StringBuilder sb = start(now, "rfc", environmentName, deploymentId);
+				if(sb == null) {
+					continue;
+				}
+				states.put(rfc.getRfcId(), state);
+				sb.append(",\"rfcId\":").append(rfc.getRfcId());
+				if(rfc.getExecOrder() != null) {
+					sb.append(",\"execOrder\":").append(rfc.getExecOrder());
+				}
+				field(sb, "ciClassName", rfc.getCiClassName());
+				field(sb, "ciName", rfc.getCiName());
+				end(sb, previous, state);
+			}
+		}
+	}
+
+	/**
+	 * Number of deployments whose states are remembered. A deployment forgotten while it is still
+	 * watched has its next states journaled again, without the state they changed from.
+	 *
+	 * @param maxDeployments
+	 */
+	public synchronized void setMaxDeployments(int maxDeployments) {
+		if(maxDeployments < 1) {
+			throw new IllegalArgumentException("Invalid journal deployment limit " + maxDeployments);
+		}
+		this.maxDeployments = maxDeployments;
+		trim();
+	}
+
+	/**
+	 * States seen of one deployment and its RFCs
+	 */
+	private static final class Seen {
+		String state;
+		Map<Long, String> rfcStates;
+	}
+
+	private Seen seen(Long deploymentId) {
+		Seen seen = deployments.get(deploymentId);
+		if(seen == null) {
+			seen = new Seen();
+			deployments.put(deploymentId, seen);
+			trim();
+		}
+		return seen;
+	}
+
+	/**
+	 * Forgets the least recently seen deployments beyond the limit, those in a terminal state first
+	 */
+	private void trim() {
+		for (Iterator<Seen> it = deployments.values().iterator(); deployments.size() > maxDeployments && it.hasNext();) {
+			if(TERMINAL_STATES.contains(it.next().state)) {
+				it.remove();
+			}
+		}
+		for (Iterator<Seen> it = deployments.values().iterator(); deployments.size() > maxDeployments;) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Starts a record in the pending batch, null if it has to be dropped
+	 */
+	private StringBuilder start(long now, String type, String environmentName, Long deploymentId) {
+		if(closed || pending.length() >= MAX_PENDING) {
+			dropped++;
+			return null;
+		}
+		StringBuilder sb = pending;
+		sb.append("{\"ts\":").append(now);
+		field(sb, "type", type);
+		field(sb, "env", environmentName);
+		sb.append(",\"deploymentId\":").append(deploymentId);
+		return sb;
+	}
+
+	private void end(StringBuilder sb, String from, String to) {
+		if(sb == null) {
+			return;
+		}
+		field(sb, "from", from);
+		field(sb, "to", to);
+		sb.append("}\n");
+		count++;
+		if(sb.length() >= BATCH_SIZE) {
+			notifyAll();
+		}
+	}
+
+	private static void field(StringBuilder sb, String name, String value) {
+		if(value == null) {
+			return;
+		}
+		sb.append(",\"").append(name).append("\":\"").append(JsonStringEncoder.getInstance().quoteAsString(value)).append('"');
+	}
+
+	/**
+	 * @return number of records accepted so far
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return number of records dropped because the file could not keep up or be written or the
+	 *         journal was closed, a change dropped more than once is counted every time
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Waits until the records accepted so far are written
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		synchronized (this) {
+			long target = ++requested;
+			notifyAll();
+			while(written < target && writer.isAlive()) {
+				try {
+					wait(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while flushing journal", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the pending records and closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			notifyAll();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void writeLoop() {
+		while(true) {
+			StringBuilder batch;
+			long flushed;
+			boolean last;
+			synchronized (this) {
+				long deadline = System.currentTimeMillis() + flushInterval;
+				long left;
+				while(!closed && requested == written && pending.length() < BATCH_SIZE && (left = deadline - System.currentTimeMillis()) > 0) {
+					try {
+						wait(left);
+					} catch (InterruptedException e) {
+						closed = true;
+					}
+				}
+				batch = pending;
+				pending = new StringBuilder(Math.max(BATCH_SIZE, batch.length()));
+				flushed = requested;
+				last = closed;
+			}
+			if(batch.length() > 0) {
+				write(batch);
+			}
+			synchronized (this) {
+				written = flushed;
+				notifyAll();
+			}
+			if(last) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					LOG.warn("Failed to close deployment journal {}", path, e);
+				}
+				return;
+			}
+		}
+	}
+
+	private void write(StringBuilder batch) {
+		ByteBuffer buffer = StandardCharsets.UTF_8.encode(batch.toString());
+		if(channel.isOpen() && size > 0 && size + buffer.remaining() > maxBytes) {
+			try {
+				rotate();
+			} catch (IOException e) {
+				LOG.warn("Failed to rotate deployment journal {}", path, e);
+			}
+		}
+		try {
+			if(!channel.isOpen()) {
+				openChannel();
+			}
+			while(buffer.hasRemaining()) {
+				size += channel.write(buffer);
+			}
+		} catch (IOException e) {
+			int records = 0;
+			for (int i = 0; i < batch.length(); i++) {
+				if(batch.charAt(i) == '\n') {
+					records++;
+				}
+			}
+			synchronized (this) {
+				dropped += records;
+			}
+			LOG.warn("Failed to write {} records to deployment journal {}", records, path, e);
+		}
+	}
+
+	/**
+	 * Moves the file aside and reopens it, also when moving fails
+	 */
+	private void rotate() throws IOException {
+		channel.close();
+		try {
+			if(maxFiles == 0) {
+				Files.deleteIfExists(path);
+			} else {
+				Files.deleteIfExists(rotated(maxFiles));
+				for (int i = maxFiles - 1; i >= 1; i--) {
+					if(Files.exists(rotated(i))) {
+						Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+				Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			openChannel();
+		}
+	}
+
+	private Path rotated(int index) {
+		return path.resolveSibling(path.getFileName() + "." + index);
+	}
+
+	private void openChannel() throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		size = channel.size();
+	}
+}
@@ -6,11 +6,11 @@ import org.json.JSONObject;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.jayway.restassured.path.json.JsonPath;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.Organization;
 import com.oneops.api.resource.model.User;
 import com.oneops.api.util.IConstants;
@@ -29,11 +29,11 @@ public class Account extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<Organization> listOrganizations() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ACCOUNT_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ACCOUNT_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<Organization>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<Organization>>(){});
 			} else {
 				String msg = String.format("Failed to get list of organizations due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -56,8 +56,8 @@ public class Account extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ACCOUNT_URI + organizationName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ACCOUNT_URI + organizationName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Organization.class);
@@ -82,10 +82,10 @@ public class Account extends APIClient {
 			String msg = "Missing organization name to create one";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = new JSONObject();
 		jsonObject.put("name", organizationName);
-		Response response = request.body(jsonObject.toString()).post(IConstants.ACCOUNT_URI);
+		ApiResponse response = request.body(jsonObject.toString()).post(IConstants.ACCOUNT_URI);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -112,7 +112,7 @@ public class Account extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		Organization org = getOrganization(organizationName);
 		Long id =  org.getId();
 		if(id == null) {
@@ -120,7 +120,7 @@ public class Account extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		} 
 		
-		Response response = request.delete(IConstants.ACCOUNT_URI + id);
+		ApiResponse response = request.delete(IConstants.ACCOUNT_URI + id);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Organization.class);
@@ -140,8 +140,8 @@ public class Account extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public JsonPath listEnvironmentProfiles() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ORGANIZATION_URI + "environments");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ORGANIZATION_URI + "environments");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().jsonPath();
@@ -161,8 +161,8 @@ public class Account extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public User getAccount() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get("/account/profile");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get("/account/profile");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(User.class);
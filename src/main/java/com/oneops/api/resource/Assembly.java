@@ -8,13 +8,14 @@ import org.json.JSONObject;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Strings;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.CiSummary;
 import com.oneops.api.resource.model.Team;
 import com.oneops.api.util.IConstants;
 import com.oneops.api.util.JsonUtil;
@@ -38,8 +39,8 @@ public class Assembly extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ASSEMBLY_URI + assemblyName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ASSEMBLY_URI + assemblyName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -65,11 +66,11 @@ public class Assembly extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ASSEMBLY_URI + assemblyName + "/teams");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ASSEMBLY_URI + assemblyName + "/teams");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<Team>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<Team>>(){});
 			} else {
 				String msg = String.format("Failed to get assembly team list with name %s due to %s", assemblyName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -86,11 +87,25 @@ public class Assembly extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listAssemblies() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ASSEMBLY_URI);
+		return listAssemblies(new TypeReference<List<CiResource>>(){});
+	}
+
+	/**
+	 * Lists all the assemblies decoding only identity and state
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<CiSummary> listAssemblySummaries() throws OneOpsClientAPIException {
+		return listAssemblies(new TypeReference<List<CiSummary>>(){});
+	}
+
+	private <T> List<T> listAssemblies(TypeReference<List<T>> type) throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ASSEMBLY_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), type);
 			} else {
 				String msg = String.format("Failed to get list of assemblies due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -156,10 +171,10 @@ public class Assembly extends APIClient {
 		
 		ro.setAttributes(attributes);
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 
-		Response response = request.body(jsonObject.toString()).post(IConstants.ASSEMBLY_URI);
+		ApiResponse response = request.body(jsonObject.toString()).post(IConstants.ASSEMBLY_URI);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -211,10 +226,10 @@ public class Assembly extends APIClient {
 		properties.put("id", fromAssembly);
 		ro.setProperties(properties);
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro,null);
 		
-		Response response = request.body(jsonObject.toString()).post(IConstants.ASSEMBLY_URI  + fromAssembly +  "/clone");
+		ApiResponse response = request.body(jsonObject.toString()).post(IConstants.ASSEMBLY_URI  + fromAssembly +  "/clone");
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -269,10 +284,10 @@ public class Assembly extends APIClient {
 		
 		ro.setAttributes(attributes);
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 
-		Response response = request.body(jsonObject.toString()).put(IConstants.ASSEMBLY_URI + assemblyName);
+		ApiResponse response = request.body(jsonObject.toString()).put(IConstants.ASSEMBLY_URI + assemblyName);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -299,8 +314,8 @@ public class Assembly extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(IConstants.ASSEMBLY_URI + assemblyName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(IConstants.ASSEMBLY_URI + assemblyName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -8,12 +8,12 @@ import java.util.Map.Entry;
 import org.json.JSONObject;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.CiResource;
 import com.oneops.api.util.IConstants;
 import com.oneops.api.util.JsonUtil;
@@ -39,8 +39,8 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -66,11 +66,11 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + "/zones");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + "/zones");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of zones of cloud %s due to %s", cloudName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -87,11 +87,11 @@ public class Cloud extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listClouds() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of clouds due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -109,11 +109,11 @@ public class Cloud extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listCloudServices(String cloudName) throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + "/services");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + "/services");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of cloud services due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -141,8 +141,8 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + serviceName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + serviceName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -178,8 +178,8 @@ public class Cloud extends APIClient {
 		ro.setAttributes(attr);
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 		
-		RequestSpecification request = createRequest();
-		Response response = request.body(jsonObject.toString()).put(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + serviceName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.body(jsonObject.toString()).put(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + serviceName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -248,10 +248,10 @@ public class Cloud extends APIClient {
 				}
 				if(attributes.size() > 0) {
 					ro.setAttributes(attributes);
-					RequestSpecification request = createRequest();
+					ApiRequest request = createRequest();
 					JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 					jsonObject.put("mgmtCiId", mgmtId);
-					Response response = request.body(jsonObject.toString()).post(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI);
+					ApiResponse response = request.body(jsonObject.toString()).post(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI);
 					if(response != null) {
 						if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 							return response.getBody().as(CiResource.class);
@@ -280,11 +280,11 @@ public class Cloud extends APIClient {
 			String msg = "Missing cloud name to fetch service details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "diff");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "diff");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get cloud %s diff due to %s", cloudName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -307,11 +307,11 @@ public class Cloud extends APIClient {
 			String msg = "Missing cloud name to fetch service details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "available");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "available");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<Map<String, List<CiResource>>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<Map<String, List<CiResource>>>(){});
 			} else {
 				String msg = String.format("Failed to get cloud %s available servcies due to %s", cloudName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -335,8 +335,8 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "new?mgmtCiId=" + mgmtId);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.SERVICE_URI + "new?mgmtCiId=" + mgmtId);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -385,11 +385,11 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.VARIABLES_URI );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + IConstants.VARIABLES_URI );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of cloud variables due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -413,9 +413,9 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/" + "new?mgmtOfferingCiId=" + nsId);
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/" + "new?mgmtOfferingCiId=" + nsId);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -439,11 +439,11 @@ public class Cloud extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/available");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/available");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of cloud offerings for cloud %s due to %s", cloudName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -477,10 +477,10 @@ public class Cloud extends APIClient {
 					}
 					ro.setAttributes(attributes);
 					
-					RequestSpecification request = createRequest();
+					ApiRequest request = createRequest();
 					JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 
-					Response response = request.body(jsonObject.toString()).post(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/");
+					ApiResponse response = request.body(jsonObject.toString()).post(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/");
 					
 					if(response != null) {
 						if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -500,10 +500,11 @@ public class Cloud extends APIClient {
 	 * 
 	 * @param cloudName
 	 * @return
+	 * @throws OneOpsClientAPIException
 	 */
-	private CiResource getCloudOffering(String cloudName, String serviceName, String offeringName) {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/" + offeringName);
+	private CiResource getCloudOffering(String cloudName, String serviceName, String offeringName) throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.CLOUDS_URI + cloudName + "/services/" + serviceName + "/offerings/" + offeringName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
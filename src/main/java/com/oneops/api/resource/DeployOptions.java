@@ -0,0 +1,88 @@
+package com.oneops.api.resource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options of {@link Transition#commitAndDeploy(String, DeployOptions)}
+ */
+public final class DeployOptions {
+
+	private List<Long> excludePlatforms;
+	private String comment;
+	private String deploymentComments;
+	private long minPlanPoll = 500;
+	private long maxPlanPoll = TimeUnit.SECONDS.toMillis(5);
+	private long planTimeout = TimeUnit.MINUTES.toMillis(30);
+
+	public static DeployOptions defaults() {
+		return new DeployOptions();
+	}
+
+	/**
+	 * @param excludePlatforms ids of platforms left out of the commit
+	 * @return
+	 */
+	public DeployOptions excludePlatforms(List<Long> excludePlatforms) {
+		this.excludePlatforms = excludePlatforms;
+		return this;
+	}
+
+	/**
+	 * @param comment description of the commit, also used for the deployment unless set separately
+	 * @return
+	 */
+	public DeployOptions comment(String comment) {
+		this.comment = comment;
+		return this;
+	}
+
+	public DeployOptions deploymentComments(String deploymentComments) {
+		this.deploymentComments = deploymentComments;
+		return this;
+	}
+
+	/**
+	 * Sets how the environment is polled while the deployment plan is generated: starting at min,
+	 * doubling up to max, failing after the timeout. 0.5 to 5 seconds for at most 30 minutes by default
+	 *
+	 * @param min
+	 * @param max
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public DeployOptions planPolling(long min, long max, long timeout, TimeUnit unit) {
+		if(min <= 0 || max < min || timeout <= 0) {
+			throw new IllegalArgumentException("Invalid plan polling " + min + "-" + max + "/" + timeout);
+		}
+		this.minPlanPoll = unit.toMillis(min);
+		this.maxPlanPoll = unit.toMillis(max);
+		this.planTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	List<Long> getExcludePlatforms() {
+		return excludePlatforms;
+	}
+
+	String getComment() {
+		return comment;
+	}
+
+	String getDeploymentComments() {
+		return deploymentComments != null ? deploymentComments : comment;
+	}
+
+	long getMinPlanPoll() {
+		return minPlanPoll;
+	}
+
+	long getMaxPlanPoll() {
+		return maxPlanPoll;
+	}
+
+	long getPlanTimeout() {
+		return planTimeout;
+	}
+}
@@ -0,0 +1,114 @@
+package com.oneops.api.resource;
+
+import java.util.concurrent.TimeUnit;
+
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.resource.model.Deployment;
+
+/**
+ * Deployment started by {@link Transition#commitAndDeploy(String, DeployOptions)}, carries the
+ * release it deploys and can wait for the deployment to finish.
+ */
+public final class DeploymentHandle {
+
+	private final Transition transition;
+	private final String environmentName;
+	private final Long releaseId;
+	private final String nsPath;
+	private final Deployment deployment;
+
+	DeploymentHandle(Transition transition, String environmentName, Long releaseId, String nsPath, Deployment deployment) {
+		this.transition = transition;
+		this.environmentName = environmentName;
+		this.releaseId = releaseId;
+		this.nsPath = nsPath;
+		this.deployment = deployment;
+	}
+
+	/**
+	 * @return the deployment as returned when it was started
+	 */
+	public Deployment getDeployment() {
+		return deployment;
+	}
+
+	public Long getDeploymentId() {
+		return deployment.getDeploymentId();
+	}
+
+	/**
+	 * @return id of the bom release deployed
+	 */
+	public Long getReleaseId() {
+		return releaseId;
+	}
+
+	/**
+	 * @return nsPath of the bom release deployed
+	 */
+	public String getNsPath() {
+		return nsPath;
+	}
+
+	public String getEnvironmentName() {
+		return environmentName;
+	}
+
+	/**
+	 * @return tracker for the progress of the deployment
+	 * @throws OneOpsClientAPIException
+	 */
+	public DeploymentProgress trackProgress() throws OneOpsClientAPIException {
+		return transition.trackDeploymentProgress(environmentName, getDeploymentId());
+	}
+
+	/**
+	 * Polls the deployment status, every second at first and backing off to 30 seconds, until the
+	 * deployment is no longer active
+	 *
+	 * @param timeout
+	 * @param unit
+	 * @return the last status, still active if the timeout was reached
+	 * @throws OneOpsClientAPIException
+	 */
+	public Deployment await(long timeout, TimeUnit unit) throws OneOpsClientAPIException {
+		return await(timeout, unit, TimeUnit.SECONDS.toMillis(30));
+	}
+
+	/**
+	 * @param timeout
+	 * @param unit
+	 * @param maxInterval longest wait between two polls, in milliseconds
+	 * @return the last status, still active if the timeout was reached
+	 * @throws OneOpsClientAPIException
+	 */
+	Deployment await(long timeout, TimeUnit unit, long maxInterval) throws OneOpsClientAPIException {
+		long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+		long interval = Math.min(TimeUnit.SECONDS.toMillis(1), maxInterval);
+		Deployment status = deployment;
+		int polls = 0;
+		Object pollWait = FlightRecorderSupport.beginPollWait();
+		try {
+			while(status.getDeploymentState() == null || RfcLogTail.ACTIVE_STATES.contains(status.getDeploymentState())) {
+				long left = deadline - System.currentTimeMillis();
+				if(left <= 0) {
+					break;
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(Math.min(interval, left));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					String msg = String.format("Interrupted waiting for deployment %s of environment %s", getDeploymentId(), environmentName);
+					throw new OneOpsClientAPIException(msg, e);
+				}
+				status = transition.getDeploymentStatus(environmentName, getDeploymentId());
+				polls++;
+				interval = Math.min(maxInterval, interval * 2);
+			}
+			return status;
+		} finally {
+			FlightRecorderSupport.endPollWait(pollWait, "DeploymentHandle.await", environmentName + "/" + getDeploymentId(), polls, status.getDeploymentState());
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package com.oneops.api.resource;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.resource.model.Deployment;
+
+/**
+ * Watches many deployments and applies a policy to them: failed deployments are retried up to a
+ * number of times and deployments waiting for approval are approved when they match a rule.
+ *
+ * Work is done in poll cycles. A cycle fetches the status of every watched deployment, decides the
+ * actions for all of them and then issues the retries and approvals as one batch. Both the fetches
+ * and the actions of a cycle run on a small shared pool, there is no thread per deployment.
+ * Deployments are dropped from the watch once they complete or are canceled, or fail after their
+ * last retry.
+ *
+ * <pre>
+ * DeploymentPolicyEngine engine = transition.deploymentPolicyEngine()
+ *     .retryFailed(2)
+ *     .approveWhen(rule)
+ *     .watch("qa", deploymentId);
+ * engine.run(30, TimeUnit.SECONDS, 4, TimeUnit.HOURS);
+ * </pre>
+ *
+ * Not thread safe, cycles are expected to be driven by one thread.
+ */
+public final class DeploymentPolicyEngine implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DeploymentPolicyEngine.class);
+
+	private static final ImmutableSet<String> DONE_STATES = ImmutableSet.of("complete", "canceled");
+
+	private static final String FAILED = "failed";
+
+	private static final String PENDING = "pending";
+
+	public enum Action {
+		RETRY, APPROVE
+	}
+
+	/**
+	 * Told about the actions taken and the deployments leaving the watch
+	 */
+	public interface Listener {
+		/**
+		 * @param environmentName
+		 * @param deployment status the decision was based on
+		 * @param action
+		 * @param error null if the action succeeded
+		 */
+		void onAction(String environmentName, Deployment deployment, Action action, OneOpsClientAPIException error);
+
+		/**
+		 * @param environmentName
+		 * @param deployment last status seen, complete, canceled or failed
+		 */
+		void onFinished(String environmentName, Deployment deployment);
+	}
+
+	/**
+	 * What a poll cycle did
+	 */
+	public static final class Cycle {
+		private int polled;
+		private int retried;
+		private int approved;
+		private int finished;
+		private int errors;
+
+		public int getPolled() {
+			return polled;
+		}
+
+		public int getRetried() {
+			return retried;
+		}
+
+		public int getApproved() {
+			return approved;
+		}
+
+		/**
+		 * @return deployments dropped from the watch
+		 */
+		public int getFinished() {
+			return finished;
+		}
+
+		/**
+		 * @return failed status fetches and actions
+		 */
+		public int getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String toString() {
+			return "polled " + polled + ", retried " + retried + ", approved " + approved + ", finished " + finished + ", errors " + errors;
+		}
+	}
+
+	private static final class Watch {
+		final Transition transition;
+		final String environmentName;
+		final Long deploymentId;
+		int retries;
+		Deployment status;
+		Action action;
+
+		Watch(Transition transition, String environmentName, Long deploymentId) {
+			this.transition = transition;
+			this.environmentName = environmentName;
+			this.deploymentId = deploymentId;
+		}
+	}
+
+	private final Transition transition;
+	private final Map<String, Watch> watches = new LinkedHashMap<String, Watch>();
+	private ExecutorService executor;
+	private int parallelism = 8;
+	private int maxRetries;
+	private Predicate<? super Deployment> retryRule;
+	private Predicate<? super Deployment> approvalRule;
+	private Listener listener;
+
+	DeploymentPolicyEngine(Transition transition) {
+		this.transition = transition;
+	}
+
+	/**
+	 * Retries failed deployments up to the given number of times each, none by default
+	 *
+	 * @param maxRetries
+	 * @return
+	 */
+	public DeploymentPolicyEngine retryFailed(int maxRetries) {
+		return retryFailed(maxRetries, null);
+	}
+
+	/**
+	 * @param maxRetries
+	 * @param rule only deployments matching it are retried, null for all
+	 * @return
+	 */
+	public DeploymentPolicyEngine retryFailed(int maxRetries, Predicate<? super Deployment> rule) {
+		if(maxRetries < 0) {
+			throw new IllegalArgumentException("Invalid retries " + maxRetries);
+		}
+		this.maxRetries = maxRetries;
+		this.retryRule = rule;
+		return this;
+	}
+
+	/**
+	 * Approves deployments pending approval that match the rule, none by default
+	 *
+	 * @param rule
+	 * @return
+	 */
+	public DeploymentPolicyEngine approveWhen(Predicate<? super Deployment> rule) {
+		this.approvalRule = rule;
+		return this;
+	}
+
+	/**
+	 * @param parallelism maximum concurrent requests of a cycle, 8 by default
+	 * @return
+	 */
+	public DeploymentPolicyEngine setParallelism(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+		}
+		if(executor != null) {
+			throw new IllegalStateException("Parallelism must be set before the first cycle");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public DeploymentPolicyEngine setListener(Listener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Watches a deployment of an environment of this assembly
+	 *
+	 * @param environmentName
+	 * @param deploymentId
+	 * @return
+	 */
+	public DeploymentPolicyEngine watch(String environmentName, Long deploymentId) {
+		return watch(transition, environmentName, deploymentId);
+	}
+
+	/**
+	 * Watches a deployment of another assembly
+	 *
+	 * @param transition client of the assembly
+	 * @param environmentName
+	 * @param deploymentId
+	 * @return
+	 */
+	public DeploymentPolicyEngine watch(Transition transition, String environmentName, Long deploymentId) {
+		if(environmentName == null || deploymentId == null) {
+			throw new IllegalArgumentException("Missing environment or deployment id");
+		}
+		String key = transition.getAssemblyName() + "/" + environmentName + "/" + deploymentId;
+		if(!watches.containsKey(key)) {
+			watches.put(key, new Watch(transition, environmentName, deploymentId));
+		}
+		return this;
+	}
+
+	/**
+	 * @return number of deployments watched
+	 */
+	public int size() {
+		return watches.size();
+	}
+
+	/**
+	 * Runs one poll cycle
+	 *
+	 * @return
+	 */
+	public Cycle poll() {
+		Cycle cycle = new Cycle();
+		if(watches.isEmpty()) {
+			return cycle;
+		}
+		List<Watch> batch = new ArrayList<Watch>(watches.values());
+
+		List<Callable<Void>> fetches = new ArrayList<Callable<Void>>(batch.size());
+		for (final Watch watch : batch) {
+			watch.status = null;
+			fetches.add(new Callable<Void>() {
+				@Override
+				public Void call() throws OneOpsClientAPIException {
+					watch.status = watch.transition.getDeploymentStatus(watch.environmentName, watch.deploymentId);
+					return null;
+				}
+			});
+		}
+		List<Throwable> fetchErrors = runAll(fetches);
+
+		List<Watch> acting = new ArrayList<Watch>();
+		for (int i = 0; i < batch.size(); i++) {
+			Watch watch = batch.get(i);
+			if(fetchErrors.get(i) != null) {
+				LOG.warn("Failed to get status of deployment {} of environment {}", watch.deploymentId, watch.environmentName, fetchErrors.get(i));
+				cycle.errors++;
+				continue;
+			}
+			cycle.polled++;
+			watch.action = decide(watch);
+			if(watch.action != null) {
+				acting.add(watch);
+			}
+		}
+
+		List<Callable<Void>> actions = new ArrayList<Callable<Void>>(acting.size());
+		for (final Watch watch : acting) {
+			actions.add(new Callable<Void>() {
+				@Override
+				public Void call() throws OneOpsClientAPIException {
+					Long releaseId = watch.status.getReleaseId();
+					if(watch.action == Action.RETRY) {
+						watch.transition.retryDeployment(watch.environmentName, watch.deploymentId, releaseId);
+					} else {
+						watch.transition.approveDeployment(watch.environmentName, watch.deploymentId, releaseId);
+					}
+					return null;
+				}
+			});
+		}
+		List<Throwable> actionErrors = runAll(actions);
+		for (int i = 0; i < acting.size(); i++) {
+			Watch watch = acting.get(i);
+			Throwable error = actionErrors.get(i);
+			if(error == null) {
+				if(watch.action == Action.RETRY) {
+					watch.retries++;
+					cycle.retried++;
+				} else {
+					cycle.approved++;
+				}
+			} else {
+				LOG.warn("Failed to {} deployment {} of environment {}", watch.action, watch.deploymentId, watch.environmentName, error);
+				cycle.errors++;
+			}
+			if(listener != null) {
+				listener.onAction(watch.environmentName, watch.status, watch.action, asApiException(error));
+			}
+		}
+
+		for (Iterator<Watch> it = watches.values().iterator(); it.hasNext();) {
+			Watch watch = it.next();
+			if(watch.status != null && watch.action == null && isFinished(watch)) {
+				it.remove();
+				cycle.finished++;
+				if(listener != null) {
+					listener.onFinished(watch.environmentName, watch.status);
+				}
+			}
+			watch.action = null;
+		}
+		return cycle;
+	}
+
+	/**
+	 * Runs poll cycles until no deployment is watched any more or the timeout is reached
+	 *
+	 * @param interval time between the start of two cycles
+	 * @param intervalUnit
+	 * @param timeout
+	 * @param timeoutUnit
+	 * @return number of deployments still watched
+	 * @throws OneOpsClientAPIException if interrupted
+	 */
+	public int run(long interval, TimeUnit intervalUnit, long timeout, TimeUnit timeoutUnit) throws OneOpsClientAPIException {
+		long deadline = System.currentTimeMillis() + timeoutUnit.toMillis(timeout);
+		int cycles = 0;
+		Object pollWait = FlightRecorderSupport.beginPollWait();
+		try {
+			while(!watches.isEmpty()) {
+				long started = System.currentTimeMillis();
+				Cycle cycle = poll();
+				cycles++;
+				LOG.debug("Deployment policy cycle {}: {}", cycles, cycle);
+				if(watches.isEmpty()) {
+					break;
+				}
+				long now = System.currentTimeMillis();
+				long wait = Math.min(started + intervalUnit.toMillis(interval), deadline) - now;
+				if(now >= deadline) {
+					break;
+				}
+				if(wait > 0) {
+					try {
+						TimeUnit.MILLISECONDS.sleep(wait);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new OneOpsClientAPIException("Interrupted while watching deployments", e);
+					}
+				}
+			}
+			return watches.size();
+		} finally {
+			FlightRecorderSupport.endPollWait(pollWait, "DeploymentPolicyEngine.run", transition.getAssemblyName(), cycles, watches.isEmpty() ? "done" : "watching");
+		}
+	}
+
+	/**
+	 * Stops the threads of the pool, the engine can still be used afterwards
+	 */
+	@Override
+	public void close() {
+		if(executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private Action decide(Watch watch) {
+		Deployment status = watch.status;
+		String state = status.getDeploymentState();
+		if(FAILED.equals(state)) {
+			if(watch.retries < maxRetries && (retryRule == null || retryRule.apply(status))) {
+				return Action.RETRY;
+			}
+		} else if(PENDING.equals(state)) {
+			if(approvalRule != null && approvalRule.apply(status)) {
+				return Action.APPROVE;
+			}
+		}
+		return null;
+	}
+
+	private boolean isFinished(Watch watch) {
+		String state = watch.status.getDeploymentState();
+		return DONE_STATES.contains(state) || FAILED.equals(state);
+	}
+
+	/**
+	 * Runs the tasks on the pool and waits for all of them
+	 *
+	 * @return the failure of each task, null for the ones that succeeded
+	 */
+	private List<Throwable> runAll(List<Callable<Void>> tasks) {
+		if(tasks.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if(executor == null) {
+			executor = Executors.newFixedThreadPool(parallelism,
+					new ThreadFactoryBuilder().setDaemon(true).setNameFormat("oneops-deployment-policy-%d").build());
+		}
+		List<Throwable> errors = new ArrayList<Throwable>(tasks.size());
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+					errors.add(null);
+				} catch (ExecutionException e) {
+					errors.add(e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			while(errors.size() < tasks.size()) {
+				errors.add(e);
+			}
+		}
+		return errors;
+	}
+
+	private static OneOpsClientAPIException asApiException(Throwable error) {
+		if(error == null || error instanceof OneOpsClientAPIException) {
+			return (OneOpsClientAPIException) error;
+		}
+		return new OneOpsClientAPIException(error.getMessage(), error);
+	}
+}
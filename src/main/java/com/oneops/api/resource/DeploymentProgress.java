@@ -0,0 +1,331 @@
+package com.oneops.api.resource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.DeploymentRFC;
+import com.oneops.api.resource.model.RfcCi;
+
+/**
+ * Progress of a deployment computed from successive status and RFC snapshots.
+ *
+ * Counters are kept per exec order step and only adjusted for RFCs whose deployment record state
+ * changed since the previous snapshot. Steps are settled once all their RFCs are complete and are
+ * not looked at again, so each update only walks the RFCs of the steps still running or ahead.
+ * The remaining time is estimated from the durations of the steps settled so far: a step runs from
+ * the end of the previous one, or from when it was first seen running, until the last update of
+ * its RFC records.
+ *
+ * <pre>
+ * DeploymentProgress progress = transition.trackDeploymentProgress("qa", deploymentId);
+ * while (progress.refresh()) {
+ *     log.info("{}% done, {} ms left", progress.getPercentComplete(), progress.getEstimatedRemainingMillis());
+ *     ...
+ * }
+ * </pre>
+ *
+ * Not thread safe.
+ */
+public final class DeploymentProgress {
+
+	private static final String PENDING = "pending";
+	private static final String IN_PROGRESS = "inprogress";
+	private static final String COMPLETE = "complete";
+	private static final String FAILED = "failed";
+
+	private static final class Step {
+		int total;
+		int complete;
+		int failed;
+		int inProgress;
+		long started = -1;
+		long finished = -1;
+		long lastUpdated = -1;
+
+		boolean isSettled() {
+			return finished >= 0;
+		}
+
+		void count(String state, int delta) {
+			if(COMPLETE.equals(state)) {
+				complete += delta;
+			} else if(FAILED.equals(state)) {
+				failed += delta;
+			} else if(IN_PROGRESS.equals(state)) {
+				inProgress += delta;
+			}
+		}
+	}
+
+	private final Transition transition;
+	private final String environmentName;
+	private final Long deploymentId;
+	private final TreeMap<Long, Step> steps = new TreeMap<Long, Step>();
+	private final Map<Long, String> states = new HashMap<Long, String>();
+	private String deploymentState;
+	private long deploymentCreated = -1;
+	private int maxExecOrder;
+	private int total;
+	private int complete;
+	private int failed;
+	private int inProgress;
+	private int settled;
+	private long settledMillis;
+	private int measured;
+
+	/**
+	 * Tracker fed by the caller through the update methods
+	 */
+	public DeploymentProgress() {
+		this(null, null, null);
+	}
+
+	DeploymentProgress(Transition transition, String environmentName, Long deploymentId) {
+		this.transition = transition;
+		this.environmentName = environmentName;
+		this.deploymentId = deploymentId;
+	}
+
+	/**
+	 * Fetches the deployment status and RFCs and updates the progress, only for trackers created
+	 * by {@link Transition#trackDeploymentProgress(String, Long)}
+	 *
+	 * @return whether the deployment is still active
+	 * @throws OneOpsClientAPIException
+	 */
+	public boolean refresh() throws OneOpsClientAPIException {
+		if(transition == null) {
+			throw new IllegalStateException("Tracker is not bound to a deployment");
+		}
+		update(transition.getDeploymentStatus(environmentName, deploymentId));
+		update(transition.getDeployment(environmentName, deploymentId));
+		return isActive();
+	}
+
+	/**
+	 * @param status
+	 * @return
+	 */
+	public DeploymentProgress update(Deployment status) {
+		if(status != null) {
+			deploymentState = status.getDeploymentState();
+			if(status.getMaxExecOrder() != null) {
+				maxExecOrder = status.getMaxExecOrder();
+			}
+			if(status.getCreated() != null) {
+				deploymentCreated = status.getCreated();
+			}
+		}
+		return this;
+	}
+
+	public DeploymentProgress update(DeploymentRFC snapshot) {
+		return update(snapshot, System.currentTimeMillis());
+	}
+
+	/**
+	 * @param snapshot RFCs of the deployment
+	 * @param now time the snapshot was taken, epoch millis
+	 * @return
+	 */
+	public DeploymentProgress update(DeploymentRFC snapshot, long now) {
+		if(snapshot == null) {
+			return this;
+		}
+		Long from = firstUnsettled();
+		if(from == null && !steps.isEmpty()) {
+			from = steps.lastKey() + 1;
+		}
+		SortedMap<Long, List<RfcCi>> groups = snapshot.getIndex().getByExecOrder();
+		if(from != null) {
+			groups = groups.tailMap(from);
+		}
+		for (Entry<Long, List<RfcCi>> group : groups.entrySet()) {
+			Step step = steps.get(group.getKey());
+			if(step == null) {
+				step = new Step();
+				steps.put(group.getKey(), step);
+			}
+			for (RfcCi rfc : group.getValue()) {
+				update(step, rfc);
+			}
+		}
+		for (Entry<Long, Step> entry : (from == null ? steps : steps.tailMap(from)).entrySet()) {
+			Step step = entry.getValue();
+			if(step.isSettled()) {
+				continue;
+			}
+			if(step.started < 0 && (step.inProgress > 0 || step.complete > 0 || step.failed > 0)) {
+				long previous = previousFinished(entry.getKey());
+				step.started = previous >= 0 ? previous : (deploymentCreated >= 0 && entry.getKey().equals(steps.firstKey()) ? deploymentCreated : now);
+			}
+			if(step.total > 0 && step.complete == step.total) {
+				settle(step, now);
+			}
+		}
+		return this;
+	}
+
+	private void update(Step step, RfcCi rfc) {
+		Long rfcId = rfc.getRfcId();
+		if(rfcId == null) {
+			return;
+		}
+		Deployment record = rfc.getDeployment();
+		String state = record == null || record.getDeploymentState() == null ? PENDING : record.getDeploymentState();
+		String previous = states.put(rfcId, state);
+		if(previous == null) {
+			step.total++;
+			total++;
+		} else if(previous.equals(state)) {
+			return;
+		} else {
+			count(step, previous, -1);
+		}
+		count(step, state, 1);
+		if(record != null && record.getUpdated() != null) {
+			step.lastUpdated = Math.max(step.lastUpdated, record.getUpdated());
+		}
+	}
+
+	private void count(Step step, String state, int delta) {
+		step.count(state, delta);
+		if(COMPLETE.equals(state)) {
+			complete += delta;
+		} else if(FAILED.equals(state)) {
+			failed += delta;
+		} else if(IN_PROGRESS.equals(state)) {
+			inProgress += delta;
+		}
+	}
+
+	private void settle(Step step, long now) {
+		step.finished = step.lastUpdated >= 0 ? step.lastUpdated : now;
+		if(step.started >= 0 && step.finished >= step.started) {
+			settledMillis += step.finished - step.started;
+			measured++;
+		}
+		settled++;
+	}
+
+	/**
+	 * @return when the step before the given one finished, -1 if unknown
+	 */
+	private long previousFinished(Long execOrder) {
+		Long previous = steps.lowerKey(execOrder);
+		return previous == null ? -1 : steps.get(previous).finished;
+	}
+
+	private Long firstUnsettled() {
+		for (Entry<Long, Step> entry : steps.entrySet()) {
+			if(!entry.getValue().isSettled()) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return last deployment state seen, null before the first status update
+	 */
+	public String getDeploymentState() {
+		return deploymentState;
+	}
+
+	/**
+	 * @return whether the deployment is still running or waiting, true before the first status update
+	 */
+	public boolean isActive() {
+		return deploymentState == null || RfcLogTail.ACTIVE_STATES.contains(deploymentState);
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getComplete() {
+		return complete;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public int getInProgress() {
+		return inProgress;
+	}
+
+	public int getPending() {
+		return total - complete - failed - inProgress;
+	}
+
+	/**
+	 * @return number of exec order steps, from the deployment status if known
+	 */
+	public int getStepCount() {
+		return Math.max(maxExecOrder, steps.size());
+	}
+
+	public int getCompletedSteps() {
+		return settled;
+	}
+
+	/**
+	 * @return exec order of the first step not complete yet, null if all are complete
+	 */
+	public Long getCurrentExecOrder() {
+		return firstUnsettled();
+	}
+
+	/**
+	 * @return percentage of RFCs complete, 0 to 100
+	 */
+	public double getPercentComplete() {
+		return total == 0 ? 0 : complete * 100.0 / total;
+	}
+
+	/**
+	 * @return average duration of the completed steps, -1 if none was measured yet
+	 */
+	public long getAverageStepMillis() {
+		return measured == 0 ? -1 : settledMillis / measured;
+	}
+
+	public long getEstimatedRemainingMillis() {
+		return getEstimatedRemainingMillis(System.currentTimeMillis());
+	}
+
+	/**
+	 * Estimates the time left from the average step duration, the elapsed time of the running step
+	 * is deducted from its estimate
+	 *
+	 * @param now epoch millis
+	 * @return remaining millis, 0 when all steps are complete, -1 if no step duration is known yet
+	 */
+	public long getEstimatedRemainingMillis(long now) {
+		int remaining = getStepCount() - settled;
+		if(remaining <= 0) {
+			return 0;
+		}
+		long average = getAverageStepMillis();
+		if(average < 0) {
+			return -1;
+		}
+		long current = average;
+		Long execOrder = firstUnsettled();
+		if(execOrder != null) {
+			Step step = steps.get(execOrder);
+			long started = step.started >= 0 ? step.started : previousFinished(execOrder);
+			if(started >= 0) {
+				current = Math.max(0, average - (now - started));
+			}
+		}
+		return current + (remaining - 1) * average;
+	}
+}
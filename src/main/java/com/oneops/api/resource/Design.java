@@ -1,5 +1,9 @@
 package com.oneops.api.resource;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,12 +17,17 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.jayway.restassured.path.json.JsonPath;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.RequestBodies;
+import com.oneops.api.http.RequestBody;
+import com.oneops.api.http.ResponseBody;
+import com.oneops.api.http.ResponseSink;
+import com.oneops.api.http.ResponseSinks;
 import com.oneops.api.resource.model.AttrProps;
 import com.oneops.api.resource.model.CiAttributes;
 import com.oneops.api.resource.model.CiResource;
@@ -31,6 +40,7 @@ public class Design extends APIClient {
 
 	private String designReleaseURI;
     private String designURI;
+    private String assemblyName;
 
     public Design(OOInstance instance, String assemblyName) throws OneOpsClientAPIException {
 		super(instance);
@@ -38,6 +48,7 @@ public class Design extends APIClient {
 			String msg = "Missing assembly name";
 			throw new OneOpsClientAPIException(msg);
 		}
+		this.assemblyName = assemblyName;
 		designReleaseURI = IConstants.ASSEMBLY_URI + assemblyName + IConstants.DESIGN_URI + IConstants.RELEASES_URI;
 		designURI = IConstants.ASSEMBLY_URI + assemblyName + IConstants.DESIGN_URI;
 	}
@@ -55,8 +66,8 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -70,17 +81,31 @@ public class Design extends APIClient {
 	}
 	
 	/**
-	 * Lists all the platforms
+	 * Lists all the platforms, from the design snapshot cache when one is set on the instance
 	 * 
 	 * @return
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listPlatforms() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI);
+		DesignSnapshot snapshot = cachedSnapshot();
+		if(snapshot != null) {
+			return new ArrayList<CiResource>(snapshot.getPlatforms());
+		}
+		return fetchPlatforms();
+	}
+	
+	/**
+	 * Lists all the platforms
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	List<CiResource> fetchPlatforms() throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of platforms due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -148,9 +173,10 @@ public class Design extends APIClient {
 		Map<String, String> ownerProps = Maps.newHashMap();
 		ownerProps.put("description", "");
 		ro.setOwnerProps(ownerProps );
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
-		Response response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI);
+		ApiResponse response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI);
+		invalidateSnapshot();
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -173,15 +199,16 @@ public class Design extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Release commitDesign() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(designReleaseURI + "latest");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designReleaseURI + "latest");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				
-				String releaseState = response.getBody().jsonPath().get("releaseState");
+				String releaseState = response.getBody().path("releaseState");
 				if("open".equals(releaseState)) {
-					long releaseId = response.getBody().jsonPath().get("releaseId");
+					long releaseId = ((Number) response.getBody().path("releaseId")).longValue();
 					response = request.post(designReleaseURI + releaseId + "/commit");
+					invalidateSnapshot();
 					if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 						return response.getBody().as(Release.class);
 					} else {
@@ -210,11 +237,26 @@ public class Design extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Release getLatestRelease() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(designReleaseURI + "latest" );
+		Release release = fetchLatestRelease();
+		if(release == null) {
+			String msg = String.format("Failed to get latest releases of assembly %s due to no release found", assemblyName);
+			throw new OneOpsClientAPIException(msg);
+		}
+		return release;
+	}
+	
+	/**
+	 * @return the latest release, null if the design has none
+	 * @throws OneOpsClientAPIException
+	 */
+	Release fetchLatestRelease() throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designReleaseURI + "latest" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Release.class);
+			} else if(response.getStatusCode() == 404) {
+				return null;
 			} else {
 				String msg = String.format("Failed to get latest releases due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -223,6 +265,45 @@ public class Design extends APIClient {
 		String msg = String.format("Failed to get latest releases due to null response");
 		throw new OneOpsClientAPIException(msg);
 	}
+	
+	/**
+	 * Platforms, components and variables of the design as of its latest release, from the design
+	 * snapshot cache when one is set on the instance, read in full otherwise
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public DesignSnapshot getSnapshot() throws OneOpsClientAPIException {
+		DesignSnapshotCache cache = getDesignSnapshotCache();
+		if(cache == null) {
+			cache = new DesignSnapshotCache();
+		}
+		DesignSnapshot snapshot = cache.get(this);
+		return snapshot != null ? snapshot : cache.fetch(this, null);
+	}
+	
+	/**
+	 * @return the cached snapshot, null without a cache or when the design has no release to tag one with
+	 */
+	private DesignSnapshot cachedSnapshot() throws OneOpsClientAPIException {
+		DesignSnapshotCache cache = getDesignSnapshotCache();
+		return cache == null ? null : cache.get(this);
+	}
+	
+	/**
+	 * Drops the cached snapshot after a write, so it is not served within the revalidate interval
+	 */
+	private void invalidateSnapshot() {
+		DesignSnapshotCache cache = getDesignSnapshotCache();
+		if(cache != null) {
+			cache.invalidate(assemblyName);
+		}
+	}
+	
+	String getAssemblyName() {
+		return assemblyName;
+	}
+	
 	/**
 	 * Commits specific platform with open release
 	 * 
@@ -231,11 +312,12 @@ public class Design extends APIClient {
 	 */
 	public JsonPath commitPlatform(String platformName) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		CiResource platform = getPlatform(platformName);
 		if(platform != null) {
 			Long platformId = platform.getCiId();
-			Response response = request.post(designURI + IConstants.PLATFORM_URI + platformId + "/commit");
+			ApiResponse response = request.post(designURI + IConstants.PLATFORM_URI + platformId + "/commit");
+			invalidateSnapshot();
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().jsonPath();
 			} else {
@@ -281,8 +363,9 @@ public class Design extends APIClient {
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
 		jsonObject.put("links_to", toIds);
 
-		RequestSpecification request = createRequest();
-		Response response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + fromPlatform.getCiId());
+		ApiRequest request = createRequest();
+		ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + fromPlatform.getCiId());
+		invalidateSnapshot();
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -310,8 +393,9 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(designURI + IConstants.PLATFORM_URI + platformName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(designURI + IConstants.PLATFORM_URI + platformName);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -324,6 +408,25 @@ public class Design extends APIClient {
 		throw new OneOpsClientAPIException(msg);
 	}
 	
+	/**
+	 * List platform components for a given assembly/design/platform, from the design snapshot
+	 * cache when one is set on the instance
+	 * 
+	 * @param platformName
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<CiResource> listPlatformComponents(String platformName) throws OneOpsClientAPIException {
+		DesignSnapshot snapshot = cachedSnapshot();
+		if(snapshot != null) {
+			List<CiResource> components = snapshot.getPlatformComponents(platformName);
+			if(components != null) {
+				return new ArrayList<CiResource>(components);
+			}
+		}
+		return fetchPlatformComponents(platformName);
+	}
+	
 	/**
 	 * List platform components for a given assembly/design/platform
 	 * 
@@ -332,16 +435,16 @@ public class Design extends APIClient {
 	 * @return
 	 * @throws OneOpsClientAPIException
 	 */
-	public List<CiResource> listPlatformComponents(String platformName) throws OneOpsClientAPIException {
+	List<CiResource> fetchPlatformComponents(String platformName) throws OneOpsClientAPIException {
 		if(platformName == null || platformName.length() == 0) {
 			String msg = "Missing platform name to list enviornment platform components";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of platforms components due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -368,8 +471,8 @@ public class Design extends APIClient {
 			String msg = "Missing component name to get platform component details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -401,17 +504,17 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
-		Response newComponentResponse = request.queryParam("template_name", componentName).get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + "new.json");
+		ApiResponse newComponentResponse = request.queryParam("template_name", componentName).get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + "new.json");
 		if(newComponentResponse != null) {
 			ResourceObject ro = new ResourceObject();
 			Map<String, String> properties = Maps.newHashMap();
 			properties.put("ciName", uniqueName);
 			properties.put("rfcAction", "add");
 			
-			JsonPath componentDetails = newComponentResponse.getBody().jsonPath();
-			Map<String, String> attr = componentDetails.getMap("ciAttributes");
+			ResponseBody componentDetails = newComponentResponse.getBody();
+			Map<String, String> attr = componentDetails.path("ciAttributes");
 			if(attr == null) {
 				attr = Maps.newHashMap();
 			}
@@ -430,7 +533,7 @@ public class Design extends APIClient {
 				}
 				attr.putAll(attributes);
 				
-				Map<String, String> ownerProps =  componentDetails.getMap("ciAttrProps.owner");
+				Map<String, String> ownerProps =  componentDetails.path("ciAttrProps.owner");
 				if(ownerProps == null) {
 					ownerProps = Maps.newHashMap();
 				}
@@ -446,7 +549,8 @@ public class Design extends APIClient {
 			if(dependsOnComponents != null && dependsOnComponents.size() > 0) {
 				jsonObject.put("sibling_depends_on", dependsOnComponents);
 			}
-			Response response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI );
+			ApiResponse response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI );
+			invalidateSnapshot();
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					return response.getBody().as(CiResource.class);
@@ -489,7 +593,7 @@ public class Design extends APIClient {
 			ResourceObject ro = new ResourceObject();
 			
 			Long ciId = componentDetails.getCiId();
-			RequestSpecification request = createRequest();
+			ApiRequest request = createRequest();
 			
 			Map<String, String> attr = Maps.newHashMap();
 			List<String> dependsOnList = Lists.newArrayList();
@@ -526,7 +630,8 @@ public class Design extends APIClient {
 			ro.setOwnerProps(ownerProps);
 			
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
- 			Response response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
+ 			ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
+			invalidateSnapshot();
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					if(dependsOnList != null && dependsOnList.size() > 0) {
@@ -574,14 +679,15 @@ public class Design extends APIClient {
 		List<Long> dependsOnCiIds = getDependsOnSiblingIds(platformName, componentName, componentDetails.getCiClassName(), dependsOnComponentNames);
 	
 		Long ciId = componentDetails.getCiId();
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
 		JSONObject jsonObject = new JSONObject();
 		jsonObject.put("cms_dj_ci", new JSONObject());
 		
 		
 		jsonObject.put("sibling_depends_on", dependsOnCiIds);
-		Response response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
+		ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -634,8 +740,9 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -660,11 +767,11 @@ public class Design extends APIClient {
 			String msg = "Missing platform name to list platform attachments";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of design platforms attachments due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -691,8 +798,8 @@ public class Design extends APIClient {
 			String msg = "Missing component name to get platform component attachment details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -747,7 +854,7 @@ public class Design extends APIClient {
 			ResourceObject ro = new ResourceObject();
 			
 			Long ciId = attachmentDetails.getCiId();
-			RequestSpecification request = createRequest();
+			ApiRequest request = createRequest();
 			
 			//Add existing ciAttributes 
 			CiAttributes ciAttributes = attachmentDetails.getCiAttributes();
@@ -780,7 +887,7 @@ public class Design extends APIClient {
 			ro.setOwnerProps(ownerProps);
 			ro.setAttributes(attr);
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
- 			Response response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName 
+ 			ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName 
  					+ IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + ciId);
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -822,24 +929,24 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
-		Response newAttachmentResponse = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + "new.json");
+		ApiResponse newAttachmentResponse = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + "new.json");
 		if(newAttachmentResponse != null) {
 			ResourceObject ro = new ResourceObject();
 			Map<String, String> properties = Maps.newHashMap();
 			properties.put("ciName", uniqueName);
 			properties.put("rfcAction", "add");
 			
-			JsonPath attachmentDetails = newAttachmentResponse.getBody().jsonPath();
-			Map<String, String> attr = attachmentDetails.getMap("ciAttributes");
+			ResponseBody attachmentDetails = newAttachmentResponse.getBody();
+			Map<String, String> attr = attachmentDetails.path("ciAttributes");
 			if(attr == null) {
 				attr = Maps.newHashMap();
 			}
 			if(attributes != null && attributes.size() > 0) {
 				attr.putAll(attributes);
 				
-				Map<String, String> ownerProps =  attachmentDetails.getMap("ciAttrProps.owner");
+				Map<String, String> ownerProps =  attachmentDetails.path("ciAttrProps.owner");
 				if(ownerProps == null) {
 					ownerProps = Maps.newHashMap();
 				}
@@ -851,7 +958,7 @@ public class Design extends APIClient {
 			ro.setAttributes(attr);
 			ro.setProperties(properties);
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
-			Response response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI);
+			ApiResponse response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI);
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					return response.getBody().as(CiResource.class);
@@ -888,8 +995,8 @@ public class Design extends APIClient {
 			String msg = "Missing component name to delete attachment";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -904,22 +1011,41 @@ public class Design extends APIClient {
 	}
 	
 	/**
-	 * List local variables for a given assembly/design/platform
+	 * List local variables for a given assembly/design/platform, from the design snapshot cache
+	 * when one is set on the instance
 	 * 
 	 * @param platformName
 	 * @return
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listPlatformVariables(String platformName) throws OneOpsClientAPIException {
+		DesignSnapshot snapshot = cachedSnapshot();
+		if(snapshot != null) {
+			List<CiResource> variables = snapshot.getPlatformVariables(platformName);
+			if(variables != null) {
+				return new ArrayList<CiResource>(variables);
+			}
+		}
+		return fetchPlatformVariables(platformName);
+	}
+	
+	/**
+	 * List local variables for a given assembly/design/platform
+	 * 
+	 * @param platformName
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	List<CiResource> fetchPlatformVariables(String platformName) throws OneOpsClientAPIException {
 		if(platformName == null || platformName.length() == 0) {
 			String msg = "Missing platform name to list platform variables";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of design platforms variables due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -946,8 +1072,8 @@ public class Design extends APIClient {
 			String msg = "Missing variable name to fetch";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -983,19 +1109,19 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			
-		Response variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
-		if(variable != null && variable.getBody() != null && variable.getBody().jsonPath().getString("ciId") != null) {
+		ApiResponse variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		if(variable != null && variable.getBody() != null && variable.getBody().getString("ciId") != null) {
 			String msg = String.format("Global variables %s already exists", variableName);
 			throw new OneOpsClientAPIException(msg);
 		}
 		ResourceObject ro = new ResourceObject();
-		Response newVarResponse = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + "new.json");
+		ApiResponse newVarResponse = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + "new.json");
 		if(newVarResponse != null) {
-			JsonPath newVarJsonPath = newVarResponse.getBody().jsonPath();
-			if(newVarJsonPath != null) {
-				Map<String, String> attr = newVarJsonPath.getMap("ciAttributes");
+			ResponseBody newVarBody = newVarResponse.getBody();
+			if(newVarBody != null) {
+				Map<String, String> attr = newVarBody.path("ciAttributes");
 				Map<String, String> properties = Maps.newHashMap();
 				Map<String, String> ownerProps = Maps.newHashMap();
 				
@@ -1022,7 +1148,8 @@ public class Design extends APIClient {
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
 		
-		Response response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI );
+		ApiResponse response = request.body(jsonObject.toString()).post(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI );
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1060,17 +1187,17 @@ public class Design extends APIClient {
 		}
 		
 		Boolean success = false;
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			
-		Response variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		ApiResponse variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
 		if(variable == null || variable.getStatusCode() != 200 || variable.getBody() == null) {
 			String msg = String.format("Failed to find local variables %s for platform %s", variableName, platformName);
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		JsonPath variableDetails = variable.getBody().jsonPath();
+		ResponseBody variableDetails = variable.getBody();
 		String ciId = variableDetails.getString("ciId");
-		Map<String, String> attr = variableDetails.getMap("ciAttributes");
+		Map<String, String> attr = variableDetails.path("ciAttributes");
 		if(attr == null) {
 			attr = new HashMap<String, String> ();
 		}
@@ -1088,7 +1215,8 @@ public class Design extends APIClient {
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
 		
-		Response response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + ciId);
+		ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + ciId);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				//return response.getBody().jsonPath();
@@ -1125,9 +1253,9 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			
-		Response variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		ApiResponse variable = request.get(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
 		if(variable == null || variable.getStatusCode() != 200 || variable.getBody() == null) {
 			return addPlatformVariable(platformName, variableName, variableValue, isSecure) == null ? false : true;
 		} else {
@@ -1154,8 +1282,9 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(designURI + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1184,8 +1313,9 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(designURI + IConstants.VARIABLES_URI + variableName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(designURI + IConstants.VARIABLES_URI + variableName);
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1199,17 +1329,32 @@ public class Design extends APIClient {
 	}
 
 	/**
-	 * List global variables for a given assembly/design
+	 * List global variables for a given assembly/design, from the design snapshot cache when one
+	 * is set on the instance
 	 * 
 	 * @return
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listGlobalVariables() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.VARIABLES_URI);
+		DesignSnapshot snapshot = cachedSnapshot();
+		if(snapshot != null) {
+			return new ArrayList<CiResource>(snapshot.getGlobalVariables());
+		}
+		return fetchGlobalVariables();
+	}
+	
+	/**
+	 * List global variables for a given assembly/design
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	List<CiResource> fetchGlobalVariables() throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.VARIABLES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to get list of design variables due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -1231,8 +1376,8 @@ public class Design extends APIClient {
 			String msg = "Missing variable name to fetch";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(designURI + IConstants.VARIABLES_URI + variableName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(designURI + IConstants.VARIABLES_URI + variableName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1264,19 +1409,19 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			
-		Response variable = request.get(designURI + IConstants.VARIABLES_URI + variableName);
-		if(variable != null && variable.getBody() != null && variable.getBody().jsonPath().getString("ciId") != null) {
+		ApiResponse variable = request.get(designURI + IConstants.VARIABLES_URI + variableName);
+		if(variable != null && variable.getBody() != null && variable.getBody().getString("ciId") != null) {
 			String msg = String.format("Global variables %s already exists", variableName);
 			throw new OneOpsClientAPIException(msg);
 		}
 		ResourceObject ro = new ResourceObject();
-		Response newVarResponse = request.get(designURI + IConstants.VARIABLES_URI + "new.json");
+		ApiResponse newVarResponse = request.get(designURI + IConstants.VARIABLES_URI + "new.json");
 		if(newVarResponse != null) {
-			JsonPath newVarJsonPath = newVarResponse.getBody().jsonPath();
-			if(newVarJsonPath != null) {
-				Map<String, String> attr = newVarJsonPath.getMap("ciAttributes");
+			ResponseBody newVarBody = newVarResponse.getBody();
+			if(newVarBody != null) {
+				Map<String, String> attr = newVarBody.path("ciAttributes");
 				Map<String, String> properties = Maps.newHashMap();
 				Map<String, String> ownerProps = Maps.newHashMap();
 				if(attr == null) {
@@ -1301,7 +1446,8 @@ public class Design extends APIClient {
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
 		
-		Response response = request.body(jsonObject.toString()).post(designURI + IConstants.VARIABLES_URI );
+		ApiResponse response = request.body(jsonObject.toString()).post(designURI + IConstants.VARIABLES_URI );
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1335,16 +1481,16 @@ public class Design extends APIClient {
 		}
 		
 		Boolean success = false;
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			
-			Response variable = request.get(designURI + IConstants.VARIABLES_URI + variableName);
+			ApiResponse variable = request.get(designURI + IConstants.VARIABLES_URI + variableName);
 			if(variable == null || variable.getBody() == null) {
 				String msg = String.format("Failed to find global variables %s", variableName);
 				throw new OneOpsClientAPIException(msg);
 			}
-			JsonPath variableDetails = variable.getBody().jsonPath();
+			ResponseBody variableDetails = variable.getBody();
 			String ciId = variableDetails.getString("ciId");
-			Map<String, String> attr = variableDetails.getMap("ciAttributes");
+			Map<String, String> attr = variableDetails.path("ciAttributes");
 			if(attr == null) {
 				attr = new HashMap<String, String> ();
 			}
@@ -1361,7 +1507,8 @@ public class Design extends APIClient {
 			
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
 			
-			Response response = request.body(jsonObject.toString()).put(designURI + IConstants.VARIABLES_URI + ciId);
+			ApiResponse response = request.body(jsonObject.toString()).put(designURI + IConstants.VARIABLES_URI + ciId);
+			invalidateSnapshot();
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					success = true;
@@ -1381,9 +1528,9 @@ public class Design extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public JsonPath extractYaml() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
-		Response response = request.get(designURI + "/extract.yaml");
+		ApiResponse response = request.get(designURI + "/extract.yaml");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().jsonPath();
@@ -1396,6 +1543,53 @@ public class Design extends APIClient {
 		throw new OneOpsClientAPIException(msg);
 	}
 	
+	/**
+	 * Streams the design in Yaml format to a stream without buffering it, the stream is not closed
+	 * 
+	 * @param out
+	 * @throws OneOpsClientAPIException
+	 */
+	public void extractYaml(OutputStream out) throws OneOpsClientAPIException {
+		if(out == null) {
+			String msg = "Missing output stream to extract yaml content to";
+			throw new OneOpsClientAPIException(msg);
+		}
+		extractYaml(ResponseSinks.toStream(out));
+	}
+	
+	/**
+	 * Streams the design in Yaml format to a file, which is only replaced once the whole design
+	 * was received
+	 * 
+	 * @param path
+	 * @param gzip compresses the file
+	 * @throws OneOpsClientAPIException
+	 */
+	public void extractYaml(Path path, boolean gzip) throws OneOpsClientAPIException {
+		if(path == null) {
+			String msg = "Missing file to extract yaml content to";
+			throw new OneOpsClientAPIException(msg);
+		}
+		extractYaml(ResponseSinks.toFile(path, gzip));
+	}
+	
+	private void extractYaml(ResponseSink sink) throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		
+		ApiResponse response = request.get(designURI + "/extract.yaml", sink);
+		if(response != null) {
+			// only a 200 body is handed to the sink
+			if(response.getStatusCode() == 200) {
+				return;
+			} else {
+				String msg = String.format("Failed to extract yaml content due to %s", response.getStatusLine());
+				throw new OneOpsClientAPIException(msg);
+			}
+		} 
+		String msg = "Failed to extract yaml content due to null response";
+		throw new OneOpsClientAPIException(msg);
+	}
+	
 	/**
 	 * Adds specific platform from Yaml/Json file input
 	 * 
@@ -1409,12 +1603,13 @@ public class Design extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		request.header("Content-Type", "multipart/text");
 		JSONObject jo = new JSONObject();
 		jo.put("data", filecontent);
 		
-		Response response = request.parameter("data", filecontent).put(designURI + "/load" );
+		ApiResponse response = request.parameter("data", filecontent).put(designURI + "/load" );
+		invalidateSnapshot();
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().jsonPath();
@@ -1427,4 +1622,74 @@ public class Design extends APIClient {
 		throw new OneOpsClientAPIException(msg);
 	}
 	
+	/**
+	 * Adds platforms from a Yaml/Json file, streamed without loading it in memory
+	 * 
+	 * @param path
+	 * @param gzip compresses the upload, the endpoint has to accept gzip encoded requests
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public JsonPath loadFile(Path path, boolean gzip) throws OneOpsClientAPIException {
+		if(path == null || !Files.isRegularFile(path)) {
+			String msg = String.format("Missing input file %s", path);
+			throw new OneOpsClientAPIException(msg);
+		}
+		return loadFile(RequestBodies.of(path), gzip);
+	}
+	
+	/**
+	 * Adds platforms from Yaml/Json content read from a stream, which is read to the end but not closed
+	 * 
+	 * @param in
+	 * @param gzip compresses the upload, the endpoint has to accept gzip encoded requests
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public JsonPath loadFile(InputStream in, boolean gzip) throws OneOpsClientAPIException {
+		if(in == null) {
+			String msg = "Missing input file content";
+			throw new OneOpsClientAPIException(msg);
+		}
+		return loadFile(RequestBodies.of(in), gzip);
+	}
+	
+	private JsonPath loadFile(RequestBody content, boolean gzip) throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		String boundary = RequestBodies.boundary();
+		request.header("Content-Type", "multipart/form-data; boundary=" + boundary);
+		RequestBody body = RequestBodies.formField(boundary, "data", content);
+		if(gzip) {
+			request.header("Content-Encoding", "gzip");
+			body = RequestBodies.gzip(body);
+		}
+		
+		ApiResponse response = request.body(body).put(designURI + "/load");
+		invalidateSnapshot();
+		if(response != null) {
+			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
+				return response.getBody().jsonPath();
+			} else {
+				String msg = String.format("Failed to load yaml content due to %s", response.getStatusLine());
+				throw new OneOpsClientAPIException(msg);
+			}
+		} 
+		String msg = "Failed to load yaml content due to null response";
+		throw new OneOpsClientAPIException(msg);
+	}
+	
+	/**
+	 * Sync engine reconciling this design with a spec, changing only what differs, its reads
+	 * bypass the design snapshot cache
+	 * 
+	 * @param spec
+	 * @return
+	 */
+	public DesignSync sync(DesignSpec spec) {
+		if(spec == null) {
+			throw new IllegalArgumentException("Missing design spec to sync");
+		}
+		return new DesignSync(this, spec);
+	}
+	
 }
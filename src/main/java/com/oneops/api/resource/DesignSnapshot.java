@@ -0,0 +1,105 @@
+package com.oneops.api.resource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.Release;
+
+/**
+ * Platforms, their components and variables and the global variables of a design, read together
+ * and tagged with the latest release of the design at the time, see {@link DesignSnapshotCache}.
+ * The lists are unmodifiable, the resources in them are shared by every reader of the snapshot.
+ */
+public final class DesignSnapshot {
+
+	private final Release release;
+	private final long fetchedAt;
+	private final List<CiResource> platforms;
+	private final List<CiResource> globalVariables;
+	private final Map<String, List<CiResource>> components;
+	private final Map<String, List<CiResource>> variables;
+
+	DesignSnapshot(Release release, long fetchedAt, List<CiResource> platforms, List<CiResource> globalVariables,
+			Map<String, List<CiResource>> components, Map<String, List<CiResource>> variables) {
+		this.release = release;
+		this.fetchedAt = fetchedAt;
+		this.platforms = Collections.unmodifiableList(platforms);
+		this.globalVariables = Collections.unmodifiableList(globalVariables);
+		this.components = components;
+		this.variables = variables;
+	}
+
+	/**
+	 * @return latest release read before the design, null if the design has none
+	 */
+	public Release getRelease() {
+		return release;
+	}
+
+	/**
+	 * @return id of the latest release, null if the design has none
+	 */
+	public Long getReleaseId() {
+		return release == null ? null : release.getReleaseId();
+	}
+
+	/**
+	 * @return revision of the latest release, null if the design has none
+	 */
+	public Integer getRevision() {
+		return release == null ? null : release.getRevision();
+	}
+
+	/**
+	 * @return when the design was read, in milliseconds since the epoch
+	 */
+	public long getFetchedAt() {
+		return fetchedAt;
+	}
+
+	public List<CiResource> getPlatforms() {
+		return platforms;
+	}
+
+	public List<CiResource> getGlobalVariables() {
+		return globalVariables;
+	}
+
+	/**
+	 * @param platformName
+	 * @return components of the platform, null if it was not in the design
+	 */
+	public List<CiResource> getPlatformComponents(String platformName) {
+		return components.get(platformName);
+	}
+
+	/**
+	 * @param platformName
+	 * @return local variables of the platform, null if it was not in the design
+	 */
+	public List<CiResource> getPlatformVariables(String platformName) {
+		return variables.get(platformName);
+	}
+
+	/**
+	 * @param latest
+	 * @return true if the latest release is the one this snapshot was read at and has not changed
+	 *         since, an open release changes with every write made to the design
+	 */
+	boolean isCurrent(Release latest) {
+		if(release == null || latest == null || release.getReleaseId() == null) {
+			return false;
+		}
+		return release.getReleaseId().equals(latest.getReleaseId())
+				&& equal(release.getRevision(), latest.getRevision())
+				&& equal(release.getReleaseState(), latest.getReleaseState())
+				&& equal(release.getCiRfcCount(), latest.getCiRfcCount())
+				&& equal(release.getUpdated(), latest.getUpdated());
+	}
+
+	private static boolean equal(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
@@ -0,0 +1,232 @@
+package com.oneops.api.resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.Release;
+
+/**
+ * Keeps one {@link DesignSnapshot} per assembly so that listing platforms, components and variables
+ * of a design again costs a single read of its latest release instead of reading the whole design.
+ * The design is read again, all in parallel, only when the latest release changed: another release,
+ * revision or state, or a write added to the open release. Designs without a release are not cached,
+ * listing them reads only what is listed.
+ *
+ * A cache serves the designs of one organization, it is set on the instance they are read through:
+ *
+ * <pre>
+ * instance.setDesignSnapshotCache(new DesignSnapshotCache());
+ * </pre>
+ *
+ * The latest release is read on every access unless a revalidate interval is set, within which the
+ * snapshot is served as is. Writes made through a {@link Design} of the same instance drop the
+ * snapshot of their assembly, writes made elsewhere are not seen within the interval.
+ * Reads made while syncing a design never go through the cache.
+ */
+public final class DesignSnapshotCache {
+
+	private static final class Entry {
+		volatile DesignSnapshot snapshot;
+		volatile long validatedAt;
+	}
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong refreshes = new AtomicLong();
+	private volatile long revalidateInterval;
+	private volatile int parallelism = 8;
+
+	/**
+	 * @param interval how long a snapshot is served without reading the latest release, 0 by default
+	 * @param unit
+	 * @return
+	 */
+	public DesignSnapshotCache setRevalidateInterval(long interval, TimeUnit unit) {
+		if(interval < 0) {
+			throw new IllegalArgumentException("Revalidate interval must not be negative: " + interval);
+		}
+		this.revalidateInterval = unit.toMillis(interval);
+		return this;
+	}
+
+	/**
+	 * @param parallelism most requests in flight while reading a design, 8 by default
+	 * @return
+	 */
+	public DesignSnapshotCache setParallelism(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Drops the snapshot of an assembly, it is read again on the next access
+	 *
+	 * @param assemblyName
+	 */
+	public void invalidate(String assemblyName) {
+		entries.remove(assemblyName);
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return accesses served from a snapshot
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return designs read in full
+	 */
+	public long getRefreshes() {
+		return refreshes.get();
+	}
+
+	/**
+	 * @param design
+	 * @return the snapshot of the design, read again if its latest release changed, null if the
+	 *         design has no release
+	 * @throws OneOpsClientAPIException
+	 */
+	DesignSnapshot get(Design design) throws OneOpsClientAPIException {
+		Entry entry = entries.get(design.getAssemblyName());
+		if(entry == null) {
+			Entry created = new Entry();
+			entry = entries.putIfAbsent(design.getAssemblyName(), created);
+			if(entry == null) {
+				entry = created;
+			}
+		}
+		DesignSnapshot snapshot = entry.snapshot;
+		if(snapshot != null && isFresh(entry)) {
+			hits.incrementAndGet();
+			return snapshot;
+		}
+		// one reader per assembly, the others wait for its snapshot
+		synchronized (entry) {
+			snapshot = entry.snapshot;
+			if(snapshot != null && isFresh(entry)) {
+				hits.incrementAndGet();
+				return snapshot;
+			}
+			Release latest = design.fetchLatestRelease();
+			if(latest == null) {
+				entry.snapshot = null;
+				return null;
+			}
+			if(snapshot != null && snapshot.isCurrent(latest)) {
+				entry.validatedAt = System.currentTimeMillis();
+				hits.incrementAndGet();
+				return snapshot;
+			}
+			// the release is read first, so the snapshot is at least as recent as its tag
+			snapshot = fetch(design, latest);
+			entry.snapshot = snapshot;
+			entry.validatedAt = System.currentTimeMillis();
+			refreshes.incrementAndGet();
+			return snapshot;
+		}
+	}
+
+	private boolean isFresh(Entry entry) {
+		return revalidateInterval > 0 && System.currentTimeMillis() - entry.validatedAt < revalidateInterval;
+	}
+
+	/**
+	 * Reads the design in full, in parallel
+	 *
+	 * @param design
+	 * @param latest release to tag the snapshot with
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	DesignSnapshot fetch(final Design design, Release latest) throws OneOpsClientAPIException {
+		long fetchedAt = System.currentTimeMillis();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("oneops-design-snapshot-%d").build());
+		try {
+			Future<List<CiResource>> platforms = executor.submit(new Callable<List<CiResource>>() {
+				@Override
+				public List<CiResource> call() throws Exception {
+					return design.fetchPlatforms();
+				}
+			});
+			Future<List<CiResource>> globals = executor.submit(new Callable<List<CiResource>>() {
+				@Override
+				public List<CiResource> call() throws Exception {
+					return design.fetchGlobalVariables();
+				}
+			});
+			List<CiResource> platformList = nonNull(get(platforms));
+			Map<String, Future<List<CiResource>>> components = new HashMap<String, Future<List<CiResource>>>();
+			Map<String, Future<List<CiResource>>> variables = new HashMap<String, Future<List<CiResource>>>();
+			for (CiResource platform : platformList) {
+				final String name = platform.getCiName();
+				components.put(name, executor.submit(new Callable<List<CiResource>>() {
+					@Override
+					public List<CiResource> call() throws Exception {
+						return design.fetchPlatformComponents(name);
+					}
+				}));
+				variables.put(name, executor.submit(new Callable<List<CiResource>>() {
+					@Override
+					public List<CiResource> call() throws Exception {
+						return design.fetchPlatformVariables(name);
+					}
+				}));
+			}
+			return new DesignSnapshot(latest, fetchedAt, platformList, nonNull(get(globals)), collect(components), collect(variables));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Map<String, List<CiResource>> collect(Map<String, Future<List<CiResource>>> futures) throws OneOpsClientAPIException {
+		Map<String, List<CiResource>> lists = new HashMap<String, List<CiResource>>();
+		for (Map.Entry<String, Future<List<CiResource>>> future : futures.entrySet()) {
+			lists.put(future.getKey(), Collections.unmodifiableList(nonNull(get(future.getValue()))));
+		}
+		return lists;
+	}
+
+	private static List<CiResource> nonNull(List<CiResource> list) {
+		return list == null ? new ArrayList<CiResource>() : list;
+	}
+
+	private static <T> T get(Future<T> future) throws OneOpsClientAPIException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			String msg = "Interrupted while reading design";
+			throw new OneOpsClientAPIException(msg, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof OneOpsClientAPIException) {
+				throw (OneOpsClientAPIException) cause;
+			}
+			throw new OneOpsClientAPIException(String.valueOf(cause.getMessage()), cause);
+		}
+	}
+}
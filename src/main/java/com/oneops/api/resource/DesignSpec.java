@@ -0,0 +1,276 @@
+package com.oneops.api.resource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.oneops.api.util.JsonUtil;
+import com.oneops.api.util.SimpleYaml;
+
+/**
+ * Desired state of a design read from a design file, see {@link DesignSync}.
+ *
+ * <pre>
+ * variables:
+ *   version: 1.0
+ * platforms:
+ *   app:
+ *     pack: oneops/tomcat:1
+ *     links: [db]
+ *     variables:
+ *       port: 8080
+ *     components:
+ *       user/oneops.1.User:
+ *         user-app:
+ *           username: app
+ * </pre>
+ *
+ * Components are keyed by template, optionally followed by /ciClassName, and then by name. Values
+ * are kept as strings, lists and maps of attributes are kept as their JSON text as the design
+ * stores them.
+ */
+public final class DesignSpec {
+
+	/**
+	 * Desired state of one platform
+	 */
+	public static final class Platform {
+		private final String name;
+		private final String source;
+		private final String pack;
+		private final String version;
+		private final List<String> links;
+		private final Map<String, String> variables;
+		private final Map<String, Component> components;
+
+		Platform(String name, String source, String pack, String version, List<String> links,
+				Map<String, String> variables, Map<String, Component> components) {
+			this.name = name;
+			this.source = source;
+			this.pack = pack;
+			this.version = version;
+			this.links = links;
+			this.variables = variables;
+			this.components = components;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		public String getPack() {
+			return pack;
+		}
+
+		public String getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return names of the platforms this one links to
+		 */
+		public List<String> getLinks() {
+			return links;
+		}
+
+		public Map<String, String> getVariables() {
+			return variables;
+		}
+
+		/**
+		 * @return components by name
+		 */
+		public Map<String, Component> getComponents() {
+			return components;
+		}
+	}
+
+	/**
+	 * Desired attributes of one component, attributes not listed are left as they are
+	 */
+	public static final class Component {
+		private final String name;
+		private final String template;
+		private final Map<String, String> attributes;
+
+		Component(String name, String template, Map<String, String> attributes) {
+			this.name = name;
+			this.template = template;
+			this.attributes = attributes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getTemplate() {
+			return template;
+		}
+
+		public Map<String, String> getAttributes() {
+			return attributes;
+		}
+	}
+
+	private final Map<String, String> variables;
+	private final Map<String, Platform> platforms;
+
+	private DesignSpec(Map<String, String> variables, Map<String, Platform> platforms) {
+		this.variables = variables;
+		this.platforms = platforms;
+	}
+
+	/**
+	 * @param yaml content of a design file
+	 * @return
+	 */
+	public static DesignSpec parse(String yaml) {
+		return fromDocument(SimpleYaml.parse(yaml));
+	}
+
+	/**
+	 * @param reader read until the end, not closed
+	 * @return
+	 * @throws IOException
+	 */
+	public static DesignSpec parse(Reader reader) throws IOException {
+		return fromDocument(SimpleYaml.parse(reader));
+	}
+
+	/**
+	 * @param path design file, UTF-8
+	 * @return
+	 * @throws IOException
+	 */
+	public static DesignSpec parse(Path path) throws IOException {
+		Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+		try {
+			return parse(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * @return global variables
+	 */
+	public Map<String, String> getVariables() {
+		return variables;
+	}
+
+	/**
+	 * @return platforms by name, in file order
+	 */
+	public Map<String, Platform> getPlatforms() {
+		return platforms;
+	}
+
+	private static DesignSpec fromDocument(Object document) {
+		Map<String, Object> root = map(document, "design");
+		Map<String, Platform> platforms = new LinkedHashMap<String, Platform>();
+		for (Map.Entry<String, Object> entry : map(root.get("platforms"), "platforms").entrySet()) {
+			platforms.put(entry.getKey(), platform(entry.getKey(), map(entry.getValue(), "platform " + entry.getKey())));
+		}
+		for (Platform platform : platforms.values()) {
+			for (String link : platform.links) {
+				if(!platforms.containsKey(link)) {
+					throw new IllegalArgumentException("Platform " + platform.name + " links to unknown platform " + link);
+				}
+			}
+		}
+		return new DesignSpec(strings(root.get("variables"), "variables"), Collections.unmodifiableMap(platforms));
+	}
+
+	private static Platform platform(String name, Map<String, Object> spec) {
+		Object packValue = spec.get("pack");
+		if(!(packValue instanceof String)) {
+			throw new IllegalArgumentException("Missing pack of platform " + name + ", expected source/pack:version");
+		}
+		String pack = (String) packValue;
+		int slash = pack.indexOf('/');
+		int colon = pack.lastIndexOf(':');
+		if(slash <= 0 || colon <= slash + 1 || colon == pack.length() - 1) {
+			throw new IllegalArgumentException("Invalid pack " + pack + " of platform " + name + ", expected source/pack:version");
+		}
+
+		List<String> links = new ArrayList<String>();
+		Object linkValue = spec.get("links");
+		if(linkValue instanceof String) {
+			links.add((String) linkValue);
+		} else if(linkValue instanceof List) {
+			for (Object link : (List<?>) linkValue) {
+				links.add(String.valueOf(link));
+			}
+		} else if(linkValue != null) {
+			throw new IllegalArgumentException("Invalid links of platform " + name);
+		}
+
+		Map<String, Component> components = new LinkedHashMap<String, Component>();
+		for (Map.Entry<String, Object> byTemplate : map(spec.get("components"), "components of " + name).entrySet()) {
+			String template = byTemplate.getKey();
+			int typeSeparator = template.indexOf('/');
+			if(typeSeparator >= 0) {
+				template = template.substring(0, typeSeparator);
+			}
+			for (Map.Entry<String, Object> entry : map(byTemplate.getValue(), "components " + byTemplate.getKey()).entrySet()) {
+				if(components.containsKey(entry.getKey())) {
+					throw new IllegalArgumentException("Duplicate component " + entry.getKey() + " in platform " + name);
+				}
+				Map<String, String> attributes = strings(entry.getValue(), "component " + entry.getKey());
+				components.put(entry.getKey(), new Component(entry.getKey(), template, attributes));
+			}
+		}
+		return new Platform(name, pack.substring(0, slash), pack.substring(slash + 1, colon), pack.substring(colon + 1),
+				Collections.unmodifiableList(links), strings(spec.get("variables"), "variables of " + name),
+				Collections.unmodifiableMap(components));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object value, String what) {
+		if(value == null) {
+			return Collections.emptyMap();
+		}
+		if(!(value instanceof Map)) {
+			throw new IllegalArgumentException("Expected a mapping for " + what);
+		}
+		return (Map<String, Object>) value;
+	}
+
+	private static Map<String, String> strings(Object value, String what) {
+		Map<String, String> strings = new LinkedHashMap<String, String>();
+		for (Map.Entry<String, Object> entry : map(value, what).entrySet()) {
+			Object item = entry.getValue();
+			if(item == null) {
+				strings.put(entry.getKey(), "");
+			} else if(item instanceof String) {
+				strings.put(entry.getKey(), (String) item);
+			} else {
+				strings.put(entry.getKey(), jsonText(item));
+			}
+		}
+		return Collections.unmodifiableMap(strings);
+	}
+
+	/**
+	 * JSON text of list and map values, the way array and hash attributes are stored, keys in file order
+	 */
+	private static String jsonText(Object value) {
+		try {
+			return JsonUtil.mapper().writeValueAsString(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to encode " + value, e);
+		}
+	}
+}
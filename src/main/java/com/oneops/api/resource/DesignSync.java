@@ -0,0 +1,579 @@
+package com.oneops.api.resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.model.CiAttributes;
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.util.JsonUtil;
+
+/**
+ * Reconciles a design with a {@link DesignSpec}, changing only what differs instead of loading
+ * the whole file again.
+ *
+ * Planning only reads: platforms and global variables are listed together, then the components
+ * and variables of every existing platform of the spec, all in parallel. The plan holds one change
+ * per missing or different variable, missing platform, missing component and component with
+ * different attributes, updates carry only the attributes that differ. Attributes and variables not
+ * in the spec, and ones whose live value is encrypted, are left alone and nothing is deleted.
+ *
+ * Applying runs the changes concurrently in dependency order: global variables, then new platforms,
+ * whose components and variables are diffed once the pack created them, then links of the new
+ * platforms, then platform variables and components, components with sibling_depends_on last.
+ * Changes of a platform that failed to be created are skipped.
+ *
+ * <pre>
+ * DesignSync sync = design.sync(DesignSpec.parse(path));
+ * DesignSync.Plan plan = sync.plan();
+ * if(!plan.isEmpty()) {
+ *     DesignSync.Result result = sync.apply(plan);
+ * }
+ * </pre>
+ */
+public final class DesignSync {
+
+	private static final String ENCRYPTED = "::ENCRYPTED::";
+
+	private static final String SIBLING_DEPENDS_ON = "sibling_depends_on";
+
+	public enum Kind {
+		ADD_GLOBAL_VARIABLE, UPDATE_GLOBAL_VARIABLE, CREATE_PLATFORM, LINK_PLATFORM, ADD_VARIABLE, UPDATE_VARIABLE, ADD_COMPONENT, UPDATE_COMPONENT
+	}
+
+	private static final Set<Kind> GLOBAL = EnumSet.of(Kind.ADD_GLOBAL_VARIABLE, Kind.UPDATE_GLOBAL_VARIABLE);
+
+	/**
+	 * One write to the design
+	 */
+	public static final class Change {
+		private final Kind kind;
+		private final String platform;
+		private final String name;
+		private final String template;
+		private final Map<String, String> values;
+		private final List<String> links;
+
+		Change(Kind kind, String platform, String name, String template, Map<String, String> values, List<String> links) {
+			this.kind = kind;
+			this.platform = platform;
+			this.name = name;
+			this.template = template;
+			this.values = values;
+			this.links = links;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the platform changed, null for global variables
+		 */
+		public String getPlatform() {
+			return platform;
+		}
+
+		/**
+		 * @return name of the variable, component or platform
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return template of components added, null otherwise
+		 */
+		public String getTemplate() {
+			return template;
+		}
+
+		/**
+		 * @return attributes set, only the differing ones for updates, the value for variables
+		 */
+		public Map<String, String> getValues() {
+			return values;
+		}
+
+		/**
+		 * @return platforms linked to, empty unless linking
+		 */
+		public List<String> getLinks() {
+			return links;
+		}
+
+		boolean dependsOnSiblings() {
+			return values.containsKey(SIBLING_DEPENDS_ON);
+		}
+
+		@Override
+		public String toString() {
+			String target = platform == null || kind == Kind.CREATE_PLATFORM || kind == Kind.LINK_PLATFORM ? name : platform + "/" + name;
+			if(kind == Kind.LINK_PLATFORM) {
+				return kind + " " + target + " " + links;
+			}
+			return kind + " " + target + (values.isEmpty() ? "" : " " + values.keySet());
+		}
+	}
+
+	/**
+	 * Changes needed to reach the spec
+	 */
+	public static final class Plan {
+		private final List<Change> changes;
+
+		Plan(List<Change> changes) {
+			this.changes = Collections.unmodifiableList(changes);
+		}
+
+		/**
+		 * @return the changes, components and variables of new platforms are not known until they
+		 *         are created
+		 */
+		public List<Change> getChanges() {
+			return changes;
+		}
+
+		public boolean isEmpty() {
+			return changes.isEmpty();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Change change : changes) {
+				sb.append(change).append('\n');
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Outcome of applying a plan
+	 */
+	public static final class Result {
+		private final List<Change> applied = new ArrayList<Change>();
+		private final Map<Change, OneOpsClientAPIException> failed = new LinkedHashMap<Change, OneOpsClientAPIException>();
+		private final List<Change> skipped = new ArrayList<Change>();
+
+		/**
+		 * @return changes applied, including the ones found after creating platforms
+		 */
+		public List<Change> getApplied() {
+			return Collections.unmodifiableList(applied);
+		}
+
+		public Map<Change, OneOpsClientAPIException> getFailed() {
+			return Collections.unmodifiableMap(failed);
+		}
+
+		/**
+		 * @return changes of platforms that could not be created
+		 */
+		public List<Change> getSkipped() {
+			return Collections.unmodifiableList(skipped);
+		}
+
+		public boolean isSuccessful() {
+			return failed.isEmpty() && skipped.isEmpty();
+		}
+	}
+
+	private final Design design;
+	private final DesignSpec spec;
+	private int parallelism = 8;
+
+	DesignSync(Design design, DesignSpec spec) {
+		this.design = design;
+		this.spec = spec;
+	}
+
+	/**
+	 * @param parallelism most requests in flight, 8 by default
+	 * @return
+	 */
+	public DesignSync setParallelism(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Reads the design and compares it with the spec, nothing is changed
+	 *
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public Plan plan() throws OneOpsClientAPIException {
+		ExecutorService executor = newExecutor();
+		try {
+			Future<List<CiResource>> platforms = executor.submit(new Callable<List<CiResource>>() {
+				@Override
+				public List<CiResource> call() throws Exception {
+					return design.fetchPlatforms();
+				}
+			});
+			Future<List<CiResource>> globals = executor.submit(new Callable<List<CiResource>>() {
+				@Override
+				public List<CiResource> call() throws Exception {
+					return design.fetchGlobalVariables();
+				}
+			});
+			Set<String> live = byName(get(platforms)).keySet();
+			Map<String, Future<List<CiResource>>> components = new HashMap<String, Future<List<CiResource>>>();
+			Map<String, Future<List<CiResource>>> variables = new HashMap<String, Future<List<CiResource>>>();
+			for (String platform : spec.getPlatforms().keySet()) {
+				if(live.contains(platform)) {
+					components.put(platform, executor.submit(listComponents(platform)));
+					variables.put(platform, executor.submit(listVariables(platform)));
+				}
+			}
+
+			List<Change> changes = new ArrayList<Change>();
+			diffVariables(null, spec.getVariables(), byName(get(globals)), changes);
+			for (DesignSpec.Platform platform : spec.getPlatforms().values()) {
+				if(live.contains(platform.getName())) {
+					diffContent(platform, byName(get(variables.get(platform.getName()))), byName(get(components.get(platform.getName()))), changes);
+				} else {
+					changes.add(new Change(Kind.CREATE_PLATFORM, platform.getName(), platform.getName(), null, Collections.<String, String>emptyMap(), Collections.<String>emptyList()));
+					if(!platform.getLinks().isEmpty()) {
+						changes.add(new Change(Kind.LINK_PLATFORM, platform.getName(), platform.getName(), null, Collections.<String, String>emptyMap(), platform.getLinks()));
+					}
+				}
+			}
+			return new Plan(changes);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plans and applies the changes
+	 *
+	 * @return
+	 * @throws OneOpsClientAPIException if the design could not be read
+	 */
+	public Result apply() throws OneOpsClientAPIException {
+		return apply(plan());
+	}
+
+	/**
+	 * Applies a plan, changes that fail are reported in the result and do not stop the others
+	 *
+	 * @param plan
+	 * @return
+	 * @throws OneOpsClientAPIException if new platforms could not be read
+	 */
+	public Result apply(Plan plan) throws OneOpsClientAPIException {
+		Result result = new Result();
+		ExecutorService executor = newExecutor();
+		try {
+			List<Change> globals = new ArrayList<Change>();
+			List<Change> creates = new ArrayList<Change>();
+			List<Change> links = new ArrayList<Change>();
+			List<Change> content = new ArrayList<Change>();
+			for (Change change : plan.getChanges()) {
+				if(GLOBAL.contains(change.kind)) {
+					globals.add(change);
+				} else if(change.kind == Kind.CREATE_PLATFORM) {
+					creates.add(change);
+				} else if(change.kind == Kind.LINK_PLATFORM) {
+					links.add(change);
+				} else {
+					content.add(change);
+				}
+			}
+			run(executor, globals, result);
+			run(executor, creates, result);
+
+			Set<String> created = new HashSet<String>();
+			Map<String, Future<List<CiResource>>> components = new HashMap<String, Future<List<CiResource>>>();
+			Map<String, Future<List<CiResource>>> variables = new HashMap<String, Future<List<CiResource>>>();
+			for (Change change : creates) {
+				if(!result.failed.containsKey(change) && spec.getPlatforms().containsKey(change.name)) {
+					created.add(change.name);
+					components.put(change.name, executor.submit(listComponents(change.name)));
+					variables.put(change.name, executor.submit(listVariables(change.name)));
+				}
+			}
+			for (Change change : creates) {
+				if(created.contains(change.name)) {
+					DesignSpec.Platform platform = spec.getPlatforms().get(change.name);
+					diffContent(platform, byName(get(variables.get(change.name))), byName(get(components.get(change.name))), content);
+				}
+			}
+
+			Set<String> missing = new HashSet<String>();
+			for (Change change : creates) {
+				if(!created.contains(change.name)) {
+					missing.add(change.name);
+				}
+			}
+			run(executor, runnable(links, missing, result), result);
+			List<Change> siblings = new ArrayList<Change>();
+			List<Change> independent = new ArrayList<Change>();
+			for (Change change : runnable(content, missing, result)) {
+				(change.dependsOnSiblings() ? siblings : independent).add(change);
+			}
+			run(executor, independent, result);
+			run(executor, siblings, result);
+			return result;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the changes not touching missing platforms, the others are added to the skipped ones
+	 */
+	private static List<Change> runnable(List<Change> changes, Set<String> missing, Result result) {
+		if(missing.isEmpty()) {
+			return changes;
+		}
+		List<Change> runnable = new ArrayList<Change>(changes.size());
+		for (Change change : changes) {
+			boolean skip = missing.contains(change.platform);
+			for (String link : change.links) {
+				skip |= missing.contains(link);
+			}
+			(skip ? result.skipped : runnable).add(change);
+		}
+		return runnable;
+	}
+
+	private void diffContent(DesignSpec.Platform platform, Map<String, CiResource> liveVariables, Map<String, CiResource> liveComponents,
+			List<Change> changes) {
+		diffVariables(platform.getName(), platform.getVariables(), liveVariables, changes);
+		for (DesignSpec.Component component : platform.getComponents().values()) {
+			CiResource live = liveComponents.get(component.getName());
+			if(live == null) {
+				Map<String, String> values = new LinkedHashMap<String, String>();
+				for (Map.Entry<String, String> entry : component.getAttributes().entrySet()) {
+					if(!ENCRYPTED.equals(entry.getValue())) {
+						values.put(entry.getKey(), entry.getValue());
+					}
+				}
+				changes.add(new Change(Kind.ADD_COMPONENT, platform.getName(), component.getName(), component.getTemplate(), values, Collections.<String>emptyList()));
+				continue;
+			}
+			Map<String, Object> attributes = attributes(live);
+			Map<String, String> values = new LinkedHashMap<String, String>();
+			for (Map.Entry<String, String> entry : component.getAttributes().entrySet()) {
+				Object current = attributes.get(entry.getKey());
+				if(!ENCRYPTED.equals(entry.getValue()) && !ENCRYPTED.equals(current) && !sameValue(entry.getValue(), current)) {
+					values.put(entry.getKey(), entry.getValue());
+				}
+			}
+			if(!values.isEmpty()) {
+				changes.add(new Change(Kind.UPDATE_COMPONENT, platform.getName(), component.getName(), null, values, Collections.<String>emptyList()));
+			}
+		}
+	}
+
+	private static void diffVariables(String platform, Map<String, String> variables, Map<String, CiResource> live, List<Change> changes) {
+		for (Map.Entry<String, String> entry : variables.entrySet()) {
+			if(ENCRYPTED.equals(entry.getValue())) {
+				continue;
+			}
+			Map<String, String> values = Collections.singletonMap("value", entry.getValue());
+			CiResource current = live.get(entry.getKey());
+			if(current == null) {
+				changes.add(new Change(platform == null ? Kind.ADD_GLOBAL_VARIABLE : Kind.ADD_VARIABLE, platform, entry.getKey(), null, values, Collections.<String>emptyList()));
+				continue;
+			}
+			Map<String, Object> attributes = attributes(current);
+			// secure values are only returned encrypted, they cannot be compared
+			if("true".equals(String.valueOf(attributes.get("secure")))) {
+				continue;
+			}
+			if(!sameValue(entry.getValue(), attributes.get("value"))) {
+				changes.add(new Change(platform == null ? Kind.UPDATE_GLOBAL_VARIABLE : Kind.UPDATE_VARIABLE, platform, entry.getKey(), null, values, Collections.<String>emptyList()));
+			}
+		}
+	}
+
+	/**
+	 * Compares a spec value with the live one, array and hash values as parsed JSON so key order
+	 * and spacing do not count
+	 */
+	static boolean sameValue(String value, Object current) {
+		String text = current == null ? "" : String.valueOf(current);
+		if(value.equals(text)) {
+			return true;
+		}
+		Object parsed = parseJson(value);
+		if(parsed == null) {
+			return false;
+		}
+		return parsed.equals(current instanceof String ? parseJson(text) : current);
+	}
+
+	/**
+	 * @return the JSON array or object in the text, null if it holds none
+	 */
+	private static Object parseJson(String text) {
+		String trimmed = text.trim();
+		if(!trimmed.startsWith("[") && !trimmed.startsWith("{")) {
+			return null;
+		}
+		try {
+			return JsonUtil.mapper().readValue(trimmed, Object.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private void apply(Change change) throws OneOpsClientAPIException {
+		switch (change.kind) {
+		case ADD_GLOBAL_VARIABLE:
+			design.addGlobalVariable(change.name, change.values.get("value"), false);
+			break;
+		case UPDATE_GLOBAL_VARIABLE:
+			design.updateGlobalVariable(change.name, change.values.get("value"), false);
+			break;
+		case CREATE_PLATFORM:
+			DesignSpec.Platform platform = spec.getPlatforms().get(change.name);
+			design.createPlatform(platform.getName(), platform.getPack(), platform.getVersion(), platform.getSource(), "", "");
+			break;
+		case LINK_PLATFORM:
+			design.updatePlatformLinks(change.platform, change.links);
+			break;
+		case ADD_VARIABLE:
+			design.addPlatformVariable(change.platform, change.name, change.values.get("value"), false);
+			break;
+		case UPDATE_VARIABLE:
+			design.updatePlatformVariable(change.platform, change.name, change.values.get("value"), false);
+			break;
+		case ADD_COMPONENT:
+			// the design client consumes sibling_depends_on from the map it is given
+			design.addPlatformComponent(change.platform, change.template, change.name, new HashMap<String, String>(change.values));
+			break;
+		case UPDATE_COMPONENT:
+			design.updatePlatformComponent(change.platform, change.name, new HashMap<String, String>(change.values));
+			break;
+		default:
+			throw new IllegalStateException("Unknown change " + change.kind);
+		}
+	}
+
+	private void run(ExecutorService executor, List<Change> changes, Result result) {
+		if(changes.isEmpty()) {
+			return;
+		}
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(changes.size());
+		for (final Change change : changes) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					apply(change);
+					return null;
+				}
+			});
+		}
+		List<Future<Void>> futures;
+		try {
+			futures = executor.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for (Change change : changes) {
+				result.failed.put(change, new OneOpsClientAPIException("Interrupted applying " + change, e));
+			}
+			return;
+		}
+		for (int i = 0; i < changes.size(); i++) {
+			try {
+				get(futures.get(i));
+				result.applied.add(changes.get(i));
+			} catch (OneOpsClientAPIException e) {
+				result.failed.put(changes.get(i), e);
+			}
+		}
+	}
+
+	private Callable<List<CiResource>> listComponents(final String platform) {
+		return new Callable<List<CiResource>>() {
+			@Override
+			public List<CiResource> call() throws Exception {
+				return design.fetchPlatformComponents(platform);
+			}
+		};
+	}
+
+	private Callable<List<CiResource>> listVariables(final String platform) {
+		return new Callable<List<CiResource>>() {
+			@Override
+			public List<CiResource> call() throws Exception {
+				return design.fetchPlatformVariables(platform);
+			}
+		};
+	}
+
+	private ExecutorService newExecutor() {
+		return Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("oneops-design-sync-%d").build());
+	}
+
+	private static <T> T get(Future<T> future) throws OneOpsClientAPIException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			String msg = "Interrupted while syncing design";
+			throw new OneOpsClientAPIException(msg, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof OneOpsClientAPIException) {
+				throw (OneOpsClientAPIException) cause;
+			}
+			throw new OneOpsClientAPIException(String.valueOf(cause.getMessage()), cause);
+		}
+	}
+
+	private static Map<String, CiResource> byName(List<CiResource> cis) {
+		Map<String, CiResource> byName = new HashMap<String, CiResource>();
+		if(cis != null) {
+			for (CiResource ci : cis) {
+				byName.put(ci.getCiName(), ci);
+			}
+		}
+		return byName;
+	}
+
+	/**
+	 * @return all attributes of the CI, including the ones CiAttributes maps to properties
+	 */
+	private static Map<String, Object> attributes(CiResource ci) {
+		CiAttributes attributes = ci.getCiAttributes();
+		if(attributes == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, Object> all = new HashMap<String, Object>(attributes.getAdditionalProperties());
+		putIfPresent(all, "adminstatus", attributes.getAdminstatus());
+		putIfPresent(all, "auth", attributes.getAuth());
+		putIfPresent(all, "description", attributes.getDescription());
+		putIfPresent(all, "location", attributes.getLocation());
+		return all;
+	}
+
+	private static void putIfPresent(Map<String, Object> map, String name, Object value) {
+		if(value != null) {
+			map.put(name, value);
+		}
+	}
+}
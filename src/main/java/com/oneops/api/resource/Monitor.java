@@ -5,12 +5,12 @@ import java.util.Map;
 
 import org.json.JSONObject;
 
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.CiResource;
 import com.oneops.api.util.IConstants;
 import com.oneops.api.util.JsonUtil;
@@ -59,8 +59,8 @@ public class Monitor extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionMonitorUri + monitorName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionMonitorUri + monitorName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -94,8 +94,8 @@ public class Monitor extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionMonitorUri + monitorName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionMonitorUri + monitorName);
 		
 		ResourceObject ro = new ResourceObject();
 		Map<String, String> attributes = new HashMap<String ,String>();
@@ -10,14 +10,16 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.jayway.restassured.path.json.JsonPath;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.CiSummary;
 import com.oneops.api.resource.model.Procedure;
+import com.oneops.api.util.CiIdSet;
 import com.oneops.api.util.IConstants;
 import com.oneops.api.util.JsonUtil;
 
@@ -53,6 +55,37 @@ public class Operation extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listInstances(String platformName, String componentName) throws OneOpsClientAPIException {
+		return listInstances(platformName, componentName, new TypeReference<List<CiResource>>(){});
+	}
+
+	/**
+	 * Lists all instances for a given assembly, environment, platform and component decoding only identity and state
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<CiSummary> listInstanceSummaries(String platformName, String componentName) throws OneOpsClientAPIException {
+		return listInstances(platformName, componentName, new TypeReference<List<CiSummary>>(){});
+	}
+
+	/**
+	 * Ids of all instances for a given assembly, environment, platform and component, instances listed without id are left out
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public CiIdSet listInstanceIds(String platformName, String componentName) throws OneOpsClientAPIException {
+		List<CiSummary> instances = listInstanceSummaries(platformName, componentName);
+		CiIdSet ids = new CiIdSet(instances.size());
+		for (CiSummary instance : instances) {
+			if(instance.getCiId() != null) {
+				ids.add(instance.getCiId());
+			}
+		}
+		return ids;
+	}
+
+	private <T> List<T> listInstances(String platformName, String componentName, TypeReference<List<T>> type) throws OneOpsClientAPIException {
 		if(platformName == null || platformName.length() == 0) {
 			String msg = "Missing platform name to fetch details";
 			throw new OneOpsClientAPIException(msg);
@@ -62,14 +95,14 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.queryParam("instances_state", "all").get(operationURI 
+		ApiRequest request = createRequest();
+		ApiResponse response = request.queryParam("instances_state", "all").get(operationURI 
 				+ IConstants.PLATFORM_URI + platformName 
 				+ IConstants.COMPONENT_URI + componentName 
 				+ IConstants.INSTANCES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), type);
 				} else {
 				String msg = String.format("Failed to get instances due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -87,12 +120,7 @@ public class Operation extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Boolean markInstancesForReplacement(String platformName, String componentName) throws OneOpsClientAPIException {
-		List<CiResource> instances = listInstances(platformName, componentName);
-		List<Long> instanceIds = Lists.newArrayList();
-		for (CiResource ciResource : instances) {
-			instanceIds.add(ciResource.getCiId());
-		}
-		return markInstancesForReplacement(platformName, componentName, instanceIds);
+		return markInstancesForReplacement(platformName, componentName, listInstanceIds(platformName, componentName));
 	}
 	
 	/**
@@ -102,25 +130,26 @@ public class Operation extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Boolean markInstanceForReplacement(String platformName, String componentName, Long instanceId) throws OneOpsClientAPIException {
-		List<Long> instanceIds = Lists.newArrayList();
-		instanceIds.add(instanceId);
-		return markInstancesForReplacement(platformName, componentName, instanceIds);
+		if(instanceId == null) {
+			String msg = String.format("Missing instance id of component %s in platform %s to mark for replacement", componentName, platformName);
+			throw new OneOpsClientAPIException(msg);
+		}
+		return markInstancesForReplacement(platformName, componentName, CiIdSet.of(instanceId));
 	}
 	
 	/**
-	 * Mark an instance for replacement for a given platform and component
+	 * Mark the given instances for replacement for a given platform and component
 	 * 
 	 * @return
 	 * @throws OneOpsClientAPIException
 	 */
-	Boolean markInstancesForReplacement(String platformName, String componentName, List<Long> instanceIds) throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		JSONObject jo = new JSONObject();
-		jo.put("ids", instanceIds);
-		jo.put("state", "replace");
+	public Boolean markInstancesForReplacement(String platformName, String componentName, CiIdSet instanceIds) throws OneOpsClientAPIException {
+		ApiRequest request = createRequest();
+		StringBuilder body = new StringBuilder(instanceIds.size() * 12 + 32).append("{\"ids\":");
+		instanceIds.appendJson(body).append(",\"state\":\"replace\"}");
 		String uri = IConstants.ASSEMBLY_URI + assemblyName + IConstants.OPERATION_URI +  IConstants.INSTANCES_URI + "state" ;
 		
-		Response response = request.body(jo.toString()).put(uri);
+		ApiResponse response = request.body(body.toString()).put(uri);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Boolean.class);
@@ -134,7 +163,7 @@ public class Operation extends APIClient {
 	}
 	
 	public JsonPath getLogData(String procedureId, List<String> actionIds) throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		String uri = IConstants.OPERATION_URI + IConstants.PROCEDURES_URI + "log_data" ;
 		request.queryParam("procedure_id", procedureId);
 		
@@ -144,7 +173,7 @@ public class Operation extends APIClient {
 			}
 		}
 		
-		Response response = request.get(uri);
+		ApiResponse response = request.get(uri);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().jsonPath();
@@ -168,13 +197,13 @@ public class Operation extends APIClient {
 			String msg = "Missing platform name to fetch details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(operationURI 
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(operationURI 
 				+ IConstants.PLATFORM_URI + platformName 
 				+ IConstants.PROCEDURES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 				} else {
 				String msg = String.format("Failed to get procedures due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -230,8 +259,8 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(operationURI 
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(operationURI 
 				+ IConstants.PLATFORM_URI + platformName 
 				+ IConstants.COMPONENT_URI + componentName
 				+ IConstants.ACTIONS_URI);
@@ -264,7 +293,7 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		ResourceObject ro = new ResourceObject();
 		Map<String ,String> properties= new HashMap<String ,String>();
 		
@@ -279,7 +308,7 @@ public class Operation extends APIClient {
 		ro.setProperties(properties);
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_procedure");
-		Response response = request.body(jsonObject.toString()).post(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI);
+		ApiResponse response = request.body(jsonObject.toString()).post(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Procedure.class);
@@ -304,8 +333,8 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI + procedureId);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI + procedureId);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Procedure.class);
@@ -331,7 +360,7 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		ResourceObject ro = new ResourceObject();
 		Map<String ,String> properties= new HashMap<String ,String>();
 		
@@ -343,7 +372,7 @@ public class Operation extends APIClient {
 		ro.setProperties(properties);
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_procedure");
-		Response response = request.body(jsonObject.toString()).put(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI + procedureId);
+		ApiResponse response = request.body(jsonObject.toString()).put(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI + procedureId);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -365,6 +394,16 @@ public class Operation extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Procedure executeAction(String platformName, String componentName, String actionName, List<Long> instanceList, String arglist, int rollingPercent) throws OneOpsClientAPIException {
+		return executeAction(platformName, componentName, actionName, instanceList == null ? null : CiIdSet.of(instanceList), arglist, rollingPercent);
+	}
+	
+	/**
+	 * Execute procedure for a given platform on the given instances
+	 * 
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public Procedure executeAction(String platformName, String componentName, String actionName, CiIdSet instanceList, String arglist, int rollingPercent) throws OneOpsClientAPIException {
 		if(platformName == null || platformName.length() == 0) {
 			String msg = "Missing platform name to fetch details";
 			throw new OneOpsClientAPIException(msg);
@@ -377,12 +416,12 @@ public class Operation extends APIClient {
 			String msg = "Missing action name to fetch details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		if(instanceList == null || instanceList.size() == 0) {
+		if(instanceList == null || instanceList.isEmpty()) {
 			String msg = "Missing instances list to fetch details";
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		ResourceObject ro = new ResourceObject();
 		Map<String ,String> properties= new HashMap<String ,String>();
 		
@@ -424,7 +463,7 @@ public class Operation extends APIClient {
 		ro.setProperties(properties);
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_procedure");
-		Response response = request.body(jsonObject.toString()).post(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI);
+		ApiResponse response = request.body(jsonObject.toString()).post(IConstants.OPERATION_URI +  IConstants.PROCEDURES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Procedure.class);
@@ -453,14 +492,14 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
 		String enabled = "disable";
 		if(isEnabled) {
 			enabled = "enable";
 		}
 		
-		Response response = request.body("").queryParam("status", enabled)
+		ApiResponse response = request.body("").queryParam("status", enabled)
 				.put(operationURI + IConstants.PLATFORM_URI + platformName + "/" + healingOption);
 		if (response != null) {
 			if (response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -485,12 +524,12 @@ public class Operation extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jo = new JSONObject();
 		jo.put("replace_after_minutes", String.valueOf(repairTime));
 		jo.put("replace_after_repairs", String.valueOf(repairCount));
 		
-		Response response = request.body(jo.toString())
+		ApiResponse response = request.body(jo.toString())
 				.put(operationURI + IConstants.PLATFORM_URI + platformName + "/autoreplace");
 		if (response != null) {
 			if (response.getStatusCode() == 200 || response.getStatusCode() == 302) {
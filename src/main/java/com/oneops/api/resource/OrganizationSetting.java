@@ -3,11 +3,11 @@ package com.oneops.api.resource;
 import java.util.List;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
 import com.oneops.api.resource.model.Member;
 import com.oneops.api.resource.model.Team;
 import com.oneops.api.util.IConstants;
@@ -27,11 +27,11 @@ public class OrganizationSetting extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<Team> listTeams() throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ORGANIZATION_URI + IConstants.TEAM_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ORGANIZATION_URI + IConstants.TEAM_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<Team>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<Team>>(){});
 			} else {
 				String msg = String.format("Failed to get list of teams due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -48,8 +48,8 @@ public class OrganizationSetting extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public Member getTeamMembers(String teamName) throws OneOpsClientAPIException {
-		RequestSpecification request = createRequest();
-		Response response = request.get(IConstants.ORGANIZATION_URI + IConstants.TEAM_URI + teamName + IConstants.MEMBER_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(IConstants.ORGANIZATION_URI + IConstants.TEAM_URI + teamName + IConstants.MEMBER_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Member.class);
@@ -0,0 +1,352 @@
+package com.oneops.api.resource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.oneops.api.exception.OneOpsClientAPIException;
+
+/**
+ * Promotes an assembly through environments that depend on each other, e.g. dev, qa, perf and then
+ * two prod regions. Every environment is a stage that starts once all the stages it depends on
+ * succeeded, independent stages run concurrently up to the concurrency cap. When a stage fails the
+ * stages depending on it, directly or not, are skipped while unrelated branches carry on.
+ *
+ * By default a stage pulls the design, commits the environment, deploys it and waits until the
+ * deployment is no longer active, it succeeds if the deployment completed.
+ *
+ * <pre>
+ * PromotionPipeline.Result result = transition.promotionPipeline()
+ *     .stage("dev")
+ *     .stage("qa", "dev")
+ *     .stage("prod-east", "qa")
+ *     .stage("prod-west", "qa")
+ *     .setMaxConcurrency(2)
+ *     .run();
+ * </pre>
+ */
+public final class PromotionPipeline {
+
+	public enum Status {
+		PENDING, RUNNING, SUCCEEDED, FAILED, SKIPPED
+	}
+
+	/**
+	 * Work done for one environment, return normally on success
+	 */
+	public interface Action {
+		void promote(String environmentName) throws OneOpsClientAPIException;
+	}
+
+	/**
+	 * Outcome of a run
+	 */
+	public static final class Result {
+		private final Map<String, Status> statuses = new LinkedHashMap<String, Status>();
+		private final Map<String, Exception> errors = new HashMap<String, Exception>();
+		private final Map<String, Long> durations = new HashMap<String, Long>();
+		private long elapsedMillis;
+
+		public Status getStatus(String environmentName) {
+			return statuses.get(environmentName);
+		}
+
+		/**
+		 * @return status of each stage, in the order the stages were added
+		 */
+		public Map<String, Status> getStatuses() {
+			return Collections.unmodifiableMap(statuses);
+		}
+
+		/**
+		 * @param environmentName
+		 * @return why the stage failed, null if it did not
+		 */
+		public Exception getError(String environmentName) {
+			return errors.get(environmentName);
+		}
+
+		/**
+		 * @param environmentName
+		 * @return how long the stage ran, -1 if it did not run
+		 */
+		public long getDurationMillis(String environmentName) {
+			Long duration = durations.get(environmentName);
+			return duration == null ? -1 : duration;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public boolean isSuccess() {
+			for (Status status : statuses.values()) {
+				if(status != Status.SUCCEEDED) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class Outcome {
+		final String environmentName;
+		final Exception error;
+		final long durationMillis;
+
+		Outcome(String environmentName, Exception error, long durationMillis) {
+			this.environmentName = environmentName;
+			this.error = error;
+			this.durationMillis = durationMillis;
+		}
+	}
+
+	private final Transition transition;
+	private final Map<String, List<String>> dependencies = new LinkedHashMap<String, List<String>>();
+	private Action action;
+	private int maxConcurrency = 4;
+	private String comment;
+	private long pollInterval = TimeUnit.SECONDS.toMillis(10);
+	private long deploymentTimeout = TimeUnit.HOURS.toMillis(4);
+
+	PromotionPipeline(Transition transition) {
+		this.transition = transition;
+	}
+
+	/**
+	 * Adds an environment to promote
+	 *
+	 * @param environmentName
+	 * @param dependsOn environments that must be promoted first
+	 * @return
+	 */
+	public PromotionPipeline stage(String environmentName, String... dependsOn) {
+		if(environmentName == null || environmentName.length() == 0) {
+			throw new IllegalArgumentException("Missing environment name");
+		}
+		if(dependencies.containsKey(environmentName)) {
+			throw new IllegalArgumentException("Duplicate stage " + environmentName);
+		}
+		List<String> parents = new ArrayList<String>(dependsOn.length);
+		Collections.addAll(parents, dependsOn);
+		dependencies.put(environmentName, parents);
+		return this;
+	}
+
+	/**
+	 * @param maxConcurrency maximum number of stages running at the same time, 4 by default
+	 * @return
+	 */
+	public PromotionPipeline setMaxConcurrency(int maxConcurrency) {
+		if(maxConcurrency < 1) {
+			throw new IllegalArgumentException("Invalid concurrency " + maxConcurrency);
+		}
+		this.maxConcurrency = maxConcurrency;
+		return this;
+	}
+
+	/**
+	 * @param comment used for the commits and deployments
+	 * @return
+	 */
+	public PromotionPipeline setComment(String comment) {
+		this.comment = comment;
+		return this;
+	}
+
+	/**
+	 * Sets how the default action waits for deployments, polling every second at first and backing
+	 * off to every 10 seconds, for at most 4 hours by default
+	 *
+	 * @param pollInterval longest wait between two polls
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public PromotionPipeline setDeploymentPolling(long pollInterval, long timeout, TimeUnit unit) {
+		if(pollInterval <= 0 || timeout <= 0) {
+			throw new IllegalArgumentException("Invalid deployment polling " + pollInterval + "/" + timeout);
+		}
+		this.pollInterval = unit.toMillis(pollInterval);
+		this.deploymentTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	/**
+	 * Replaces the pull, commit, deploy and wait done for each environment
+	 *
+	 * @param action
+	 * @return
+	 */
+	public PromotionPipeline setAction(Action action) {
+		this.action = action;
+		return this;
+	}
+
+	/**
+	 * Runs the stages, blocks until every stage succeeded, failed or was skipped
+	 *
+	 * @return
+	 */
+	public Result run() {
+		Map<String, List<String>> dependents = validate();
+		Map<String, Integer> waitingOn = new HashMap<String, Integer>();
+		Result result = new Result();
+		Deque<String> ready = new ArrayDeque<String>();
+		for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+			result.statuses.put(entry.getKey(), Status.PENDING);
+			waitingOn.put(entry.getKey(), entry.getValue().size());
+			if(entry.getValue().isEmpty()) {
+				ready.add(entry.getKey());
+			}
+		}
+
+		final Action stageAction = action == null ? new DeployAction() : action;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrency, dependencies.size()),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("oneops-promotion-%d").build());
+		CompletionService<Outcome> completion = new ExecutorCompletionService<Outcome>(executor);
+		long start = System.currentTimeMillis();
+		int running = 0;
+		try {
+			while(!ready.isEmpty() || running > 0) {
+				while(!ready.isEmpty() && running < maxConcurrency) {
+					final String environmentName = ready.poll();
+					result.statuses.put(environmentName, Status.RUNNING);
+					completion.submit(new Callable<Outcome>() {
+						@Override
+						public Outcome call() {
+							long started = System.currentTimeMillis();
+							try {
+								stageAction.promote(environmentName);
+								return new Outcome(environmentName, null, System.currentTimeMillis() - started);
+							} catch (Exception e) {
+								return new Outcome(environmentName, e, System.currentTimeMillis() - started);
+							}
+						}
+					});
+					running++;
+				}
+				Outcome outcome = take(completion);
+				running--;
+				result.durations.put(outcome.environmentName, outcome.durationMillis);
+				if(outcome.error == null) {
+					result.statuses.put(outcome.environmentName, Status.SUCCEEDED);
+					for (String child : dependents.get(outcome.environmentName)) {
+						int left = waitingOn.get(child) - 1;
+						waitingOn.put(child, left);
+						if(left == 0 && result.statuses.get(child) == Status.PENDING) {
+							ready.add(child);
+						}
+					}
+				} else {
+					result.statuses.put(outcome.environmentName, Status.FAILED);
+					result.errors.put(outcome.environmentName, outcome.error);
+					skip(outcome.environmentName, dependents, result);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		result.elapsedMillis = System.currentTimeMillis() - start;
+		return result;
+	}
+
+	private static Outcome take(CompletionService<Outcome> completion) {
+		try {
+			return completion.take().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while promoting", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to promote", e.getCause());
+		}
+	}
+
+	private static void skip(String environmentName, Map<String, List<String>> dependents, Result result) {
+		for (String child : dependents.get(environmentName)) {
+			if(result.statuses.get(child) == Status.PENDING) {
+				result.statuses.put(child, Status.SKIPPED);
+				skip(child, dependents, result);
+			}
+		}
+	}
+
+	/**
+	 * Checks that dependencies are known stages and do not form a cycle
+	 *
+	 * @return dependent stages of each stage
+	 */
+	private Map<String, List<String>> validate() {
+		if(dependencies.isEmpty()) {
+			throw new IllegalStateException("No stage to run");
+		}
+		Map<String, List<String>> dependents = new HashMap<String, List<String>>();
+		for (String environmentName : dependencies.keySet()) {
+			dependents.put(environmentName, new ArrayList<String>());
+		}
+		Map<String, Integer> waitingOn = new HashMap<String, Integer>();
+		Deque<String> ready = new ArrayDeque<String>();
+		for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+			for (String parent : entry.getValue()) {
+				List<String> children = dependents.get(parent);
+				if(children == null) {
+					throw new IllegalStateException("Stage " + entry.getKey() + " depends on unknown stage " + parent);
+				}
+				children.add(entry.getKey());
+			}
+			waitingOn.put(entry.getKey(), entry.getValue().size());
+			if(entry.getValue().isEmpty()) {
+				ready.add(entry.getKey());
+			}
+		}
+		int visited = 0;
+		while(!ready.isEmpty()) {
+			String environmentName = ready.poll();
+			visited++;
+			for (String child : dependents.get(environmentName)) {
+				int left = waitingOn.get(child) - 1;
+				waitingOn.put(child, left);
+				if(left == 0) {
+					ready.add(child);
+				}
+			}
+		}
+		if(visited < dependencies.size()) {
+			throw new IllegalStateException("Stage dependencies form a cycle");
+		}
+		return dependents;
+	}
+
+	/**
+	 * Pull design, commit, deploy and wait for the deployment
+	 */
+	private final class DeployAction implements Action {
+		@Override
+		public void promote(String environmentName) throws OneOpsClientAPIException {
+			transition.pullDesign(environmentName);
+			DeploymentHandle handle = transition.commitAndDeploy(environmentName, DeployOptions.defaults().comment(comment));
+			String state = handle.await(deploymentTimeout, TimeUnit.MILLISECONDS, pollInterval).getDeploymentState();
+			if(state == null || RfcLogTail.ACTIVE_STATES.contains(state)) {
+				String msg = String.format("Timed out waiting for deployment %s of environment %s", handle.getDeploymentId(), environmentName);
+				throw new OneOpsClientAPIException(msg);
+			}
+			if(!"complete".equals(state)) {
+				String msg = String.format("Deployment %s of environment %s ended in state %s", handle.getDeploymentId(), environmentName, state);
+				throw new OneOpsClientAPIException(msg);
+			}
+		}
+	}
+}
@@ -0,0 +1,409 @@
+package com.oneops.api.resource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.oneops.api.resource.model.CiAttributes;
+import com.oneops.api.resource.model.RfcCi;
+
+/**
+ * Difference between the RFCs of two releases, see {@link Transition#diffReleases(String, Long, Long)}.
+ *
+ * RFCs are matched by platform, platform version, ciClassName and ciName, so both releases must be of
+ * the same namespace: two bom, two manifest or two design releases. bom RFCs have bom classes and
+ * per instance names (compute-1234-1) which do not match the catalog and manifest RFCs they come
+ * from, comparing across namespaces is rejected. RFCs sharing a key are matched in list order.
+ * The base RFCs are hashed once and the target RFCs are looked up in a single pass: a match with
+ * a different rfcAction or different attributes is an update, target RFCs without a match are adds
+ * and base RFCs left over are deletes. Counts per platform and ciClassName are gathered in the
+ * same pass so summarizing a large plan does not walk the changes.
+ */
+public final class ReleaseDiff {
+
+	public enum Kind {
+		ADDED, UPDATED, REMOVED
+	}
+
+	/**
+	 * One changed CI
+	 */
+	public static final class Change {
+		private final Kind kind;
+		private final String platform;
+		private final RfcCi before;
+		private final RfcCi after;
+		private final Set<String> changedAttributes;
+
+		Change(Kind kind, String platform, RfcCi before, RfcCi after, Set<String> changedAttributes) {
+			this.kind = kind;
+			this.platform = platform;
+			this.before = before;
+			this.after = after;
+			this.changedAttributes = changedAttributes;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public String getPlatform() {
+			return platform;
+		}
+
+		public String getCiClassName() {
+			return current().getCiClassName();
+		}
+
+		public String getCiName() {
+			return current().getCiName();
+		}
+
+		/**
+		 * @return the RFC in the base release, null for adds
+		 */
+		public RfcCi getBefore() {
+			return before;
+		}
+
+		/**
+		 * @return the RFC in the target release, null for deletes
+		 */
+		public RfcCi getAfter() {
+			return after;
+		}
+
+		/**
+		 * @return names of attributes added, removed or changed, empty unless updated
+		 */
+		public Set<String> getChangedAttributes() {
+			return changedAttributes;
+		}
+
+		private RfcCi current() {
+			return after != null ? after : before;
+		}
+	}
+
+	/**
+	 * Number of changes of one kind of CI
+	 */
+	public static final class Counts {
+		private int added;
+		private int updated;
+		private int removed;
+
+		public int getAdded() {
+			return added;
+		}
+
+		public int getUpdated() {
+			return updated;
+		}
+
+		public int getRemoved() {
+			return removed;
+		}
+
+		public int getTotal() {
+			return added + updated + removed;
+		}
+
+		void add(Kind kind) {
+			switch (kind) {
+			case ADDED:
+				added++;
+				break;
+			case UPDATED:
+				updated++;
+				break;
+			default:
+				removed++;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "+" + added + " ~" + updated + " -" + removed;
+		}
+	}
+
+	private static final Set<String> NONE = Collections.emptySet();
+
+	private final List<Change> changes = new ArrayList<Change>();
+	private final Map<String, Map<String, Counts>> counts = new TreeMap<String, Map<String, Counts>>();
+	private final Counts total = new Counts();
+	private int unchanged;
+
+	ReleaseDiff(List<RfcCi> base, List<RfcCi> target) {
+		checkNamespaces(base, target);
+		// a key maps to its RFC, or to a queue of them when several RFCs share it
+		Map<String, Object> baseByKey = new HashMap<String, Object>(base.size() * 4 / 3 + 1);
+		for (RfcCi rfc : base) {
+			if(rfc != null) {
+				put(baseByKey, key(rfc), rfc);
+			}
+		}
+		for (RfcCi rfc : target) {
+			if(rfc == null) {
+				continue;
+			}
+			RfcCi before = take(baseByKey, key(rfc));
+			if(before == null) {
+				add(Kind.ADDED, before, rfc, NONE);
+			} else {
+				Set<String> changedAttributes = changedAttributes(before.getCiAttributes(), rfc.getCiAttributes());
+				if(!changedAttributes.isEmpty() || !equal(before.getRfcAction(), rfc.getRfcAction())) {
+					add(Kind.UPDATED, before, rfc, changedAttributes);
+				} else {
+					unchanged++;
+				}
+			}
+		}
+		for (Object left : baseByKey.values()) {
+			if(left instanceof RfcCi) {
+				add(Kind.REMOVED, (RfcCi) left, null, NONE);
+			} else {
+				for (RfcCi rfc : queue(left)) {
+					add(Kind.REMOVED, rfc, null, NONE);
+				}
+			}
+		}
+	}
+
+	private static void put(Map<String, Object> byKey, String key, RfcCi rfc) {
+		Object existing = byKey.put(key, rfc);
+		if(existing != null) {
+			Deque<RfcCi> shared;
+			if(existing instanceof RfcCi) {
+				shared = new ArrayDeque<RfcCi>(2);
+				shared.add((RfcCi) existing);
+			} else {
+				shared = queue(existing);
+			}
+			shared.add(rfc);
+			byKey.put(key, shared);
+		}
+	}
+
+	private static RfcCi take(Map<String, Object> byKey, String key) {
+		Object match = byKey.get(key);
+		if(match == null || match instanceof RfcCi) {
+			byKey.remove(key);
+			return (RfcCi) match;
+		}
+		Deque<RfcCi> shared = queue(match);
+		RfcCi rfc = shared.poll();
+		if(shared.isEmpty()) {
+			byKey.remove(key);
+		}
+		return rfc;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Deque<RfcCi> queue(Object value) {
+		return (Deque<RfcCi>) value;
+	}
+
+	private static void checkNamespaces(List<RfcCi> base, List<RfcCi> target) {
+		String baseNamespace = namespace(base);
+		String targetNamespace = namespace(target);
+		if(baseNamespace != null && targetNamespace != null && !baseNamespace.equals(targetNamespace)) {
+			throw new IllegalArgumentException("Cannot compare " + baseNamespace + " rfcs with " + targetNamespace + " rfcs");
+		}
+	}
+
+	/**
+	 * @return bom, manifest or _design for the first RFC with a platform nsPath, null if none has one
+	 */
+	private static String namespace(List<RfcCi> rfcs) {
+		for (RfcCi rfc : rfcs) {
+			String nsPath = rfc == null ? null : rfc.getNsPath();
+			int end = platformStart(nsPath) - 1;
+			if(end > 0) {
+				return nsPath.substring(nsPath.lastIndexOf('/', end - 1) + 1, end);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Compares RFC lists already at hand, e.g. of two deployments
+	 *
+	 * @param base
+	 * @param target
+	 * @return
+	 * @throws IllegalArgumentException if the lists are of different namespaces, e.g. bom and manifest
+	 */
+	public static ReleaseDiff compare(List<RfcCi> base, List<RfcCi> target) {
+		return new ReleaseDiff(base == null ? Collections.<RfcCi>emptyList() : base,
+				target == null ? Collections.<RfcCi>emptyList() : target);
+	}
+
+	private void add(Kind kind, RfcCi before, RfcCi after, Set<String> changedAttributes) {
+		RfcCi rfc = after != null ? after : before;
+		String platform = platform(rfc.getNsPath());
+		changes.add(new Change(kind, platform, before, after, changedAttributes));
+		Map<String, Counts> byClass = counts.get(platform);
+		if(byClass == null) {
+			byClass = new TreeMap<String, Counts>();
+			counts.put(platform, byClass);
+		}
+		String className = String.valueOf(rfc.getCiClassName());
+		Counts classCounts = byClass.get(className);
+		if(classCounts == null) {
+			classCounts = new Counts();
+			byClass.put(className, classCounts);
+		}
+		classCounts.add(kind);
+		total.add(kind);
+	}
+
+	private static String key(RfcCi rfc) {
+		return platformPath(rfc.getNsPath()) + '\u0000' + rfc.getCiClassName() + '\u0000' + rfc.getCiName();
+	}
+
+	/**
+	 * Platform name from an nsPath, the segment after bom, manifest or _design, e.g. /org/assembly/qa/bom/tomcat/1
+	 *
+	 * @param nsPath
+	 * @return the platform, empty for CIs outside platforms
+	 */
+	static String platform(String nsPath) {
+		int start = platformStart(nsPath);
+		if(start < 0) {
+			return "";
+		}
+		int next = nsPath.indexOf('/', start);
+		return nsPath.substring(start, next < 0 ? nsPath.length() : next);
+	}
+
+	/**
+	 * @param nsPath
+	 * @return the platform and its version, e.g. tomcat/1, empty for CIs outside platforms
+	 */
+	static String platformPath(String nsPath) {
+		int start = platformStart(nsPath);
+		return start < 0 ? "" : nsPath.substring(start);
+	}
+
+	/**
+	 * @return position of the platform name in the nsPath, -1 if there is none
+	 */
+	private static int platformStart(String nsPath) {
+		if(nsPath == null) {
+			return -1;
+		}
+		int start = 0;
+		while(start < nsPath.length()) {
+			int end = nsPath.indexOf('/', start);
+			if(end < 0) {
+				break;
+			}
+			if(isPlatformParent(nsPath, start, end)) {
+				return end + 1;
+			}
+			start = end + 1;
+		}
+		return -1;
+	}
+
+	private static boolean isPlatformParent(String nsPath, int start, int end) {
+		int length = end - start;
+		return (length == 3 && nsPath.startsWith("bom", start))
+				|| (length == 7 && nsPath.startsWith("_design", start))
+				|| (length == 8 && nsPath.startsWith("manifest", start));
+	}
+
+	private static Set<String> changedAttributes(CiAttributes before, CiAttributes after) {
+		Map<String, Object> a = before == null ? Collections.<String, Object>emptyMap() : before.getAdditionalProperties();
+		Map<String, Object> b = after == null ? Collections.<String, Object>emptyMap() : after.getAdditionalProperties();
+		if(a.equals(b)) {
+			return NONE;
+		}
+		Set<String> changed = new LinkedHashSet<String>();
+		for (Map.Entry<String, Object> entry : b.entrySet()) {
+			if(!equal(entry.getValue(), a.get(entry.getKey())) || !a.containsKey(entry.getKey())) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String name : a.keySet()) {
+			if(!b.containsKey(name)) {
+				changed.add(name);
+			}
+		}
+		return changed;
+	}
+
+	private static boolean equal(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * @return all changes, adds and updates in target order followed by deletes
+	 */
+	public List<Change> getChanges() {
+		return Collections.unmodifiableList(changes);
+	}
+
+	public List<Change> getChanges(Kind kind) {
+		List<Change> matching = new ArrayList<Change>();
+		for (Change change : changes) {
+			if(change.kind == kind) {
+				matching.add(change);
+			}
+		}
+		return matching;
+	}
+
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	public Counts getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return number of RFCs present in both releases without changes
+	 */
+	public int getUnchanged() {
+		return unchanged;
+	}
+
+	/**
+	 * @return counts per platform and ciClassName, both sorted by name
+	 */
+	public Map<String, Map<String, Counts>> getCounts() {
+		return Collections.unmodifiableMap(counts);
+	}
+
+	/**
+	 * @param platform
+	 * @return counts per ciClassName of the platform
+	 */
+	public Map<String, Counts> getCounts(String platform) {
+		Map<String, Counts> byClass = counts.get(platform);
+		return byClass == null ? Collections.<String, Counts>emptyMap() : Collections.unmodifiableMap(byClass);
+	}
+
+	/**
+	 * @return one line per platform and ciClassName, e.g. tomcat bom.Compute +2 ~0 -1
+	 */
+	public String summarize() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Map<String, Counts>> platform : counts.entrySet()) {
+			for (Map.Entry<String, Counts> entry : platform.getValue().entrySet()) {
+				sb.append(platform.getKey()).append(' ').append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+			}
+		}
+		return sb.append("total ").append(total).toString();
+	}
+}
@@ -0,0 +1,195 @@
+package com.oneops.api.resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.resource.model.Release;
+import com.oneops.api.util.JsonUtil;
+
+/**
+ * Releases of an environment timeline, see {@link Transition#streamReleases(String, Filter)}.
+ * Timeline entries are read one at a time: an entry is buffered as tokens while its top level
+ * fields are checked, and only entries that are releases and pass the {@link Filter} are decoded.
+ * Deployments and releases filtered out are dropped without building any objects for them.
+ *
+ * Iteration stops once the filter limit is reached, close the timeline to stop earlier.
+ * Not thread safe.
+ */
+public final class ReleaseTimeline implements Iterator<Release>, Closeable {
+
+	/**
+	 * Which releases to return, all of them by default
+	 */
+	public static final class Filter {
+		private String releaseState;
+		private long createdFrom = Long.MIN_VALUE;
+		private long createdTo = Long.MAX_VALUE;
+		private int limit = Integer.MAX_VALUE;
+
+		public static Filter all() {
+			return new Filter();
+		}
+
+		/**
+		 * @param releaseState e.g. open, closed, canceled, compared ignoring case
+		 * @return
+		 */
+		public Filter releaseState(String releaseState) {
+			this.releaseState = releaseState;
+			return this;
+		}
+
+		/**
+		 * Only releases created in the given range, releases without a created time are left out
+		 *
+		 * @param from epoch millis, inclusive
+		 * @param to epoch millis, exclusive
+		 * @return
+		 */
+		public Filter createdBetween(long from, long to) {
+			this.createdFrom = from;
+			this.createdTo = to;
+			return this;
+		}
+
+		/**
+		 * @param limit maximum number of releases to return
+		 * @return
+		 */
+		public Filter limit(int limit) {
+			if(limit < 0) {
+				throw new IllegalArgumentException("Invalid limit " + limit);
+			}
+			this.limit = limit;
+			return this;
+		}
+
+		boolean hasDateRange() {
+			return createdFrom != Long.MIN_VALUE || createdTo != Long.MAX_VALUE;
+		}
+
+		boolean accept(String state, Long created) {
+			if(releaseState != null && !releaseState.equalsIgnoreCase(state)) {
+				return false;
+			}
+			if(hasDateRange() && (created == null || created < createdFrom || created >= createdTo)) {
+				return false;
+			}
+			return true;
+		}
+	}
+
+	private final ObjectMapper mapper = JsonUtil.mapper();
+	private final JsonParser parser;
+	private final Filter filter;
+	private final long size;
+	private final Object decode;
+	private Release next;
+	private int returned;
+	private boolean done;
+
+	ReleaseTimeline(byte[] json, Filter filter) throws IOException {
+		this.filter = filter == null ? Filter.all() : filter;
+		this.size = json.length;
+		this.decode = FlightRecorderSupport.beginDecode();
+		this.parser = mapper.getFactory().createParser(json);
+		if(parser.nextToken() != JsonToken.START_ARRAY) {
+			close();
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(next == null && !done) {
+			if(returned >= filter.limit) {
+				close();
+			} else {
+				try {
+					next = read();
+				} catch (IOException e) {
+					close();
+					throw new IllegalStateException("Failed to read release timeline", e);
+				}
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public Release next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Release release = next;
+		next = null;
+		returned++;
+		return release;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops reading the timeline
+	 */
+	@Override
+	public void close() {
+		if(done) {
+			return;
+		}
+		done = true;
+		FlightRecorderSupport.endDecode(decode, "ReleaseTimeline", size);
+		try {
+			parser.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * @return the next release passing the filter, null at the end of the timeline
+	 */
+	private Release read() throws IOException {
+		JsonToken t;
+		while((t = parser.nextToken()) != null && t != JsonToken.END_ARRAY) {
+			if(t != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			TokenBuffer entry = new TokenBuffer(parser);
+			entry.writeStartObject();
+			boolean release = false;
+			String state = null;
+			Long created = null;
+			while(parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if("releaseName".equals(name)) {
+					release = value != JsonToken.VALUE_NULL;
+				} else if("releaseState".equals(name) && value == JsonToken.VALUE_STRING) {
+					state = parser.getText();
+				} else if("created".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+					created = parser.getLongValue();
+				}
+				entry.writeFieldName(name);
+				entry.copyCurrentStructure(parser);
+			}
+			entry.writeEndObject();
+			if(release && filter.accept(state, created)) {
+				try (JsonParser p = entry.asParser(mapper)) {
+					return mapper.readValue(p, Release.class);
+				}
+			}
+		}
+		close();
+		return null;
+	}
+}
@@ -0,0 +1,140 @@
+package com.oneops.api.resource;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.model.Log;
+import com.oneops.api.resource.model.RfcCi;
+
+/**
+ * RFC logs of a deployment fetched in parallel, see
+ * {@link Transition#streamDeploymentRfcLogs(String, Long, com.google.common.base.Predicate, int)}.
+ * Results are returned in the order they arrive, {@link #next()} blocks until the next one is
+ * available. A failed fetch is returned as an {@link Item} carrying the exception, the other logs
+ * are still fetched. Close the stream to cancel fetches that are no longer needed, it is closed
+ * automatically once the last result was returned.
+ */
+public final class RfcLogStream implements Iterator<RfcLogStream.Item>, Closeable {
+
+	/**
+	 * Log of one RFC or the reason it could not be fetched
+	 */
+	public static final class Item {
+		private final RfcCi rfc;
+		private final Log log;
+		private final OneOpsClientAPIException error;
+
+		Item(RfcCi rfc, Log log, OneOpsClientAPIException error) {
+			this.rfc = rfc;
+			this.log = log;
+			this.error = error;
+		}
+
+		public RfcCi getRfc() {
+			return rfc;
+		}
+
+		/**
+		 * @return the log, null if the fetch failed
+		 */
+		public Log getLog() {
+			return log;
+		}
+
+		/**
+		 * @return why the fetch failed, null on success
+		 */
+		public OneOpsClientAPIException getError() {
+			return error;
+		}
+
+		public boolean isSuccess() {
+			return error == null;
+		}
+	}
+
+	private final ExecutorService executor;
+	private final CompletionService<Item> completion;
+	private final int total;
+	private int returned;
+
+	RfcLogStream(final Transition transition, final String environmentName, final Long deploymentId, List<RfcCi> rfcs, int parallelism) {
+		this.total = rfcs.size();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, total)),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("oneops-rfc-log-%d").build());
+		this.completion = new ExecutorCompletionService<Item>(executor);
+		for (final RfcCi rfc : rfcs) {
+			completion.submit(new Callable<Item>() {
+				@Override
+				public Item call() {
+					try {
+						return new Item(rfc, transition.getDeploymentRfcLog(environmentName, deploymentId, rfc.getRfcId()), null);
+					} catch (OneOpsClientAPIException e) {
+						return new Item(rfc, null, e);
+					} catch (RuntimeException e) {
+						return new Item(rfc, null, new OneOpsClientAPIException("Failed to get log of rfc " + rfc.getRfcId(), e));
+					}
+				}
+			});
+		}
+		if(total == 0) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return number of RFC logs being fetched
+	 */
+	public int size() {
+		return total;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return returned < total && !executor.isShutdown();
+	}
+
+	@Override
+	public Item next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		try {
+			Item item = completion.take().get();
+			if(++returned == total) {
+				executor.shutdown();
+			}
+			return item;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new IllegalStateException("Interrupted while waiting for rfc logs", e);
+		} catch (ExecutionException e) {
+			close();
+			throw new IllegalStateException("Failed to get rfc log", e.getCause());
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Cancels the fetches still pending
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,218 @@
+package com.oneops.api.resource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableSet;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.Log;
+import com.oneops.api.resource.model.LogDatum;
+
+/**
+ * Follows the logs of RFCs of a deployment, handing only entries not seen before to a {@link Listener}.
+ * The number of entries seen is kept per RFC and entries before it are skipped while parsing. A log
+ * that shrank below that number was started over, e.g. the RFC was retried, and is read again from
+ * its first entry.
+ *
+ * Each RFC is polled on its own schedule: the interval is reset to the minimum when new entries
+ * arrived and doubles up to the maximum when there were none, so finished or waiting RFCs are
+ * polled less and less. {@link #follow(Listener, long, TimeUnit)} also checks the deployment state
+ * and stops after one last poll of every RFC once the deployment is no longer active.
+ *
+ * <pre>
+ * RfcLogTail tail = transition.tailDeploymentRfcLogs("qa", deploymentId).add(rfcId);
+ * tail.follow(listener, 30, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * Not thread safe, use one tail per watching thread.
+ */
+public final class RfcLogTail {
+
+	/**
+	 * Receives new log entries
+	 */
+	public interface Listener {
+		/**
+		 * @param rfcId
+		 * @param entries entries appended since the previous call for this RFC, never empty
+		 */
+		void onLogData(long rfcId, List<LogDatum> entries);
+	}
+
+	static final ImmutableSet<String> ACTIVE_STATES = ImmutableSet.of("active", "pending", "pausing", "canceling");
+
+	private static final class Cursor {
+		int offset;
+		long interval;
+		long nextPoll;
+	}
+
+	private final Transition transition;
+	private final String environmentName;
+	private final Long deploymentId;
+	private final Map<Long, Cursor> cursors = new LinkedHashMap<Long, Cursor>();
+	private long minInterval = TimeUnit.SECONDS.toMillis(2);
+	private long maxInterval = TimeUnit.SECONDS.toMillis(30);
+
+	RfcLogTail(Transition transition, String environmentName, Long deploymentId) {
+		this.transition = transition;
+		this.environmentName = environmentName;
+		this.deploymentId = deploymentId;
+	}
+
+	/**
+	 * Starts following an RFC from the beginning of its log
+	 *
+	 * @param rfcId
+	 * @return
+	 */
+	public RfcLogTail add(long rfcId) {
+		return add(rfcId, 0);
+	}
+
+	/**
+	 * Starts following an RFC, skipping the given number of entries
+	 *
+	 * @param rfcId
+	 * @param offset entries already seen
+	 * @return
+	 */
+	public RfcLogTail add(long rfcId, int offset) {
+		Cursor cursor = new Cursor();
+		cursor.offset = offset;
+		cursor.interval = minInterval;
+		cursors.put(rfcId, cursor);
+		return this;
+	}
+
+	public RfcLogTail remove(long rfcId) {
+		cursors.remove(rfcId);
+		return this;
+	}
+
+	/**
+	 * @param rfcId
+	 * @return number of entries seen for the RFC, -1 if it is not followed
+	 */
+	public int getOffset(long rfcId) {
+		Cursor cursor = cursors.get(rfcId);
+		return cursor == null ? -1 : cursor.offset;
+	}
+
+	/**
+	 * Sets the polling interval bounds, 2 and 30 seconds by default
+	 *
+	 * @param min
+	 * @param max
+	 * @param unit
+	 * @return
+	 */
+	public RfcLogTail setPollInterval(long min, long max, TimeUnit unit) {
+		if(min <= 0 || max < min) {
+			throw new IllegalArgumentException("Invalid poll interval " + min + "-" + max);
+		}
+		this.minInterval = unit.toMillis(min);
+		this.maxInterval = unit.toMillis(max);
+		for (Cursor cursor : cursors.values()) {
+			cursor.interval = Math.max(minInterval, Math.min(maxInterval, cursor.interval));
+		}
+		return this;
+	}
+
+	/**
+	 * Polls every followed RFC once regardless of its schedule
+	 *
+	 * @param listener
+	 * @return number of new entries
+	 * @throws OneOpsClientAPIException
+	 */
+	public int poll(Listener listener) throws OneOpsClientAPIException {
+		int count = 0;
+		long now = System.currentTimeMillis();
+		for (Map.Entry<Long, Cursor> entry : cursors.entrySet()) {
+			count += poll(entry.getKey(), entry.getValue(), listener, now);
+		}
+		return count;
+	}
+
+	/**
+	 * Polls the followed RFCs when they are due until the deployment is no longer active and
+	 * its last entries were delivered, or until the timeout
+	 *
+	 * @param listener
+	 * @param timeout
+	 * @param unit
+	 * @return the last deployment state seen
+	 * @throws OneOpsClientAPIException if a call fails or the thread is interrupted
+	 */
+	public String follow(Listener listener, long timeout, TimeUnit unit) throws OneOpsClientAPIException {
+		long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+		long nextStateCheck = 0;
+		String state = null;
+		int polls = 0;
+		Object pollWait = FlightRecorderSupport.beginPollWait();
+		try {
+			while(true) {
+				long now = System.currentTimeMillis();
+				if(now >= nextStateCheck) {
+					Deployment deployment = transition.getDeploymentStatus(environmentName, deploymentId);
+					state = deployment.getDeploymentState();
+					nextStateCheck = now + minInterval;
+					if(state == null || !ACTIVE_STATES.contains(state)) {
+						poll(listener);
+						return state;
+					}
+				}
+				long wakeUp = Math.min(deadline, nextStateCheck);
+				for (Map.Entry<Long, Cursor> entry : cursors.entrySet()) {
+					Cursor cursor = entry.getValue();
+					if(cursor.nextPoll <= now) {
+						poll(entry.getKey(), cursor, listener, now);
+						polls++;
+					}
+					wakeUp = Math.min(wakeUp, cursor.nextPoll);
+				}
+				now = System.currentTimeMillis();
+				if(now >= deadline) {
+					return state;
+				}
+				if(wakeUp > now) {
+					try {
+						TimeUnit.MILLISECONDS.sleep(wakeUp - now);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						String msg = String.format("Interrupted following rfc logs of deployment %s of environment %s", deploymentId, environmentName);
+						throw new OneOpsClientAPIException(msg, e);
+					}
+				}
+			}
+		} finally {
+			FlightRecorderSupport.endPollWait(pollWait, "RfcLogTail.follow", environmentName + "/" + deploymentId, polls, state);
+		}
+	}
+
+	private int poll(long rfcId, Cursor cursor, Listener listener, long now) throws OneOpsClientAPIException {
+		AtomicInteger logSize = new AtomicInteger();
+		Log log = transition.getDeploymentRfcLog(environmentName, deploymentId, rfcId, cursor.offset, logSize);
+		if(logSize.get() < cursor.offset) {
+			// the log was started over and read from its first entry
+			cursor.offset = 0;
+		}
+		List<LogDatum> entries = log.getLogData();
+		int count = entries == null ? 0 : entries.size();
+		if(count > 0) {
+			cursor.offset += count;
+			cursor.interval = minInterval;
+			listener.onLogData(rfcId, entries);
+		} else {
+			cursor.interval = Math.min(maxInterval, cursor.interval * 2);
+		}
+		cursor.nextPoll = now + cursor.interval;
+		return count;
+	}
+}
@@ -1,36 +1,50 @@
 package com.oneops.api.resource;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.Uninterruptibles;
-import com.jayway.restassured.path.json.JsonPath;
-import com.jayway.restassured.response.Response;
-import com.jayway.restassured.specification.RequestSpecification;
 import com.oneops.api.APIClient;
 import com.oneops.api.OOInstance;
 import com.oneops.api.ResourceObject;
 import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiRequest;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.ResponseBody;
+import com.oneops.api.jfr.FlightRecorderSupport;
+import com.oneops.api.journal.DeploymentJournal;
 import com.oneops.api.resource.model.AttrProps;
 import com.oneops.api.resource.model.CiAttributes;
 import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.CiSummary;
 import com.oneops.api.resource.model.Deployment;
 import com.oneops.api.resource.model.DeploymentRFC;
 import com.oneops.api.resource.model.Log;
+import com.oneops.api.resource.model.LogDatum;
 import com.oneops.api.resource.model.RedundancyConfig;
 import com.oneops.api.resource.model.Release;
+import com.oneops.api.resource.model.RfcCi;
+import com.oneops.api.util.CiIdSet;
 import com.oneops.api.util.IConstants;
 import com.oneops.api.util.JsonUtil;
 
@@ -52,6 +66,10 @@ public class Transition extends APIClient {
 		transitionEnvUri = IConstants.ASSEMBLY_URI + assemblyName + IConstants.TRANSITION_URI + IConstants.ENVIRONMENT_URI;
 	}
 	
+	public String getAssemblyName() {
+		return assemblyName;
+	}
+	
 	/**
 	 * Fetches specific environment details
 	 * 
@@ -65,8 +83,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -86,12 +104,25 @@ public class Transition extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listEnvironments() throws OneOpsClientAPIException {
+		return listEnvironments(new TypeReference<List<CiResource>>(){});
+	}
+
+	/**
+	 * Lists all environments for a given assembly decoding only identity and state
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<CiSummary> listEnvironmentSummaries() throws OneOpsClientAPIException {
+		return listEnvironments(new TypeReference<List<CiSummary>>(){});
+	}
+
+	private <T> List<T> listEnvironments(TypeReference<List<T>> type) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), type);
 			} else {
 				String msg = String.format("Failed to list environments due to %s", response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -153,7 +184,7 @@ public class Transition extends APIClient {
 		attributes.put("subdomain", subdomain);
 		ro.setAttributes(attributes);
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 		if(platformAvailability == null || platformAvailability.size() == 0) {
 			Design design = new Design(instance, assemblyName);
@@ -173,7 +204,7 @@ public class Transition extends APIClient {
 		}
 		jsonObject.put("clouds", cloudMap);
 		
-		Response response = request.body(jsonObject.toString()).post(transitionEnvUri);
+		ApiResponse response = request.body(jsonObject.toString()).post(transitionEnvUri);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -189,7 +220,7 @@ public class Transition extends APIClient {
 	
 
 	/**
-	 * Commits environment open releases
+	 * Commits environment open releases and waits for the deployment plan, polling as with {@link DeployOptions#defaults()}
 	 * 
 	 * @param environmentName {mandatory}
 	 * @param excludePlatforms
@@ -198,7 +229,24 @@ public class Transition extends APIClient {
 	 */
 	public Release commitEnvironment(String environmentName, List<Long> excludePlatforms, String comment) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
+		ApiResponse response = request.body(commitBody(excludePlatforms, comment)).post(transitionEnvUri + environmentName + "/commit");
+		if(response != null) {
+			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
+				//wait for deployment plan to generate
+				DeployOptions defaults = DeployOptions.defaults();
+				response = waitForPlan(environmentName, defaults.getMinPlanPoll(), defaults.getMaxPlanPoll(), defaults.getPlanTimeout());
+				return response.getBody().as(Release.class);
+			} else {
+				String msg = String.format("Failed to commit environment %s due to %s", environmentName, response.getStatusLine());
+				throw new OneOpsClientAPIException(msg);
+			}
+		} 
+		String msg = String.format("Failed to commit environment %s due to null response", environmentName);
+		throw new OneOpsClientAPIException(msg);
+	}
+	
+	private static String commitBody(List<Long> excludePlatforms, String comment) {
 		JSONObject jo = new JSONObject();
 		if(excludePlatforms != null && excludePlatforms.size() > 0) {
 			StringBuilder sb = new StringBuilder();
@@ -212,38 +260,7 @@ public class Transition extends APIClient {
 		}
 		if(comment != null)
 			jo.put("desc", comment);
-		Response response = request.body(jo.toString()).post(transitionEnvUri + environmentName + "/commit");
-		if(response != null) {
-			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				
-				response = request.get(transitionEnvUri + environmentName);
-				String envState = response.getBody().jsonPath().get("ciState");
-				//wait for deployment plan to generate
-				do {
-					Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
-					response = request.get(transitionEnvUri + environmentName);
-					if(response == null) {
-						String msg = String.format("Failed to commit environment due to null response");
-						throw new OneOpsClientAPIException(msg);
-					}
-					envState = response.getBody().jsonPath().get("ciState");
-				} while(response != null && "locked".equalsIgnoreCase(envState));
-				
-				String comments = response.getBody().jsonPath().getString("comments");
-				if(comments != null && comments.startsWith("ERROR:")) {
-					String msg = String.format("Failed to commit environment due to %s",  comments);
-					throw new OneOpsClientAPIException(msg);
-				}
-				
-				return response.getBody().as(Release.class);
-				
-			} else {
-				String msg = String.format("Failed to commit environment %s due to %s", environmentName, response.getStatusLine());
-				throw new OneOpsClientAPIException(msg);
-			}
-		} 
-		String msg = String.format("Failed to commit environment %s due to null response", environmentName);
-		throw new OneOpsClientAPIException(msg);
+		return jo.toString();
 	}
 	
 	/**
@@ -255,32 +272,11 @@ public class Transition extends APIClient {
 	 */
 	public Deployment deploy(String environmentName, String comments) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
-		
 		 Release bomRelease = getBomRelease(environmentName);
 		 Long releaseId = bomRelease.getReleaseId();
 		 String nsPath = bomRelease.getNsPath();
 		 if(releaseId != null && nsPath!= null) {
-			Map<String ,String> properties= new HashMap<String ,String>();
-			properties.put("nsPath", nsPath);
-			properties.put("releaseId", releaseId + "");
-			if(comments != null) {
-				properties.put("comments", comments);
-			}
-			ResourceObject ro = new ResourceObject();
-			ro.setProperties(properties);
-			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_deployment");
-			Response response = request.body(jsonObject.toString()).post(transitionEnvUri + environmentName + "/deployments/");
-			if(response == null) {
-				String msg = String.format("Failed to start deployment for environment %s due to null response" , environmentName);
-				throw new OneOpsClientAPIException(msg);
-			}
-			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return response.getBody().as(Deployment.class);
-			} else {
-				String msg = String.format("Failed to start deployment for environment %s due to null response" , environmentName);
-				throw new OneOpsClientAPIException(msg);
-			}
+			return startDeployment(environmentName, releaseId, nsPath, comments);
 		} else {
 			String msg = String.format("Failed to find release id to be deployed for environment %s", environmentName);
 			throw new OneOpsClientAPIException(msg);
@@ -289,6 +285,124 @@ public class Transition extends APIClient {
 			
 	}
 	
+	/**
+	 * Commits the environment and deploys the generated plan. The environment is polled with backoff
+	 * while the plan is generated and the bom release is looked up once, its id and nsPath are used
+	 * to start the deployment and are kept in the returned handle.
+	 * 
+	 * @param environmentName
+	 * @param options null for defaults
+	 * @return handle of the started deployment, see {@link DeploymentHandle#await(long, TimeUnit)}
+	 * @throws OneOpsClientAPIException
+	 */
+	public DeploymentHandle commitAndDeploy(String environmentName, DeployOptions options) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to commit and deploy";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(options == null) {
+			options = DeployOptions.defaults();
+		}
+		
+		ApiRequest request = createRequest();
+		ApiResponse response = request.body(commitBody(options.getExcludePlatforms(), options.getComment())).post(transitionEnvUri + environmentName + "/commit");
+		if(response == null) {
+			String msg = String.format("Failed to commit environment %s due to null response", environmentName);
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(response.getStatusCode() != 200 && response.getStatusCode() != 302) {
+			String msg = String.format("Failed to commit environment %s due to %s", environmentName, response.getStatusLine());
+			throw new OneOpsClientAPIException(msg);
+		}
+		
+		//wait for deployment plan to generate
+		waitForPlan(environmentName, options.getMinPlanPoll(), options.getMaxPlanPoll(), options.getPlanTimeout());
+		
+		Release bomRelease = getBomRelease(environmentName);
+		if(bomRelease == null || bomRelease.getReleaseId() == null || bomRelease.getNsPath() == null) {
+			String msg = String.format("Failed to find release id to be deployed for environment %s", environmentName);
+			throw new OneOpsClientAPIException(msg);
+		}
+		Deployment deployment = startDeployment(environmentName, bomRelease.getReleaseId(), bomRelease.getNsPath(), options.getDeploymentComments());
+		return new DeploymentHandle(this, environmentName, bomRelease.getReleaseId(), bomRelease.getNsPath(), deployment);
+	}
+	
+	/**
+	 * Polls the environment until the deployment plan of a commit is generated, the interval starts
+	 * at minPoll and doubles up to maxPoll
+	 * 
+	 * @param environmentName
+	 * @param minPoll milliseconds
+	 * @param maxPoll milliseconds
+	 * @param timeout milliseconds
+	 * @return the environment once it is no longer locked
+	 * @throws OneOpsClientAPIException if a poll or the plan failed, on timeout or when the thread is interrupted
+	 */
+	private ApiResponse waitForPlan(String environmentName, long minPoll, long maxPoll, long timeout) throws OneOpsClientAPIException {
+		long deadline = System.currentTimeMillis() + timeout;
+		long interval = minPoll;
+		ApiResponse response;
+		String envState = null;
+		int polls = 0;
+		Object pollWait = FlightRecorderSupport.beginPollWait();
+		try {
+			do {
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining <= 0) {
+					String msg = String.format("Timed out waiting for deployment plan of environment %s", environmentName);
+					throw new OneOpsClientAPIException(msg);
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(Math.min(interval, remaining));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					String msg = String.format("Interrupted waiting for deployment plan of environment %s", environmentName);
+					throw new OneOpsClientAPIException(msg, e);
+				}
+				interval = Math.min(maxPoll, interval * 2);
+				response = createRequest().get(transitionEnvUri + environmentName);
+				polls++;
+				if(response == null) {
+					String msg = String.format("Failed to commit environment due to null response");
+					throw new OneOpsClientAPIException(msg);
+				}
+				envState = response.getBody().path("ciState");
+			} while("locked".equalsIgnoreCase(envState));
+		} finally {
+			FlightRecorderSupport.endPollWait(pollWait, "Transition.waitForPlan", environmentName, polls, envState);
+		}
+		
+		String comments = response.getBody().getString("comments");
+		if(comments != null && comments.startsWith("ERROR:")) {
+			String msg = String.format("Failed to commit environment due to %s",  comments);
+			throw new OneOpsClientAPIException(msg);
+		}
+		return response;
+	}
+	
+	private Deployment startDeployment(String environmentName, Long releaseId, String nsPath, String comments) throws OneOpsClientAPIException {
+		Map<String ,String> properties= new HashMap<String ,String>();
+		properties.put("nsPath", nsPath);
+		properties.put("releaseId", releaseId + "");
+		if(comments != null) {
+			properties.put("comments", comments);
+		}
+		ResourceObject ro = new ResourceObject();
+		ro.setProperties(properties);
+		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_deployment");
+		ApiResponse response = createRequest().body(jsonObject.toString()).post(transitionEnvUri + environmentName + "/deployments/");
+		if(response == null) {
+			String msg = String.format("Failed to start deployment for environment %s due to null response" , environmentName);
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
+			return journal(environmentName, response.getBody().as(Deployment.class));
+		} else {
+			String msg = String.format("Failed to start deployment for environment %s due to null response" , environmentName);
+			throw new OneOpsClientAPIException(msg);
+		}
+	}
+	
 	
 	/**
 	 * Fetches deployment status for the given assembly/environment
@@ -308,11 +422,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId + "/status");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId + "/status");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return response.getBody().as(Deployment.class);
+				return journal(environmentName, response.getBody().as(Deployment.class));
 			} else {
 				String msg = String.format("Failed to get deployment status for environment %s with deployment Id %s due to %s", environmentName, deploymentId, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -322,6 +436,22 @@ public class Transition extends APIClient {
 		throw new OneOpsClientAPIException(msg);
 	}
 	
+	private Deployment journal(String environmentName, Deployment deployment) {
+		DeploymentJournal journal = getDeploymentJournal();
+		if(journal != null) {
+			journal.observe(environmentName, deployment);
+		}
+		return deployment;
+	}
+	
+	private DeploymentRFC journal(String environmentName, Long deploymentId, DeploymentRFC deployment) {
+		DeploymentJournal journal = getDeploymentJournal();
+		if(journal != null && deployment != null) {
+			journal.observe(environmentName, deploymentId, deployment.getRfcCis());
+		}
+		return deployment;
+	}
+	
 	/**
 	 * Fetches latest deployment for the given assembly/environment
 	 * 
@@ -335,11 +465,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + "latest" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + "latest" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return response.getBody().as(Deployment.class);
+				return journal(environmentName, response.getBody().as(Deployment.class));
 			} else {
 				String msg = String.format("Failed to get latest deployment for environment %s due to %s", environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -363,12 +493,12 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
 		Release bomRelease = getBomRelease(environmentName);
 		if(bomRelease != null) {
 			long releaseId = bomRelease.getReleaseId();
-			Response response = request.body("").post(transitionEnvUri + environmentName + IConstants.RELEASES_URI + releaseId + "/discard" );
+			ApiResponse response = request.body("").post(transitionEnvUri + environmentName + IConstants.RELEASES_URI + releaseId + "/discard" );
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					return response.getBody().as(Release.class);
@@ -399,8 +529,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.body("").post(transitionEnvUri + environmentName + "/discard" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.body("").post(transitionEnvUri + environmentName + "/discard" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Release.class);
@@ -427,14 +557,10 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		List<CiResource> ps = listPlatforms(environmentName);
-		List<Long> platformIds = Lists.newArrayList();
-		for (CiResource ciResource : ps) {
-			platformIds.add(ciResource.getCiId());
-		}
+		CiIdSet platformIds = listPlatformIds(environmentName);
 		
-		RequestSpecification request = createRequest();
-		Response response = request.queryParam("platformCiIds[]", platformIds).put(transitionEnvUri + environmentName + "/disable" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.queryParam("platformCiIds[]", platformIds).put(transitionEnvUri + environmentName + "/disable" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -470,25 +596,50 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		List<CiResource> ps = listPlatforms(environmentName);
-		List<Long> platformIds = Lists.newArrayList();
-		for (CiResource ciResource : ps) {
-			if(platformNames.contains(ciResource.getCiName())) {
-				platformIds.add(ciResource.getCiId());
+		List<CiSummary> ps = listPlatformSummaries(environmentName);
+		CiIdSet platformIds = new CiIdSet(platformNames.size());
+		for (CiSummary platform : ps) {
+			if(platformNames.contains(platform.getCiName())) {
+				platformIds.add(platform.getCiId());
 			}
 		}
+		return updatePlatformStatus(environmentName, platformIds, status);
+	}
+	
+	/**
+	 * Disable/enable the platforms with the given ids for the given assembly/environment
+	 * 
+	 * @param environmentName
+	 * @param platformIds
+	 * @param status disable/enable
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public CiResource updatePlatformStatus(String environmentName, CiIdSet platformIds, String status) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to disable all platforms";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(status == null || status.length() == 0) {
+			String msg = "Missing status(disable/enable) for platform to be updated";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(platformIds == null) {
+			String msg = "Missing platform id list to be updated";
+			throw new OneOpsClientAPIException(msg);
+		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.queryParam("platformCiIds[]", platformIds).put(transitionEnvUri + environmentName + "/" + status );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.queryParam("platformCiIds[]", platformIds).put(transitionEnvUri + environmentName + "/" + status );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
 			} else {
-				String msg = String.format("Failed to update platforms %s status to %s for environment %s due to %s", platformNames, status, environmentName, response.getStatusLine());
+				String msg = String.format("Failed to update platforms %s status to %s for environment %s due to %s", platformIds, status, environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
 			}
 		} 
-		String msg = String.format("Failed to update platforms %s status to %s for environment %s due to null response", platformNames, status, environmentName);
+		String msg = String.format("Failed to update platforms %s status to %s for environment %s due to null response", platformIds, status, environmentName);
 		throw new OneOpsClientAPIException(msg);
 	}
 	
@@ -505,8 +656,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.RELEASES_URI + "latest" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.RELEASES_URI + "latest" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Release.class);
@@ -533,8 +684,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.RELEASES_URI + "bom" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.RELEASES_URI + "bom" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(Release.class);
@@ -574,8 +725,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.post(transitionEnvUri + environmentName + IConstants.RELEASES_URI + releaseId +"/restore" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.post(transitionEnvUri + environmentName + IConstants.RELEASES_URI + releaseId +"/restore" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				Map<String, Object> map = (Map<String, Object>)response.getBody().as(Map.class);
@@ -600,26 +751,54 @@ public class Transition extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<Release> listReleases(String environmentName) throws OneOpsClientAPIException {
+		return listReleases(environmentName, ReleaseTimeline.Filter.all());
+	}
+
+	/**
+	 * Fetch the releases of given environment passing the filter
+	 *
+	 * @param environmentName
+	 * @param filter
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<Release> listReleases(String environmentName, ReleaseTimeline.Filter filter) throws OneOpsClientAPIException {
+		List<Release> releases = new ArrayList<>();
+		try (ReleaseTimeline timeline = streamReleases(environmentName, filter)) {
+			while(timeline.hasNext()) {
+				releases.add(timeline.next());
+			}
+		} catch (IllegalStateException e) {
+			String msg = String.format("Failed to read releases for environment %s", environmentName);
+			throw new OneOpsClientAPIException(msg, e.getCause());
+		}
+		return releases;
+	}
+
+	/**
+	 * Reads the releases of given environment timeline one at a time, see {@link ReleaseTimeline}
+	 *
+	 * @param environmentName
+	 * @param filter null for all releases
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public ReleaseTimeline streamReleases(String environmentName, ReleaseTimeline.Filter filter) throws OneOpsClientAPIException {
 		if(environmentName == null || environmentName.length() == 0) {
 			String msg = "Missing environment name to fetch details";
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + "/timeline" );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + "/timeline" );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				List<Release> releases = new ArrayList<>();
-				List<Object> timeline = (List<Object>)response.getBody().as(List.class);
-				for(Object o : timeline) {
-					if(o instanceof Map && ((Map) o).get("releaseName") != null) {
-						Release release = JsonUtil.convert(o, new TypeReference<Release>(){});
-						releases.add(release);
-					}
+				try {
+					return new ReleaseTimeline(response.getBody().asByteArray(), filter);
+				} catch (IOException e) {
+					String msg = String.format("Failed to read releases for environment %s", environmentName);
+					throw new OneOpsClientAPIException(msg, e);
 				}
-
-				return releases;
-
 			} else {
 				String msg = String.format("Failed to restore release for environment %s due to %s", environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -630,6 +809,86 @@ public class Transition extends APIClient {
 	}
 	
 	
+	/**
+	 * Fetches the RFCs of a release of given environment
+	 *
+	 * @param environmentName
+	 * @param releaseId
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<RfcCi> listReleaseRfcs(String environmentName, Long releaseId) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(releaseId == null) {
+			String msg = "Missing releaseId to fetch the details";
+			throw new OneOpsClientAPIException(msg);
+		}
+
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.RELEASES_URI + releaseId);
+		if(response != null) {
+			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
+				List<RfcCi> rfcs = response.getBody().as(DeploymentRFC.class).getRfcCis();
+				return rfcs == null ? new ArrayList<RfcCi>() : rfcs;
+			} else {
+				String msg = String.format("Failed to get rfcs of release %s for environment %s due to %s", releaseId, environmentName, response.getStatusLine());
+				throw new OneOpsClientAPIException(msg);
+			}
+		}
+		String msg = String.format("Failed to get rfcs of release %s for environment %s due to null response", releaseId, environmentName);
+		throw new OneOpsClientAPIException(msg);
+	}
+
+	/**
+	 * Compares the RFCs of two releases of the same namespace of given environment, e.g. the bom
+	 * release last deployed against the current bom release to see what a deployment will change.
+	 * Both RFC sets are fetched in parallel.
+	 *
+	 * @param environmentName
+	 * @param baseReleaseId
+	 * @param targetReleaseId
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public ReleaseDiff diffReleases(final String environmentName, final Long baseReleaseId, Long targetReleaseId) throws OneOpsClientAPIException {
+		FutureTask<List<RfcCi>> base = new FutureTask<List<RfcCi>>(new Callable<List<RfcCi>>() {
+			@Override
+			public List<RfcCi> call() throws OneOpsClientAPIException {
+				return listReleaseRfcs(environmentName, baseReleaseId);
+			}
+		});
+		Thread fetch = new Thread(base, "oneops-release-rfcs");
+		fetch.setDaemon(true);
+		fetch.start();
+		List<RfcCi> target;
+		try {
+			target = listReleaseRfcs(environmentName, targetReleaseId);
+		} catch (OneOpsClientAPIException e) {
+			base.cancel(true);
+			throw e;
+		}
+		try {
+			return new ReleaseDiff(base.get(), target);
+		} catch (IllegalArgumentException e) {
+			String msg = String.format("Failed to compare releases %s and %s for environment %s: %s", baseReleaseId, targetReleaseId, environmentName, e.getMessage());
+			throw new OneOpsClientAPIException(msg, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			base.cancel(true);
+			String msg = String.format("Interrupted while fetching rfcs of release %s for environment %s", baseReleaseId, environmentName);
+			throw new OneOpsClientAPIException(msg, e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof OneOpsClientAPIException) {
+				throw (OneOpsClientAPIException) e.getCause();
+			}
+			String msg = String.format("Failed to get rfcs of release %s for environment %s", baseReleaseId, environmentName);
+			throw new OneOpsClientAPIException(msg, e.getCause());
+		}
+	}
+	
 	/**
 	 * Cancels a failed/paused deployment
 	 * 
@@ -668,11 +927,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId );
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId );
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return response.getBody().as(DeploymentRFC.class);
+				return journal(environmentName, deploymentId, response.getBody().as(DeploymentRFC.class));
 			} else {
 				String msg = String.format("Failed to get deployment details for environment %s for id %s due to %s", environmentName, deploymentId, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -698,11 +957,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.queryParam("rfcId", rfcId).get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId + "/log_data");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.queryParam("rfcId", rfcId).get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId + "/log_data");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				List<Log> logs = JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<Log>>(){});
+				List<Log> logs = JsonUtil.toObject(response.getBody(), new TypeReference<List<Log>>(){});
 				if(logs != null && logs.size() > 0) {
 					return logs.get(0);
 				} else {
@@ -718,6 +977,217 @@ public class Transition extends APIClient {
 		throw new OneOpsClientAPIException(msg);
 	}
 	
+	/**
+	 * Fetches the log entries of an RFC from the given position on. The server always sends the whole log,
+	 * the entries before fromIndex are skipped by the parser without being decoded.
+	 * 
+	 * @param environmentName
+	 * @param deploymentId
+	 * @param rfcId
+	 * @param fromIndex number of entries already seen
+	 * @return the log with the entries after fromIndex, empty if there are none
+	 * @throws OneOpsClientAPIException
+	 */
+	public Log getDeploymentRfcLog(String environmentName, Long deploymentId, Long rfcId, int fromIndex) throws OneOpsClientAPIException {
+		return getDeploymentRfcLog(environmentName, deploymentId, rfcId, fromIndex, null);
+	}
+	
+	/**
+	 * Same as {@link #getDeploymentRfcLog(String, Long, Long, int)}, with logSize given a log holding
+	 * fewer than fromIndex entries was started over (e.g. the RFC was retried) and is read from its
+	 * first entry
+	 * 
+	 * @param logSize receives the number of entries of the whole log, null to not read a shorter log again
+	 */
+	Log getDeploymentRfcLog(String environmentName, Long deploymentId, Long rfcId, int fromIndex, AtomicInteger logSize) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		
+		if(deploymentId == null) {
+			String msg = "Missing deployment Id to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		
+		if(rfcId == null ) {
+			String msg = "Missing rfc Id to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		
+		ApiRequest request = createRequest();
+		ApiResponse response = request.queryParam("rfcId", rfcId).get(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId + "/log_data");
+		if(response != null) {
+			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
+				try {
+					byte[] json = response.getBody().asByteArray();
+					Log log = readLog(json, fromIndex, logSize);
+					return logSize != null && logSize.get() < fromIndex ? readLog(json, 0, logSize) : log;
+				} catch (IOException e) {
+					String msg = String.format("Failed to read deployment logs for environment %s, deployment id %s and rfcId %s", environmentName, deploymentId, rfcId);
+					throw new OneOpsClientAPIException(msg, e);
+				}
+			} else {
+				String msg = String.format("Failed to get deployment logs for environment %s, deployment id %s and rfcId %s due to %s", environmentName, deploymentId, rfcId, response.getStatusLine());
+				throw new OneOpsClientAPIException(msg);
+			}
+		} 
+		String msg = String.format("Failed to get deployment logs for environment %s, deployment id %s and rfcId %s due to null response", environmentName, deploymentId, rfcId);
+		throw new OneOpsClientAPIException(msg);
+	}
+	
+	/**
+	 * Reads the first log of a log_data response, skipping the first fromIndex entries at token level
+	 */
+	private static Log readLog(byte[] json, int fromIndex, AtomicInteger logSize) throws IOException {
+		Log log = new Log();
+		List<LogDatum> entries = new ArrayList<LogDatum>();
+		log.setLogData(entries);
+		ObjectMapper mapper = JsonUtil.mapper();
+		try (JsonParser p = mapper.getFactory().createParser(json)) {
+			if(p.nextToken() != JsonToken.START_ARRAY || p.nextToken() != JsonToken.START_OBJECT) {
+				return log;
+			}
+			while(p.nextToken() == JsonToken.FIELD_NAME) {
+				String name = p.getCurrentName();
+				JsonToken t = p.nextToken();
+				if("logData".equals(name) && t == JsonToken.START_ARRAY) {
+					int index = 0;
+					while(p.nextToken() != JsonToken.END_ARRAY) {
+						if(index++ < fromIndex) {
+							p.skipChildren();
+						} else {
+							entries.add(mapper.readValue(p, LogDatum.class));
+						}
+					}
+					if(logSize != null) {
+						logSize.set(index);
+					}
+				} else if("id".equals(name)) {
+					log.setId(p.getValueAsString());
+				} else {
+					log.setAdditionalProperty(name, mapper.readValue(p, Object.class));
+				}
+			}
+		}
+		return log;
+	}
+	
+	/**
+	 * Follows the logs of RFCs of a running deployment, see {@link RfcLogTail}
+	 * 
+	 * @param environmentName
+	 * @param deploymentId
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public RfcLogTail tailDeploymentRfcLogs(String environmentName, Long deploymentId) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(deploymentId == null) {
+			String msg = "Missing deployment Id to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		return new RfcLogTail(this, environmentName, deploymentId);
+	}
+	
+	/**
+	 * Starts a promotion of this assembly through several environments, see {@link PromotionPipeline}
+	 * 
+	 * @return
+	 */
+	public PromotionPipeline promotionPipeline() {
+		return new PromotionPipeline(this);
+	}
+	
+	/**
+	 * Creates an engine retrying and approving deployments by policy, see {@link DeploymentPolicyEngine}
+	 * 
+	 * @return
+	 */
+	public DeploymentPolicyEngine deploymentPolicyEngine() {
+		return new DeploymentPolicyEngine(this);
+	}
+	
+	/**
+	 * Tracks the progress of a deployment, see {@link DeploymentProgress}
+	 * 
+	 * @param environmentName
+	 * @param deploymentId
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public DeploymentProgress trackDeploymentProgress(String environmentName, Long deploymentId) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(deploymentId == null) {
+			String msg = "Missing deployment Id to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		return new DeploymentProgress(this, environmentName, deploymentId);
+	}
+	
+	/**
+	 * Fetches the logs of the RFCs of a deployment matching the filter, at most parallelism at a time.
+	 * The logs are returned as they arrive, e.g. all failed RFCs:
+	 * 
+	 * <pre>
+	 * try (RfcLogStream logs = transition.streamDeploymentRfcLogs("qa", deploymentId, failed, 8)) {
+	 *     while (logs.hasNext()) { ... }
+	 * }
+	 * </pre>
+	 * 
+	 * @param environmentName
+	 * @param deploymentId
+	 * @param filter selects the RFCs to fetch logs for
+	 * @param parallelism maximum concurrent requests
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public RfcLogStream streamDeploymentRfcLogs(String environmentName, Long deploymentId, Predicate<? super RfcCi> filter, int parallelism) throws OneOpsClientAPIException {
+		return streamDeploymentRfcLogs(environmentName, deploymentId, getDeployment(environmentName, deploymentId), filter, parallelism);
+	}
+	
+	/**
+	 * Fetches the logs of the RFCs of an already fetched deployment matching the filter, at most parallelism at a time
+	 * 
+	 * @param environmentName
+	 * @param deploymentId
+	 * @param deployment RFCs of the deployment as returned by {@link #getDeployment(String, Long)}
+	 * @param filter selects the RFCs to fetch logs for
+	 * @param parallelism maximum concurrent requests
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public RfcLogStream streamDeploymentRfcLogs(String environmentName, Long deploymentId, DeploymentRFC deployment, Predicate<? super RfcCi> filter, int parallelism) throws OneOpsClientAPIException {
+		if(environmentName == null || environmentName.length() == 0) {
+			String msg = "Missing environment name to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(deploymentId == null) {
+			String msg = "Missing deployment Id to fetch details";
+			throw new OneOpsClientAPIException(msg);
+		}
+		if(parallelism < 1) {
+			String msg = String.format("Invalid parallelism %s to fetch rfc logs", parallelism);
+			throw new OneOpsClientAPIException(msg);
+		}
+		
+		List<RfcCi> rfcs = Lists.newArrayList();
+		if(deployment != null && deployment.getRfcCis() != null) {
+			for (RfcCi rfc : deployment.getRfcCis()) {
+				if(rfc != null && rfc.getRfcId() != null && (filter == null || filter.apply(rfc))) {
+					rfcs.add(rfc);
+				}
+			}
+		}
+		return new RfcLogStream(this, environmentName, deploymentId, rfcs, parallelism);
+	}
+	
 	/**
 	 * Approve a deployment
 	 * 
@@ -763,7 +1233,7 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
 		Map<String ,String> properties= new HashMap<String ,String>();
 		properties.put("deploymentState", newstate);
@@ -772,10 +1242,10 @@ public class Transition extends APIClient {
 		ro.setProperties(properties);
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_deployment");
 		
-		Response response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId);
+		ApiResponse response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.DEPLOYMENTS_URI + deploymentId);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return response.getBody().as(Deployment.class);
+				return journal(environmentName, response.getBody().as(Deployment.class));
 			} else {
 				String msg = String.format("Failed to update deployment state to %s for environment %s with deployment Id %s due to %s", newstate, environmentName, deploymentId, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -798,8 +1268,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.delete(transitionEnvUri + environmentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.delete(transitionEnvUri + environmentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -820,16 +1290,49 @@ public class Transition extends APIClient {
 	 * @throws OneOpsClientAPIException
 	 */
 	public List<CiResource> listPlatforms(String environmentName) throws OneOpsClientAPIException {
+		return listPlatforms(environmentName, new TypeReference<List<CiResource>>(){});
+	}
+
+	/**
+	 * List platforms for a given assembly/environment decoding only identity and state
+	 * 
+	 * @param environmentName
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public List<CiSummary> listPlatformSummaries(String environmentName) throws OneOpsClientAPIException {
+		return listPlatforms(environmentName, new TypeReference<List<CiSummary>>(){});
+	}
+
+	/**
+	 * Ids of the platforms for a given assembly/environment, platforms listed without id are left out
+	 * 
+	 * @param environmentName
+	 * @return
+	 * @throws OneOpsClientAPIException
+	 */
+	public CiIdSet listPlatformIds(String environmentName) throws OneOpsClientAPIException {
+		List<CiSummary> platforms = listPlatformSummaries(environmentName);
+		CiIdSet ids = new CiIdSet(platforms.size());
+		for (CiSummary platform : platforms) {
+			if(platform.getCiId() != null) {
+				ids.add(platform.getCiId());
+			}
+		}
+		return ids;
+	}
+
+	private <T> List<T> listPlatforms(String environmentName, TypeReference<List<T>> type) throws OneOpsClientAPIException {
 		if(environmentName == null || environmentName.length() == 0) {
 			String msg = "Missing environment name list platforms";
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), type);
 			} else {
 				String msg = String.format("Failed to get list of platforms for environemnt %s due to %s", environmentName,response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -856,8 +1359,8 @@ public class Transition extends APIClient {
 			String msg = "Missing platform name to get details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -887,11 +1390,11 @@ public class Transition extends APIClient {
 			String msg = "Missing platform name to list environment platform components";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to list components for platform %s environment %s due to %s", platformName, environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -923,8 +1426,8 @@ public class Transition extends APIClient {
 			String msg = "Missing component name to get environment platform component details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -995,9 +1498,9 @@ public class Transition extends APIClient {
 			ro.setAttributes(attr);
 			ro.setOwnerProps(ownerProps);
 			
-			RequestSpecification request = createRequest();
+			ApiRequest request = createRequest();
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
- 			Response response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
+ 			ApiResponse response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + ciId);
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 					return response.getBody().as(CiResource.class);
@@ -1034,8 +1537,8 @@ public class Transition extends APIClient {
 			String msg = "Missing component name to get platform component attachment details";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + attachmentName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1095,7 +1598,7 @@ public class Transition extends APIClient {
 			ResourceObject ro = new ResourceObject();
 			
 			Long ciId = attachmentDetails.getCiId();
-			RequestSpecification request = createRequest();
+			ApiRequest request = createRequest();
 			
 			//Add existing ciAttributes 
 			CiAttributes ciAttributes = attachmentDetails.getCiAttributes();
@@ -1129,7 +1632,7 @@ public class Transition extends APIClient {
 			ro.setOwnerProps(ownerProps);
 			ro.setAttributes(attr);
 			JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_dj_ci");
- 			Response response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName 
+ 			ApiResponse response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName 
  					+ IConstants.COMPONENT_URI + componentName + IConstants.ATTACHMENTS_URI + ciId);
 			if(response != null) {
 				if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -1167,10 +1670,10 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jo = new JSONObject();
 		
-		Response response = request.body(jo.toString()).post(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + "/touch");
+		ApiResponse response = request.body(jo.toString()).post(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.COMPONENT_URI + componentName + "/touch");
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -1193,10 +1696,10 @@ public class Transition extends APIClient {
 	 */
 	public CiResource pullDesign(String environmentName) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jo = new JSONObject();
 		
-		Response response = request.body(jo.toString()).post(transitionEnvUri + environmentName + "/pull");
+		ApiResponse response = request.body(jo.toString()).post(transitionEnvUri + environmentName + "/pull");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				CiResource env = response.getBody().as(CiResource.class);
@@ -1224,7 +1727,7 @@ public class Transition extends APIClient {
 	 */
 	public CiResource pullNewPlatform(String environmentName, Map<String, String> platformAvailability) throws OneOpsClientAPIException {
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jo = new JSONObject();
 		
 		if(platformAvailability == null || platformAvailability.size() == 0) {
@@ -1248,7 +1751,7 @@ public class Transition extends APIClient {
 		}
 		jo.put("platform_availability", platformAvailability);
 		
-		Response response = request.body(jo.toString()).post(transitionEnvUri + environmentName + "/pull");
+		ApiResponse response = request.body(jo.toString()).post(transitionEnvUri + environmentName + "/pull");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				CiResource env = response.getBody().as(CiResource.class);
@@ -1283,11 +1786,11 @@ public class Transition extends APIClient {
 			String msg = "Missing platform name to list environment platform variables";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to list local variables for platform %s environment %s due to %s", platformName, environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -1326,14 +1829,14 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		boolean success = false;
 			ResourceObject ro = new ResourceObject();
 			Map<String ,String> attributes = new HashMap<String ,String>();
 			Map<String, String> ownerProps = Maps.newHashMap();
 			
 			String uri = transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + IConstants.VARIABLES_URI + variableName;
-			Response response = request.get(uri);
+			ApiResponse response = request.get(uri);
 			if(response != null) {
 				JSONObject var = JsonUtil.createJsonObject(response.getBody().asString());
 				if(var != null && var.has("ciAttributes")) {
@@ -1397,11 +1900,11 @@ public class Transition extends APIClient {
 			String msg = "Missing environment name to list environment variables";
 			throw new OneOpsClientAPIException(msg);
 		}
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.VARIABLES_URI);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.VARIABLES_URI);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to list global variables of environment %s due to %s", environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -1433,13 +1936,13 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		boolean success = false;
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 			ResourceObject ro = new ResourceObject();
 			Map<String ,String> attributes = new HashMap<String ,String>();
 			Map<String, String> ownerProps = Maps.newHashMap();
 			
 			String uri = transitionEnvUri + environmentName + IConstants.VARIABLES_URI + variableName;
-			Response response = request.get(uri);
+			ApiResponse response = request.get(uri);
 			if(response != null) {
 				JSONObject var = JsonUtil.createJsonObject(response.getBody().asString());
 				if(var != null && var.has("ciAttributes")) {
@@ -1506,11 +2009,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jsonObject = new JSONObject();
 		jsonObject.put("platformCiIds", platformIdList);
 		
-		Response response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + "/disable");
+		ApiResponse response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + "/disable");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1542,8 +2045,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + "/edit");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + "/edit");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1582,7 +2085,7 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
 		JSONObject redundant = new JSONObject();
 		redundant.put("max", config.getMax());
@@ -1619,7 +2122,7 @@ public class Transition extends APIClient {
 		JSONObject dependsOn = new JSONObject();
 		dependsOn.put("depends_on", jo);
 		
-		Response response = request.body(dependsOn.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName);
+		ApiResponse response = request.body(dependsOn.toString()).put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return true;
@@ -1653,11 +2156,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		JSONObject jo = new JSONObject();
 		jo.put("cloud_id", cloudId);
 		jo.put("attributes", cloudMap);
-		Response response = request.body(jo.toString())
+		ApiResponse response = request.body(jo.toString())
 				.put(transitionEnvUri + environmentName + IConstants.PLATFORM_URI + platformName + "/cloud_configuration");
 		if (response != null) {
 			if (response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -1686,11 +2189,11 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + "/relays/");
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + "/relays/");
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
-				return JsonUtil.toObject(response.getBody().asString(), new TypeReference<List<CiResource>>(){});
+				return JsonUtil.toObject(response.getBody(), new TypeReference<List<CiResource>>(){});
 			} else {
 				String msg = String.format("Failed to list relay for environment %s due to %s", environmentName, response.getStatusLine());
 				throw new OneOpsClientAPIException(msg);
@@ -1720,8 +2223,8 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		}
 		
-		RequestSpecification request = createRequest();
-		Response response = request.get(transitionEnvUri + environmentName + "/relays/" + relayName);
+		ApiRequest request = createRequest();
+		ApiResponse response = request.get(transitionEnvUri + environmentName + "/relays/" + relayName);
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
 				return response.getBody().as(CiResource.class);
@@ -1778,13 +2281,13 @@ public class Transition extends APIClient {
 		String path = "/" + instance.getOrgname() + "/" + assemblyName + "/" + environmentName;
 		properties.put("nsPath", path );
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		ro.setProperties(properties);
 		
-		Response newRelayResponse = request.get(transitionEnvUri + environmentName + "/relays/new");
+		ApiResponse newRelayResponse = request.get(transitionEnvUri + environmentName + "/relays/new");
 		if(newRelayResponse != null) {
-			JsonPath attachmentDetails = newRelayResponse.getBody().jsonPath();
-			Map<String, String> attributes = attachmentDetails.getMap("ciAttributes");
+			ResponseBody attachmentDetails = newRelayResponse.getBody();
+			Map<String, String> attributes = attachmentDetails.path("ciAttributes");
 			if(attributes == null) {
 				attributes = Maps.newHashMap();
 			}
@@ -1804,7 +2307,7 @@ public class Transition extends APIClient {
 		}
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
-		Response response = request.body(jsonObject.toString()).post(transitionEnvUri + environmentName + "/relays");
+		ApiResponse response = request.body(jsonObject.toString()).post(transitionEnvUri + environmentName + "/relays");
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
@@ -1847,13 +2350,13 @@ public class Transition extends APIClient {
 			throw new OneOpsClientAPIException(msg);
 		} 
 		
-		RequestSpecification request = createRequest();
+		ApiRequest request = createRequest();
 		
-		Response relayResponse = request.get(transitionEnvUri + environmentName + "/relays/" + relayName);
+		ApiResponse relayResponse = request.get(transitionEnvUri + environmentName + "/relays/" + relayName);
 		if(relayResponse != null) {
-			JsonPath newVarJsonPath = relayResponse.getBody().jsonPath();
-			if(newVarJsonPath != null) {
-				attributes = newVarJsonPath.getMap("ciAttributes");
+			ResponseBody newVarBody = relayResponse.getBody();
+			if(newVarBody != null) {
+				attributes = newVarBody.path("ciAttributes");
 				if(attributes == null) {
 					attributes = Maps.newHashMap();
 				} else {
@@ -1875,7 +2378,7 @@ public class Transition extends APIClient {
 		
 		JSONObject jsonObject = JsonUtil.createJsonObject(ro , "cms_ci");
 		
-		Response response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + "/relays/" + relayName);
+		ApiResponse response = request.body(jsonObject.toString()).put(transitionEnvUri + environmentName + "/relays/" + relayName);
 		
 		if(response != null) {
 			if(response.getStatusCode() == 200 || response.getStatusCode() == 302) {
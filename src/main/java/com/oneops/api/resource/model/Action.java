@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
@@ -41,7 +42,7 @@ public class Action {
 	@JsonProperty("procedureId")
 	private Long procedureId;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
 
 	@JsonProperty("actionId")
 	public Long getActionId() {
@@ -175,11 +176,14 @@ public class Action {
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
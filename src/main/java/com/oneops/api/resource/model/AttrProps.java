@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
@@ -12,18 +13,23 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 @JsonPropertyOrder({
 
 })
-public class AttrProps {
+public class AttrProps extends LazyDecoded {
 
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		inflate();
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		inflate();
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
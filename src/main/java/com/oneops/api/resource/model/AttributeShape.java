@@ -0,0 +1,195 @@
+package com.oneops.api.resource.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Key layout shared by {@link ShapedAttributeMap} instances. A shape is the ordered list of
+ * attribute names added so far, reached from the root of its tree by one transition per added
+ * name. A shape only stores its last name and points to its parent for the others. CIs of the
+ * same class are decoded with the same attribute names in the same order, so they end up on
+ * the same shape and only keep their own value array.
+ *
+ * Every decode gets its own tree from {@link #scope(DeserializationContext)}. The tree is
+ * released with the last map using one of its shapes. {@link #MAX_SHAPES} caps the shapes of
+ * a tree and {@link #MAX_TRANSITIONS} the branches of every shape, maps that would need more
+ * are kept as a plain LinkedHashMap. Those maps lose the shared key table but behave the same.
+ */
+final class AttributeShape {
+
+	/** Longest key list kept as a shape, larger maps fall back to a LinkedHashMap */
+	static final int MAX_KEYS = 256;
+	/** Distinct next keys per shape, beyond that the names are too irregular to share */
+	static final int MAX_TRANSITIONS = 64;
+	/** Shapes per tree, the root included */
+	static final int MAX_SHAPES = 4096;
+
+	private final AttributeShape root;
+	private final AttributeShape parent;
+	private final String key;
+	private final int size;
+	// shapes created in the tree, only kept by the root
+	private final AtomicInteger shapes;
+	private final ConcurrentMap<String, AttributeShape> transitions = new ConcurrentHashMap<String, AttributeShape>(4);
+	private volatile Table table;
+	private volatile int expectedSize;
+
+	private AttributeShape(AttributeShape parent, String key) {
+		this.root = parent == null ? this : parent.root;
+		this.parent = parent;
+		this.key = key;
+		this.size = parent == null ? 0 : parent.size + 1;
+		this.shapes = parent == null ? new AtomicInteger(1) : null;
+		this.expectedSize = size;
+	}
+
+	/**
+	 * @return the root of a new tree
+	 */
+	static AttributeShape newTree() {
+		return new AttributeShape(null, null);
+	}
+
+	/**
+	 * @param ctxt
+	 * @return the root of the tree shared by all maps of the decode
+	 */
+	static AttributeShape scope(DeserializationContext ctxt) {
+		AttributeShape root = (AttributeShape) ctxt.getAttribute(AttributeShape.class);
+		if(root == null) {
+			root = newTree();
+			ctxt.setAttribute(AttributeShape.class, root);
+		}
+		return root;
+	}
+
+	/**
+	 * @return the root of the tree this shape belongs to
+	 */
+	AttributeShape root() {
+		return root;
+	}
+
+	int size() {
+		return size;
+	}
+
+	String keyAt(int i) {
+		return table().keys[i];
+	}
+
+	/**
+	 * @return the largest size reached by maps that passed through this shape, used to size value arrays
+	 */
+	int expectedSize() {
+		return expectedSize;
+	}
+
+	int indexOf(Object name) {
+		return name == null ? -1 : table().indexOf(name);
+	}
+
+	/**
+	 * Same as {@link #indexOf(Object)} without building the key table, for shapes a map only passes through
+	 */
+	private int find(String name) {
+		Table t = table;
+		if(t != null) {
+			return t.indexOf(name);
+		}
+		for (AttributeShape s = this; s.parent != null; s = s.parent) {
+			if(s.key.equals(name)) {
+				return s.size - 1;
+			}
+		}
+		return -1;
+	}
+
+	private Table table() {
+		Table t = table;
+		if(t == null) {
+			t = table = new Table(this);
+		}
+		return t;
+	}
+
+	/**
+	 * @param name
+	 * @return the shape with name appended, this when name is already part of it, or null if
+	 * the map should not be shared
+	 */
+	AttributeShape with(String name) {
+		AttributeShape next = transitions.get(name);
+		if(next != null) {
+			return next;
+		}
+		if(find(name) >= 0) {
+			return this;
+		}
+		if(size >= MAX_KEYS || transitions.size() >= MAX_TRANSITIONS) {
+			return null;
+		}
+		if(root.shapes.incrementAndGet() > MAX_SHAPES) {
+			root.shapes.decrementAndGet();
+			return null;
+		}
+		next = new AttributeShape(this, name);
+		AttributeShape existing = transitions.putIfAbsent(name, next);
+		if(existing != null) {
+			root.shapes.decrementAndGet();
+			return existing;
+		}
+		for (AttributeShape s = this; s != null && s.expectedSize < next.size; s = s.parent) {
+			s.expectedSize = next.size;
+		}
+		return next;
+	}
+
+	/**
+	 * Keys in order and an open addressing table of key position + 1, at most half full so probes stay short
+	 */
+	private static final class Table {
+		private final String[] keys;
+		private final int[] index;
+
+		Table(AttributeShape shape) {
+			keys = new String[shape.size];
+			for (AttributeShape s = shape; s.parent != null; s = s.parent) {
+				keys[s.size - 1] = s.key;
+			}
+			int capacity = 4;
+			while(capacity < keys.length * 2) {
+				capacity <<= 1;
+			}
+			index = new int[capacity];
+			int mask = capacity - 1;
+			for (int i = 0; i < keys.length; i++) {
+				int slot = spread(keys[i].hashCode()) & mask;
+				while(index[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				index[slot] = i + 1;
+			}
+		}
+
+		int indexOf(Object name) {
+			int mask = index.length - 1;
+			for (int slot = spread(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+				int i = index[slot] - 1;
+				if(i < 0) {
+					return -1;
+				}
+				if(keys[i] == name || keys[i].equals(name)) {
+					return i;
+				}
+			}
+		}
+
+		private static int spread(int h) {
+			return h ^ (h >>> 16);
+		}
+	}
+}
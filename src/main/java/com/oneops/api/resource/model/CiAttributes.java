@@ -1,6 +1,7 @@
 package com.oneops.api.resource.model;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
@@ -8,10 +9,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.oneops.api.util.StringPoolModule;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder({ "adminstatus", "auth", "description", "location" })
-public class CiAttributes {
+public class CiAttributes extends LazyDecoded {
 
 	@JsonProperty("adminstatus")
 	private String adminstatus;
@@ -22,55 +26,77 @@ public class CiAttributes {
 	@JsonProperty("location")
 	private String location;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
+	// shape tree of the decode that read these attributes, null when built by hand
+	@JsonIgnore
+	private AttributeShape shapes;
+
+	@Override
+	public void enterDecode(DeserializationContext ctxt) {
+		shapes = AttributeShape.scope(ctxt);
+	}
 
 	@JsonProperty("adminstatus")
 	public String getAdminstatus() {
+		inflate();
 		return adminstatus;
 	}
 
 	@JsonProperty("adminstatus")
 	public void setAdminstatus(String adminstatus) {
+		inflate();
 		this.adminstatus = adminstatus;
 	}
 
 	@JsonProperty("auth")
 	public Object getAuth() {
+		inflate();
 		return auth;
 	}
 
 	@JsonProperty("auth")
 	public void setAuth(Object auth) {
+		inflate();
 		this.auth = auth;
 	}
 
 	@JsonProperty("description")
 	public String getDescription() {
+		inflate();
 		return description;
 	}
 
 	@JsonProperty("description")
 	public void setDescription(String description) {
+		inflate();
 		this.description = description;
 	}
 
 	@JsonProperty("location")
 	public String getLocation() {
+		inflate();
 		return location;
 	}
 
 	@JsonProperty("location")
 	public void setLocation(String location) {
+		inflate();
 		this.location = location;
 	}
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		inflate();
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
+	@JsonDeserialize(using = StringPoolModule.AttributeValueDeserializer.class)
 	public void setAdditionalProperty(String name, Object value) {
+		inflate();
+		if(this.additionalProperties == null) {
+			this.additionalProperties = shapes == null ? new LinkedHashMap<String, Object>() : new ShapedAttributeMap(shapes);
+		}
 		this.additionalProperties.put(name, value);
 	}
 
@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
@@ -8,10 +9,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.oneops.api.codegen.GeneratedCodec;
+import com.oneops.api.util.DeferredDecodingDeserializer;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder({ "ciId", "ciName", "ciClassName", "impl", "nsPath", "ciGoid", "comments", "ciState",
 		"lastAppliedRfcId", "createdBy", "updatedBy", "created", "updated", "nsId", "ciAttributes", "attrProps" })
+@GeneratedCodec
 public class CiResource {
 
 	@JsonProperty("ciId")
@@ -45,9 +50,10 @@ public class CiResource {
 	@JsonProperty("ciAttributes")
 	private CiAttributes ciAttributes;
 	@JsonProperty("ciAttrProps")
+	@JsonDeserialize(using = DeferredDecodingDeserializer.class)
 	private AttrProps attrProps;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
 
 	@JsonProperty("ciId")
 	public Long getCiId() {
@@ -195,6 +201,7 @@ public class CiResource {
 	}
 
 	@JsonProperty("ciAttributes")
+	@JsonDeserialize(using = DeferredDecodingDeserializer.class)
 	public void setCiAttributes(CiAttributes ciAttributes) {
 		this.ciAttributes = ciAttributes;
 	}
@@ -205,17 +212,21 @@ public class CiResource {
 	}
 
 	@JsonProperty("attrProps")
+	@JsonDeserialize(using = DeferredDecodingDeserializer.class)
 	public void setAttrProps(AttrProps attrProps) {
 		this.attrProps = attrProps;
 	}
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
@@ -0,0 +1,91 @@
+package com.oneops.api.resource.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.oneops.api.codegen.GeneratedCodec;
+
+/**
+ * Identity and state of a CI as returned by the summary list calls. All other fields of the 
+ * response, including ciAttributes and ciAttrProps, are skipped by the parser without being decoded.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({ "ciId", "ciName", "ciClassName", "ciState", "nsPath", "updated" })
+@GeneratedCodec
+public class CiSummary {
+
+	@JsonProperty("ciId")
+	private Long ciId;
+	@JsonProperty("ciName")
+	private String ciName;
+	@JsonProperty("ciClassName")
+	private String ciClassName;
+	@JsonProperty("ciState")
+	private String ciState;
+	@JsonProperty("nsPath")
+	private String nsPath;
+	@JsonProperty("updated")
+	private Long updated;
+
+	@JsonProperty("ciId")
+	public Long getCiId() {
+		return ciId;
+	}
+
+	@JsonProperty("ciId")
+	public void setCiId(Long ciId) {
+		this.ciId = ciId;
+	}
+
+	@JsonProperty("ciName")
+	public String getCiName() {
+		return ciName;
+	}
+
+	@JsonProperty("ciName")
+	public void setCiName(String ciName) {
+		this.ciName = ciName;
+	}
+
+	@JsonProperty("ciClassName")
+	public String getCiClassName() {
+		return ciClassName;
+	}
+
+	@JsonProperty("ciClassName")
+	public void setCiClassName(String ciClassName) {
+		this.ciClassName = ciClassName;
+	}
+
+	@JsonProperty("ciState")
+	public String getCiState() {
+		return ciState;
+	}
+
+	@JsonProperty("ciState")
+	public void setCiState(String ciState) {
+		this.ciState = ciState;
+	}
+
+	@JsonProperty("nsPath")
+	public String getNsPath() {
+		return nsPath;
+	}
+
+	@JsonProperty("nsPath")
+	public void setNsPath(String nsPath) {
+		this.nsPath = nsPath;
+	}
+
+	@JsonProperty("updated")
+	public Long getUpdated() {
+		return updated;
+	}
+
+	@JsonProperty("updated")
+	public void setUpdated(Long updated) {
+		this.updated = updated;
+	}
+}
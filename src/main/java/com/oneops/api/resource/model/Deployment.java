@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
@@ -8,11 +9,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.oneops.api.codegen.GeneratedCodec;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder({ "deploymentId", "releaseId", "maxExecOrder", "nsPath", "deploymentState", "processId", "createdBy",
 		"updatedBy", "description", "comments", "ops", "autoPauseExecOrders", "created", "updated", "flags",
 		"continueOnFailure" })
+@GeneratedCodec
 public class Deployment {
 
 	@JsonProperty("deploymentId")
@@ -48,7 +51,7 @@ public class Deployment {
 	@JsonProperty("continueOnFailure")
 	private Boolean continueOnFailure;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
 
 	@JsonProperty("deploymentId")
 	public Long getDeploymentId() {
@@ -212,11 +215,14 @@ public class Deployment {
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
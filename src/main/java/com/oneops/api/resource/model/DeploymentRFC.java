@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +18,9 @@ public class DeploymentRFC {
 	@JsonProperty("rfc_cis")
 	private List<RfcCi> rfcCis = null;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private RfcIndex index = RfcIndex.EMPTY;
+	@JsonIgnore
+	private Map<String, Object> additionalProperties;
 
 	@JsonProperty("rfc_cis")
 	public List<RfcCi> getRfcCis() {
@@ -27,15 +30,27 @@ public class DeploymentRFC {
 	@JsonProperty("rfc_cis")
 	public void setRfcCis(List<RfcCi> rfcCis) {
 		this.rfcCis = rfcCis;
+		this.index = rfcCis == null ? RfcIndex.EMPTY : new RfcIndex(rfcCis);
+	}
+
+	/**
+	 * @return lookups by exec order, action, class, state and id, built when the RFC list was set
+	 */
+	@JsonIgnore
+	public RfcIndex getIndex() {
+		return index;
 	}
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
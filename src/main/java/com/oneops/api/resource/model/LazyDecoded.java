@@ -0,0 +1,68 @@
+package com.oneops.api.resource.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.oneops.api.util.JsonUtil;
+
+/**
+ * Base of nested objects (ciAttributes, ciAttrProps) that can hold on to their raw JSON 
+ * and decode it on first access, see {@link com.oneops.api.OOInstance#setLazyAttributes(boolean)}.
+ * Subclasses call {@link #inflate()} at the top of every accessor.
+ */
+public abstract class LazyDecoded {
+	
+	private volatile byte[] rawJson;
+	
+	// guarded by this, set while the setters called by the decode run inflate() again
+	private boolean decoding;
+	
+	/**
+	 * Keeps the given JSON object undecoded until the first accessor call
+	 * 
+	 * @param json
+	 */
+	public void deferDecoding(byte[] json) {
+		this.rawJson = json;
+	}
+	
+	/**
+	 * Called with the context of the enclosing decode before this object is decoded or its JSON
+	 * is kept, to share state between the objects of one decode
+	 * 
+	 * @param ctxt
+	 */
+	public void enterDecode(DeserializationContext ctxt) {
+	}
+	
+	/**
+	 * @return true while the raw JSON has not been decoded yet
+	 */
+	@JsonIgnore
+	public boolean isDeferred() {
+		return rawJson != null;
+	}
+	
+	protected final void inflate() {
+		if(rawJson == null) {
+			return;
+		}
+		synchronized (this) {
+			byte[] json = rawJson;
+			if(json == null || decoding) {
+				return;
+			}
+			decoding = true;
+			try {
+				JsonUtil.mapper().readerForUpdating(this).readValue(json);
+				// only now other threads may skip the lock and read the fields
+				rawJson = null;
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed to decode " + getClass().getSimpleName(), e);
+			} finally {
+				decoding = false;
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.oneops.api.resource.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,12 +10,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.oneops.api.codegen.GeneratedCodec;
+import com.oneops.api.util.DeferredDecodingDeserializer;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder({ "rfcId", "releaseId", "ciId", "nsPath", "ciClassName", "impl", "ciName", "ciGoid", "ciState",
 		"rfcAction", "releaseType", "createdBy", "updatedBy", "rfcCreatedBy", "rfcUpdatedBy", "execOrder",
 		"lastAppliedRfcId", "comments", "isActiveInRelease", "rfcCreated", "rfcUpdated", "created", "updated",
 		"ciAttributes", "ciAttrProps", "deployment" })
+@GeneratedCodec
 public class RfcCi {
 
 	@JsonProperty("rfcId")
@@ -70,7 +75,7 @@ public class RfcCi {
 	@JsonProperty("deployment")
 	private Deployment deployment;
 	@JsonIgnore
-	private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+	private Map<String, Object> additionalProperties;
 
 	@JsonProperty("rfcId")
 	public Long getRfcId() {
@@ -308,6 +313,7 @@ public class RfcCi {
 	}
 
 	@JsonProperty("ciAttributes")
+	@JsonDeserialize(using = DeferredDecodingDeserializer.class)
 	public void setCiAttributes(CiAttributes ciAttributes) {
 		this.ciAttributes = ciAttributes;
 	}
@@ -318,6 +324,7 @@ public class RfcCi {
 	}
 
 	@JsonProperty("ciAttrProps")
+	@JsonDeserialize(using = DeferredDecodingDeserializer.class)
 	public void setCiAttrProps(AttrProps ciAttrProps) {
 		this.ciAttrProps = ciAttrProps;
 	}
@@ -334,11 +341,14 @@ public class RfcCi {
 
 	@JsonAnyGetter
 	public Map<String, Object> getAdditionalProperties() {
-		return this.additionalProperties;
+		return this.additionalProperties == null ? Collections.<String, Object>emptyMap() : this.additionalProperties;
 	}
 
 	@JsonAnySetter
 	public void setAdditionalProperty(String name, Object value) {
+		if(this.additionalProperties == null) {
+			this.additionalProperties = new HashMap<String, Object>();
+		}
 		this.additionalProperties.put(name, value);
 	}
 
@@ -0,0 +1,156 @@
+package com.oneops.api.resource.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Lookup tables over the RFCs of a {@link DeploymentRFC}, built once when the RFC list is set.
+ * RFCs are grouped by exec order (ascending), rfcAction, ciClassName and the state of their
+ * deployment record, and keyed by rfcId. RFCs missing a key are left out of that grouping.
+ *
+ * The index reflects the RFCs at the time it was built, changes made to the list or to RfcCi
+ * objects afterwards are not picked up. Groups are unmodifiable and keep the list order.
+ */
+public final class RfcIndex {
+
+	public static final String STATE_FAILED = "failed";
+
+	static final RfcIndex EMPTY = new RfcIndex(Collections.<RfcCi>emptyList());
+
+	private final int size;
+	private final SortedMap<Long, List<RfcCi>> byExecOrder;
+	private final SortedSet<Long> execOrders;
+	private final Map<String, List<RfcCi>> byAction;
+	private final Map<String, List<RfcCi>> byClassName;
+	private final Map<String, List<RfcCi>> byState;
+	private final Map<Long, RfcCi> byRfcId;
+
+	RfcIndex(List<RfcCi> rfcs) {
+		TreeMap<Long, List<RfcCi>> execOrders = new TreeMap<Long, List<RfcCi>>();
+		Map<String, List<RfcCi>> actions = new HashMap<String, List<RfcCi>>();
+		Map<String, List<RfcCi>> classNames = new HashMap<String, List<RfcCi>>();
+		Map<String, List<RfcCi>> states = new HashMap<String, List<RfcCi>>();
+		Map<Long, RfcCi> ids = new HashMap<Long, RfcCi>(rfcs.size() * 4 / 3 + 1);
+		for (RfcCi rfc : rfcs) {
+			if(rfc == null) {
+				continue;
+			}
+			add(execOrders, rfc.getExecOrder(), rfc);
+			add(actions, rfc.getRfcAction(), rfc);
+			add(classNames, rfc.getCiClassName(), rfc);
+			add(states, rfc.getDeployment() == null ? null : rfc.getDeployment().getDeploymentState(), rfc);
+			if(rfc.getRfcId() != null) {
+				ids.put(rfc.getRfcId(), rfc);
+			}
+		}
+		this.size = rfcs.size();
+		this.byExecOrder = Collections.unmodifiableSortedMap(seal(execOrders));
+		this.execOrders = Collections.unmodifiableSortedSet(new TreeSet<Long>(execOrders.keySet()));
+		this.byAction = Collections.unmodifiableMap(seal(actions));
+		this.byClassName = Collections.unmodifiableMap(seal(classNames));
+		this.byState = Collections.unmodifiableMap(seal(states));
+		this.byRfcId = Collections.unmodifiableMap(ids);
+	}
+
+	private static <K> void add(Map<K, List<RfcCi>> index, K key, RfcCi rfc) {
+		if(key == null) {
+			return;
+		}
+		List<RfcCi> group = index.get(key);
+		if(group == null) {
+			group = new ArrayList<RfcCi>();
+			index.put(key, group);
+		}
+		group.add(rfc);
+	}
+
+	private static <K, M extends Map<K, List<RfcCi>>> M seal(M index) {
+		for (Entry<K, List<RfcCi>> entry : index.entrySet()) {
+			ArrayList<RfcCi> group = (ArrayList<RfcCi>) entry.getValue();
+			group.trimToSize();
+			entry.setValue(Collections.unmodifiableList(group));
+		}
+		return index;
+	}
+
+	/**
+	 * @return number of RFCs indexed
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return exec orders present in the deployment, ascending
+	 */
+	public SortedSet<Long> getExecOrders() {
+		return execOrders;
+	}
+
+	/**
+	 * @return RFC groups by exec order, ascending
+	 */
+	public SortedMap<Long, List<RfcCi>> getByExecOrder() {
+		return byExecOrder;
+	}
+
+	public List<RfcCi> getByExecOrder(long execOrder) {
+		return group(byExecOrder, execOrder);
+	}
+
+	/**
+	 * @param rfcAction add, update, replace or delete
+	 * @return
+	 */
+	public List<RfcCi> getByAction(String rfcAction) {
+		return group(byAction, rfcAction);
+	}
+
+	public List<RfcCi> getByClassName(String ciClassName) {
+		return group(byClassName, ciClassName);
+	}
+
+	/**
+	 * @param state deployment record state, e.g. pending, inprogress, complete, failed
+	 * @return
+	 */
+	public List<RfcCi> getByState(String state) {
+		return group(byState, state);
+	}
+
+	public List<RfcCi> getFailed() {
+		return getByState(STATE_FAILED);
+	}
+
+	/**
+	 * @return number of RFCs per deployment record state
+	 */
+	public Map<String, Integer> getStateCounts() {
+		Map<String, Integer> counts = new HashMap<String, Integer>(byState.size() * 2);
+		for (Entry<String, List<RfcCi>> entry : byState.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().size());
+		}
+		return counts;
+	}
+
+	/**
+	 * @param rfcId
+	 * @return the RFC or null
+	 */
+	public RfcCi getByRfcId(long rfcId) {
+		return byRfcId.get(rfcId);
+	}
+
+	private static <K> List<RfcCi> group(Map<K, List<RfcCi>> index, K key) {
+		List<RfcCi> group = index.get(key);
+		return group == null ? Collections.<RfcCi>emptyList() : group;
+	}
+}
@@ -0,0 +1,159 @@
+package com.oneops.api.resource.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Attribute map backed by a shared {@link AttributeShape} and a per instance value array.
+ * Iteration follows insertion order. Removing a key, including through an iterator or a view,
+ * or a key layout the shapes do not cover, switches the instance to a plain LinkedHashMap.
+ */
+final class ShapedAttributeMap extends AbstractMap<String, Object> {
+
+	private static final Object[] EMPTY = new Object[0];
+
+	private AttributeShape shape;
+	private Object[] values = EMPTY;
+	private Map<String, Object> dictionary;
+
+	/**
+	 * @param root of the shape tree to share key layouts in
+	 */
+	ShapedAttributeMap(AttributeShape root) {
+		this.shape = root;
+	}
+
+	@Override
+	public int size() {
+		return dictionary != null ? dictionary.size() : shape.size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return dictionary != null ? dictionary.containsKey(key) : shape.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if(dictionary != null) {
+			return dictionary.get(key);
+		}
+		int i = shape.indexOf(key);
+		return i < 0 ? null : values[i];
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if(dictionary != null) {
+			return dictionary.put(key, value);
+		}
+		AttributeShape next = key == null ? null : shape.with(key);
+		if(next == null) {
+			return toDictionary().put(key, value);
+		}
+		if(next == shape) {
+			int i = shape.indexOf(key);
+			Object old = values[i];
+			values[i] = value;
+			return old;
+		}
+		if(values.length < next.size()) {
+			values = Arrays.copyOf(values, Math.max(next.expectedSize(), Math.max(4, values.length * 2)));
+		}
+		values[next.size() - 1] = value;
+		shape = next;
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if(dictionary == null && shape.indexOf(key) < 0) {
+			return null;
+		}
+		return toDictionary().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		dictionary = null;
+		shape = shape.root();
+		values = EMPTY;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		if(dictionary != null) {
+			return dictionary.entrySet();
+		}
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return ShapedAttributeMap.this.size();
+			}
+		};
+	}
+
+	private Map<String, Object> toDictionary() {
+		if(dictionary == null) {
+			Map<String, Object> map = new LinkedHashMap<String, Object>(shape.size() * 4 / 3 + 2);
+			for (int i = 0; i < shape.size(); i++) {
+				map.put(shape.keyAt(i), values[i]);
+			}
+			dictionary = map;
+			shape = shape.root();
+			values = EMPTY;
+		}
+		return dictionary;
+	}
+
+	private final class EntryIterator implements Iterator<Entry<String, Object>> {
+		private final AttributeShape at = shape;
+		private final Object[] slots = values;
+		private int next;
+		private int last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return next < at.size();
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final int i = next++;
+			last = i;
+			return new SimpleEntry<String, Object>(at.keyAt(i), slots[i]) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public Object setValue(Object value) {
+					super.setValue(value);
+					return put(getKey(), value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if(last < 0) {
+				throw new IllegalStateException();
+			}
+			// the iterator keeps walking its own copy of the shape and values
+			toDictionary().remove(at.keyAt(last));
+			last = -1;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.oneops.api.traffic;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+
+/**
+ * Transport decorator handing each completed call to a {@link TrafficRecorder}.
+ * Failing to record never fails the call itself.
+ */
+public class RecordingTransport implements HttpTransport {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(RecordingTransport.class);
+	
+	private final HttpTransport delegate;
+	private final TrafficRecorder recorder;
+	
+	public RecordingTransport(HttpTransport delegate, TrafficRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	@Override
+	public ApiResponse execute(TransportRequest request) throws IOException {
+		ApiResponse response = delegate.execute(request);
+		try {
+			TrafficRecord record = new TrafficRecord();
+			record.setMethod(request.getMethod());
+			URI uri = URI.create(request.getUri());
+			record.setPath(uri.getRawPath());
+			record.setQuery(uri.getRawQuery());
+			record.setRequestHeaders(new LinkedHashMap<String, String>(request.getHeaders()));
+			if(request.getBody() != null) {
+				record.setRequestBody(new String(request.getBody(), StandardCharsets.UTF_8));
+			}
+			record.setStatus(response.getStatusCode());
+			record.setContentType(response.getContentType());
+			record.setResponseBody(response.asString());
+			recorder.record(record);
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Failed to record traffic for {} {}", request.getMethod(), request.getPath(), e);
+		}
+		return response;
+	}
+}
@@ -0,0 +1,165 @@
+package com.oneops.api.traffic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local mock OneOps server answering requests from a recorded {@link TrafficLog}.
+ * 
+ * Requests are matched on method, path and query (falling back to method and path).
+ * Repeated requests such as status polls are answered in recorded order and the last
+ * recorded response is repeated once they run out. Unmatched requests get a 404.
+ * 
+ * Point {@link com.oneops.api.OOInstance#setEndpoint(String)} at {@link #getEndpoint()}
+ * to benchmark the client against production payload shapes.
+ */
+public class ReplayServer {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ReplayServer.class);
+	
+	private final Map<String, List<TrafficRecord>> exact = Maps.newHashMap();
+	private final Map<String, List<TrafficRecord>> byPath = Maps.newHashMap();
+	private final ConcurrentMap<String, AtomicInteger> exactCursors = new ConcurrentHashMap<String, AtomicInteger>();
+	private final ConcurrentMap<String, AtomicInteger> pathCursors = new ConcurrentHashMap<String, AtomicInteger>();
+	private HttpServer server;
+	private ExecutorService executor;
+	
+	public ReplayServer(TrafficLog log) {
+		for (TrafficRecord record : log.getRecords()) {
+			add(exact, record.key(), record);
+			add(byPath, record.getMethod() + " " + record.getPath(), record);
+		}
+	}
+	
+	private static void add(Map<String, List<TrafficRecord>> index, String key, TrafficRecord record) {
+		List<TrafficRecord> records = index.get(key);
+		if(records == null) {
+			records = Lists.newArrayList();
+			index.put(key, records);
+		}
+		records.add(record);
+	}
+	
+	/**
+	 * Starts serving on the given port, 0 picks a free port
+	 * 
+	 * @param port
+	 * @param threads
+	 * @throws IOException
+	 */
+	public void start(int port, int threads) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				serve(exchange);
+			}
+		});
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.start();
+	}
+	
+	public void stop() {
+		if(server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @return base endpoint to be used as {@code OOInstance} endpoint
+	 */
+	public String getEndpoint() {
+		return "http://localhost:" + server.getAddress().getPort() + "/";
+	}
+	
+	private void serve(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] buffer = new byte[8192];
+			while(in.read(buffer) >= 0) {
+				//drain request body
+			}
+		}
+		URI uri = exchange.getRequestURI();
+		String method = exchange.getRequestMethod();
+		String pathKey = method + " " + uri.getRawPath();
+		String key = pathKey + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+		
+		TrafficRecord record = next(exact, exactCursors, key);
+		if(record == null) {
+			record = next(byPath, pathCursors, pathKey);
+		}
+		
+		byte[] body;
+		if(record == null) {
+			LOG.warn("No recorded response for {}", key);
+			body = "{}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(404, body.length);
+		} else {
+			body = record.getResponseBody() == null ? new byte[0] : record.getResponseBody().getBytes(StandardCharsets.UTF_8);
+			if(record.getContentType() != null) {
+				exchange.getResponseHeaders().add("Content-Type", record.getContentType());
+			}
+			exchange.sendResponseHeaders(record.getStatus(), body.length == 0 ? -1 : body.length);
+		}
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+	
+	private static TrafficRecord next(Map<String, List<TrafficRecord>> index, ConcurrentMap<String, AtomicInteger> cursors, String key) {
+		List<TrafficRecord> records = index.get(key);
+		if(records == null) {
+			return null;
+		}
+		AtomicInteger cursor = cursors.get(key);
+		if(cursor == null) {
+			AtomicInteger created = new AtomicInteger();
+			cursor = cursors.putIfAbsent(key, created);
+			if(cursor == null) {
+				cursor = created;
+			}
+		}
+		int i = cursor.getAndIncrement();
+		return records.get(Math.min(i, records.size() - 1));
+	}
+	
+	/**
+	 * Serves a traffic log until the process is stopped
+	 * 
+	 * usage: ReplayServer <traffic log> [port]
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0) {
+			System.err.println("usage: ReplayServer <traffic log> [port]");
+			System.exit(1);
+		}
+		TrafficLog log = TrafficLog.read(Paths.get(args[0]));
+		ReplayServer server = new ReplayServer(log);
+		server.start(args.length > 1 ? Integer.parseInt(args[1]) : 9090, Runtime.getRuntime().availableProcessors());
+		System.out.println(String.format("Replaying %d records on %s", log.getRecords().size(), server.getEndpoint()));
+	}
+}
@@ -0,0 +1,56 @@
+package com.oneops.api.traffic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads a traffic log written by {@link TrafficRecorder}
+ */
+public class TrafficLog {
+	
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	
+	private final List<TrafficRecord> records;
+	
+	public TrafficLog(List<TrafficRecord> records) {
+		this.records = records;
+	}
+	
+	/**
+	 * Loads all records of a (optionally gzip compressed) traffic log
+	 * 
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static TrafficLog read(Path path) throws IOException {
+		InputStream in = Files.newInputStream(path);
+		if(path.getFileName().toString().endsWith(".gz")) {
+			in = new GZIPInputStream(in, 64 * 1024);
+		}
+		List<TrafficRecord> records = new ArrayList<TrafficRecord>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.length() > 0) {
+					records.add(MAPPER.readValue(line, TrafficRecord.class));
+				}
+			}
+		}
+		return new TrafficLog(records);
+	}
+	
+	public List<TrafficRecord> getRecords() {
+		return records;
+	}
+}
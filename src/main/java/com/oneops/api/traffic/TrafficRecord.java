@@ -0,0 +1,107 @@
+package com.oneops.api.traffic;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A single recorded request/response pair, stored as one line of a traffic log
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({ "method", "path", "query", "requestHeaders", "requestBody", "status", "contentType", "responseBody" })
+public class TrafficRecord {
+
+	@JsonProperty("method")
+	private String method;
+	@JsonProperty("path")
+	private String path;
+	@JsonProperty("query")
+	private String query;
+	@JsonProperty("requestHeaders")
+	private Map<String, String> requestHeaders;
+	@JsonProperty("requestBody")
+	private String requestBody;
+	@JsonProperty("status")
+	private int status;
+	@JsonProperty("contentType")
+	private String contentType;
+	@JsonProperty("responseBody")
+	private String responseBody;
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	public void setQuery(String query) {
+		this.query = query;
+	}
+
+	public Map<String, String> getRequestHeaders() {
+		return requestHeaders;
+	}
+
+	public void setRequestHeaders(Map<String, String> requestHeaders) {
+		this.requestHeaders = requestHeaders;
+	}
+
+	public String getRequestBody() {
+		return requestBody;
+	}
+
+	public void setRequestBody(String requestBody) {
+		this.requestBody = requestBody;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public String getResponseBody() {
+		return responseBody;
+	}
+
+	public void setResponseBody(String responseBody) {
+		this.responseBody = responseBody;
+	}
+
+	/**
+	 * Key used by the replay server to match incoming requests
+	 * 
+	 * @return
+	 */
+	String key() {
+		return method + " " + path + (query == null ? "" : "?" + query);
+	}
+}
@@ -0,0 +1,148 @@
+package com.oneops.api.traffic;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Appends every real request/response pair made by the client to a traffic log
+ * (one JSON record per line, gzip compressed when the file name ends with .gz).
+ * 
+ * The Authorization header and any {@code encrypted_value} attribute, including form fields
+ * such as {@code cms_dj_ci[ciAttributes][encrypted_value]}, are redacted before a record is written. A recorder is thread safe and is usually shared by
+ * all resource clients through {@link com.oneops.api.OOInstance#setTrafficRecorder(TrafficRecorder)}.
+ */
+public class TrafficRecorder implements Closeable {
+	
+	static final String REDACTED = "::REDACTED::";
+	
+	private static final String ENCRYPTED_VALUE = "encrypted_value";
+	
+	private static final Pattern ENCRYPTED_VALUE_TEXT = Pattern.compile("(encrypted_value(?:\\]|%5[dD])?[\"']?\\s*[:=]\\s*)(\"[^\"]*\"|'[^']*'|[^\\s,}&]+)");
+	
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	
+	private final Writer writer;
+	private long count;
+	
+	public TrafficRecorder(OutputStream out) {
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+	}
+	
+	/**
+	 * Creates (or truncates) a traffic log at the given path
+	 * 
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static TrafficRecorder open(Path path) throws IOException {
+		OutputStream out = Files.newOutputStream(path);
+		if(path.getFileName().toString().endsWith(".gz")) {
+			out = new GZIPOutputStream(out, 64 * 1024);
+		}
+		return new TrafficRecorder(out);
+	}
+	
+	/**
+	 * Sanitizes and appends a record to the log
+	 * 
+	 * @param record
+	 * @throws IOException
+	 */
+	public void record(TrafficRecord record) throws IOException {
+		if(record.getRequestHeaders() != null) {
+			for (Entry<String, String> entry : record.getRequestHeaders().entrySet()) {
+				if("Authorization".equalsIgnoreCase(entry.getKey())) {
+					entry.setValue(REDACTED);
+				}
+			}
+		}
+		record.setRequestBody(sanitize(record.getRequestBody()));
+		record.setResponseBody(sanitize(record.getResponseBody()));
+		
+		String line = MAPPER.writeValueAsString(record);
+		synchronized (writer) {
+			writer.write(line);
+			writer.write('\n');
+			count++;
+		}
+	}
+	
+	/**
+	 * @return number of records written so far
+	 */
+	public long getCount() {
+		synchronized (writer) {
+			return count;
+		}
+	}
+	
+	public void flush() throws IOException {
+		synchronized (writer) {
+			writer.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (writer) {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * Replaces every encrypted_value in a JSON (or form/yaml) body
+	 * 
+	 * @param body
+	 * @return
+	 */
+	static String sanitize(String body) {
+		if(body == null || body.indexOf(ENCRYPTED_VALUE) < 0) {
+			return body;
+		}
+		try {
+			JsonNode node = MAPPER.readTree(body);
+			redact(node);
+			return MAPPER.writeValueAsString(node);
+		} catch (IOException e) {
+			Matcher matcher = ENCRYPTED_VALUE_TEXT.matcher(body);
+			return matcher.replaceAll("$1\"" + REDACTED + "\"");
+		}
+	}
+	
+	private static void redact(JsonNode node) {
+		if(node instanceof ObjectNode) {
+			ObjectNode object = (ObjectNode) node;
+			Iterator<Entry<String, JsonNode>> fields = object.fields();
+			while(fields.hasNext()) {
+				Entry<String, JsonNode> field = fields.next();
+				if(ENCRYPTED_VALUE.equals(field.getKey()) && field.getValue().isValueNode() && !field.getValue().isNull()) {
+					field.setValue(object.textNode(REDACTED));
+				} else {
+					redact(field.getValue());
+				}
+			}
+		} else if(node instanceof ArrayNode) {
+			for (JsonNode element : node) {
+				redact(element);
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.oneops.api.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Set of CI ids kept in a primitive long array, for bulk calls over many platforms or instances.
+ * Ids are stored unboxed and written straight to JSON or query parameters. Ids can be added in
+ * any order, reads see them sorted and without duplicates.
+ */
+public final class CiIdSet {
+
+	private long[] ids;
+	private int size;
+	private boolean sorted = true;
+
+	public CiIdSet() {
+		this(16);
+	}
+
+	public CiIdSet(int expectedSize) {
+		ids = new long[Math.max(expectedSize, 1)];
+	}
+
+	public static CiIdSet of(long... ids) {
+		CiIdSet set = new CiIdSet(ids.length);
+		set.addAll(ids);
+		return set;
+	}
+
+	/**
+	 * @param ids null elements are skipped
+	 * @return
+	 */
+	public static CiIdSet of(Collection<? extends Number> ids) {
+		CiIdSet set = new CiIdSet(ids.size());
+		for (Number id : ids) {
+			if(id != null) {
+				set.add(id.longValue());
+			}
+		}
+		return set;
+	}
+
+	public CiIdSet add(long id) {
+		if(size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		if(size > 0 && ids[size - 1] >= id) {
+			sorted = false;
+		}
+		ids[size++] = id;
+		return this;
+	}
+
+	public CiIdSet addAll(long[] values) {
+		for (long id : values) {
+			add(id);
+		}
+		return this;
+	}
+
+	public int size() {
+		normalize();
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(long id) {
+		normalize();
+		return Arrays.binarySearch(ids, 0, size, id) >= 0;
+	}
+
+	/**
+	 * @param index
+	 * @return the id at the given position in ascending order
+	 */
+	public long get(int index) {
+		normalize();
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+		}
+		return ids[index];
+	}
+
+	public long[] toArray() {
+		normalize();
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Appends the ids as a JSON array, e.g. [1,2,3]
+	 *
+	 * @param sb
+	 * @return sb
+	 */
+	public StringBuilder appendJson(StringBuilder sb) {
+		normalize();
+		sb.append('[');
+		for (int i = 0; i < size; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			sb.append(ids[i]);
+		}
+		return sb.append(']');
+	}
+
+	private void normalize() {
+		if(sorted) {
+			return;
+		}
+		Arrays.sort(ids, 0, size);
+		int distinct = 0;
+		for (int i = 0; i < size; i++) {
+			if(distinct == 0 || ids[distinct - 1] != ids[i]) {
+				ids[distinct++] = ids[i];
+			}
+		}
+		size = distinct;
+		sorted = true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+		if(!(o instanceof CiIdSet)) {
+			return false;
+		}
+		CiIdSet other = (CiIdSet) o;
+		return Arrays.equals(toArray(), other.toArray());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(toArray());
+	}
+
+	/**
+	 * Same format as a List of Long, e.g. [1, 2, 3]
+	 */
+	@Override
+	public String toString() {
+		normalize();
+		StringBuilder sb = new StringBuilder(size * 10 + 2).append('[');
+		for (int i = 0; i < size; i++) {
+			if(i > 0) {
+				sb.append(", ");
+			}
+			sb.append(ids[i]);
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,88 @@
+package com.oneops.api.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.oneops.api.resource.model.LazyDecoded;
+
+/**
+ * Deserializer for {@link LazyDecoded} properties. When the decode was started with lazy
+ * attributes enabled the JSON object is skipped and its bytes are handed to an empty instance,
+ * otherwise the object is decoded into that instance. The instance sees the decode context
+ * first, see {@link LazyDecoded#enterDecode(DeserializationContext)}.
+ */
+public class DeferredDecodingDeserializer extends JsonDeserializer<Object> implements ContextualDeserializer {
+	
+	/**
+	 * Context attribute enabling deferred decoding
+	 */
+	public static final Object ENABLED = DeferredDecodingDeserializer.class;
+	
+	private final JavaType type;
+	
+	public DeferredDecodingDeserializer() {
+		this(null);
+	}
+	
+	private DeferredDecodingDeserializer(JavaType type) {
+		this.type = type;
+	}
+
+	@Override
+	public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+		return new DeferredDecodingDeserializer(property.getType());
+	}
+
+	@Override
+	public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+		if(p.getCurrentToken() != JsonToken.START_OBJECT) {
+			return ctxt.readValue(p, type);
+		}
+		LazyDecoded value;
+		try {
+			value = (LazyDecoded) type.getRawClass().getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw ctxt.instantiationException(type.getRawClass(), e);
+		}
+		value.enterDecode(ctxt);
+		if(ctxt.getAttribute(ENABLED) == null) {
+			return ctxt.findRootValueDeserializer(type).deserialize(p, ctxt, value);
+		}
+		value.deferDecoding(capture(p));
+		return value;
+	}
+	
+	/**
+	 * Copies the current object, as a slice of the input when decoding from a byte array
+	 */
+	private static byte[] capture(JsonParser p) throws IOException {
+		Object source = p.getInputSource();
+		if(source instanceof byte[]) {
+			byte[] input = (byte[]) source;
+			long start = p.getTokenLocation().getByteOffset();
+			if(start >= 0 && start < input.length && input[(int) start] == '{') {
+				p.skipChildren();
+				long end = p.getCurrentLocation().getByteOffset();
+				if(end > start && end <= input.length && input[(int) end - 1] == '}') {
+					return Arrays.copyOfRange(input, (int) start, (int) end);
+				}
+				throw new JsonMappingException(p, "Unexpected object boundaries " + start + "-" + end);
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		try (JsonGenerator generator = p.getCodec().getFactory().createGenerator(out)) {
+			generator.copyCurrentStructure(p);
+		}
+		return out.toByteArray();
+	}
+}
@@ -5,27 +5,83 @@ import java.util.Map.Entry;
 import org.json.JSONObject;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oneops.api.ResourceObject;
+import com.oneops.api.http.ResponseBody;
+import com.oneops.api.jfr.FlightRecorderSupport;
 
 public class JsonUtil {
+	
+	/**
+	 * Generated by the annotation processor of the build, missing when the sources are compiled
+	 * without it (e.g. by an IDE), the models then go through Jackson's bean (de)serializers
+	 */
+	private static final String CODEC_MODULE = "com.oneops.api.resource.model.GeneratedCodecModule";
+	
+	private static final ObjectMapper MAPPER = newMapper();
+	
+	/**
+	 * @return a mapper set up the way the client decodes responses
+	 */
+	public static ObjectMapper newMapper() {
+		ObjectMapper mapper = new ObjectMapper().registerModule(new StringPoolModule());
+		Module codecs = codecModule();
+		return codecs == null ? mapper : mapper.registerModule(codecs);
+	}
+	
+	private static Module codecModule() {
+		try {
+			return (Module) Class.forName(CODEC_MODULE).getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to load " + CODEC_MODULE, e);
+		}
+	}
+	
+	/**
+	 * @return the shared mapper used to decode responses, must not be reconfigured
+	 */
+	public static ObjectMapper mapper() {
+		return MAPPER;
+	}
+
+	/**
+	 * Decodes a response body, returns null if it cannot be decoded
+	 * 
+	 * @param body
+	 * @param t
+	 * @return
+	 */
+	public static <T> T toObject(ResponseBody body, TypeReference<T> t) {
+		try {
+			return body.as(t);
+		} catch (Exception e) {
+			return null;
+		}
+	}
 
 	public static <T> T toObject(String jsonStr, TypeReference<T> t) {
-		ObjectMapper mapper = new ObjectMapper();
 		T object = null;
+		Object decode = FlightRecorderSupport.beginDecode();
 		try {
-			object = mapper.readValue(jsonStr, t);
+			object = MAPPER.readValue(jsonStr, t);
 		} catch (Exception e) {
+		} finally {
+			FlightRecorderSupport.endDecode(decode, String.valueOf(t.getType()), jsonStr == null ? 0 : jsonStr.length());
 		}
 		return object;
 	}
 
 	public static <T> T convert(Object o, TypeReference<T> t) {
-		ObjectMapper mapper = new ObjectMapper();
 		T object = null;
+		Object decode = FlightRecorderSupport.beginDecode();
 		try{
-			object = mapper.convertValue(o, t);
+			object = MAPPER.convertValue(o, t);
 		} catch (Exception e) {
+		} finally {
+			FlightRecorderSupport.endDecode(decode, String.valueOf(t.getType()), 0);
 		}
 
 		return object;
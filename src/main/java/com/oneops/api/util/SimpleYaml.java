@@ -0,0 +1,393 @@
+package com.oneops.api.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader for the subset of YAML used by design files: block mappings and sequences nested by
+ * indentation, plain, single and double quoted scalars, literal (|) and folded (>) block scalars,
+ * simple flow sequences ([a, b]), empty flow mappings ({}) and comments. Mappings are read as
+ * LinkedHashMap keeping the file order, sequences as List and every scalar as a String, ~, null
+ * and empty values as null. Other flow mappings, anchors, aliases, tags and multi-document
+ * streams are not supported.
+ */
+public final class SimpleYaml {
+
+	private static final class Line {
+		final int number;
+		final int indent;
+		final String text;
+		final boolean tabbed;
+
+		Line(int number, int indent, String text, boolean tabbed) {
+			this.number = number;
+			this.indent = indent;
+			this.text = text;
+			this.tabbed = tabbed;
+		}
+	}
+
+	private final List<Line> lines;
+	private final List<String> raw;
+	private int next;
+
+	private SimpleYaml(List<String> raw) {
+		this.raw = raw;
+		this.lines = new ArrayList<Line>(raw.size());
+		for (int i = 0; i < raw.size(); i++) {
+			String text = raw.get(i);
+			int indent = 0;
+			while(indent < text.length() && text.charAt(indent) == ' ') {
+				indent++;
+			}
+			String content = stripComment(text.substring(indent)).trim();
+			if(content.isEmpty() || content.equals("---")) {
+				continue;
+			}
+			// only an error once the line is read as structure, block scalars may start with tabs
+			boolean tabbed = indent < text.length() && text.charAt(indent) == '\t';
+			lines.add(new Line(i + 1, indent, content, tabbed));
+		}
+	}
+
+	/**
+	 * @param yaml
+	 * @return the document, null if it is empty
+	 */
+	public static Object parse(String yaml) {
+		List<String> raw = new ArrayList<String>();
+		for (String line : yaml.split("\r?\n", -1)) {
+			raw.add(line);
+		}
+		return new SimpleYaml(raw).document();
+	}
+
+	/**
+	 * @param reader read until the end, not closed
+	 * @return the document, null if it is empty
+	 * @throws IOException
+	 */
+	public static Object parse(Reader reader) throws IOException {
+		BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		List<String> raw = new ArrayList<String>();
+		String line;
+		while((line = in.readLine()) != null) {
+			raw.add(line);
+		}
+		return new SimpleYaml(raw).document();
+	}
+
+	private Object document() {
+		if(lines.isEmpty()) {
+			return null;
+		}
+		Object value = block(lines.get(0).indent);
+		if(next < lines.size()) {
+			checkIndent(lines.get(next));
+			throw error(lines.get(next).number, "unexpected indentation");
+		}
+		return value;
+	}
+
+	private Object block(int indent) {
+		Line first = lines.get(next);
+		if(first.text.equals("-") || first.text.startsWith("- ")) {
+			return sequence(indent);
+		}
+		return mapping(indent);
+	}
+
+	private List<Object> sequence(int indent) {
+		List<Object> list = new ArrayList<Object>();
+		while(next < lines.size()) {
+			Line line = lines.get(next);
+			boolean entry = line.text.equals("-") || line.text.startsWith("- ");
+			// a sequence indented like the key owning it ends at the next key
+			if(line.indent < indent || (line.indent == indent && !entry)) {
+				break;
+			}
+			checkIndent(line);
+			if(line.indent > indent) {
+				throw error(line.number, "expected a sequence entry");
+			}
+			String rest = line.text.length() > 1 ? line.text.substring(2).trim() : "";
+			if(rest.isEmpty()) {
+				next++;
+				list.add(nested(indent));
+			} else if(keyEnd(rest) > 0) {
+				// mapping starting on the entry line, its keys are aligned after the dash
+				int itemIndent = line.indent + line.text.indexOf(rest);
+				lines.set(next, new Line(line.number, itemIndent, rest, false));
+				list.add(mapping(itemIndent));
+			} else {
+				next++;
+				list.add(scalar(rest, line, indent));
+			}
+		}
+		return list;
+	}
+
+	private Map<String, Object> mapping(int indent) {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		while(next < lines.size()) {
+			Line line = lines.get(next);
+			if(line.indent < indent) {
+				break;
+			}
+			checkIndent(line);
+			if(line.indent > indent) {
+				throw error(line.number, "unexpected indentation");
+			}
+			int colon = keyEnd(line.text);
+			if(colon < 0) {
+				throw error(line.number, "expected a key");
+			}
+			String key = unquote(line.text.substring(0, colon).trim(), line);
+			String rest = line.text.substring(colon + 1).trim();
+			next++;
+			if(rest.isEmpty()) {
+				map.put(key, nested(indent));
+			} else {
+				map.put(key, scalar(rest, line, indent));
+			}
+		}
+		return map;
+	}
+
+	private static void checkIndent(Line line) {
+		if(line.tabbed) {
+			throw error(line.number, "tabs are not allowed for indentation");
+		}
+	}
+
+	/**
+	 * Value on the lines after a key or dash, null if none is indented deeper. A sequence may
+	 * start at the same indentation as the key owning it.
+	 */
+	private Object nested(int indent) {
+		if(next >= lines.size()) {
+			return null;
+		}
+		Line line = lines.get(next);
+		if(line.indent > indent || (line.indent == indent && line.text.startsWith("- ") && !isSequenceAt(indent))) {
+			return block(line.indent);
+		}
+		return null;
+	}
+
+	private boolean isSequenceAt(int indent) {
+		for (int i = next - 1; i >= 0; i--) {
+			Line line = lines.get(i);
+			if(line.indent == indent) {
+				return line.text.startsWith("- ");
+			}
+			if(line.indent < indent) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	private Object scalar(String text, Line line, int indent) {
+		if(text.equals("|") || text.equals(">") || text.matches("[|>][+-]?")) {
+			return blockScalar(text.charAt(0) == '>', text.endsWith("-"), text.endsWith("+"), line, indent);
+		}
+		if(text.startsWith("[")) {
+			return flowSequence(text, line);
+		}
+		if(text.equals("{}")) {
+			return new LinkedHashMap<String, Object>();
+		}
+		if(text.startsWith("{")) {
+			throw error(line.number, "flow mappings are not supported");
+		}
+		if(text.startsWith("&") || text.startsWith("*") || text.startsWith("!")) {
+			throw error(line.number, "anchors, aliases and tags are not supported");
+		}
+		if(text.equals("~") || text.equals("null")) {
+			return null;
+		}
+		return unquote(text, line);
+	}
+
+	private String blockScalar(boolean folded, boolean strip, boolean keep, Line header, int indent) {
+		// read raw lines, comments and blank lines belong to the scalar
+		List<String> content = new ArrayList<String>();
+		int blockIndent = -1;
+		int end = header.number;
+		for (int i = header.number; i < raw.size(); i++) {
+			String text = raw.get(i);
+			if(text.trim().isEmpty()) {
+				content.add("");
+				continue;
+			}
+			int lineIndent = 0;
+			while(lineIndent < text.length() && text.charAt(lineIndent) == ' ') {
+				lineIndent++;
+			}
+			if(lineIndent <= indent || (blockIndent >= 0 && lineIndent < blockIndent)) {
+				break;
+			}
+			if(blockIndent < 0) {
+				blockIndent = lineIndent;
+			}
+			content.add(text.substring(blockIndent));
+			end = i + 1;
+		}
+		content = content.subList(0, Math.max(0, end - header.number));
+		while(next < lines.size() && lines.get(next).number <= end) {
+			next++;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < content.size(); i++) {
+			String text = content.get(i);
+			if(i > 0) {
+				String previous = content.get(i - 1);
+				if(!folded || text.startsWith(" ") || previous.startsWith(" ")) {
+					sb.append('\n');
+				} else if(text.isEmpty()) {
+					// the first blank line replaces the line break it follows
+					sb.append(previous.isEmpty() ? "\n" : "");
+				} else {
+					sb.append(previous.isEmpty() ? '\n' : ' ');
+				}
+			}
+			sb.append(text);
+		}
+		String value = sb.toString();
+		if(keep) {
+			for (int i = end; i < raw.size() && raw.get(i).trim().isEmpty(); i++) {
+				value += "\n";
+			}
+		}
+		return strip || value.isEmpty() ? value : value + "\n";
+	}
+
+	private List<Object> flowSequence(String text, Line line) {
+		if(!text.endsWith("]")) {
+			throw error(line.number, "flow sequences must end on the same line");
+		}
+		List<Object> list = new ArrayList<Object>();
+		String body = text.substring(1, text.length() - 1).trim();
+		if(body.isEmpty()) {
+			return list;
+		}
+		int start = 0;
+		for (int i = 0; i <= body.length(); i++) {
+			char c = i < body.length() ? body.charAt(i) : ',';
+			if(c == '\'' || c == '"') {
+				i = closingQuote(body, i);
+			} else if(c == ',') {
+				String item = body.substring(start, i).trim();
+				list.add(item.equals("~") || item.equals("null") ? null : unquote(item, line));
+				start = i + 1;
+			} else if(c == '[' || c == '{') {
+				throw error(line.number, "nested flow collections are not supported");
+			}
+		}
+		return list;
+	}
+
+	private String unquote(String text, Line line) {
+		if(text.length() >= 2 && text.charAt(0) == '\'' && text.charAt(text.length() - 1) == '\'') {
+			return text.substring(1, text.length() - 1).replace("''", "'");
+		}
+		if(text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+			StringBuilder sb = new StringBuilder(text.length());
+			for (int i = 1; i < text.length() - 1; i++) {
+				char c = text.charAt(i);
+				if(c != '\\' || i == text.length() - 2) {
+					sb.append(c);
+					continue;
+				}
+				c = text.charAt(++i);
+				switch (c) {
+				case 'n':
+					sb.append('\n');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case '0':
+					sb.append('\0');
+					break;
+				case 'u':
+					if(i + 4 >= text.length()) {
+						throw error(line.number, "invalid unicode escape");
+					}
+					sb.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+					i += 4;
+					break;
+				default:
+					sb.append(c);
+				}
+			}
+			return sb.toString();
+		}
+		if(text.startsWith("'") || text.startsWith("\"")) {
+			throw error(line.number, "unterminated quoted scalar");
+		}
+		return text;
+	}
+
+	/**
+	 * @return position of the colon ending the key of a mapping entry, -1 if the text is not one
+	 */
+	private static int keyEnd(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if(i == 0 && (c == '\'' || c == '"')) {
+				i = closingQuote(text, i);
+			} else if(c == ':' && (i + 1 == text.length() || text.charAt(i + 1) == ' ')) {
+				return i;
+			} else if(i == 0 && (c == '[' || c == '{')) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private static String stripComment(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if((c == '\'' || c == '"') && (i == 0 || " :-[,".indexOf(text.charAt(i - 1)) >= 0)) {
+				i = closingQuote(text, i);
+			} else if(c == '#' && (i == 0 || text.charAt(i - 1) == ' ')) {
+				return text.substring(0, i);
+			}
+		}
+		return text;
+	}
+
+	/**
+	 * @return position of the quote closing the scalar opened at start, the end of the text if unterminated
+	 */
+	private static int closingQuote(String text, int start) {
+		char quote = text.charAt(start);
+		for (int i = start + 1; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if(quote == '"' && c == '\\') {
+				i++;
+			} else if(c == quote) {
+				if(quote == '\'' && i + 1 < text.length() && text.charAt(i + 1) == '\'') {
+					i++;
+				} else {
+					return i;
+				}
+			}
+		}
+		return text.length();
+	}
+
+	private static IllegalArgumentException error(int line, String message) {
+		return new IllegalArgumentException("Invalid yaml at line " + line + ": " + message);
+	}
+}
@@ -0,0 +1,42 @@
+package com.oneops.api.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canonicalizes repeated string values while one response is decoded, so that 
+ * e.g. thousands of identical {@code nsPath} or {@code ciClassName} values end up 
+ * as a single instance. A pool lives only as long as the decode it was created 
+ * for and is bounded both in entries and in the length of strings it keeps.
+ * Not thread safe.
+ */
+public final class StringPool {
+	
+	static final int MAX_ENTRIES = 16 * 1024;
+	
+	static final int MAX_LENGTH = 256;
+	
+	private final Map<String, String> pool = new HashMap<String, String>();
+	
+	/**
+	 * @param value
+	 * @return the pooled instance equal to value, or value itself
+	 */
+	public String canonicalize(String value) {
+		if(value == null || value.length() > MAX_LENGTH) {
+			return value;
+		}
+		String pooled = pool.get(value);
+		if(pooled != null) {
+			return pooled;
+		}
+		if(pool.size() < MAX_ENTRIES) {
+			pool.put(value, value);
+		}
+		return value;
+	}
+	
+	public int size() {
+		return pool.size();
+	}
+}
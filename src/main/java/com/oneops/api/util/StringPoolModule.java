@@ -0,0 +1,96 @@
+package com.oneops.api.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.collect.ImmutableList;
+import com.oneops.api.resource.model.CiAttributes;
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.CiSummary;
+import com.oneops.api.resource.model.RfcCi;
+
+/**
+ * Routes the string fields of the bulk models through the {@link StringPool} of the current 
+ * decode, attribute values of {@link CiAttributes} are routed by {@link AttributeValueDeserializer}. 
+ * Decodes that were not given a pool (the default) read strings as usual.
+ */
+public class StringPoolModule extends SimpleModule {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final List<Class<?>> POOLED = ImmutableList.<Class<?>>of(CiResource.class, CiSummary.class, RfcCi.class, CiAttributes.class);
+
+	public StringPoolModule() {
+		super("StringPoolModule");
+		setDeserializerModifier(new BeanDeserializerModifier() {
+			@Override
+			public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+				if(!POOLED.contains(beanDesc.getBeanClass())) {
+					return builder;
+				}
+				for (Iterator<SettableBeanProperty> it = builder.getProperties(); it.hasNext();) {
+					SettableBeanProperty property = it.next();
+					if(property.getType().getRawClass() == String.class) {
+						builder.addOrReplaceProperty(property.withValueDeserializer(new PooledStringDeserializer()), true);
+					}
+				}
+				return builder;
+			}
+		});
+	}
+	
+	private static StringPool pool(DeserializationContext ctxt) {
+		return (StringPool) ctxt.getAttribute(StringPool.class);
+	}
+	
+	/**
+	 * Reads a string value, through the pool of the current decode if there is one
+	 * 
+	 * @param p positioned on the value
+	 * @param ctxt
+	 * @return
+	 * @throws IOException
+	 */
+	public static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+		if(p.getCurrentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if(p.getCurrentToken() != JsonToken.VALUE_STRING) {
+			return ctxt.readValue(p, String.class);
+		}
+		StringPool pool = pool(ctxt);
+		return pool == null ? p.getText() : pool.canonicalize(p.getText());
+	}
+	
+	static class PooledStringDeserializer extends JsonDeserializer<String> {
+		@Override
+		public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			return readString(p, ctxt);
+		}
+	}
+	
+	/**
+	 * Untyped values, strings are pooled and everything else is left to the default deserializer
+	 */
+	public static class AttributeValueDeserializer extends JsonDeserializer<Object> {
+		@Override
+		public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			if(p.getCurrentToken() != JsonToken.VALUE_STRING) {
+				return ctxt.readValue(p, Object.class);
+			}
+			StringPool pool = pool(ctxt);
+			return pool == null ? p.getText() : pool.canonicalize(p.getText());
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.oneops.api.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class OneOpsCliTest extends TestCase {
+
+	private HttpServer server;
+	private String body;
+	private ByteArrayOutputStream out;
+	private ByteArrayOutputStream err;
+
+	@Override
+	protected void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream stream = exchange.getResponseBody();
+				stream.write(bytes);
+				stream.close();
+			}
+		});
+		server.start();
+		out = new ByteArrayOutputStream();
+		err = new ByteArrayOutputStream();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop(0);
+	}
+
+	private int run(String... args) {
+		Map<String, String> env = new HashMap<String, String>();
+		env.put("ONEOPS_ENDPOINT", "http://127.0.0.1:" + server.getAddress().getPort());
+		env.put("ONEOPS_ORG", "org");
+		env.put("ONEOPS_AUTHTOKEN", "token");
+		return new OneOpsCli(env, new PrintStream(out, true), new PrintStream(err, true)).run(args);
+	}
+
+	public void testPrintsDeploymentStatus() {
+		body = "{\"deploymentId\":5,\"deploymentState\":\"active\"}";
+		assertEquals(OneOpsCli.OK, run("deployment-status", "a1", "qa", "5"));
+		assertEquals("5 active", out.toString().trim());
+	}
+
+	public void testNullDeploymentFails() {
+		body = "null";
+		assertEquals(OneOpsCli.FAILED, run("deployment-status", "a1", "qa"));
+		assertEquals("No deployment found in environment qa", err.toString().trim());
+		assertEquals("", out.toString());
+	}
+
+	public void testUndecodableDeploymentFails() {
+		body = "[1, 2]";
+		assertEquals(OneOpsCli.FAILED, run("deployment-status", "a1", "qa"));
+		assertTrue(err.toString(), err.toString().startsWith("Failed to deserialize response"));
+	}
+
+	public void testInvalidUsage() {
+		assertEquals(OneOpsCli.USAGE, run("deployment-status", "a1", "qa", "x"));
+		assertEquals("Invalid deployment id x", err.toString().trim());
+	}
+}
@@ -0,0 +1,109 @@
+package com.oneops.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+import com.google.common.io.ByteStreams;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class ApiRequestTest extends TestCase {
+
+	private static final class Capture implements ResponseSink {
+		String body;
+
+		@Override
+		public void consume(InputStream in) throws IOException {
+			body = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static HttpTransport returning(final int status) {
+		return new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				return new ApiResponse(status, "HTTP/1.1 " + status, new HashMap<String, String>(), "body".getBytes(StandardCharsets.UTF_8));
+			}
+		};
+	}
+
+	public void testBufferedBodyReachesSinkOnlyFor200() throws OneOpsClientAPIException {
+		Capture ok = new Capture();
+		new ApiRequest(returning(200), "http://localhost/").get("design", ok);
+		assertEquals("body", ok.body);
+
+		for (int status : new int[] { 201, 204, 302, 404 }) {
+			Capture other = new Capture();
+			ApiResponse response = new ApiRequest(returning(status), "http://localhost/").get("design", other);
+			assertNull("status " + status, other.body);
+			assertEquals(status, response.getStatusCode());
+		}
+	}
+
+	/**
+	 * Answers /{status} with that status, and /redirect with a 302 to /200
+	 */
+	private static HttpServer server() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String path = exchange.getRequestURI().getPath().substring(1);
+				byte[] body = (exchange.getRequestMethod() + " " + path).getBytes(StandardCharsets.UTF_8);
+				if("redirect".equals(path)) {
+					exchange.getResponseHeaders().add("Location", "/200");
+					exchange.sendResponseHeaders(302, body.length);
+				} else {
+					exchange.sendResponseHeaders(Integer.parseInt(path), body.length);
+				}
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		server.start();
+		return server;
+	}
+
+	public void testStreamedBodyReachesSinkOnlyFor200() throws IOException, OneOpsClientAPIException {
+		HttpServer server = server();
+		try {
+			String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+			Capture ok = new Capture();
+			ApiResponse response = new ApiRequest(new JdkHttpTransport(), base).get("200", ok);
+			assertEquals("GET 200", ok.body);
+			assertEquals(200, response.getStatusCode());
+
+			Capture created = new Capture();
+			response = new ApiRequest(new JdkHttpTransport(), base).get("201", created);
+			assertNull(created.body);
+			assertEquals(201, response.getStatusCode());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	public void testRedirectsAreOnlyFollowedForGet() throws IOException, OneOpsClientAPIException {
+		HttpServer server = server();
+		try {
+			String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+			ApiResponse response = new ApiRequest(new JdkHttpTransport(), base).get("redirect");
+			assertEquals(200, response.getStatusCode());
+			assertEquals("GET 200", response.getBody().asString());
+
+			response = new ApiRequest(new JdkHttpTransport(), base).body("{}").post("redirect");
+			assertEquals(302, response.getStatusCode());
+			assertEquals("POST redirect", response.getBody().asString());
+		} finally {
+			server.stop(0);
+		}
+	}
+}
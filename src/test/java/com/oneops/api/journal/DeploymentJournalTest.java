@@ -0,0 +1,151 @@
+package com.oneops.api.journal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.RfcCi;
+
+public class DeploymentJournalTest extends TestCase {
+
+	private Path dir;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = Files.createTempDirectory("journal");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(dir.toFile());
+	}
+
+	private static Deployment deployment(long id, String state) {
+		Deployment deployment = new Deployment();
+		deployment.setDeploymentId(id);
+		deployment.setDeploymentState(state);
+		return deployment;
+	}
+
+	private static RfcCi rfc(long id, String state) {
+		RfcCi rfc = new RfcCi();
+		rfc.setRfcId(id);
+		rfc.setDeployment(deployment(1L, state));
+		return rfc;
+	}
+
+	private static List<String> lines(Path file) throws IOException {
+		return Files.readAllLines(file, StandardCharsets.UTF_8);
+	}
+
+	public void testRecordsOnlyChanges() throws IOException {
+		Path file = dir.resolve("journal.log");
+		DeploymentJournal journal = DeploymentJournal.open(file);
+		journal.observe("dev", deployment(1L, "active"));
+		journal.observe("dev", deployment(1L, "active"));
+		journal.observe("dev", 1L, Arrays.asList(rfc(10L, "pending"), rfc(11L, "pending")));
+		journal.observe("dev", 1L, Arrays.asList(rfc(10L, "complete"), rfc(11L, "pending")));
+		journal.observe("dev", deployment(1L, "complete"));
+		journal.close();
+
+		List<String> lines = lines(file);
+		assertEquals(5, lines.size());
+		assertEquals(5, journal.getCount());
+		assertEquals(0, journal.getDropped());
+		assertTrue(lines.get(3).contains("\"rfcId\":10"));
+		assertTrue(lines.get(3).contains("\"from\":\"pending\",\"to\":\"complete\""));
+		assertTrue(lines.get(4).contains("\"type\":\"deployment\""));
+	}
+
+	public void testForgetsTerminalDeploymentsFirst() throws IOException {
+		Path file = dir.resolve("journal.log");
+		DeploymentJournal journal = DeploymentJournal.open(file);
+		journal.setMaxDeployments(3);
+		journal.observe("dev", deployment(1L, "active"));
+		journal.observe("dev", deployment(2L, "complete"));
+		journal.observe("dev", deployment(3L, "failed"));
+		journal.observe("dev", 4L, Arrays.asList(rfc(40L, "inprogress")));
+		journal.observe("dev", deployment(5L, "active"));
+		assertEquals(5, journal.getCount());
+		// 2 and 3 were forgotten, the active deployments polled in rotation are not journaled again
+		journal.observe("dev", deployment(1L, "active"));
+		journal.observe("dev", 4L, Arrays.asList(rfc(40L, "inprogress")));
+		journal.observe("dev", deployment(5L, "active"));
+		assertEquals(5, journal.getCount());
+		journal.observe("dev", deployment(2L, "complete"));
+		assertEquals(6, journal.getCount());
+
+		// without terminal deployments the least recently seen one is forgotten
+		journal.setMaxDeployments(1);
+		journal.observe("dev", deployment(1L, "active"));
+		assertEquals(7, journal.getCount());
+		journal.close();
+		assertFalse(lines(file).get(6).contains("\"from\""));
+
+		try {
+			journal.setMaxDeployments(0);
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid journal deployment limit 0", e.getMessage());
+		}
+	}
+
+	public void testRotatesKeepingMaxFiles() throws IOException {
+		Path file = dir.resolve("journal.log");
+		DeploymentJournal journal = DeploymentJournal.open(file, 300, 2, 1, TimeUnit.HOURS);
+		for (long i = 0; i < 20; i++) {
+			journal.observe("dev", deployment(i, "active"));
+			journal.flush();
+		}
+		journal.close();
+
+		assertTrue(Files.exists(Paths.get(file + ".1")));
+		assertTrue(Files.exists(Paths.get(file + ".2")));
+		assertFalse(Files.exists(Paths.get(file + ".3")));
+		assertTrue(Files.size(file) <= 300);
+		assertTrue(lines(file).get(lines(file).size() - 1).contains("\"deploymentId\":19"));
+		assertEquals(0, journal.getDropped());
+	}
+
+	public void testKeepsWritingWhenRotationFails() throws IOException {
+		Path file = dir.resolve("journal.log");
+		Path blocker = Paths.get(file + ".1");
+		// a non-empty directory cannot be replaced by the move
+		Files.createDirectories(blocker.resolve("child"));
+		DeploymentJournal journal = DeploymentJournal.open(file, 100, 1, 1, TimeUnit.HOURS);
+		for (long i = 0; i < 5; i++) {
+			journal.observe("dev", deployment(i, "active"));
+			journal.flush();
+		}
+		assertEquals(5, lines(file).size());
+
+		FileUtils.deleteDirectory(blocker.toFile());
+		journal.observe("dev", deployment(5L, "active"));
+		journal.close();
+
+		assertEquals(5, lines(blocker).size());
+		assertEquals(1, lines(file).size());
+		assertEquals(0, journal.getDropped());
+	}
+
+	public void testDroppedRfcsAreNotRemembered() throws IOException {
+		DeploymentJournal journal = DeploymentJournal.open(dir.resolve("journal.log"));
+		journal.close();
+		List<RfcCi> rfcs = Arrays.asList(rfc(10L, "pending"), rfc(11L, "pending"));
+		journal.observe("dev", 1L, rfcs);
+		assertEquals(2, journal.getDropped());
+		journal.observe("dev", 1L, rfcs);
+		assertEquals(4, journal.getDropped());
+		assertEquals(0, journal.getCount());
+	}
+}
@@ -0,0 +1,204 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+import com.google.common.base.Predicate;
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+import com.oneops.api.resource.model.Deployment;
+
+public class DeploymentPolicyEngineTest extends TestCase {
+
+	private static final Pattern DEPLOYMENT = Pattern.compile(".*/deployments/(\\d+)(/status)?/?");
+
+	/** state served for each deployment id, no entry fails the status fetch */
+	private final Map<Long, String> states = new HashMap<Long, String>();
+	private final List<Long> updated = new ArrayList<Long>();
+	private boolean updatesFail;
+	private final List<String> events = new ArrayList<String>();
+	private Transition transition;
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				return respond(request);
+			}
+		});
+		transition = new Transition(instance, "assembly");
+	}
+
+	private synchronized ApiResponse respond(TransportRequest request) {
+		Matcher matcher = DEPLOYMENT.matcher(request.getPath());
+		assertTrue(request.getPath(), matcher.matches());
+		Long deploymentId = Long.valueOf(matcher.group(1));
+		int status = 200;
+		String state = states.get(deploymentId);
+		if("PUT".equals(request.getMethod())) {
+			updated.add(deploymentId);
+			status = updatesFail ? 500 : 200;
+			state = "active";
+		} else if(state == null) {
+			status = 500;
+		}
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "application/json");
+		String body = "{\"deploymentId\":" + deploymentId + ",\"releaseId\":" + (deploymentId * 10) + ",\"deploymentState\":\"" + state + "\"}";
+		return new ApiResponse(status, "HTTP/1.1 " + status, headers, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private DeploymentPolicyEngine engine() {
+		return transition.deploymentPolicyEngine().setListener(new DeploymentPolicyEngine.Listener() {
+			@Override
+			public void onAction(String environmentName, Deployment deployment, DeploymentPolicyEngine.Action action, OneOpsClientAPIException error) {
+				events.add(action + " " + deployment.getDeploymentId() + (error == null ? "" : " error"));
+			}
+
+			@Override
+			public void onFinished(String environmentName, Deployment deployment) {
+				events.add("finished " + deployment.getDeploymentId() + " " + deployment.getDeploymentState());
+			}
+		});
+	}
+
+	public void testRetriesFailedUntilRetriesAreUsedUp() {
+		states.put(1L, "failed");
+		DeploymentPolicyEngine engine = engine().retryFailed(2).watch("qa", 1L);
+		try {
+			assertEquals(1, engine.poll().getRetried());
+			assertEquals(1, engine.poll().getRetried());
+			DeploymentPolicyEngine.Cycle last = engine.poll();
+			assertEquals(0, last.getRetried());
+			assertEquals(1, last.getFinished());
+			assertEquals(0, engine.size());
+			assertEquals(2, updated.size());
+			assertEquals("[RETRY 1, RETRY 1, finished 1 failed]", events.toString());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testRetryRuleLimitsRetries() {
+		states.put(1L, "failed");
+		states.put(2L, "failed");
+		DeploymentPolicyEngine engine = engine().retryFailed(1, new Predicate<Deployment>() {
+			@Override
+			public boolean apply(Deployment deployment) {
+				return deployment.getDeploymentId() == 2L;
+			}
+		}).watch("qa", 1L).watch("qa", 2L);
+		try {
+			DeploymentPolicyEngine.Cycle cycle = engine.poll();
+			assertEquals(1, cycle.getRetried());
+			// a failed deployment that is not retried leaves the watch right away
+			assertEquals(1, cycle.getFinished());
+			assertEquals("[2]", updated.toString());
+			assertEquals(1, engine.size());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testApprovesOnlyMatchingPendingDeployments() {
+		states.put(1L, "pending");
+		states.put(2L, "pending");
+		DeploymentPolicyEngine engine = engine().approveWhen(new Predicate<Deployment>() {
+			@Override
+			public boolean apply(Deployment deployment) {
+				return deployment.getReleaseId() == 10L;
+			}
+		}).watch("qa", 1L).watch("prod", 2L);
+		try {
+			DeploymentPolicyEngine.Cycle cycle = engine.poll();
+			assertEquals(2, cycle.getPolled());
+			assertEquals(1, cycle.getApproved());
+			assertEquals("[1]", updated.toString());
+			// pending and approved deployments stay watched
+			assertEquals(2, engine.size());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testDropsCompleteAndCanceledDeployments() {
+		states.put(1L, "complete");
+		states.put(2L, "canceled");
+		states.put(3L, "active");
+		DeploymentPolicyEngine engine = engine().watch("qa", 1L).watch("qa", 2L).watch("qa", 3L).watch("qa", 3L);
+		try {
+			assertEquals(3, engine.size());
+			assertEquals(2, engine.poll().getFinished());
+			assertEquals(1, engine.size());
+			assertTrue(updated.isEmpty());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testFailedFetchKeepsWatching() {
+		DeploymentPolicyEngine engine = engine().retryFailed(1).watch("qa", 1L);
+		try {
+			DeploymentPolicyEngine.Cycle cycle = engine.poll();
+			assertEquals(0, cycle.getPolled());
+			assertEquals(1, cycle.getErrors());
+			assertEquals(1, engine.size());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testFailedRetryIsNotCounted() {
+		states.put(1L, "failed");
+		updatesFail = true;
+		DeploymentPolicyEngine engine = engine().retryFailed(1).watch("qa", 1L);
+		try {
+			DeploymentPolicyEngine.Cycle cycle = engine.poll();
+			assertEquals(0, cycle.getRetried());
+			assertEquals(1, cycle.getErrors());
+			assertEquals(1, engine.size());
+
+			updatesFail = false;
+			assertEquals(1, engine.poll().getRetried());
+			assertEquals("[RETRY 1 error, RETRY 1]", events.toString());
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testRunStopsOnceNothingIsWatched() throws OneOpsClientAPIException {
+		states.put(1L, "complete");
+		DeploymentPolicyEngine engine = engine().watch("qa", 1L);
+		try {
+			assertEquals(0, engine.run(1, TimeUnit.HOURS, 1, TimeUnit.HOURS));
+		} finally {
+			engine.close();
+		}
+	}
+
+	public void testRunStopsAtTimeout() throws OneOpsClientAPIException {
+		states.put(1L, "active");
+		DeploymentPolicyEngine engine = engine().watch("qa", 1L);
+		try {
+			assertEquals(1, engine.run(10, TimeUnit.MILLISECONDS, 50, TimeUnit.MILLISECONDS));
+		} finally {
+			engine.close();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.oneops.api.resource;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.DeploymentRFC;
+import com.oneops.api.resource.model.RfcCi;
+
+public class DeploymentProgressTest extends TestCase {
+
+	private static Deployment status(String state, Integer maxExecOrder, Long created) {
+		Deployment status = new Deployment();
+		status.setDeploymentState(state);
+		status.setMaxExecOrder(maxExecOrder);
+		status.setCreated(created);
+		return status;
+	}
+
+	private static RfcCi rfc(long id, long execOrder, String state, Long updated) {
+		RfcCi rfc = new RfcCi();
+		rfc.setRfcId(id);
+		rfc.setExecOrder(execOrder);
+		if(state != null) {
+			Deployment record = new Deployment();
+			record.setDeploymentState(state);
+			record.setUpdated(updated);
+			rfc.setDeployment(record);
+		}
+		return rfc;
+	}
+
+	private static DeploymentRFC snapshot(RfcCi... rfcs) {
+		DeploymentRFC snapshot = new DeploymentRFC();
+		snapshot.setRfcCis(Arrays.asList(rfcs));
+		return snapshot;
+	}
+
+	public void testBeforeAnyUpdate() {
+		DeploymentProgress progress = new DeploymentProgress();
+		assertTrue(progress.isActive());
+		assertNull(progress.getDeploymentState());
+		assertEquals(0, progress.getTotal());
+		assertEquals(0.0, progress.getPercentComplete());
+		assertEquals(0, progress.getEstimatedRemainingMillis(0));
+		try {
+			progress.refresh();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected
+		} catch (Exception e) {
+			fail(e.toString());
+		}
+	}
+
+	public void testCountsAndEstimates() {
+		DeploymentProgress progress = new DeploymentProgress().update(status("active", 3, 0L));
+
+		progress.update(snapshot(
+				rfc(1, 1, "complete", 1000L),
+				rfc(2, 1, "inprogress", 900L),
+				rfc(3, 2, null, null),
+				rfc(4, 3, "pending", null)), 1000);
+		assertEquals(4, progress.getTotal());
+		assertEquals(1, progress.getComplete());
+		assertEquals(1, progress.getInProgress());
+		assertEquals(2, progress.getPending());
+		assertEquals(25.0, progress.getPercentComplete());
+		assertEquals(3, progress.getStepCount());
+		assertEquals(0, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(1), progress.getCurrentExecOrder());
+		assertEquals(-1, progress.getAverageStepMillis());
+		assertEquals(-1, progress.getEstimatedRemainingMillis(1000));
+
+		// step 1 runs from the deployment creation to its last record update
+		progress.update(snapshot(
+				rfc(1, 1, "complete", 1000L),
+				rfc(2, 1, "complete", 2000L),
+				rfc(3, 2, "inprogress", 2100L),
+				rfc(4, 3, "pending", null)), 2200);
+		assertEquals(2, progress.getComplete());
+		assertEquals(1, progress.getInProgress());
+		assertEquals(1, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(2), progress.getCurrentExecOrder());
+		assertEquals(2000, progress.getAverageStepMillis());
+		// step 2 started when step 1 finished, 500 ms ago, and one more step follows
+		assertEquals(1500 + 2000, progress.getEstimatedRemainingMillis(2500));
+
+		progress.update(snapshot(
+				rfc(1, 1, "complete", 1000L),
+				rfc(2, 1, "complete", 2000L),
+				rfc(3, 2, "complete", 4000L),
+				rfc(4, 3, "failed", 4500L)), 5000);
+		assertEquals(3, progress.getComplete());
+		assertEquals(1, progress.getFailed());
+		assertEquals(0, progress.getPending());
+		assertEquals(75.0, progress.getPercentComplete());
+		assertEquals(2, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(3), progress.getCurrentExecOrder());
+		assertEquals(2000, progress.getAverageStepMillis());
+
+		progress.update(status("failed", 3, 0L));
+		assertFalse(progress.isActive());
+		assertEquals("failed", progress.getDeploymentState());
+	}
+
+	public void testSameSnapshotIsNotCountedTwice() {
+		DeploymentProgress progress = new DeploymentProgress();
+		DeploymentRFC snapshot = snapshot(rfc(1, 1, "inprogress", 10L), rfc(2, 1, "pending", null));
+		progress.update(snapshot, 100);
+		progress.update(snapshot, 200);
+		assertEquals(2, progress.getTotal());
+		assertEquals(1, progress.getInProgress());
+		assertEquals(1, progress.getPending());
+	}
+
+	public void testSettledStepsAreNotWalkedAgain() {
+		DeploymentProgress progress = new DeploymentProgress();
+		progress.update(snapshot(rfc(1, 1, "complete", 10L), rfc(2, 2, "pending", null)), 100);
+		assertEquals(1, progress.getCompletedSteps());
+		// a later change in a settled step is ignored, new steps are still picked up
+		progress.update(snapshot(rfc(1, 1, "failed", 20L), rfc(2, 2, "complete", 30L), rfc(3, 3, "pending", null)), 200);
+		assertEquals(0, progress.getFailed());
+		assertEquals(2, progress.getComplete());
+		assertEquals(3, progress.getTotal());
+		assertEquals(2, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(3), progress.getCurrentExecOrder());
+	}
+
+	public void testAllStepsComplete() {
+		DeploymentProgress progress = new DeploymentProgress().update(status("complete", 1, 0L));
+		progress.update(snapshot(rfc(1, 1, "complete", 50L)), 100);
+		assertNull(progress.getCurrentExecOrder());
+		assertEquals(100.0, progress.getPercentComplete());
+		assertEquals(0, progress.getEstimatedRemainingMillis(100));
+		assertFalse(progress.isActive());
+	}
+
+	public void testFailedStepNeverSettles() {
+		DeploymentProgress progress = new DeploymentProgress().update(status("active", 2, 0L));
+		progress.update(snapshot(rfc(1, 1, "complete", 100L), rfc(2, 1, "failed", 200L), rfc(3, 2, "pending", null)), 300);
+		assertEquals(0, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(1), progress.getCurrentExecOrder());
+		assertEquals(-1, progress.getEstimatedRemainingMillis(300));
+
+		// the step stays current however long the failure lasts, later steps are not counted as done
+		progress.update(snapshot(rfc(1, 1, "complete", 100L), rfc(2, 1, "failed", 200L), rfc(3, 2, "pending", null)), 60000);
+		assertEquals(0, progress.getCompletedSteps());
+		assertEquals(1, progress.getFailed());
+		assertEquals(Long.valueOf(1), progress.getCurrentExecOrder());
+	}
+
+	public void testRetriedFailureSettlesTheStep() {
+		DeploymentProgress progress = new DeploymentProgress().update(status("failed", 2, 0L));
+		progress.update(snapshot(rfc(1, 1, "failed", 100L), rfc(2, 2, "pending", null)), 150);
+		assertFalse(progress.isActive());
+
+		progress.update(status("active", 2, 0L));
+		progress.update(snapshot(rfc(1, 1, "inprogress", 400L), rfc(2, 2, "pending", null)), 450);
+		assertEquals(0, progress.getFailed());
+		assertEquals(1, progress.getInProgress());
+		progress.update(snapshot(rfc(1, 1, "complete", 900L), rfc(2, 2, "pending", null)), 1000);
+		assertEquals(1, progress.getCompletedSteps());
+		assertEquals(Long.valueOf(2), progress.getCurrentExecOrder());
+		// the failed attempt is part of the step duration
+		assertEquals(900, progress.getAverageStepMillis());
+	}
+
+	public void testRfcWithoutIdIsIgnored() {
+		RfcCi anonymous = new RfcCi();
+		anonymous.setExecOrder(1L);
+		DeploymentProgress progress = new DeploymentProgress().update(snapshot(anonymous, rfc(1, 1, "complete", 10L)), 20);
+		assertEquals(1, progress.getTotal());
+		assertEquals(1, progress.getCompletedSteps());
+	}
+}
@@ -0,0 +1,118 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+
+public class DesignSnapshotCacheTest extends TestCase {
+
+	private int reads;
+	private int releaseReads;
+	private boolean released = true;
+	private int ciRfcCount = 3;
+	private DesignSnapshotCache cache;
+	private Design design;
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				return respond(request);
+			}
+		});
+		cache = new DesignSnapshotCache();
+		instance.setDesignSnapshotCache(cache);
+		design = new Design(instance, "assembly");
+	}
+
+	private synchronized ApiResponse respond(TransportRequest request) {
+		String path = request.getPath();
+		if(path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+		String body;
+		int status = 200;
+		if(path.endsWith("releases/latest")) {
+			releaseReads++;
+			status = released ? 200 : 404;
+			body = "{\"releaseId\":7,\"revision\":2,\"releaseState\":\"open\",\"ciRfcCount\":" + ciRfcCount + "}";
+		} else if(!"GET".equals(request.getMethod())) {
+			body = "{\"ciId\":1,\"ciName\":\"web\"}";
+		} else if(path.endsWith("/platforms")) {
+			reads++;
+			body = "[{\"ciId\":1,\"ciName\":\"web\"},{\"ciId\":2,\"ciName\":\"db\"}]";
+		} else {
+			reads++;
+			body = "[{\"ciId\":3,\"ciName\":\"item\"}]";
+		}
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "application/json");
+		return new ApiResponse(status, "HTTP/1.1 " + status, headers, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void testServesSnapshotWhileReleaseIsUnchanged() throws OneOpsClientAPIException {
+		design.listPlatforms();
+		// platforms, globals, then components and variables of both platforms
+		assertEquals(6, reads);
+		design.listPlatformComponents("web");
+		design.listPlatformVariables("db");
+		design.listGlobalVariables();
+		assertEquals(6, reads);
+		assertEquals(3, cache.getHits());
+
+		ciRfcCount++;
+		design.listPlatforms();
+		assertEquals(12, reads);
+		assertEquals(2, cache.getRefreshes());
+	}
+
+	public void testUnknownPlatformIsReadDirectly() throws OneOpsClientAPIException {
+		design.listPlatforms();
+		assertEquals(1, design.listPlatformComponents("cache").size());
+		assertEquals(7, reads);
+	}
+
+	public void testDesignWithoutReleaseIsNotCached() throws OneOpsClientAPIException {
+		released = false;
+		assertEquals(1, design.listGlobalVariables().size());
+		assertEquals(1, design.listPlatformComponents("web").size());
+		assertEquals(2, reads);
+		assertEquals(0, cache.getRefreshes());
+
+		assertNull(design.getSnapshot().getReleaseId());
+		assertEquals(2, design.getSnapshot().getPlatforms().size());
+		try {
+			design.getLatestRelease();
+			fail("Expected no release to fail");
+		} catch (OneOpsClientAPIException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Failed to get latest releases"));
+		}
+	}
+
+	public void testWritesInvalidateWithinRevalidateInterval() throws OneOpsClientAPIException {
+		cache.setRevalidateInterval(1, TimeUnit.MINUTES);
+		design.listPlatforms();
+		design.listPlatforms();
+		assertEquals(1, releaseReads);
+		assertEquals(6, reads);
+
+		design.deletePlatform("db");
+		design.listPlatforms();
+		assertEquals(2, releaseReads);
+		assertEquals(12, reads);
+	}
+}
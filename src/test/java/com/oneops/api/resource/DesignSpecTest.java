@@ -0,0 +1,74 @@
+package com.oneops.api.resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class DesignSpecTest extends TestCase {
+
+	private static void assertInvalid(String yaml, String message) {
+		try {
+			DesignSpec.parse(yaml);
+			fail("Expected an error for " + yaml);
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	public void testParsesDesignFile() throws IOException {
+		Reader reader = new InputStreamReader(getClass().getResourceAsStream("/oneops.1.tomcat.yaml"), StandardCharsets.UTF_8);
+		DesignSpec spec;
+		try {
+			spec = DesignSpec.parse(reader);
+		} finally {
+			reader.close();
+		}
+		assertTrue(spec.getVariables().isEmpty());
+		DesignSpec.Platform platform = spec.getPlatforms().get("oo-tomcat");
+		assertEquals("oo-tomcat", platform.getName());
+		assertEquals("oneops", platform.getSource());
+		assertEquals("tomcat", platform.getPack());
+		assertEquals("1", platform.getVersion());
+		assertTrue(platform.getLinks().isEmpty());
+		assertEquals(Arrays.asList("tomcat", "user-app", "artifact-1"), Arrays.asList(platform.getComponents().keySet().toArray()));
+
+		DesignSpec.Component tomcat = platform.getComponents().get("tomcat");
+		assertEquals("tomcat", tomcat.getTemplate());
+		assertEquals("[]", tomcat.getAttributes().get("mirrors"));
+		assertEquals("true", tomcat.getAttributes().get("autodeploy_enabled"));
+
+		DesignSpec.Component artifact = platform.getComponents().get("artifact-1");
+		assertEquals("artifact", artifact.getTemplate());
+		assertEquals("", artifact.getAttributes().get("checksum"));
+		assertEquals("$OO_CLOUD{nexus}", artifact.getAttributes().get("url"));
+		assertEquals("execute \"ln -s /opt/apache-tomcat-7.0.62/webapps/jpetstoreapp /app/jpetstore/current\"",
+				artifact.getAttributes().get("restart"));
+	}
+
+	public void testVariablesAndLinks() {
+		DesignSpec spec = DesignSpec.parse("variables:\n  version: 1.0\nplatforms:\n  db:\n    pack: oneops/mysql:1\n"
+				+ "  app:\n    pack: oneops/tomcat:1\n    links: [db]\n    variables:\n      port: 8080\n      opts: [a, b]\n");
+		assertEquals("1.0", spec.getVariables().get("version"));
+		DesignSpec.Platform app = spec.getPlatforms().get("app");
+		assertEquals(Arrays.asList("db"), app.getLinks());
+		assertEquals("8080", app.getVariables().get("port"));
+		assertEquals("[\"a\",\"b\"]", app.getVariables().get("opts"));
+	}
+
+	public void testHashVariablesKeepFileOrder() {
+		DesignSpec spec = DesignSpec.parse("variables:\n  env:\n    z: 1\n    a: 2\n");
+		assertEquals("{\"z\":\"1\",\"a\":\"2\"}", spec.getVariables().get("env"));
+	}
+
+	public void testRejectsInvalidDesigns() {
+		assertInvalid("platforms:\n  app:\n    links: [db]\n", "Missing pack of platform app");
+		assertInvalid("platforms:\n  app:\n    pack: tomcat\n", "Invalid pack tomcat");
+		assertInvalid("platforms:\n  app:\n    pack: oneops/tomcat:1\n    links: [db]\n", "links to unknown platform db");
+		assertInvalid("platforms:\n  app:\n    pack: oneops/tomcat:1\n    components:\n      a/A:\n        x: {}\n      b/B:\n        x: {}\n",
+				"Duplicate component x");
+	}
+}
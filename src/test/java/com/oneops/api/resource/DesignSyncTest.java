@@ -0,0 +1,37 @@
+package com.oneops.api.resource;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class DesignSyncTest extends TestCase {
+
+	public void testPlainValuesCompareAsText() {
+		assertTrue(DesignSync.sameValue("8080", "8080"));
+		assertTrue(DesignSync.sameValue("", null));
+		assertFalse(DesignSync.sameValue("8080", "8081"));
+		assertFalse(DesignSync.sameValue("true", Boolean.FALSE));
+	}
+
+	public void testHashesIgnoreKeyOrder() {
+		assertTrue(DesignSync.sameValue("{\"z\":\"1\",\"a\":\"2\"}", "{\"a\":\"2\", \"z\":\"1\"}"));
+		Map<String, Object> live = new LinkedHashMap<String, Object>();
+		live.put("a", "2");
+		live.put("z", "1");
+		assertTrue(DesignSync.sameValue("{\"z\":\"1\",\"a\":\"2\"}", live));
+		assertFalse(DesignSync.sameValue("{\"z\":\"1\",\"a\":\"3\"}", live));
+	}
+
+	public void testArraysKeepOrder() {
+		assertTrue(DesignSync.sameValue("[\"a\",\"b\"]", "[ \"a\", \"b\" ]"));
+		assertTrue(DesignSync.sameValue("[\"a\",\"b\"]", Arrays.asList("a", "b")));
+		assertFalse(DesignSync.sameValue("[\"a\",\"b\"]", "[\"b\",\"a\"]"));
+	}
+
+	public void testUnparsableLiveValueDiffers() {
+		assertFalse(DesignSync.sameValue("{\"a\":\"1\"}", "{a: 1"));
+		assertFalse(DesignSync.sameValue("[\"a\"]", "a"));
+	}
+}
@@ -0,0 +1,56 @@
+package com.oneops.api.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+
+public class DesignTest extends TestCase {
+
+	private int status;
+	private Design design;
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				Map<String, String> headers = new HashMap<String, String>();
+				headers.put("Content-Type", "text/yaml");
+				return new ApiResponse(status, "HTTP/1.1 " + status, headers, "platforms: {}\n".getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		design = new Design(instance, "assembly");
+	}
+
+	public void testExtractYamlStreamsBody() throws OneOpsClientAPIException {
+		status = 200;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		design.extractYaml(out);
+		assertEquals("platforms: {}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	public void testExtractYamlFailsOnRedirect() {
+		status = 302;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			design.extractYaml(out);
+			fail("Expected a redirect to fail");
+		} catch (OneOpsClientAPIException e) {
+			assertEquals("Failed to extract yaml content due to HTTP/1.1 302", e.getMessage());
+		}
+		assertEquals(0, out.size());
+	}
+}
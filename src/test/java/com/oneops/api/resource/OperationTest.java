@@ -0,0 +1,59 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+
+public class OperationTest extends TestCase {
+
+	private String sentBody;
+	private Operation operation;
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				String body;
+				if("GET".equals(request.getMethod())) {
+					body = "[{\"ciId\":5,\"ciName\":\"compute-5\"},{\"ciName\":\"compute-new\"},{\"ciId\":3,\"ciName\":\"compute-3\"}]";
+				} else {
+					sentBody = new String(request.getBody(), StandardCharsets.UTF_8);
+					body = "true";
+				}
+				Map<String, String> headers = new HashMap<String, String>();
+				headers.put("Content-Type", "application/json");
+				return new ApiResponse(200, "HTTP/1.1 200", headers, body.getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		operation = new Operation(instance, "assembly", "qa");
+	}
+
+	public void testInstancesWithoutIdAreLeftOut() throws OneOpsClientAPIException {
+		assertEquals("[3, 5]", operation.listInstanceIds("tomcat", "compute").toString());
+		assertTrue(operation.markInstancesForReplacement("tomcat", "compute"));
+		assertEquals("{\"ids\":[3,5],\"state\":\"replace\"}", sentBody);
+	}
+
+	public void testMissingInstanceIdIsRejected() throws OneOpsClientAPIException {
+		try {
+			operation.markInstanceForReplacement("tomcat", "compute", null);
+			fail("OneOpsClientAPIException expected");
+		} catch (OneOpsClientAPIException e) {
+			assertEquals("Missing instance id of component compute in platform tomcat to mark for replacement", e.getMessage());
+		}
+		assertNull(sentBody);
+	}
+}
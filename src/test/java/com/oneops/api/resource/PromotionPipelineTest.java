@@ -0,0 +1,164 @@
+package com.oneops.api.resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.resource.PromotionPipeline.Status;
+
+public class PromotionPipelineTest extends TestCase {
+
+	/**
+	 * Records the order stages ran in and the most stages seen running at once
+	 */
+	private static final class Recorder implements PromotionPipeline.Action {
+		final List<String> promoted = Collections.synchronizedList(new ArrayList<String>());
+		final Set<String> failing = new HashSet<String>();
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		long sleepMillis;
+
+		Recorder failing(String... environmentNames) {
+			failing.addAll(Arrays.asList(environmentNames));
+			return this;
+		}
+
+		@Override
+		public void promote(String environmentName) throws OneOpsClientAPIException {
+			int now = running.incrementAndGet();
+			synchronized (maxRunning) {
+				maxRunning.set(Math.max(maxRunning.get(), now));
+			}
+			try {
+				if(sleepMillis > 0) {
+					Thread.sleep(sleepMillis);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+			promoted.add(environmentName);
+			if(failing.contains(environmentName)) {
+				throw new OneOpsClientAPIException("Deployment of " + environmentName + " failed");
+			}
+		}
+	}
+
+	private static PromotionPipeline pipeline(Recorder recorder) {
+		return new PromotionPipeline(null).setAction(recorder);
+	}
+
+	private static void assertInvalid(PromotionPipeline pipeline, String message) {
+		try {
+			pipeline.run();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+
+	public void testRunsStagesAfterTheirDependencies() {
+		Recorder recorder = new Recorder();
+		PromotionPipeline.Result result = pipeline(recorder)
+				.stage("prod", "qa", "perf")
+				.stage("qa", "dev")
+				.stage("perf", "dev")
+				.stage("dev")
+				.run();
+		assertTrue(result.isSuccess());
+		assertEquals("dev", recorder.promoted.get(0));
+		assertEquals("prod", recorder.promoted.get(3));
+		// statuses keep the order the stages were added in
+		assertEquals(Arrays.asList("prod", "qa", "perf", "dev"), new ArrayList<String>(result.getStatuses().keySet()));
+		assertTrue(result.getDurationMillis("prod") >= 0);
+		assertNull(result.getError("prod"));
+	}
+
+	public void testFailureSkipsDependentsOnly() {
+		Recorder recorder = new Recorder().failing("qa");
+		PromotionPipeline.Result result = pipeline(recorder)
+				.stage("dev")
+				.stage("qa", "dev")
+				.stage("prod", "qa")
+				.stage("dr", "prod")
+				.stage("perf", "dev")
+				.run();
+		assertFalse(result.isSuccess());
+		assertEquals(Status.SUCCEEDED, result.getStatus("dev"));
+		assertEquals(Status.FAILED, result.getStatus("qa"));
+		assertEquals(Status.SKIPPED, result.getStatus("prod"));
+		assertEquals(Status.SKIPPED, result.getStatus("dr"));
+		assertEquals(Status.SUCCEEDED, result.getStatus("perf"));
+		assertEquals("Deployment of qa failed", result.getError("qa").getMessage());
+		assertEquals(-1, result.getDurationMillis("dr"));
+		assertFalse(recorder.promoted.contains("prod"));
+	}
+
+	public void testStageWaitsForAllItsDependencies() {
+		Recorder recorder = new Recorder().failing("east");
+		PromotionPipeline.Result result = pipeline(recorder)
+				.stage("east")
+				.stage("west")
+				.stage("global", "east", "west")
+				.run();
+		assertEquals(Status.SUCCEEDED, result.getStatus("west"));
+		assertEquals(Status.SKIPPED, result.getStatus("global"));
+	}
+
+	public void testRuntimeExceptionFailsTheStage() {
+		PromotionPipeline.Result result = new PromotionPipeline(null).setAction(new PromotionPipeline.Action() {
+			@Override
+			public void promote(String environmentName) {
+				throw new IllegalArgumentException("bad " + environmentName);
+			}
+		}).stage("dev").stage("qa", "dev").run();
+		assertEquals(Status.FAILED, result.getStatus("dev"));
+		assertEquals(Status.SKIPPED, result.getStatus("qa"));
+	}
+
+	public void testConcurrencyCap() {
+		Recorder recorder = new Recorder();
+		recorder.sleepMillis = 50;
+		PromotionPipeline pipeline = pipeline(recorder).setMaxConcurrency(2);
+		for (int i = 0; i < 6; i++) {
+			pipeline.stage("env" + i);
+		}
+		assertTrue(pipeline.run().isSuccess());
+		assertEquals(6, recorder.promoted.size());
+		assertEquals(2, recorder.maxRunning.get());
+	}
+
+	public void testValidation() {
+		assertInvalid(pipeline(new Recorder()), "No stage to run");
+		assertInvalid(pipeline(new Recorder()).stage("qa", "dev"), "Stage qa depends on unknown stage dev");
+		assertInvalid(pipeline(new Recorder()).stage("dev").stage("qa", "dev", "prod").stage("prod", "qa"),
+				"Stage dependencies form a cycle");
+		assertInvalid(pipeline(new Recorder()).stage("dev", "dev"), "Stage dependencies form a cycle");
+		try {
+			pipeline(new Recorder()).stage("dev").stage("dev");
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Duplicate stage dev", e.getMessage());
+		}
+		try {
+			pipeline(new Recorder()).setMaxConcurrency(0);
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testNothingRunsWhenInvalid() {
+		Recorder recorder = new Recorder();
+		assertInvalid(pipeline(recorder).stage("dev").stage("qa", "missing"), "Stage qa depends on unknown stage missing");
+		assertTrue(recorder.promoted.isEmpty());
+	}
+}
@@ -0,0 +1,131 @@
+package com.oneops.api.resource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.resource.model.CiAttributes;
+import com.oneops.api.resource.model.RfcCi;
+
+public class ReleaseDiffTest extends TestCase {
+
+	private static RfcCi rfc(String nsPath, String className, String name, String action, String... attributes) {
+		RfcCi rfc = new RfcCi();
+		rfc.setNsPath(nsPath);
+		rfc.setCiClassName(className);
+		rfc.setCiName(name);
+		rfc.setRfcAction(action);
+		CiAttributes ciAttributes = new CiAttributes();
+		for (int i = 0; i < attributes.length; i += 2) {
+			ciAttributes.setAdditionalProperty(attributes[i], attributes[i + 1]);
+		}
+		rfc.setCiAttributes(ciAttributes);
+		return rfc;
+	}
+
+	private static final String TOMCAT_1 = "/org/app/qa/bom/tomcat/1";
+	private static final String TOMCAT_2 = "/org/app/qa/bom/tomcat/2";
+
+	public void testPlatformFromNsPath() {
+		assertEquals("tomcat", ReleaseDiff.platform(TOMCAT_1));
+		assertEquals("tomcat", ReleaseDiff.platform("/org/app/qa/manifest/tomcat/1"));
+		assertEquals("tomcat", ReleaseDiff.platform("/org/app/_design/tomcat"));
+		assertEquals("", ReleaseDiff.platform("/org/app/qa"));
+		assertEquals("", ReleaseDiff.platform(null));
+		assertEquals("tomcat/1", ReleaseDiff.platformPath(TOMCAT_1));
+		assertEquals("tomcat", ReleaseDiff.platformPath("/org/app/_design/tomcat"));
+		assertEquals("", ReleaseDiff.platformPath("/org/app/qa"));
+	}
+
+	public void testAddsUpdatesAndRemoves() {
+		List<RfcCi> base = Arrays.asList(
+				rfc(TOMCAT_1, "bom.Compute", "compute-1-1", "add", "size", "M"),
+				rfc(TOMCAT_1, "bom.Tomcat", "tomcat-1-1", "add", "port", "8080", "user", "app"),
+				rfc(TOMCAT_1, "bom.Os", "os-1-1", "add", "image", "centos"),
+				rfc(TOMCAT_1, "bom.File", "file-1-1", "add"));
+		List<RfcCi> target = Arrays.asList(
+				rfc(TOMCAT_1, "bom.Compute", "compute-1-1", "add", "size", "M"),
+				rfc(TOMCAT_1, "bom.Tomcat", "tomcat-1-1", "add", "port", "8443", "java", "11"),
+				rfc(TOMCAT_1, "bom.Os", "os-1-1", "update", "image", "centos"),
+				rfc(TOMCAT_1, "bom.Compute", "compute-1-2", "add", "size", "M"));
+		ReleaseDiff diff = ReleaseDiff.compare(base, target);
+
+		assertEquals(1, diff.getUnchanged());
+		assertEquals(1, diff.getTotal().getAdded());
+		assertEquals(2, diff.getTotal().getUpdated());
+		assertEquals(1, diff.getTotal().getRemoved());
+
+		ReleaseDiff.Change tomcat = diff.getChanges(ReleaseDiff.Kind.UPDATED).get(0);
+		assertEquals("tomcat-1-1", tomcat.getCiName());
+		assertEquals("tomcat", tomcat.getPlatform());
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("port", "java", "user")), tomcat.getChangedAttributes());
+		ReleaseDiff.Change os = diff.getChanges(ReleaseDiff.Kind.UPDATED).get(1);
+		assertTrue(os.getChangedAttributes().isEmpty());
+		assertEquals("update", os.getAfter().getRfcAction());
+
+		ReleaseDiff.Change added = diff.getChanges(ReleaseDiff.Kind.ADDED).get(0);
+		assertNull(added.getBefore());
+		assertEquals("compute-1-2", added.getCiName());
+		ReleaseDiff.Change removed = diff.getChanges(ReleaseDiff.Kind.REMOVED).get(0);
+		assertNull(removed.getAfter());
+		assertEquals("file-1-1", removed.getCiName());
+
+		assertEquals(1, diff.getCounts("tomcat").get("bom.Compute").getAdded());
+		assertEquals(1, diff.getCounts("tomcat").get("bom.File").getRemoved());
+		assertTrue(diff.getCounts("db").isEmpty());
+		assertTrue(diff.summarize().endsWith("total +1 ~2 -1"));
+	}
+
+	public void testPlatformVersionsAreKeptApart() {
+		List<RfcCi> base = Arrays.asList(
+				rfc(TOMCAT_1, "bom.Compute", "compute-1-1", "add", "size", "M"),
+				rfc(TOMCAT_2, "bom.Compute", "compute-1-1", "add", "size", "L"));
+		List<RfcCi> target = Arrays.asList(
+				rfc(TOMCAT_1, "bom.Compute", "compute-1-1", "add", "size", "M"),
+				rfc(TOMCAT_2, "bom.Compute", "compute-1-1", "add", "size", "L"));
+		ReleaseDiff diff = ReleaseDiff.compare(base, target);
+		assertTrue(diff.isEmpty());
+		assertEquals(2, diff.getUnchanged());
+
+		diff = ReleaseDiff.compare(base, target.subList(0, 1));
+		assertEquals(1, diff.getTotal().getRemoved());
+		assertEquals(TOMCAT_2, diff.getChanges().get(0).getBefore().getNsPath());
+	}
+
+	public void testDuplicateKeysAreMatchedInOrder() {
+		List<RfcCi> base = Arrays.asList(
+				rfc(TOMCAT_1, "bom.File", "file", "add", "path", "/a"),
+				rfc(TOMCAT_1, "bom.File", "file", "add", "path", "/b"),
+				rfc(TOMCAT_1, "bom.File", "file", "add", "path", "/c"));
+		List<RfcCi> target = Arrays.asList(
+				rfc(TOMCAT_1, "bom.File", "file", "add", "path", "/a"),
+				rfc(TOMCAT_1, "bom.File", "file", "add", "path", "/x"));
+		ReleaseDiff diff = ReleaseDiff.compare(base, target);
+		assertEquals(1, diff.getUnchanged());
+		assertEquals(1, diff.getTotal().getUpdated());
+		assertEquals("/b", diff.getChanges(ReleaseDiff.Kind.UPDATED).get(0).getBefore().getCiAttributes().getAdditionalProperties().get("path"));
+		assertEquals(1, diff.getTotal().getRemoved());
+		assertEquals("/c", diff.getChanges(ReleaseDiff.Kind.REMOVED).get(0).getBefore().getCiAttributes().getAdditionalProperties().get("path"));
+	}
+
+	public void testDifferentNamespacesAreRejected() {
+		List<RfcCi> bom = Arrays.asList(rfc(TOMCAT_1, "bom.Compute", "compute-1-1", "add"));
+		List<RfcCi> manifest = Arrays.asList(rfc("/org/app/qa/manifest/tomcat/1", "manifest.Compute", "compute", "add"));
+		try {
+			ReleaseDiff.compare(bom, manifest);
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("bom") && e.getMessage().contains("manifest"));
+		}
+	}
+
+	public void testNullAndEmptyLists() {
+		assertTrue(ReleaseDiff.compare(null, null).isEmpty());
+		ReleaseDiff diff = ReleaseDiff.compare(Collections.<RfcCi>emptyList(), Arrays.asList(rfc(TOMCAT_1, "bom.Os", "os-1-1", "add"), null));
+		assertEquals(1, diff.getTotal().getAdded());
+		assertEquals("total +1 ~0 -0", diff.summarize().substring(diff.summarize().lastIndexOf('\n') + 1));
+	}
+}
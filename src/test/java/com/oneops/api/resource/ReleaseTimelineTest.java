@@ -0,0 +1,101 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.resource.model.Release;
+
+public class ReleaseTimelineTest extends TestCase {
+
+	private static ReleaseTimeline timeline(String json, ReleaseTimeline.Filter filter) throws Exception {
+		return new ReleaseTimeline(json.getBytes(StandardCharsets.UTF_8), filter);
+	}
+
+	private static List<Long> releaseIds(String json, ReleaseTimeline.Filter filter) throws Exception {
+		List<Long> releaseIds = new ArrayList<Long>();
+		for (ReleaseTimeline timeline = timeline(json, filter); timeline.hasNext();) {
+			releaseIds.add(timeline.next().getReleaseId());
+		}
+		return releaseIds;
+	}
+
+	public void testDeploymentsAndReleasesWithoutNameAreSkipped() throws Exception {
+		String json = "[{\"deploymentId\":10,\"deploymentState\":\"complete\"},"
+				+ "{\"releaseId\":1,\"releaseName\":null,\"releaseState\":\"closed\"},"
+				+ "{\"releaseState\":\"open\",\"releaseId\":2,\"releaseName\":\"r2\"}]";
+		assertEquals(Arrays.asList(2L), releaseIds(json, null));
+	}
+
+	public void testEntriesThatAreNotObjectsAreSkipped() throws Exception {
+		String json = "[7, \"text\", [ {\"releaseId\":9,\"releaseName\":\"nested\"} ], null, {\"releaseId\":3,\"releaseName\":\"r3\"}]";
+		assertEquals(Arrays.asList(3L), releaseIds(json, null));
+	}
+
+	public void testStateMatchIgnoresCaseAndNeedsAString() throws Exception {
+		String json = "[{\"releaseId\":1,\"releaseName\":\"r1\",\"releaseState\":\"CLOSED\"},"
+				+ "{\"releaseId\":2,\"releaseName\":\"r2\",\"releaseState\":null},"
+				+ "{\"releaseId\":3,\"releaseName\":\"r3\",\"releaseState\":\"closed\"}]";
+		assertEquals(Arrays.asList(1L, 3L), releaseIds(json, ReleaseTimeline.Filter.all().releaseState("Closed")));
+	}
+
+	public void testDateRangeIsHalfOpenAndNeedsANumericCreated() throws Exception {
+		String json = "[{\"releaseId\":1,\"releaseName\":\"r1\",\"created\":1000},"
+				+ "{\"releaseId\":2,\"releaseName\":\"r2\",\"created\":2000},"
+				+ "{\"releaseId\":3,\"releaseName\":\"r3\",\"created\":\"1500\"},"
+				+ "{\"releaseId\":4,\"releaseName\":\"r4\"}]";
+		assertEquals(Arrays.asList(1L), releaseIds(json, ReleaseTimeline.Filter.all().createdBetween(1000, 2000)));
+		// without a range every release passes, created or not
+		assertEquals(Arrays.asList(1L, 2L, 3L, 4L), releaseIds(json, ReleaseTimeline.Filter.all()));
+	}
+
+	public void testLimitStopsBeforeReadingTheRest() throws Exception {
+		String truncated = "[{\"releaseId\":1,\"releaseName\":\"r1\"},{\"releaseId\":2,\"releaseName\":\"r2\"},{\"releaseId\":";
+		assertEquals(Arrays.asList(1L, 2L), releaseIds(truncated, ReleaseTimeline.Filter.all().limit(2)));
+		assertTrue(releaseIds(truncated, ReleaseTimeline.Filter.all().limit(0)).isEmpty());
+		try {
+			releaseIds(truncated, null);
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			assertEquals("Failed to read release timeline", e.getMessage());
+		}
+		try {
+			ReleaseTimeline.Filter.all().limit(-1);
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testAcceptedReleaseIsDecodedWhole() throws Exception {
+		ReleaseTimeline timeline = timeline("[{\"releaseId\":2,\"nested\":{\"a\":[1,2]},\"releaseName\":\"r2\",\"created\":2000}]", null);
+		Release release = timeline.next();
+		assertEquals("r2", release.getReleaseName());
+		assertEquals(2000L, release.getCreated().longValue());
+		assertNotNull(release.getAdditionalProperties().get("nested"));
+		assertFalse(timeline.hasNext());
+		try {
+			timeline.next();
+			fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	public void testCloseStopsIteration() throws Exception {
+		ReleaseTimeline timeline = timeline("[{\"releaseId\":1,\"releaseName\":\"r1\"},{\"releaseId\":2,\"releaseName\":\"r2\"}]", null);
+		assertEquals(1L, timeline.next().getReleaseId().longValue());
+		timeline.close();
+		assertFalse(timeline.hasNext());
+		timeline.close();
+	}
+
+	public void testBodyThatIsNotAnArray() throws Exception {
+		assertFalse(timeline("{\"releaseId\":1,\"releaseName\":\"r1\"}", null).hasNext());
+		assertFalse(timeline("[]", null).hasNext());
+	}
+}
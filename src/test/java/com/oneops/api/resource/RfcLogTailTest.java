@@ -0,0 +1,84 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+import com.oneops.api.resource.model.LogDatum;
+
+public class RfcLogTailTest extends TestCase {
+
+	private final List<String> messages = new ArrayList<String>();
+	private final List<String> received = new ArrayList<String>();
+	private RfcLogTail tail;
+
+	private final RfcLogTail.Listener listener = new RfcLogTail.Listener() {
+		@Override
+		public void onLogData(long rfcId, List<LogDatum> entries) {
+			for (LogDatum entry : entries) {
+				received.add(entry.getMessage());
+			}
+		}
+	};
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				StringBuilder body = new StringBuilder("[{\"id\":\"7\",\"logData\":[");
+				for (int i = 0; i < messages.size(); i++) {
+					body.append(i == 0 ? "" : ",").append("{\"level\":\"INFO\",\"message\":\"").append(messages.get(i)).append("\"}");
+				}
+				body.append("]}]");
+				Map<String, String> headers = new HashMap<String, String>();
+				headers.put("Content-Type", "application/json");
+				return new ApiResponse(200, "HTTP/1.1 200", headers, body.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		tail = new Transition(instance, "assembly").tailDeploymentRfcLogs("qa", 1L).add(7);
+	}
+
+	public void testOnlyNewEntriesAreDelivered() throws OneOpsClientAPIException {
+		messages.add("a");
+		messages.add("b");
+		assertEquals(2, tail.poll(listener));
+		assertEquals(0, tail.poll(listener));
+		messages.add("c");
+		assertEquals(1, tail.poll(listener));
+		assertEquals(3, tail.getOffset(7));
+		assertEquals(3, received.size());
+	}
+
+	public void testShorterLogIsReadFromTheStart() throws OneOpsClientAPIException {
+		messages.add("a");
+		messages.add("b");
+		messages.add("c");
+		tail.poll(listener);
+		messages.clear();
+		messages.add("retry");
+		assertEquals(1, tail.poll(listener));
+		assertEquals(1, tail.getOffset(7));
+		assertEquals("retry", received.get(3));
+
+		messages.clear();
+		assertEquals(0, tail.poll(listener));
+		assertEquals(0, tail.getOffset(7));
+		messages.add("again");
+		assertEquals(1, tail.poll(listener));
+		assertEquals("again", received.get(4));
+	}
+}
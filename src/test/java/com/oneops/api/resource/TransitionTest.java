@@ -0,0 +1,99 @@
+package com.oneops.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.exception.OneOpsClientAPIException;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+
+public class TransitionTest extends TestCase {
+
+	private final AtomicInteger polls = new AtomicInteger();
+	private volatile int lockedPolls;
+	private volatile String comments = "";
+	private Transition transition;
+
+	@Override
+	protected void setUp() throws Exception {
+		OOInstance instance = new OOInstance();
+		instance.setEndpoint("http://localhost/");
+		instance.setOrgname("org");
+		instance.setAuthtoken("token");
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) {
+				String body = "{}";
+				if("GET".equals(request.getMethod())) {
+					String state = polls.incrementAndGet() <= lockedPolls ? "locked" : "default";
+					body = "{\"releaseId\":4,\"ciState\":\"" + state + "\",\"comments\":\"" + comments + "\"}";
+				}
+				Map<String, String> headers = new HashMap<String, String>();
+				headers.put("Content-Type", "application/json");
+				return new ApiResponse(200, "HTTP/1.1 200", headers, body.getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		transition = new Transition(instance, "assembly");
+	}
+
+	public void testCommitWaitsUntilThePlanIsGenerated() throws OneOpsClientAPIException {
+		lockedPolls = 1;
+		assertEquals(4L, transition.commitEnvironment("qa", null, null).getReleaseId().longValue());
+		assertEquals(2, polls.get());
+	}
+
+	public void testFailedPlanFailsTheCommit() {
+		comments = "ERROR: no capacity";
+		try {
+			transition.commitEnvironment("qa", null, null);
+			fail("OneOpsClientAPIException expected");
+		} catch (OneOpsClientAPIException e) {
+			assertEquals("Failed to commit environment due to ERROR: no capacity", e.getMessage());
+		}
+	}
+
+	public void testPlanTimeout() {
+		lockedPolls = Integer.MAX_VALUE;
+		DeployOptions options = DeployOptions.defaults().planPolling(10, 20, 100, TimeUnit.MILLISECONDS);
+		try {
+			transition.commitAndDeploy("qa", options);
+			fail("OneOpsClientAPIException expected");
+		} catch (OneOpsClientAPIException e) {
+			assertEquals("Timed out waiting for deployment plan of environment qa", e.getMessage());
+		}
+		assertTrue(polls.get() > 1);
+	}
+
+	public void testInterruptStopsWaitingForThePlan() throws Exception {
+		lockedPolls = Integer.MAX_VALUE;
+		final OneOpsClientAPIException[] failure = new OneOpsClientAPIException[1];
+		final boolean[] interrupted = new boolean[1];
+		Thread deploy = new Thread() {
+			@Override
+			public void run() {
+				try {
+					transition.commitAndDeploy("qa", null);
+				} catch (OneOpsClientAPIException e) {
+					failure[0] = e;
+					interrupted[0] = Thread.currentThread().isInterrupted();
+				}
+			}
+		};
+		deploy.start();
+		while(polls.get() == 0) {
+			Thread.sleep(10);
+		}
+		deploy.interrupt();
+		deploy.join(TimeUnit.SECONDS.toMillis(5));
+		assertFalse(deploy.isAlive());
+		assertEquals("Interrupted waiting for deployment plan of environment qa", failure[0].getMessage());
+		assertTrue(interrupted[0]);
+	}
+}
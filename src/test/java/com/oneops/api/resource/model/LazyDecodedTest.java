@@ -0,0 +1,83 @@
+package com.oneops.api.resource.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.util.JsonUtil;
+
+public class LazyDecodedTest extends TestCase {
+
+	private static final int KEYS = 200;
+
+	private static byte[] attributes() {
+		StringBuilder json = new StringBuilder("{\"location\":\"dc1\"");
+		for (int i = 0; i < KEYS; i++) {
+			json.append(",\"key").append(i).append("\":\"value").append(i).append('"');
+		}
+		return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	public void testDecodesOnFirstAccess() {
+		CiAttributes attributes = new CiAttributes();
+		attributes.deferDecoding(attributes());
+		assertTrue(attributes.isDeferred());
+		assertEquals("dc1", attributes.getLocation());
+		assertFalse(attributes.isDeferred());
+		assertEquals(KEYS, attributes.getAdditionalProperties().size());
+		assertEquals("value7", attributes.getAdditionalProperties().get("key7"));
+	}
+
+	public void testReadsWithoutAdditionalPropertiesDoNotAllocate() throws Exception {
+		CiAttributes attributes = new CiAttributes();
+		attributes.deferDecoding("{\"location\":\"dc1\"}".getBytes(StandardCharsets.UTF_8));
+		assertSame(Collections.emptyMap(), attributes.getAdditionalProperties());
+		assertEquals("{\"location\":\"dc1\"}", JsonUtil.mapper().writeValueAsString(attributes));
+		assertSame(Collections.emptyMap(), attributes.getAdditionalProperties());
+
+		attributes.setAdditionalProperty("size", "2");
+		assertEquals("2", attributes.getAdditionalProperties().get("size"));
+		assertEquals("{\"location\":\"dc1\",\"size\":\"2\"}", JsonUtil.mapper().writeValueAsString(attributes));
+	}
+
+	public void testConcurrentReadersSeeTheWholeObject() throws Exception {
+		final byte[] json = attributes();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int run = 0; run < 500; run++) {
+				final CiAttributes attributes = new CiAttributes();
+				attributes.deferDecoding(json);
+				Callable<Integer> reader = new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						return attributes.getAdditionalProperties().size();
+					}
+				};
+				Future<Integer> first = executor.submit(reader);
+				Future<Integer> second = executor.submit(reader);
+				assertEquals(KEYS, first.get().intValue());
+				assertEquals(KEYS, second.get().intValue());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public void testFailedDecodeKeepsFailing() {
+		CiAttributes attributes = new CiAttributes();
+		attributes.deferDecoding("{\"location\":".getBytes(StandardCharsets.UTF_8));
+		for (int i = 0; i < 2; i++) {
+			try {
+				attributes.getAdditionalProperties();
+				fail("decode error expected");
+			} catch (IllegalStateException e) {
+				assertTrue(attributes.isDeferred());
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.oneops.api.resource.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.oneops.api.util.JsonUtil;
+
+public class RfcIndexTest extends TestCase {
+
+	/**
+	 * Deployment RFCs as listed by the server: unsorted exec orders, an RFC without exec order,
+	 * action or record, and an RFC id listed twice
+	 */
+	private static final String DEPLOYMENT = "{\"rfc_cis\":["
+			+ "{\"rfcId\":11,\"execOrder\":3,\"rfcAction\":\"delete\",\"ciClassName\":\"bom.Tomcat\",\"deployment\":{\"deploymentState\":\"pending\"}},"
+			+ "{\"rfcId\":12,\"execOrder\":1,\"rfcAction\":\"add\",\"ciClassName\":\"bom.Os\",\"deployment\":{\"deploymentState\":\"complete\"}},"
+			+ "{\"rfcId\":13,\"execOrder\":3,\"rfcAction\":\"update\",\"ciClassName\":\"bom.Tomcat\",\"deployment\":{\"deploymentState\":\"failed\"}},"
+			+ "{\"rfcId\":14,\"execOrder\":10,\"rfcAction\":\"add\",\"ciClassName\":\"bom.Fqdn\",\"deployment\":{\"deploymentState\":\"complete\"}},"
+			+ "{\"rfcId\":15,\"ciClassName\":\"bom.Secgroup\"},"
+			+ "{\"rfcId\":13,\"execOrder\":3,\"rfcAction\":\"update\",\"ciClassName\":\"bom.Tomcat\",\"deployment\":{\"deploymentState\":\"complete\"}}"
+			+ "]}";
+
+	private static DeploymentRFC decode(String json) throws Exception {
+		return JsonUtil.mapper().readValue(json, DeploymentRFC.class);
+	}
+
+	public void testExecOrdersAreNumericAndAscending() throws Exception {
+		RfcIndex index = decode(DEPLOYMENT).getIndex();
+		assertEquals(Arrays.asList(1L, 3L, 10L), new ArrayList<Long>(index.getExecOrders()));
+		assertEquals(Arrays.asList(1L, 3L, 10L), new ArrayList<Long>(index.getByExecOrder().keySet()));
+		// groups keep the list order, not the id order
+		List<RfcCi> step = index.getByExecOrder(3);
+		assertEquals(3, step.size());
+		assertEquals(11L, step.get(0).getRfcId().longValue());
+		assertTrue(index.getByExecOrder(2).isEmpty());
+	}
+
+	public void testRfcMissingAKeyIsOnlyLeftOutOfThatGroup() throws Exception {
+		RfcIndex index = decode(DEPLOYMENT).getIndex();
+		RfcCi unordered = index.getByRfcId(15);
+		assertEquals("bom.Secgroup", unordered.getCiClassName());
+		assertEquals(Arrays.asList(unordered), index.getByClassName("bom.Secgroup"));
+		assertTrue(index.getByAction(null).isEmpty());
+		assertTrue(index.getByState(null).isEmpty());
+		for (List<RfcCi> group : index.getByExecOrder().values()) {
+			assertFalse(group.contains(unordered));
+		}
+		assertEquals(6, index.size());
+	}
+
+	public void testDuplicateIdResolvesToLastListed() throws Exception {
+		RfcIndex index = decode(DEPLOYMENT).getIndex();
+		assertEquals("complete", index.getByRfcId(13).getDeployment().getDeploymentState());
+		// both copies are still counted in their state groups
+		assertEquals(1, index.getFailed().size());
+		assertEquals(3, index.getStateCounts().get("complete").intValue());
+		assertNull(index.getStateCounts().get("inprogress"));
+		assertNull(index.getByRfcId(99));
+	}
+
+	public void testIndexIsASnapshotOfTheList() throws Exception {
+		DeploymentRFC deployment = decode(DEPLOYMENT);
+		RfcIndex index = deployment.getIndex();
+		index.getByRfcId(11).getDeployment().setDeploymentState("complete");
+		assertEquals(1, index.getByState("pending").size());
+
+		deployment.setRfcCis(deployment.getRfcCis());
+		assertTrue(deployment.getIndex().getByState("pending").isEmpty());
+		assertNotSame(index, deployment.getIndex());
+	}
+
+	public void testGroupsAreUnmodifiable() throws Exception {
+		RfcIndex index = decode(DEPLOYMENT).getIndex();
+		try {
+			index.getByAction("add").clear();
+			fail("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			index.getByExecOrder().remove(1L);
+			fail("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	public void testNoRfcs() throws Exception {
+		assertEquals(0, new DeploymentRFC().getIndex().size());
+		DeploymentRFC deployment = decode("{\"rfc_cis\":[]}");
+		assertTrue(deployment.getIndex().getExecOrders().isEmpty());
+		deployment.setRfcCis(null);
+		assertTrue(deployment.getIndex().getFailed().isEmpty());
+		assertTrue(deployment.getIndex().getStateCounts().isEmpty());
+	}
+}
@@ -0,0 +1,195 @@
+package com.oneops.api.resource.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import junit.framework.TestCase;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oneops.api.util.JsonUtil;
+
+public class ShapedAttributeMapTest extends TestCase {
+
+	private static ShapedAttributeMap map(String... keysAndValues) {
+		ShapedAttributeMap map = new ShapedAttributeMap(AttributeShape.newTree());
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return map;
+	}
+
+	public void testKeepsInsertionOrder() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos", "ports", "80");
+		assertEquals(Arrays.asList("size", "image", "ports"), Arrays.asList(map.keySet().toArray()));
+		assertEquals(Arrays.asList("M", "centos", "80"), Arrays.asList(map.values().toArray()));
+		assertEquals(3, map.size());
+		assertEquals("centos", map.get("image"));
+		assertTrue(map.containsKey("ports"));
+		assertFalse(map.containsKey("missing"));
+		assertNull(map.get("missing"));
+	}
+
+	public void testPutReplacesValue() {
+		ShapedAttributeMap map = map("size", "M");
+		assertEquals("M", map.put("size", "L"));
+		assertEquals("L", map.get("size"));
+		assertEquals(1, map.size());
+	}
+
+	public void testMapsWithTheSameKeysAreIndependent() {
+		ShapedAttributeMap first = map("size", "M", "image", "centos");
+		ShapedAttributeMap second = map("size", "L", "image", "ubuntu");
+		first.put("image", "rhel");
+		assertEquals("ubuntu", second.get("image"));
+		assertEquals("rhel", first.get("image"));
+	}
+
+	public void testEqualsPlainMap() {
+		Map<String, Object> expected = new LinkedHashMap<String, Object>();
+		expected.put("size", "M");
+		expected.put("image", "centos");
+		assertEquals(expected, map("size", "M", "image", "centos"));
+		assertEquals(expected.hashCode(), map("size", "M", "image", "centos").hashCode());
+	}
+
+	public void testRemove() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos", "ports", "80");
+		assertNull(map.remove("missing"));
+		assertEquals("centos", map.remove("image"));
+		assertEquals(Arrays.asList("size", "ports"), Arrays.asList(map.keySet().toArray()));
+		map.put("image", "rhel");
+		assertEquals(Arrays.asList("size", "ports", "image"), Arrays.asList(map.keySet().toArray()));
+	}
+
+	public void testIteratorRemove() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos", "ports", "80");
+		Iterator<Entry<String, Object>> entries = map.entrySet().iterator();
+		assertEquals("size", entries.next().getKey());
+		assertEquals("image", entries.next().getKey());
+		entries.remove();
+		assertEquals("ports", entries.next().getKey());
+		assertFalse(entries.hasNext());
+		assertEquals(Arrays.asList("size", "ports"), Arrays.asList(map.keySet().toArray()));
+	}
+
+	public void testIteratorRemoveNeedsNext() {
+		Iterator<Entry<String, Object>> entries = map("size", "M").entrySet().iterator();
+		try {
+			entries.remove();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		entries.next();
+		entries.remove();
+		try {
+			entries.remove();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testViewsRemove() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos", "ports", "80");
+		assertTrue(map.keySet().removeAll(Collections.singleton("size")));
+		assertEquals(Arrays.asList("image", "ports"), Arrays.asList(map.keySet().toArray()));
+
+		map = map("size", "M", "image", "centos", "ports", "80");
+		assertTrue(map.values().retainAll(Collections.singleton("80")));
+		assertEquals(Collections.singletonMap("ports", "80"), map);
+	}
+
+	public void testEntrySetValue() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos");
+		for (Entry<String, Object> entry : map.entrySet()) {
+			entry.setValue(entry.getValue() + "!");
+		}
+		assertEquals("M!", map.get("size"));
+		assertEquals("centos!", map.get("image"));
+	}
+
+	public void testClear() {
+		ShapedAttributeMap map = map("size", "M", "image", "centos");
+		map.remove("size");
+		map.clear();
+		assertTrue(map.isEmpty());
+		map.put("image", "rhel");
+		assertEquals(Collections.singletonMap("image", "rhel"), map);
+	}
+
+	public void testLargeMapFallsBack() {
+		ShapedAttributeMap map = new ShapedAttributeMap(AttributeShape.newTree());
+		for (int i = 0; i <= AttributeShape.MAX_KEYS + 10; i++) {
+			map.put("key" + i, i);
+		}
+		assertEquals(AttributeShape.MAX_KEYS + 11, map.size());
+		assertEquals(0, map.get("key0"));
+		assertEquals(AttributeShape.MAX_KEYS + 10, map.get("key" + (AttributeShape.MAX_KEYS + 10)));
+		assertEquals("key0", map.keySet().iterator().next());
+	}
+
+	public void testShapesOnlyKeepTheirLastKey() {
+		AttributeShape root = AttributeShape.newTree();
+		AttributeShape size = root.with("size");
+		AttributeShape image = size.with("image");
+		AttributeShape ports = size.with("ports");
+		assertSame(size, image.root().with("size"));
+		assertSame(image, image.with("size"));
+		assertEquals("size", ports.keyAt(0));
+		assertEquals("ports", ports.keyAt(1));
+		assertEquals(1, image.indexOf("image"));
+		assertEquals(-1, image.indexOf("ports"));
+		assertEquals(2, size.expectedSize());
+	}
+
+	public void testTreesAreNotShared() {
+		AttributeShape first = AttributeShape.newTree();
+		AttributeShape second = AttributeShape.newTree();
+		assertNotSame(first.with("size"), second.with("size"));
+		assertSame(first, first.with("size").root());
+	}
+
+	public void testTreeSizeIsBounded() {
+		AttributeShape root = AttributeShape.newTree();
+		int created = 0;
+		boolean full = false;
+		for (int first = 0; !full; first++) {
+			AttributeShape shape = root;
+			for (int i = 0; i < 100 && !full; i++) {
+				shape = shape.with(first + "." + i);
+				if(shape == null) {
+					full = true;
+				} else {
+					created++;
+				}
+			}
+		}
+		assertEquals(AttributeShape.MAX_SHAPES - 1, created);
+
+		ShapedAttributeMap map = new ShapedAttributeMap(root);
+		map.put("0.0", "a");
+		map.put("other", "b");
+		assertEquals(Arrays.asList("0.0", "other"), Arrays.asList(map.keySet().toArray()));
+		assertEquals("b", map.get("other"));
+	}
+
+	public void testDecodeSharesOneTree() throws Exception {
+		String json = "[{\"ciId\":1,\"ciAttributes\":{\"size\":\"M\",\"image\":\"centos\"}},"
+				+ "{\"ciId\":2,\"ciAttributes\":{\"size\":\"L\",\"image\":\"rhel\"}}]";
+		List<CiResource> cis = JsonUtil.mapper().readValue(json, new TypeReference<List<CiResource>>(){});
+		Map<String, Object> first = cis.get(0).getCiAttributes().getAdditionalProperties();
+		assertTrue(first instanceof ShapedAttributeMap);
+		assertEquals("rhel", cis.get(1).getCiAttributes().getAdditionalProperties().get("image"));
+		assertEquals(Arrays.asList("size", "image"), Arrays.asList(first.keySet().toArray()));
+
+		CiAttributes byHand = new CiAttributes();
+		byHand.setAdditionalProperty("size", "S");
+		assertTrue(byHand.getAdditionalProperties() instanceof LinkedHashMap);
+	}
+}
@@ -0,0 +1,39 @@
+package com.oneops.api.traffic;
+
+import junit.framework.TestCase;
+
+public class TrafficRecorderTest extends TestCase {
+
+	public void testJsonBody() {
+		String sanitized = TrafficRecorder.sanitize("{\"ciAttributes\":{\"encrypted_value\":\"hunter2\",\"value\":\"x\"}}");
+		assertFalse(sanitized.contains("hunter2"));
+		assertTrue(sanitized.contains(TrafficRecorder.REDACTED));
+		assertTrue(sanitized.contains("\"value\":\"x\""));
+	}
+
+	public void testFormBody() {
+		String sanitized = TrafficRecorder.sanitize("cms_dj_ci[ciName]=db&cms_dj_ci[ciAttributes][encrypted_value]=hunter2&other=1");
+		assertFalse(sanitized.contains("hunter2"));
+		assertTrue(sanitized.contains("cms_dj_ci[ciName]=db&"));
+		assertTrue(sanitized.endsWith("&other=1"));
+	}
+
+	public void testUrlEncodedFormBody() {
+		String sanitized = TrafficRecorder.sanitize("cms_dj_ci%5BciAttributes%5D%5Bencrypted_value%5D=hunter2&other=1");
+		assertFalse(sanitized.contains("hunter2"));
+		assertTrue(sanitized.endsWith("&other=1"));
+		sanitized = TrafficRecorder.sanitize("cms_dj_ci%5bciAttributes%5d%5bencrypted_value%5d=hunter2");
+		assertFalse(sanitized.contains("hunter2"));
+	}
+
+	public void testYamlBody() {
+		String sanitized = TrafficRecorder.sanitize("variables:\n  secret:\n    encrypted_value: hunter2\n");
+		assertFalse(sanitized.contains("hunter2"));
+	}
+
+	public void testBodyWithoutSecrets() {
+		String body = "cms_dj_ci[ciName]=db";
+		assertSame(body, TrafficRecorder.sanitize(body));
+		assertNull(TrafficRecorder.sanitize(null));
+	}
+}
@@ -0,0 +1,60 @@
+package com.oneops.api.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oneops.api.resource.model.CiResource;
+
+/**
+ * Retained heap and lookup time of the ciAttributes of a 50k instance listing, kept in the 
+ * shape sharing maps CiAttributes decodes into or copied into one HashMap per CI. Run each mode 
+ * in a fresh JVM with a serial collector, e.g.
+ * 
+ * <pre>
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.AttributeStoreBenchmark shaped
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.AttributeStoreBenchmark hashmap
+ * </pre>
+ */
+public class AttributeStoreBenchmark {
+
+	private static final String[] KEYS = { "size", "private_ip", "availability_zone", "cores", "missing" };
+
+	public static void main(String[] args) throws Exception {
+		boolean shaped = args.length == 0 || "shaped".equals(args[0]);
+		decode(shaped);
+		
+		long before = ListingDecodeBenchmark.usedHeap();
+		List<Map<String, Object>> attributes = decode(shaped);
+		long retained = ListingDecodeBenchmark.usedHeap() - before;
+		
+		int sink = 0;
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < 50; round++) {
+			long start = System.nanoTime();
+			for (Map<String, Object> map : attributes) {
+				for (String key : KEYS) {
+					if(map.get(key) != null) {
+						sink++;
+					}
+				}
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.println(String.format("store=%-7s maps=%d retained=%.1f MB (%d bytes/map) lookup=%.1f ns (%d)", 
+				shaped ? "shaped" : "hashmap", attributes.size(), retained / 1048576.0, retained / attributes.size(), 
+				(double) best / (attributes.size() * KEYS.length), sink));
+	}
+	
+	private static List<Map<String, Object>> decode(boolean shaped) throws Exception {
+		List<CiResource> instances = JsonUtil.mapper().readValue(ListingDecodeBenchmark.payload(50000), new TypeReference<List<CiResource>>(){});
+		List<Map<String, Object>> attributes = new ArrayList<Map<String, Object>>(instances.size());
+		for (CiResource instance : instances) {
+			Map<String, Object> map = instance.getCiAttributes().getAdditionalProperties();
+			attributes.add(shaped ? map : new HashMap<String, Object>(map));
+		}
+		return attributes;
+	}
+}
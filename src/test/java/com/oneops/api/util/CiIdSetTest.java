@@ -0,0 +1,84 @@
+package com.oneops.api.util;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class CiIdSetTest extends TestCase {
+
+	public void testUnsortedInputWithDuplicatesReadsSorted() {
+		CiIdSet set = CiIdSet.of(30, 10, 20, 10, 30, 20);
+		assertEquals(3, set.size());
+		assertTrue(Arrays.equals(new long[] {10, 20, 30}, set.toArray()));
+		assertEquals("[10, 20, 30]", set.toString());
+	}
+
+	public void testRepeatedIdIsNotMistakenForSorted() {
+		// an id equal to the last one added must still be collapsed on read
+		CiIdSet set = new CiIdSet().add(1).add(1).add(1);
+		assertEquals(1, set.size());
+		assertEquals(1, set.get(0));
+	}
+
+	public void testNegativeAndLargeIds() {
+		CiIdSet set = CiIdSet.of(Long.MAX_VALUE, -1, 0, Long.MIN_VALUE, 3_000_000_000L);
+		assertTrue(Arrays.equals(new long[] {Long.MIN_VALUE, -1, 0, 3_000_000_000L, Long.MAX_VALUE}, set.toArray()));
+		assertTrue(set.contains(3_000_000_000L));
+		assertFalse(set.contains(3_000_000_001L));
+		assertEquals("[" + Long.MIN_VALUE + ",-1,0,3000000000," + Long.MAX_VALUE + "]", set.appendJson(new StringBuilder()).toString());
+	}
+
+	public void testCollectionSkipsNullsAndMixesNumberTypes() {
+		CiIdSet set = CiIdSet.of(Arrays.<Number>asList(null, 2L, Integer.valueOf(1), null, 2L));
+		assertTrue(Arrays.equals(new long[] {1, 2}, set.toArray()));
+		assertTrue(CiIdSet.of(Arrays.<Long>asList((Long) null)).isEmpty());
+	}
+
+	public void testAddingAfterAReadKeepsTheSetSorted() {
+		CiIdSet set = CiIdSet.of(5, 1);
+		assertEquals(1, set.get(0));
+		set.add(3).add(5).add(0);
+		assertEquals("[0, 1, 3, 5]", set.toString());
+		assertEquals(4, set.size());
+	}
+
+	public void testGrowsFromTheSmallestCapacity() {
+		CiIdSet set = new CiIdSet(0);
+		for (long id = 1000; id > 0; id--) {
+			set.add(id % 500);
+		}
+		assertEquals(500, set.size());
+		assertEquals(0, set.get(0));
+		assertEquals(499, set.get(499));
+	}
+
+	public void testToArrayIsACopy() {
+		CiIdSet set = CiIdSet.of(1, 2);
+		set.toArray()[0] = 9;
+		assertFalse(set.contains(9));
+	}
+
+	public void testGetOutOfBounds() {
+		CiIdSet set = CiIdSet.of(4, 4);
+		try {
+			set.get(1);
+			fail("IndexOutOfBoundsException expected");
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("Index 1, size 1", e.getMessage());
+		}
+	}
+
+	public void testEmpty() {
+		CiIdSet set = new CiIdSet();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+		assertEquals("[]", set.toString());
+		assertEquals("[]", set.appendJson(new StringBuilder()).toString());
+	}
+
+	public void testEqualityIgnoresInsertionOrderAndDuplicates() {
+		assertEquals(CiIdSet.of(1, 2, 2), CiIdSet.of(2, 1));
+		assertEquals(CiIdSet.of(1, 2).hashCode(), CiIdSet.of(2, 1, 1).hashCode());
+		assertFalse(CiIdSet.of(1).equals(CiIdSet.of(1, 2)));
+	}
+}
@@ -0,0 +1,105 @@
+package com.oneops.api.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.http.ApiResponse;
+import com.oneops.api.http.HttpTransport;
+import com.oneops.api.http.TransportRequest;
+import com.oneops.api.resource.Operation;
+
+/**
+ * Decode time and retained heap of a 50k instance listing for the decode options of OOInstance,
+ * served from memory so only the client side decode is measured. Run each mode in a fresh JVM 
+ * with a serial collector so heap usage after System.gc() is exact, e.g.
+ * 
+ * <pre>
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.ListingDecodeBenchmark
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.ListingDecodeBenchmark dedup
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.ListingDecodeBenchmark lazy
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.ListingDecodeBenchmark dedup,lazy
+ * java -XX:+UseSerialGC -Xmx1g -cp ... com.oneops.api.util.ListingDecodeBenchmark summary
+ * </pre>
+ */
+public class ListingDecodeBenchmark {
+	
+	private static final int INSTANCES = 50000;
+
+	public static void main(String[] args) throws Exception {
+		String mode = args.length > 0 ? args[0] : "default";
+		final byte[] warmup = payload(100).getBytes(StandardCharsets.UTF_8);
+		final byte[] listing = payload(INSTANCES).getBytes(StandardCharsets.UTF_8);
+		
+		OOInstance instance = new OOInstance();
+		instance.setAuthtoken("myToken");
+		instance.setOrgname("org");
+		instance.setEndpoint("http://localhost/");
+		instance.setStringDeduplication(mode.contains("dedup"));
+		instance.setLazyAttributes(mode.contains("lazy"));
+		instance.setTransport(new HttpTransport() {
+			@Override
+			public ApiResponse execute(TransportRequest request) throws IOException {
+				byte[] body = request.getPath().contains("/warmup/") ? warmup : listing;
+				return new ApiResponse(200, "HTTP/1.1 200 OK", Collections.singletonMap("Content-Type", "application/json"), body);
+			}
+		});
+		Operation operation = new Operation(instance, "a1", "prod");
+		for (int i = 0; i < 20; i++) {
+			list(operation, "warmup", mode);
+		}
+		measure(operation, mode);
+	}
+	
+	private static void measure(Operation operation, String mode) throws Exception {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long start = System.nanoTime();
+			list(operation, "compute", mode);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		long before = usedHeap();
+		List<?> instances = list(operation, "compute", mode);
+		long retained = usedHeap() - before;
+		System.out.println(String.format("mode=%-13s instances=%d decode=%d ms retained=%.1f MB (%d bytes/instance)", 
+				mode, instances.size(), best / 1000000, retained / 1048576.0, retained / instances.size()));
+	}
+	
+	private static List<?> list(Operation operation, String component, String mode) throws Exception {
+		if(mode.contains("summary")) {
+			return operation.listInstanceSummaries("tomcat", component);
+		}
+		return operation.listInstances("tomcat", component);
+	}
+	
+	static String payload(int count) {
+		StringBuilder sb = new StringBuilder(count * 700).append('[');
+		for (int i = 0; i < count; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			int cloud = i % 4;
+			sb.append("{\"ciId\":").append(1000000 + i)
+				.append(",\"ciName\":\"compute-").append(1000000 + i).append("-1\"")
+				.append(",\"ciClassName\":\"bom.oneops.1.Compute\",\"impl\":\"oo::chef-12.11.18\"")
+				.append(",\"nsPath\":\"/org/a1/prod/bom/tomcat/1\",\"ciGoid\":\"").append(900 + i).append("-1-").append(i).append('"')
+				.append(",\"comments\":\"\",\"ciState\":\"default\",\"lastAppliedRfcId\":").append(5000000 + i)
+				.append(",\"createdBy\":\"oneops-system\",\"updatedBy\":null,\"created\":1480000000000,\"updated\":1480000000000,\"nsId\":3000")
+				.append(",\"ciAttributes\":{\"size\":\"M\",\"ostype\":\"centos-7.2\",\"require_public_ip\":\"false\",\"availability_zone\":\"zone-").append(cloud).append('"')
+				.append(",\"instance_name\":\"compute-").append(i).append("\",\"private_ip\":\"10.0.").append(i / 250).append('.').append(i % 250).append('"')
+				.append(",\"dns_record\":\"10.0.").append(i / 250).append('.').append(i % 250).append("\",\"cores\":\"4\",\"ram\":\"8192\",\"server_image_name\":\"centos-7.2-x86_64\"}}");
+		}
+		return sb.append(']').toString();
+	}
+	
+	static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,63 @@
+package com.oneops.api.util;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.CiSummary;
+
+/**
+ * Decode and encode time of a 5k instance listing, and decode time of its summaries, with the generated model codecs (JsonUtil.mapper()) 
+ * and with Jackson's reflection based bean (de)serializers, best of 50 rounds after warm-up. With an 
+ * argument only the first decode of a one instance listing with the given mapper is timed, which is where skipping bean introspection 
+ * shows, run it in a fresh JVM per mapper, e.g.
+ * 
+ * <pre>
+ * java -cp ... com.oneops.api.util.ModelCodecBenchmark
+ * java -cp ... com.oneops.api.util.ModelCodecBenchmark reflective
+ * java -cp ... com.oneops.api.util.ModelCodecBenchmark generated
+ * </pre>
+ */
+public class ModelCodecBenchmark {
+	
+	private static final TypeReference<List<CiResource>> LISTING = new TypeReference<List<CiResource>>(){};
+	private static final TypeReference<List<CiSummary>> SUMMARIES = new TypeReference<List<CiSummary>>(){};
+
+	public static void main(String[] args) throws Exception {
+		byte[] listing = ListingDecodeBenchmark.payload(5000).getBytes("UTF-8");
+		ObjectMapper reflective = new ObjectMapper().registerModule(new StringPoolModule());
+		ObjectMapper generated = JsonUtil.mapper();
+		if(args.length > 0) {
+			ObjectMapper mapper = "reflective".equals(args[0]) ? reflective : generated;
+			long start = System.nanoTime();
+			mapper.readValue(ListingDecodeBenchmark.payload(1).getBytes("UTF-8"), LISTING);
+			System.out.println(String.format("%-10s first decode=%.1f ms", args[0], (System.nanoTime() - start) / 1e6));
+			return;
+		}
+		for (int i = 0; i < 3; i++) {
+			run("reflective", reflective, listing);
+			run("generated", generated, listing);
+		}
+	}
+	
+	private static void run(String name, ObjectMapper mapper, byte[] listing) throws Exception {
+		long decode = Long.MAX_VALUE;
+		long encode = Long.MAX_VALUE;
+		long summaries = Long.MAX_VALUE;
+		List<CiResource> instances = null;
+		for (int i = 0; i < 50; i++) {
+			long start = System.nanoTime();
+			instances = mapper.readValue(listing, LISTING);
+			decode = Math.min(decode, System.nanoTime() - start);
+			start = System.nanoTime();
+			mapper.writeValueAsBytes(instances);
+			encode = Math.min(encode, System.nanoTime() - start);
+			start = System.nanoTime();
+			mapper.readValue(listing, SUMMARIES);
+			summaries = Math.min(summaries, System.nanoTime() - start);
+		}
+		System.out.println(String.format("%-10s decode=%.2f ms encode=%.2f ms summaries=%.2f ms (%d instances)", 
+				name, decode / 1e6, encode / 1e6, summaries / 1e6, instances.size()));
+	}
+}
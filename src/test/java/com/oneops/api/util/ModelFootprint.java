@@ -0,0 +1,62 @@
+package com.oneops.api.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+
+import com.oneops.api.resource.model.Action;
+import com.oneops.api.resource.model.AttrProps;
+import com.oneops.api.resource.model.CiAttributes;
+import com.oneops.api.resource.model.CiResource;
+import com.oneops.api.resource.model.Deployment;
+import com.oneops.api.resource.model.DeploymentRFC;
+import com.oneops.api.resource.model.Log;
+import com.oneops.api.resource.model.LogDatum;
+import com.oneops.api.resource.model.Procedure;
+import com.oneops.api.resource.model.Release;
+import com.oneops.api.resource.model.RfcCi;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Prints the bytes allocated per empty model object next to the cost of the empty 
+ * HashMap each of them used to allocate for additionalProperties.
+ * Relies on the HotSpot per thread allocation counter.
+ */
+public class ModelFootprint {
+	
+	private static final int COUNT = 200000;
+
+	public static void main(String[] args) throws Exception {
+		System.out.println(String.format("%-14s %6s", "HashMap", bytesPerObject(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return new HashMap<String, Object>();
+			}
+		})));
+		Class<?>[] models = {CiResource.class, CiAttributes.class, AttrProps.class, RfcCi.class, Deployment.class, 
+				DeploymentRFC.class, Release.class, Procedure.class, Action.class, Log.class, LogDatum.class};
+		for (final Class<?> model : models) {
+			System.out.println(String.format("%-14s %6s", model.getSimpleName(), bytesPerObject(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return model.getDeclaredConstructor().newInstance();
+				}
+			})));
+		}
+	}
+	
+	private static long bytesPerObject(Callable<Object> factory) throws Exception {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		Object[] holder = new Object[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			holder[i] = factory.call();
+		}
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < COUNT; i++) {
+			holder[i] = factory.call();
+		}
+		long after = threads.getThreadAllocatedBytes(thread);
+		return Math.round((after - before) / (double) COUNT);
+	}
+}
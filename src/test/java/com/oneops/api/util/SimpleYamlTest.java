@@ -0,0 +1,82 @@
+package com.oneops.api.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class SimpleYamlTest extends TestCase {
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object value) {
+		return (Map<String, Object>) value;
+	}
+
+	private static void assertInvalid(String yaml, String message) {
+		try {
+			SimpleYaml.parse(yaml);
+			fail("Expected an error for " + yaml);
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	public void testEmptyDocument() {
+		assertNull(SimpleYaml.parse(""));
+		assertNull(SimpleYaml.parse("---\n# only a comment\n"));
+	}
+
+	public void testNestedMappingsKeepFileOrder() {
+		Map<String, Object> root = map(SimpleYaml.parse("b:\n  y: 1\n  x: 2\na: ~\n"));
+		assertEquals(Arrays.asList("b", "a"), Arrays.asList(root.keySet().toArray()));
+		assertEquals(Arrays.asList("y", "x"), Arrays.asList(map(root.get("b")).keySet().toArray()));
+		assertEquals("1", map(root.get("b")).get("y"));
+		assertTrue(root.containsKey("a"));
+		assertNull(root.get("a"));
+	}
+
+	public void testSequences() {
+		Map<String, Object> root = map(SimpleYaml.parse("list:\n- a\n- name: b\n  size: 2\nflow: [x, 'y, z', ~]\nempty: []\n"));
+		List<?> list = (List<?>) root.get("list");
+		assertEquals("a", list.get(0));
+		assertEquals("2", map(list.get(1)).get("size"));
+		assertEquals(Arrays.asList("x", "y, z", null), root.get("flow"));
+		assertTrue(((List<?>) root.get("empty")).isEmpty());
+	}
+
+	public void testQuotedScalarsAndComments() {
+		Map<String, Object> root = map(SimpleYaml.parse("a: 'it''s' # comment\nb: \"tab\\there\"\nc: x#y\n"));
+		assertEquals("it's", root.get("a"));
+		assertEquals("tab\there", root.get("b"));
+		assertEquals("x#y", root.get("c"));
+	}
+
+	public void testBlockScalars() {
+		Map<String, Object> root = map(SimpleYaml.parse("literal: |\n  one\n  \ttwo\nfolded: >-\n  one\n  two\nnext: 1\n"));
+		assertEquals("one\n\ttwo\n", root.get("literal"));
+		assertEquals("one two", root.get("folded"));
+		assertEquals("1", root.get("next"));
+	}
+
+	public void testEmptyFlowMapping() {
+		assertTrue(map(map(SimpleYaml.parse("a: {}\n")).get("a")).isEmpty());
+	}
+
+	public void testRejectsFlowMappings() {
+		assertInvalid("a: {b: 1}\n", "flow mappings are not supported");
+		assertInvalid("a:\n- {b: 1}\n", "flow mappings are not supported");
+	}
+
+	public void testRejectsTabIndentation() {
+		assertInvalid("a:\n\tb: 1\n", "tabs are not allowed");
+		assertInvalid("a:\n  \tb: 1\n", "tabs are not allowed");
+		assertInvalid("list:\n\t- a\n", "tabs are not allowed");
+	}
+
+	public void testRejectsUnsupportedSyntax() {
+		assertInvalid("a: &anchor 1\n", "anchors, aliases and tags");
+		assertInvalid("a: 'open\n", "unterminated quoted scalar");
+		assertInvalid("a: 1\n  b: 2\n", "unexpected indentation");
+	}
+}
@@ -0,0 +1,65 @@
+package com.oneops.api.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.oneops.api.OOInstance;
+import com.oneops.api.http.RestAssuredTransport;
+import com.oneops.api.resource.Transition;
+import com.oneops.api.resource.model.CiResource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures the cold start of the client: time from JVM start until the first 
+ * response is decoded and the number of classes loaded by then.
+ * Run once per transport in a fresh JVM, e.g.
+ * 
+ * <pre>
+ * java -cp ... com.oneops.api.util.StartupBenchmark jdk
+ * java -cp ... com.oneops.api.util.StartupBenchmark restassured
+ * </pre>
+ */
+public class StartupBenchmark {
+	
+	private static final byte[] ENVIRONMENT = "{\"ciId\":5,\"ciName\":\"qa\",\"ciClassName\":\"manifest.Environment\",\"ciState\":\"default\",\"ciAttributes\":{\"availability\":\"single\"}}".getBytes(StandardCharsets.UTF_8);
+
+	public static void main(String[] args) throws Exception {
+		String transport = args.length > 0 ? args[0] : "jdk";
+		
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, ENVIRONMENT.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(ENVIRONMENT);
+				}
+			}
+		});
+		server.start();
+		
+		OOInstance instance = new OOInstance();
+		instance.setAuthtoken("myToken");
+		instance.setOrgname("org");
+		instance.setEndpoint("http://localhost:" + server.getAddress().getPort() + "/");
+		if("restassured".equals(transport)) {
+			instance.setTransport(new RestAssuredTransport());
+		}
+		
+		long start = System.nanoTime();
+		CiResource env = new Transition(instance, "a1").getEnvironment("qa");
+		long firstCall = (System.nanoTime() - start) / 1000000;
+		long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+		int classes = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+		server.stop(0);
+		
+		System.out.println(String.format("transport=%s env=%s firstCallMs=%d uptimeMs=%d loadedClasses=%d", 
+				transport, env.getCiName(), firstCall, sinceJvmStart, classes));
+	}
+}